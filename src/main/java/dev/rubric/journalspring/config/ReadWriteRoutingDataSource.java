@@ -0,0 +1,263 @@
+package dev.rubric.journalspring.config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the
+ * primary. Replicas are checked on a fixed interval, one that cannot be
+ * reached or lags more than the allowed maximum is skipped until it catches
+ * up, and reads fall back to the primary when no replica is left. After a
+ * request's write commits, the response sets a cookie with the commit time,
+ * and requests carrying it read from the primary for a short window so the
+ * client sees what it just wrote, whichever instance serves it. Threads
+ * without a request, such as background jobs, are not kept on the primary.
+ * <p>
+ * The route is chosen when a connection is fetched, and a transaction is only
+ * known to be read-only after it began, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+    static final String LAST_WRITE_COOKIE = "last_write";
+    private static final String LAST_WRITE_ATTRIBUTE = ReadWriteRoutingDataSource.class.getName() + ".lastWrite";
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMillis;
+    private final long readYourWritesMillis;
+    private final String lagQuery;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ScheduledExecutorService monitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param primary              Receives writes and the reads no replica can serve
+     * @param replicas             Serve read-only transactions
+     * @param maxLag               The replication lag beyond which a replica is skipped
+     * @param readYourWritesWindow How long a client's reads stay on the primary after it wrote
+     * @param lagQuery             Returns a replica's lag in seconds, blank to only check it is reachable
+     * @param checkInterval        How often replicas are checked
+     */
+    public ReadWriteRoutingDataSource(DataSource primary,
+                                      List<? extends DataSource> replicas,
+                                      Duration maxLag,
+                                      Duration readYourWritesWindow,
+                                      String lagQuery,
+                                      Duration checkInterval) {
+        this.primary = primary;
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica("replica-" + (i + 1), replicas.get(i)));
+        }
+        this.maxLagMillis = maxLag.toMillis();
+        this.readYourWritesMillis = readYourWritesWindow.toMillis();
+        this.lagQuery = lagQuery != null ? lagQuery.trim() : "";
+
+        // Replicas start out unchecked, so the first reads must not wait for the monitor
+        checkReplicas();
+        long interval = checkInterval.toMillis();
+        monitor.scheduleWithFixedDelay(this::checkReplicas, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = route();
+        if (replica == null) {
+            return primary.getConnection();
+        }
+
+        try {
+            return replica.dataSource.getConnection();
+        } catch (SQLException e) {
+            // The monitor picks the replica up again once it answers
+            logger.warn("Replica {} is unavailable, reading from the primary: {}", replica.name, e.getMessage());
+            replica.available = false;
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Replica replica = route();
+        return (replica != null ? replica.dataSource : primary).getConnection(username, password);
+    }
+
+    /**
+     * Picks the replica for the current transaction, null for the primary
+     */
+    private Replica route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWriteOnCommit();
+            return null;
+        }
+
+        if (wroteRecently()) {
+            return null;
+        }
+
+        // Round robin over the replicas that passed their last check
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+            if (replica.available) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private void recordWriteOnCommit() {
+        ServletRequestAttributes attributes = currentRequest();
+        if (attributes == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        // Any read-write transaction counts, it may have written
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                long now = System.currentTimeMillis();
+                HttpServletRequest request = attributes.getRequest();
+                boolean cookieSet = request.getAttribute(LAST_WRITE_ATTRIBUTE) != null;
+                // Later transactions of the same request read from the primary as well
+                request.setAttribute(LAST_WRITE_ATTRIBUTE, now);
+
+                HttpServletResponse response = attributes.getResponse();
+                if (!cookieSet && response != null && !response.isCommitted()) {
+                    response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(LAST_WRITE_COOKIE, Long.toString(now))
+                            .maxAge(Duration.ofMillis(readYourWritesMillis))
+                            .path("/")
+                            .httpOnly(true)
+                            .secure(true)
+                            .sameSite("None")
+                            .build()
+                            .toString());
+                }
+            }
+        });
+    }
+
+    private boolean wroteRecently() {
+        ServletRequestAttributes attributes = currentRequest();
+        if (attributes == null) {
+            return false;
+        }
+
+        HttpServletRequest request = attributes.getRequest();
+        Long lastWrite = (Long) request.getAttribute(LAST_WRITE_ATTRIBUTE);
+        if (lastWrite == null && request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (LAST_WRITE_COOKIE.equals(cookie.getName())) {
+                    lastWrite = parseTime(cookie.getValue());
+                }
+            }
+        }
+
+        // The time comes from whichever instance took the write, small clock skew only shifts the window
+        return lastWrite != null && System.currentTimeMillis() - lastWrite < readYourWritesMillis;
+    }
+
+    private static Long parseTime(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static ServletRequestAttributes currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servletAttributes ? servletAttributes : null;
+    }
+
+    private void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean available = isAvailable(replica);
+            if (available != replica.available) {
+                logger.info("Replica {} is {}", replica.name, available ? "in rotation" : "out of rotation");
+            }
+            replica.available = available;
+        }
+    }
+
+    private boolean isAvailable(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection()) {
+            if (lagQuery.isEmpty()) {
+                return connection.isValid(1);
+            }
+
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery(lagQuery)) {
+                double lagSeconds = result.next() ? result.getDouble(1) : 0;
+                if (lagSeconds * 1000 > maxLagMillis) {
+                    logger.debug("Replica {} lags {} seconds", replica.name, lagSeconds);
+                    return false;
+                }
+                return true;
+            }
+        } catch (SQLException | RuntimeException e) {
+            logger.debug("Replica {} failed its check: {}", replica.name, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Stops the monitor and closes the pools that can be closed
+     */
+    public void close() {
+        monitor.shutdownNow();
+        for (Replica replica : replicas) {
+            closePool(replica.name, replica.dataSource);
+        }
+        closePool("primary", primary);
+    }
+
+    private static void closePool(String name, DataSource dataSource) {
+        if (dataSource instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                logger.warn("Closing the {} pool failed: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean available;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
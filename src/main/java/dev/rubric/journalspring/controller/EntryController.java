@@ -1,26 +1,44 @@
 package dev.rubric.journalspring.controller;
 
+import dev.rubric.journalspring.dto.BulkEntryDto;
 import dev.rubric.journalspring.dto.EntryDto;
+import dev.rubric.journalspring.dto.EntryPatchDto;
 import dev.rubric.journalspring.enums.MediaType;
 import dev.rubric.journalspring.exception.ApplicationException;
 import dev.rubric.journalspring.models.Media;
 import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.response.EntryPageResponse;
+import dev.rubric.journalspring.response.CalendarDayResponse;
 import dev.rubric.journalspring.response.EntryResponse;
+import dev.rubric.journalspring.response.EntryRevisionResponse;
+import dev.rubric.journalspring.response.EntryRevisionSummaryResponse;
+import dev.rubric.journalspring.response.EntrySummaryResponse;
+import dev.rubric.journalspring.response.ImportJobResponse;
 import dev.rubric.journalspring.response.MediaResponse;
+import dev.rubric.journalspring.response.RelatedEntryResponse;
+import dev.rubric.journalspring.service.EntryImportService;
 import dev.rubric.journalspring.service.EntryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 import static org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE;
 
 @RestController
@@ -28,11 +46,19 @@ import static org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE;
 public class EntryController {
     private static final Logger logger = LoggerFactory.getLogger(EntryController.class);
 
+    private static final int STREAM_FLUSH_INTERVAL = 50;
+
     private final EntryService entryService;
+    private final EntryImportService entryImportService;
+    private final ObjectMapper objectMapper;
 
 
-    public EntryController(EntryService entryService) {
+    public EntryController(EntryService entryService,
+                           EntryImportService entryImportService,
+                           ObjectMapper objectMapper) {
         this.entryService = entryService;
+        this.entryImportService = entryImportService;
+        this.objectMapper = objectMapper;
     }
 
 
@@ -42,7 +68,7 @@ public class EntryController {
 
         logger.debug("User '{}' is requesting entry with id '{}'", user.getId(), id);
 
-        EntryResponse entryResponse = new EntryResponse(entryService.getEntryById(user, id));
+        EntryResponse entryResponse = entryService.getEntryById(user, id);
         return ResponseEntity.ok(entryResponse);
     }
 
@@ -52,10 +78,7 @@ public class EntryController {
                                                                 @PathVariable LocalDate date){
         logger.debug("User '{}' is requesting entries for date '{}'", user.getId(), date);
 
-        List<EntryResponse> entryResponses = entryService.getEntriesByYearAndMonth(user, date)
-                .stream()
-                .map(EntryResponse::new)
-                .toList();
+        List<EntryResponse> entryResponses = entryService.getEntriesByYearAndMonth(user, date);
 
         return ResponseEntity.ok(entryResponses);
     }
@@ -68,27 +91,60 @@ public class EntryController {
 
         logger.debug("User '{}' is requesting journal entries", user.getId());
 
-        List<EntryResponse> entries = entryService.getUserEntries(user, offset, amount)
-                .stream()
-                .map(EntryResponse::new)
-                .collect(Collectors.toList());
+        List<EntryResponse> entries = entryService.getUserEntries(user, offset, amount);
 
         return ResponseEntity.ok(entries);
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<EntryPageResponse> getUserEntriesPage(@AuthenticationPrincipal User user,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(defaultValue = "20") int size) {
+
+        logger.debug("User '{}' is requesting a page of journal entries", user.getId());
+
+        return ResponseEntity.ok(entryService.getUserEntriesPage(user, cursor, size));
+    }
+
     @GetMapping("/all")
     public ResponseEntity<List<EntryResponse>> getAllUserEntries(@AuthenticationPrincipal User user){
         logger.debug("User '{}' is requesting all journal entries", user.getId());
 
-        List<EntryResponse> entries = entryService.getAllUserEntries(user)
-                .stream()
-                .map(EntryResponse::new)
-                .collect(Collectors.toList());
+        List<EntryResponse> entries = entryService.getAllUserEntries(user);
 
         return ResponseEntity.ok(entries);
     }
 
 
+    @GetMapping(value = "/all", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUserEntries(@AuthenticationPrincipal User user) {
+        logger.debug("User '{}' is streaming all journal entries", user.getId());
+
+        ObjectWriter writer = objectMapper.writerFor(EntryResponse.class);
+
+        StreamingResponseBody body = outputStream -> {
+            int[] written = {0};
+
+            entryService.streamAllUserEntries(user, entry -> {
+                try {
+                    outputStream.write(writer.writeValueAsBytes(entry));
+                    outputStream.write('\n');
+                    if (++written[0] % STREAM_FLUSH_INTERVAL == 0) {
+                        outputStream.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            outputStream.flush();
+        };
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, APPLICATION_NDJSON_VALUE)
+                .body(body);
+    }
+
     @PostMapping("/tag")
     public ResponseEntity<List<EntryResponse>> getAllUserEntriesByTags(@AuthenticationPrincipal User user,
                                                                        @RequestBody List<String> tagNames,
@@ -97,10 +153,7 @@ public class EntryController {
 
         logger.info("User {} is requesting all journal entries", user.getId());
 
-        List<EntryResponse> entries = entryService.getUserEntriesByTags(user, tagNames, offset, size)
-                .stream()
-                .map(EntryResponse::new)
-                .collect(Collectors.toList());
+        List<EntryResponse> entries = entryService.getUserEntriesByTags(user, tagNames, offset, size);
 
         return ResponseEntity.ok(entries);
     }
@@ -128,7 +181,7 @@ public class EntryController {
                                                         @PathVariable UUID uuid) {
         logger.info("User {} is requesting journal entry with id {}", user.getId(), uuid);
 
-        return ResponseEntity.ok(new EntryResponse(entryService.getEntryByUuid(user, uuid)));
+        return ResponseEntity.ok(entryService.getEntryByUuid(user, uuid));
     }
 
     @PostMapping("/new")
@@ -140,16 +193,44 @@ public class EntryController {
         return ResponseEntity.status(HttpStatus.CREATED).body("Entry created successfully");
     }
 
+    @PostMapping(value = "/import",
+            consumes = {APPLICATION_NDJSON_VALUE, APPLICATION_JSON_VALUE, "application/zip", "application/x-zip-compressed"})
+    public ResponseEntity<ImportJobResponse> importEntries(@AuthenticationPrincipal User user,
+                                                           @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                           @RequestParam(required = false) UUID jobId,
+                                                           InputStream body) {
+        logger.debug("User '{}' is importing journal entries, resuming job '{}'", user.getId(), jobId);
+
+        ImportJobResponse response = new ImportJobResponse(
+                entryImportService.importEntries(user, jobId, contentType, body));
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ImportJobResponse> getImportJob(@AuthenticationPrincipal User user,
+                                                          @PathVariable UUID jobId) {
+        return ResponseEntity.ok(new ImportJobResponse(entryImportService.getImportJob(user, jobId)));
+    }
+
     @PutMapping("/{id}/update")
     public ResponseEntity<EntryResponse> updateEntry(@AuthenticationPrincipal User user,
                                                      @RequestBody EntryDto entryDto,
                                                      @PathVariable Long id){
         logger.debug("User '{}' is updating a journal entry with id '{}'", user.getId(), id);
 
-        EntryResponse updateEntry =  new EntryResponse(entryService.updateEntry(user, entryDto, id));
+        EntryResponse updateEntry = entryService.updateEntry(user, entryDto, id);
         return ResponseEntity.ok(updateEntry);
     }
 
+    @PatchMapping("/{id}")
+    public ResponseEntity<EntryResponse> patchEntry(@AuthenticationPrincipal User user,
+                                                    @RequestBody EntryPatchDto entryPatchDto,
+                                                    @PathVariable Long id) {
+        logger.debug("User '{}' is saving journal entry '{}' at version {}", user.getId(), id, entryPatchDto.version());
+
+        return ResponseEntity.ok(entryService.patchEntry(user, id, entryPatchDto));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteEntry(@AuthenticationPrincipal User user,
                                             @PathVariable Long id){
@@ -170,6 +251,41 @@ public class EntryController {
         return ResponseEntity.ok("Added entry to folder");
     }
 
+    @PostMapping("/bulk/tags")
+    public ResponseEntity<String> bulkAddTags(@AuthenticationPrincipal User user,
+                                              @RequestBody BulkEntryDto bulkEntryDto) {
+        int added = entryService.bulkAddTags(user, bulkEntryDto.entryIds(), bulkEntryDto.tagNames());
+        return ResponseEntity.ok(String.format("Added %d tags to entries", added));
+    }
+
+    @PostMapping("/bulk/tags/remove")
+    public ResponseEntity<String> bulkRemoveTags(@AuthenticationPrincipal User user,
+                                                 @RequestBody BulkEntryDto bulkEntryDto) {
+        int removed = entryService.bulkRemoveTags(user, bulkEntryDto.entryIds(), bulkEntryDto.tagNames());
+        return ResponseEntity.ok(String.format("Removed %d tags from entries", removed));
+    }
+
+    @PostMapping("/bulk/folder")
+    public ResponseEntity<String> bulkMoveToFolder(@AuthenticationPrincipal User user,
+                                                   @RequestBody BulkEntryDto bulkEntryDto) {
+        logger.debug("User '{}' is moving {} entries to folder '{}'",
+                user.getId(), bulkEntryDto.entryIds() != null ? bulkEntryDto.entryIds().size() : 0,
+                bulkEntryDto.folderId());
+
+        entryService.bulkMoveToFolder(user, bulkEntryDto.entryIds(), bulkEntryDto.folderId());
+        return ResponseEntity.ok("Moved entries");
+    }
+
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<Void> bulkDelete(@AuthenticationPrincipal User user,
+                                           @RequestBody BulkEntryDto bulkEntryDto) {
+        logger.debug("User '{}' is deleting {} journal entries",
+                user.getId(), bulkEntryDto.entryIds() != null ? bulkEntryDto.entryIds().size() : 0);
+
+        entryService.bulkDelete(user, bulkEntryDto.entryIds());
+        return ResponseEntity.noContent().build();
+    }
+
     @DeleteMapping("/{id}/remove-from-folder")
     public ResponseEntity<String> removeFromFolder(@AuthenticationPrincipal User user,
                                                    @PathVariable Long id) {
@@ -185,14 +301,20 @@ public class EntryController {
         logger.debug("User '{}' is getting all entries from folder '{}'", user.getEmail(), folderId);
 
         List<EntryResponse> entries = entryService
-                .getAllEntriesFromFolder(user, folderId)
-                .stream()
-                .map(EntryResponse::new)
-                .toList();
+                .getAllEntriesFromFolder(user, folderId);
 
         return ResponseEntity.ok(entries);
     }
 
+    @GetMapping("/folder/{folderId}/summary")
+    public ResponseEntity<List<EntrySummaryResponse>> getSummariesFromFolder(@AuthenticationPrincipal User user,
+                                                                             @PathVariable Long folderId) {
+
+        logger.debug("User '{}' is getting entry summaries from folder '{}'", user.getEmail(), folderId);
+
+        return ResponseEntity.ok(entryService.getEntrySummariesFromFolder(user, folderId));
+    }
+
     @GetMapping("/folder/public/{folderPublicId}")
     public ResponseEntity<List<EntryResponse>> getAllFromFolderByPublicId(@AuthenticationPrincipal User user,
                                                                 @PathVariable UUID folderPublicId) {
@@ -200,14 +322,40 @@ public class EntryController {
         logger.debug("User '{}' is getting all entries from folder '{}'", user.getEmail(), folderPublicId);
 
         List<EntryResponse> entries = entryService
-                .getAllEntriesFromFolderByPublicId(user, folderPublicId)
-                .stream()
-                .map(EntryResponse::new)
-                .toList();
+                .getAllEntriesFromFolderByPublicId(user, folderPublicId);
 
         return ResponseEntity.ok(entries);
     }
 
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<RelatedEntryResponse>> getRelatedEntries(@AuthenticationPrincipal User user,
+                                                                        @PathVariable Long id,
+                                                                        @RequestParam(defaultValue = "5") int limit) {
+
+        logger.debug("User {} is fetching entries related to entry {}", user.getId(), id);
+
+        return ResponseEntity.ok(entryService.getRelatedEntries(user, id, limit));
+    }
+
+    @GetMapping("/{id}/revisions")
+    public ResponseEntity<List<EntryRevisionSummaryResponse>> getRevisions(@AuthenticationPrincipal User user,
+                                                                           @PathVariable Long id) {
+
+        logger.debug("User {} is listing the revisions of entry {}", user.getId(), id);
+
+        return ResponseEntity.ok(entryService.getRevisions(user, id));
+    }
+
+    @GetMapping("/{id}/revisions/{revisionNumber}")
+    public ResponseEntity<EntryRevisionResponse> getRevision(@AuthenticationPrincipal User user,
+                                                             @PathVariable Long id,
+                                                             @PathVariable int revisionNumber) {
+
+        logger.debug("User {} is fetching revision {} of entry {}", user.getId(), revisionNumber, id);
+
+        return ResponseEntity.ok(entryService.getRevision(user, id, revisionNumber));
+    }
+
     @GetMapping("/{id}/media")
     public ResponseEntity<List<MediaResponse>> getAllMediaForEntry(@AuthenticationPrincipal User user,
                                                                    @PathVariable Long id) {
@@ -250,7 +398,7 @@ public class EntryController {
         logger.debug("User '{}' adding deleting media '{}' for entry '{}'", user.getEmail(), mediaId, id);
 
         try {
-            entryService.verifyUserOwnsEntry(user, id);
+            entryService.checkUserOwnsEntry(user, id);
             entryService.deleteMedia(mediaId, id);
             return ResponseEntity.ok("Media deleted successfully");
         } catch (ApplicationException e) {
@@ -273,4 +421,26 @@ public class EntryController {
         List<EntryResponse> result = entryService.getEntryIdsByTimeRange(user, startDate, endDate);
         return ResponseEntity.ok(result);
     }
+
+    @GetMapping("/calendar")
+    public ResponseEntity<List<CalendarDayResponse>> getCalendar(
+            @AuthenticationPrincipal User user,
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate) {
+
+        logger.debug("User {} is requesting the calendar for {} : {}", user.getId(), startDate, endDate);
+
+        return ResponseEntity.ok(entryService.getCalendar(user, startDate, endDate));
+    }
+
+    @GetMapping("/time-range/summary")
+    public ResponseEntity<List<EntrySummaryResponse>> getSummariesByTimeRange(
+            @AuthenticationPrincipal User user,
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate) {
+
+        logger.info("User {} is requesting entry summaries for date range: {} : {}", user.getId(), startDate, endDate);
+
+        return ResponseEntity.ok(entryService.getEntrySummariesByTimeRange(user, startDate, endDate));
+    }
 }
@@ -1,8 +1,8 @@
 package dev.rubric.journalspring.controller;
 
-import dev.rubric.journalspring.models.Entry;
 import dev.rubric.journalspring.models.User;
 import dev.rubric.journalspring.response.EntryResponse;
+import dev.rubric.journalspring.response.SuggestionResponse;
 import dev.rubric.journalspring.service.EntryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,7 +15,6 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/entry/search")
@@ -35,14 +34,19 @@ public class SearchController {
 
         logger.debug("Search request from user '{}' with query '{}'", user.getId(), query);
 
-        List<Entry> searchResults = entryService.searchEntries(user, query);
-
-        List<EntryResponse> responseList = searchResults.stream()
-                .map(EntryResponse::new)
-                .collect(Collectors.toList());
+        List<EntryResponse> responseList = entryService.searchEntries(user, query);
 
         logger.debug("Returning {} search results for query '{}'", responseList.size(), query);
 
         return ResponseEntity.ok(responseList);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggestEntries(
+            @AuthenticationPrincipal User user,
+            @RequestParam("prefix") String prefix,
+            @RequestParam(value = "limit", defaultValue = "5") int limit) {
+
+        return ResponseEntity.ok(entryService.suggestEntries(user, prefix, limit));
+    }
+}
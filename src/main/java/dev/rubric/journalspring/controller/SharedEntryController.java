@@ -2,7 +2,6 @@ package dev.rubric.journalspring.controller;
 
 
 import dev.rubric.journalspring.dto.SharedEntryDto;
-import dev.rubric.journalspring.models.Entry;
 import dev.rubric.journalspring.models.User;
 import dev.rubric.journalspring.response.EntryResponse;
 import dev.rubric.journalspring.service.SharedEntryService;
@@ -44,9 +43,7 @@ public class SharedEntryController {
 
         logger.debug("User '{}' is requesting to access shared entry '{}'", user.getEmail(), id);
 
-        Entry entry = sharedEntryService.accessSharedEntry(user, id);
-
-        return ResponseEntity.ok(new EntryResponse(entry));
+        return ResponseEntity.ok(sharedEntryService.accessSharedEntry(user, id));
     }
 
     @PostMapping("/{id}/add-user")
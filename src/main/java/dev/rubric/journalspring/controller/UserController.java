@@ -4,8 +4,10 @@ import dev.rubric.journalspring.dto.UpdateUserDto;
 import dev.rubric.journalspring.exception.ApplicationException;
 import dev.rubric.journalspring.models.User;
 import dev.rubric.journalspring.response.UserResponse;
+import dev.rubric.journalspring.response.UserStatsResponse;
 import dev.rubric.journalspring.service.S3Service;
 import dev.rubric.journalspring.service.UserService;
+import dev.rubric.journalspring.service.UserStatsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -23,9 +25,11 @@ import static org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE;
 public class UserController {
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
     private final UserService userService;
+    private final UserStatsService userStatsService;
 
-    public UserController(UserService userService, S3Service s3Service) {
+    public UserController(UserService userService, S3Service s3Service, UserStatsService userStatsService) {
         this.userService = userService;
+        this.userStatsService = userStatsService;
     }
 
     @GetMapping("/me")
@@ -38,6 +42,13 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/stats")
+    public ResponseEntity<UserStatsResponse> getStats(@AuthenticationPrincipal User user) {
+        logger.debug("User '{}' requesting their statistics", user.getEmail());
+
+        return ResponseEntity.ok(userStatsService.getStats(user));
+    }
+
     @PostMapping(value = "/profile-picture/upload", consumes = MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<String> uploadProfilePicture(@AuthenticationPrincipal User user,
                                                        @RequestParam("profilePicture") MultipartFile profilePicture) {
@@ -0,0 +1,7 @@
+package dev.rubric.journalspring.dto;
+
+import java.util.List;
+
+public record BulkEntryDto(List<Long> entryIds,
+                           List<String> tagNames,
+                           Long folderId) { }
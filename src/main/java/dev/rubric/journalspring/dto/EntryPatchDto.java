@@ -0,0 +1,11 @@
+package dev.rubric.journalspring.dto;
+
+/**
+ * A partial update sent by the editor. Null fields are left unchanged,
+ * version is the entry version the edit was made on.
+ */
+public record EntryPatchDto(Long version,
+                            String title,
+                            String content,
+                            Integer wordCount,
+                            Boolean isFavorite) { }
@@ -0,0 +1,18 @@
+package dev.rubric.journalspring.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One record of a bulk import. Lines of the NDJSON export are accepted as is,
+ * fields that only make sense in the exporting account are ignored.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ImportEntryDto(String title,
+                             String content,
+                             List<String> tags,
+                             Integer wordCount,
+                             LocalDate journalDate,
+                             Boolean isFavorite) { }
@@ -0,0 +1,7 @@
+package dev.rubric.journalspring.enums;
+
+public enum ImportStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,6 @@
+package dev.rubric.journalspring.enums;
+
+public enum TokenProfile {
+    PREFIX,
+    TRIGRAM
+}
@@ -0,0 +1,55 @@
+package dev.rubric.journalspring.models;
+
+import jakarta.persistence.*;
+import org.hibernate.Length;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.ZonedDateTime;
+
+/**
+ * The content of an entry that has not been touched for a long time, moved
+ * out of the entries table. It is compressed before it is encrypted, since
+ * ciphertext does not compress.
+ */
+@Entity
+@Table(name = "entry_archives", indexes = @Index(name = "entry_archive_user_idx", columnList = "user_id"))
+public class ArchivedEntry {
+    @Id
+    @Column(name = "entry_id")
+    private Long entryId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = Length.LONG32)
+    private byte[] content;
+
+    @CreationTimestamp
+    @Column(name = "archived_at", nullable = false)
+    private ZonedDateTime archivedAt;
+
+    public ArchivedEntry() {
+    }
+
+    public ArchivedEntry(Entry entry, byte[] content) {
+        this.entryId = entry.getId();
+        this.userId = entry.getUser().getId();
+        this.content = content;
+    }
+
+    public Long getEntryId() {
+        return entryId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public ZonedDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -1,7 +1,11 @@
 package dev.rubric.journalspring.models;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OptimisticLock;
+import org.hibernate.annotations.PartitionKey;
 
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
@@ -11,30 +15,44 @@ import java.util.Set;
 import java.util.UUID;
 
 @Entity
+// Autosaves usually change one or two columns, the content is only rewritten when it changed
+@DynamicUpdate
 @Table(
     name = "entries",
     indexes = @Index(name = "entry_user_journal_idx", columnList = "user_id, journal_date")
 )
 public class Entry {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "entries_seq")
+    @SequenceGenerator(name = "entries_seq", sequenceName = "entries_seq", allocationSize = 50)
     private Long id;
     @Column(name ="public_id", nullable = false, unique = true)
     private UUID publicId;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
-    @ManyToOne
+    // entries is hash partitioned by user_id, updates and deletes name it so only one partition is touched
+    @PartitionKey
+    @Column(name = "user_id", insertable = false, updatable = false)
+    private Long userId;
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "folder_id")
     private Folder folder;
 
     @Column(nullable = false, columnDefinition = "TEXT")
     private String title;
 
+    // Empty while the entry is archived, its content is then in entry_archives
     @Column(nullable = false, columnDefinition = "TEXT")
     private String content;
 
+    @Column(nullable = false)
+    private boolean archived = false;
+
+    // Tagging is not an edit of the text, it must not turn an open editor's save into a conflict
     @ManyToMany
+    @BatchSize(size = 50)
+    @OptimisticLock(excluded = true)
     @JoinTable(
             name = "entry_tags",
             joinColumns = @JoinColumn(name = "entry_id"),
@@ -44,7 +62,7 @@ public class Entry {
 
     @Column(name = "word_count", nullable = false)
     private Integer wordCount = 0;
-    @CreationTimestamp
+    // Defaults to the day the entry is saved, imported entries keep their own date
     @Column(name = "journal_date", nullable = false)
     private LocalDate journalDate;
     @CreationTimestamp
@@ -56,6 +74,11 @@ public class Entry {
     @Column(name = "is_favorite", nullable = false)
     private boolean isFavorite = false;
 
+    // Clients send back the version they edited, a save based on an older one is rejected
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public Entry(User user,
                  Folder folder,
                  String title,
@@ -64,6 +87,7 @@ public class Entry {
                  Integer wordCount) {
         this.publicId = UUID.randomUUID();
         this.user = user;
+        this.userId = user != null ? user.getId() : null;
         this.folder = folder;
         this.title = title;
         this.content = content;
@@ -73,6 +97,15 @@ public class Entry {
 
     public Entry() {}
 
+    @PrePersist
+    void beforePersist() {
+        if (journalDate == null) {
+            journalDate = LocalDate.now();
+        }
+        // The user may have been given its id after it was set on the entry
+        userId = user.getId();
+    }
+
     public Long getId() {
         return id;
     }
@@ -95,6 +128,7 @@ public class Entry {
 
     public void setUser(User user) {
         this.user = user;
+        this.userId = user != null ? user.getId() : null;
     }
 
     public Optional<Folder> getFolder() {
@@ -119,6 +153,14 @@ public class Entry {
         this.content = content;
     }
 
+    public boolean isArchived() {
+        return archived;
+    }
+
+    public void setArchived(boolean archived) {
+        this.archived = archived;
+    }
+
     public Integer getWordCount() {
         return wordCount;
     }
@@ -166,4 +208,8 @@ public class Entry {
     public void setJournalDate(LocalDate journalDate) {
         this.journalDate = journalDate;
     }
+
+    public Long getVersion() {
+        return version;
+    }
 }
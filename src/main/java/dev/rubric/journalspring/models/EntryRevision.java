@@ -0,0 +1,109 @@
+package dev.rubric.journalspring.models;
+
+import jakarta.persistence.*;
+import org.hibernate.Length;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.ZonedDateTime;
+
+/**
+ * The title and content an entry had before a save replaced them. Most
+ * revisions hold a delta against the next newer revision, or against the
+ * entry itself for the newest one, every few revisions one holds the whole
+ * text so no revision is more than a few deltas away from a full copy.
+ */
+@Entity
+@Table(
+    name = "entry_revisions",
+    uniqueConstraints = @UniqueConstraint(name = "entry_revision_entry_number_uk", columnNames = {"entry_id", "revision_number"}),
+    indexes = {
+        @Index(name = "entry_revision_user_idx", columnList = "user_id"),
+        @Index(name = "entry_revision_created_idx", columnList = "created_at")
+    }
+)
+public class EntryRevision {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "entry_revisions_seq")
+    @SequenceGenerator(name = "entry_revisions_seq", sequenceName = "entry_revisions_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "entry_id", nullable = false)
+    private Long entryId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Counts up per entry, kept when older revisions are pruned
+    @Column(name = "revision_number", nullable = false)
+    private int revisionNumber;
+
+    @Column(nullable = false)
+    private boolean snapshot;
+
+    // Compressed, then encrypted
+    @Column(nullable = false, length = Length.LONG32)
+    private byte[] data;
+
+    @Column(name = "word_count", nullable = false)
+    private int wordCount;
+
+    // When the entry last had this text
+    @Column(name = "edited_at", nullable = false)
+    private ZonedDateTime editedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false)
+    private ZonedDateTime createdAt;
+
+    public EntryRevision() {
+    }
+
+    public EntryRevision(Entry entry, int revisionNumber, ZonedDateTime editedAt, int wordCount) {
+        this.entryId = entry.getId();
+        this.userId = entry.getUser().getId();
+        this.revisionNumber = revisionNumber;
+        this.editedAt = editedAt;
+        this.wordCount = wordCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getEntryId() {
+        return entryId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public int getRevisionNumber() {
+        return revisionNumber;
+    }
+
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data, boolean snapshot) {
+        this.data = data;
+        this.snapshot = snapshot;
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    public ZonedDateTime getEditedAt() {
+        return editedAt;
+    }
+
+    public ZonedDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
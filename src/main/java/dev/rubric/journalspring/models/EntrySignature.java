@@ -0,0 +1,50 @@
+package dev.rubric.journalspring.models;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "entry_signatures")
+public class EntrySignature {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "entry_signatures_seq")
+    @SequenceGenerator(name = "entry_signatures_seq", sequenceName = "entry_signatures_seq", allocationSize = 50)
+    private Long id;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "entry_id", nullable = false, unique = true)
+    private Entry entry;
+
+    @Column(nullable = false, length = 1024)
+    private byte[] signature;
+
+    public EntrySignature() {
+    }
+
+    public EntrySignature(Entry entry) {
+        this.entry = entry;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Entry getEntry() {
+        return entry;
+    }
+
+    public void setEntry(Entry entry) {
+        this.entry = entry;
+    }
+
+    public byte[] getSignature() {
+        return signature;
+    }
+
+    public void setSignature(byte[] signature) {
+        this.signature = signature;
+    }
+}
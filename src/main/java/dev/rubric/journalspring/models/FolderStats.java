@@ -0,0 +1,54 @@
+package dev.rubric.journalspring.models;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(
+    name = "folder_stats",
+    indexes = @Index(name = "folder_stats_user_idx", columnList = "user_id")
+)
+public class FolderStats {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "folder_stats_seq")
+    @SequenceGenerator(name = "folder_stats_seq", sequenceName = "folder_stats_seq", allocationSize = 50)
+    private Long id;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "folder_id", nullable = false, unique = true)
+    private Folder folder;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "entry_count", nullable = false)
+    private long entryCount;
+
+    public FolderStats() {
+    }
+
+    public FolderStats(Folder folder, User user) {
+        this.folder = folder;
+        this.user = user;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Folder getFolder() {
+        return folder;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    public void setEntryCount(long entryCount) {
+        this.entryCount = entryCount;
+    }
+}
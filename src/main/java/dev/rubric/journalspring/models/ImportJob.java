@@ -0,0 +1,126 @@
+package dev.rubric.journalspring.models;
+
+import dev.rubric.journalspring.enums.ImportStatus;
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Progress of a bulk entry import. The counters are committed together with
+ * each batch of entries, so an interrupted import resumes after the last
+ * record that was stored.
+ */
+@Entity
+@Table(name = "import_jobs")
+public class ImportJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "import_jobs_seq")
+    @SequenceGenerator(name = "import_jobs_seq", sequenceName = "import_jobs_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "public_id", nullable = false, unique = true)
+    private UUID publicId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImportStatus status;
+
+    @Column(name = "processed_records", nullable = false)
+    private long processedRecords;
+
+    @Column(name = "imported_entries", nullable = false)
+    private long importedEntries;
+
+    @Column(name = "skipped_records", nullable = false)
+    private long skippedRecords;
+
+    @Column(name = "error_message")
+    private String errorMessage;
+
+    // Makes two uploads resuming the same job fail instead of importing twice
+    @Version
+    private Long version;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false)
+    private ZonedDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private ZonedDateTime updatedAt;
+
+    public ImportJob(User user) {
+        this.user = user;
+        this.publicId = UUID.randomUUID();
+        this.status = ImportStatus.RUNNING;
+    }
+
+    public ImportJob() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public UUID getPublicId() {
+        return publicId;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public ImportStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ImportStatus status) {
+        this.status = status;
+    }
+
+    public long getProcessedRecords() {
+        return processedRecords;
+    }
+
+    public void setProcessedRecords(long processedRecords) {
+        this.processedRecords = processedRecords;
+    }
+
+    public long getImportedEntries() {
+        return importedEntries;
+    }
+
+    public void setImportedEntries(long importedEntries) {
+        this.importedEntries = importedEntries;
+    }
+
+    public long getSkippedRecords() {
+        return skippedRecords;
+    }
+
+    public void setSkippedRecords(long skippedRecords) {
+        this.skippedRecords = skippedRecords;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public ZonedDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public ZonedDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
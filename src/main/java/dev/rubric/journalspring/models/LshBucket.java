@@ -0,0 +1,54 @@
+package dev.rubric.journalspring.models;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(
+    name = "lsh_buckets",
+    indexes = {
+        @Index(name = "lsh_bucket_user_key_idx", columnList = "user_id, bucket_key"),
+        @Index(name = "lsh_bucket_entry_idx", columnList = "entry_id")
+    }
+)
+public class LshBucket {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lsh_buckets_seq")
+    @SequenceGenerator(name = "lsh_buckets_seq", sequenceName = "lsh_buckets_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "entry_id", nullable = false)
+    private Entry entry;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "bucket_key", nullable = false)
+    private long bucketKey;
+
+    public LshBucket() {
+    }
+
+    public LshBucket(Entry entry, User user, long bucketKey) {
+        this.entry = entry;
+        this.user = user;
+        this.bucketKey = bucketKey;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Entry getEntry() {
+        return entry;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public long getBucketKey() {
+        return bucketKey;
+    }
+}
@@ -0,0 +1,35 @@
+package dev.rubric.journalspring.models;
+
+import jakarta.persistence.*;
+
+import java.time.ZonedDateTime;
+
+/**
+ * A one-off job that ran to completion, so no instance starts it again
+ */
+@Entity
+@Table(name = "maintenance_jobs")
+public class MaintenanceJob {
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(name = "completed_at", nullable = false)
+    private ZonedDateTime completedAt;
+
+    public MaintenanceJob() {
+    }
+
+    public MaintenanceJob(String name, ZonedDateTime completedAt) {
+        this.name = name;
+        this.completedAt = completedAt;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ZonedDateTime getCompletedAt() {
+        return completedAt;
+    }
+}
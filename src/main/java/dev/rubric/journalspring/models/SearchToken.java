@@ -3,8 +3,15 @@ package dev.rubric.journalspring.models;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "search_tokens", indexes = @Index(name = "search_token_idx", columnList = "token_value"))
+@Table(
+    name = "search_tokens",
+    indexes = {
+        @Index(name = "search_token_user_value_idx", columnList = "user_id, token_value"),
+        @Index(name = "search_token_user_entry_idx", columnList = "user_id, entry_id")
+    }
+)
 public class SearchToken {
+    // Only written by JDBC batch inserts, which leave the id to the column default
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -12,16 +19,22 @@ public class SearchToken {
     @Column(name = "token_value", nullable = false)
     private String tokenValue;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "entry_id", nullable = false)
     private Entry entry;
 
+    // The owner of the entry, search_tokens is hash partitioned by it
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
     public SearchToken() {
     }
 
     public SearchToken(String tokenValue, Entry entry) {
         this.tokenValue = tokenValue;
         this.entry = entry;
+        this.user = entry.getUser();
     }
 
     public Long getId() {
@@ -47,4 +60,8 @@ public class SearchToken {
     public void setEntry(Entry entry) {
         this.entry = entry;
     }
+
+    public User getUser() {
+        return user;
+    }
 }
\ No newline at end of file
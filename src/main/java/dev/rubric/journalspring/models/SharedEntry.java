@@ -11,12 +11,13 @@ import java.util.UUID;
 @Table(name = "shared_entries")
 public class SharedEntry {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shared_entries_seq")
+    @SequenceGenerator(name = "shared_entries_seq", sequenceName = "shared_entries_seq", allocationSize = 50)
     private Long id;
     @Column(name = "public_id", nullable = false)
     private UUID publicId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "entry_id")
     private Entry entry;
 
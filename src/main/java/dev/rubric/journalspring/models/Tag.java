@@ -9,7 +9,8 @@ import java.util.Set;
 @Table(name = "tags", indexes = @Index(name = "tag_name_idx", columnList = "name"))
 public class Tag {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tags_seq")
+    @SequenceGenerator(name = "tags_seq", sequenceName = "tags_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
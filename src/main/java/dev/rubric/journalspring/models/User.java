@@ -15,7 +15,8 @@ import java.util.Optional;
 @Table(name = "users", indexes = @Index(name = "user_email", columnList = "email"))
 public class User implements UserDetails {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "google_id")
@@ -62,6 +63,10 @@ public class User implements UserDetails {
     @Column(name = "ai_cooldown")
     private LocalDateTime aiCooldown;
 
+    // Only changed through UserRepository.incrementSearchVersion, an entity update must not write it back
+    @Column(name = "search_version", nullable = false, updatable = false)
+    private long searchVersion = 0;
+
 
     public User(String googleId,
                 String username,
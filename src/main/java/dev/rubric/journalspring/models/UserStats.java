@@ -0,0 +1,88 @@
+package dev.rubric.journalspring.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "user_stats")
+public class UserStats {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_stats_seq")
+    @SequenceGenerator(name = "user_stats_seq", sequenceName = "user_stats_seq", allocationSize = 50)
+    private Long id;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false, unique = true)
+    private User user;
+
+    @Column(name = "entry_count", nullable = false)
+    private long entryCount;
+
+    @Column(name = "word_count", nullable = false)
+    private long wordCount;
+
+    @Column(name = "current_streak", nullable = false)
+    private int currentStreak;
+
+    @Column(name = "longest_streak", nullable = false)
+    private int longestStreak;
+
+    @Column(name = "last_journal_date")
+    private LocalDate lastJournalDate;
+
+    public UserStats() {
+    }
+
+    public UserStats(User user) {
+        this.user = user;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    public void setEntryCount(long entryCount) {
+        this.entryCount = entryCount;
+    }
+
+    public long getWordCount() {
+        return wordCount;
+    }
+
+    public void setWordCount(long wordCount) {
+        this.wordCount = wordCount;
+    }
+
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+
+    public void setCurrentStreak(int currentStreak) {
+        this.currentStreak = currentStreak;
+    }
+
+    public int getLongestStreak() {
+        return longestStreak;
+    }
+
+    public void setLongestStreak(int longestStreak) {
+        this.longestStreak = longestStreak;
+    }
+
+    public LocalDate getLastJournalDate() {
+        return lastJournalDate;
+    }
+
+    public void setLastJournalDate(LocalDate lastJournalDate) {
+        this.lastJournalDate = lastJournalDate;
+    }
+}
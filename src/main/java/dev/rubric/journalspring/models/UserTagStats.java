@@ -0,0 +1,54 @@
+package dev.rubric.journalspring.models;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(
+    name = "user_tag_stats",
+    uniqueConstraints = @UniqueConstraint(name = "user_tag_stats_user_tag_uk", columnNames = {"user_id", "tag_id"})
+)
+public class UserTagStats {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_tag_stats_seq")
+    @SequenceGenerator(name = "user_tag_stats_seq", sequenceName = "user_tag_stats_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "tag_id", nullable = false)
+    private Tag tag;
+
+    @Column(name = "entry_count", nullable = false)
+    private long entryCount;
+
+    public UserTagStats() {
+    }
+
+    public UserTagStats(User user, Tag tag) {
+        this.user = user;
+        this.tag = tag;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public Tag getTag() {
+        return tag;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    public void setEntryCount(long entryCount) {
+        this.entryCount = entryCount;
+    }
+}
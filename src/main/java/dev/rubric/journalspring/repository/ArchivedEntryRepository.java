@@ -0,0 +1,18 @@
+package dev.rubric.journalspring.repository;
+
+import dev.rubric.journalspring.models.ArchivedEntry;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedEntryRepository extends CrudRepository<ArchivedEntry, Long> {
+    List<ArchivedEntry> findAllByUserIdAndEntryIdIn(Long userId, Collection<Long> entryIds);
+
+    @Modifying
+    @Query("DELETE FROM ArchivedEntry a WHERE a.userId = :userId AND a.entryId IN :entryIds")
+    void deleteAllByUserIdAndEntryIdIn(@Param("userId") Long userId, @Param("entryIds") Collection<Long> entryIds);
+}
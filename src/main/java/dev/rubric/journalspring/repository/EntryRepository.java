@@ -2,27 +2,253 @@ package dev.rubric.journalspring.repository;
 
 import dev.rubric.journalspring.models.Entry;
 import dev.rubric.journalspring.models.Folder;
-import dev.rubric.journalspring.models.Tag;
 import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.response.CalendarDayResponse;
+import dev.rubric.journalspring.response.SuggestionResponse;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
+/**
+ * Unpaged entry lists fetch their tags in the same query through an entity
+ * graph. Paged queries, the export included, cannot join a collection
+ * without paging in memory, so their tags are loaded with {@code @BatchSize}
+ * instead.
+ * <p>
+ * The finders behind the read endpoints load entries read-only, so Hibernate
+ * keeps no dirty-check snapshot of their content.
+ * <p>
+ * Native writes name the tables they touch, so Hibernate only flushes
+ * pending changes to those tables before running them.
+ * <p>
+ * entries is hash partitioned by user_id. Every query names the user so the
+ * planner reads one partition, lookups by id alone are kept for the paths
+ * that do not know the owner.
+ */
 public interface EntryRepository extends CrudRepository<Entry, Long> {
+    @EntityGraph(attributePaths = "tags")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Entry> findAllByUser(User user);
-    List<Entry> findByDateCreatedBetweenAndUser(ZonedDateTime startDate, ZonedDateTime endDate, User user);
-    Page<Entry> findAllByUserOrderByDateCreatedDesc(User user, Pageable pageable);
-    List<Entry> findAllByFolder(Folder folder);
-    @Query("SELECT DISTINCT e FROM Entry e JOIN e.tags t WHERE e.user = :user AND t IN :tags ORDER BY e.journalDate DESC")
-    Page<Entry> findByUserAndTags(@Param("user") User user, @Param("tags") Set<Tag> tags, Pageable pageable);
+    @EntityGraph(attributePaths = "tags")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Entry> findByUserAndJournalDateBetween(User user, LocalDate startDate, LocalDate endDate);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Slice<Entry> findAllByUser(User user, Pageable pageable);
 
-    Optional<Entry> findEntryByPublicId(UUID publicId);
+    @EntityGraph(attributePaths = "tags")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Optional<Entry> findWithTagsByIdAndUser(Long id, User user);
+
+    Optional<Entry> findByIdAndUser(Long id, User user);
+
+    boolean existsByIdAndUser(Long id, User user);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT e FROM Entry e WHERE e.user = :user ORDER BY e.journalDate DESC, e.id DESC")
+    Slice<Entry> findFirstPageByUser(@Param("user") User user, Pageable pageable);
+
+    // The redundant upper bound on journalDate gives the planner an index
+    // condition on entry_user_journal_idx, so each page seeks instead of scanning
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT e FROM Entry e WHERE e.user = :user AND e.journalDate <= :journalDate " +
+            "AND (e.journalDate < :journalDate OR e.id < :id) " +
+            "ORDER BY e.journalDate DESC, e.id DESC")
+    Slice<Entry> findPageByUserBefore(@Param("user") User user,
+                                      @Param("journalDate") LocalDate journalDate,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+    @EntityGraph(attributePaths = "tags")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Entry> findAllByUserAndFolder(User user, Folder folder);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT DISTINCT e FROM Entry e JOIN e.tags t WHERE e.user = :user AND t.id IN :tagIds ORDER BY e.journalDate DESC")
+    Page<Entry> findByUserAndTagIds(@Param("user") User user, @Param("tagIds") Set<Long> tagIds, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Optional<Entry> findEntryByPublicIdAndUser(UUID publicId, User user);
+
+    boolean existsByPublicId(UUID publicId);
+
+    @Query("SELECT new dev.rubric.journalspring.response.SuggestionResponse(e.id, e.publicId, e.title) " +
+            "FROM Entry e WHERE e.id IN :ids AND e.user = :user ORDER BY e.journalDate DESC, e.id DESC")
+    List<SuggestionResponse> findSuggestionsByIdIn(@Param("ids") Collection<Long> ids, @Param("user") User user);
+
+    @Query("SELECT e.title FROM Entry e WHERE e.user = :user ORDER BY e.journalDate DESC, e.id DESC")
+    List<String> findRecentTitlesByUser(@Param("user") User user, Pageable pageable);
+
+    @Query("SELECT MAX(e.journalDate) FROM Entry e WHERE e.user = :user")
+    Optional<LocalDate> findLatestJournalDateByUser(@Param("user") User user);
+
+    @Query(SUMMARY_SELECT + "WHERE e.user = :user AND e.folder = :folder ORDER BY e.journalDate DESC, e.id DESC")
+    List<EntrySummary> findSummariesByFolder(@Param("user") User user, @Param("folder") Folder folder);
+
+    @Query(SUMMARY_SELECT + "WHERE e.user = :user AND e.journalDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY e.journalDate DESC, e.id DESC")
+    List<EntrySummary> findSummariesByUserAndJournalDateBetween(@Param("user") User user,
+                                                                @Param("startDate") LocalDate startDate,
+                                                                @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT new dev.rubric.journalspring.response.CalendarDayResponse(" +
+            "e.journalDate, COUNT(e), SUM(e.wordCount), SUM(CASE WHEN e.isFavorite = true THEN 1 ELSE 0 END)) " +
+            "FROM Entry e WHERE e.user = :user AND e.journalDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY e.journalDate ORDER BY e.journalDate")
+    List<CalendarDayResponse> findCalendarDays(@Param("user") User user,
+                                               @Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT e.id AS entryId, t.name AS name FROM Entry e JOIN e.tags t WHERE e.user = :user AND e.id IN :ids")
+    List<EntryTagName> findTagNamesByEntryIdIn(@Param("ids") Collection<Long> ids, @Param("user") User user);
+
+    @Modifying
+    @Query("UPDATE Entry e SET e.folder = null WHERE e.user = :user AND e.folder = :folder")
+    int clearFolder(@Param("user") User user, @Param("folder") Folder folder);
+
+    @Query("SELECT e.id FROM Entry e WHERE e.user = :user AND e.id IN :ids")
+    List<Long> findIdsByUserAndIdIn(@Param("user") User user, @Param("ids") Collection<Long> ids);
+
+    long countByIdIn(Collection<Long> ids);
+
+    List<Entry> findAllByUserAndIdIn(User user, Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Entry e SET e.folder = :folder WHERE e.user = :user AND e.id IN :ids")
+    int moveToFolder(@Param("user") User user, @Param("ids") Collection<Long> ids, @Param("folder") Folder folder);
+
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "entry_tags"))
+    @Query(value = "INSERT INTO entry_tags (entry_id, tag_id) " +
+            "SELECT e.id, t.id FROM entries e CROSS JOIN tags t " +
+            "WHERE e.user_id = :userId AND e.id IN (:entryIds) AND t.id IN (:tagIds) " +
+            "AND NOT EXISTS (SELECT 1 FROM entry_tags et WHERE et.entry_id = e.id AND et.tag_id = t.id)",
+            nativeQuery = true)
+    int addTagsToEntries(@Param("userId") Long userId,
+                         @Param("entryIds") Collection<Long> entryIds,
+                         @Param("tagIds") Collection<Long> tagIds);
+
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "entry_tags"))
+    @Query(value = "DELETE FROM entry_tags WHERE entry_id IN (:entryIds) AND tag_id IN (:tagIds)", nativeQuery = true)
+    int removeTagsFromEntries(@Param("entryIds") Collection<Long> entryIds, @Param("tagIds") Collection<Long> tagIds);
+
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "entry_tags"))
+    @Query(value = "DELETE FROM entry_tags WHERE entry_id IN (:entryIds)", nativeQuery = true)
+    void clearTags(@Param("entryIds") Collection<Long> entryIds);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Entry e WHERE e.user = :user AND e.id IN :ids")
+    int deleteAllByUserAndIdIn(@Param("user") User user, @Param("ids") Collection<Long> ids);
+
+    // The oldest entries not written since the cutoff, in the order of entries_to_archive_idx. The
+    // archiving job does not know the owners, it reads the index of every partition.
+    @Query("SELECT e.id FROM Entry e WHERE e.archived = false " +
+            "AND COALESCE(e.lastEdited, e.dateCreated) < :cutoff " +
+            "ORDER BY COALESCE(e.lastEdited, e.dateCreated), e.id")
+    List<Long> findIdsToArchive(@Param("cutoff") ZonedDateTime cutoff, Pageable pageable);
+
+    // Locked so an edit cannot commit between reading an entry and archiving it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Entry e WHERE e.id IN :ids")
+    List<Entry> lockAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    // A bulk update leaves the version alone, archiving does not change what an editor has open
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Entry e SET e.content = '', e.archived = true WHERE e.id IN :ids")
+    int archiveAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    long countByUserAndJournalDate(User user, LocalDate journalDate);
+
+    @Query("SELECT DISTINCT e.journalDate FROM Entry e WHERE e.user = :user ORDER BY e.journalDate")
+    List<LocalDate> findJournalDatesByUser(@Param("user") User user);
+
+    @Query("SELECT COUNT(e) AS entryCount, COALESCE(SUM(e.wordCount), 0) AS wordCount FROM Entry e WHERE e.user = :user")
+    EntryTotals findTotalsByUser(@Param("user") User user);
+
+    @Query("SELECT t.id AS id, COUNT(e) AS entryCount FROM Entry e JOIN e.tags t WHERE e.user = :user GROUP BY t.id")
+    List<IdCount> countByTagForUser(@Param("user") User user);
+
+    @Query("SELECT f.id AS id, COUNT(e) AS entryCount FROM Entry e JOIN e.folder f WHERE e.user = :user GROUP BY f.id")
+    List<IdCount> countByFolderForUser(@Param("user") User user);
+
+    @Query("SELECT DISTINCT e.journalDate FROM Entry e WHERE e.user = :user AND e.id NOT IN :ids ORDER BY e.journalDate")
+    List<LocalDate> findJournalDatesByUserExcluding(@Param("user") User user, @Param("ids") Collection<Long> ids);
+
+    @Query("SELECT COUNT(e) AS entryCount, COALESCE(SUM(e.wordCount), 0) AS wordCount FROM Entry e " +
+            "WHERE e.user = :user AND e.id IN :ids")
+    EntryTotals findTotalsByUserAndIdIn(@Param("user") User user, @Param("ids") Collection<Long> ids);
+
+    @Query("SELECT t.id AS id, COUNT(e) AS entryCount FROM Entry e JOIN e.tags t " +
+            "WHERE e.user = :user AND e.id IN :ids GROUP BY t.id")
+    List<IdCount> countByTagForEntries(@Param("user") User user, @Param("ids") Collection<Long> ids);
+
+    @Query("SELECT t.id AS id, COUNT(e) AS entryCount FROM Entry e JOIN e.tags t " +
+            "WHERE e.user = :user AND e.id IN :ids AND t.id IN :tagIds GROUP BY t.id")
+    List<IdCount> countByTagForEntries(@Param("user") User user,
+                                       @Param("ids") Collection<Long> ids,
+                                       @Param("tagIds") Collection<Long> tagIds);
+
+    @Query("SELECT f.id AS id, COUNT(e) AS entryCount FROM Entry e JOIN e.folder f " +
+            "WHERE e.user = :user AND e.id IN :ids GROUP BY f.id")
+    List<IdCount> countByFolderForEntries(@Param("user") User user, @Param("ids") Collection<Long> ids);
+
+    String SUMMARY_SELECT = "SELECT e.id AS id, e.publicId AS publicId, e.title AS title, " +
+            "e.wordCount AS wordCount, e.journalDate AS journalDate, e.lastEdited AS lastEdited, " +
+            "e.isFavorite AS favorite, f.id AS folderId FROM Entry e LEFT JOIN e.folder f ";
+
+    /**
+     * Every column of an entry except its content
+     */
+    interface EntrySummary {
+        Long getId();
+
+        UUID getPublicId();
+
+        String getTitle();
+
+        Integer getWordCount();
+
+        LocalDate getJournalDate();
+
+        ZonedDateTime getLastEdited();
+
+        boolean isFavorite();
+
+        Long getFolderId();
+    }
+
+    interface EntryTotals {
+        Long getEntryCount();
+
+        Long getWordCount();
+    }
+
+    interface IdCount {
+        Long getId();
+
+        Long getEntryCount();
+    }
+
+    interface EntryTagName {
+        Long getEntryId();
+
+        String getName();
+    }
 }
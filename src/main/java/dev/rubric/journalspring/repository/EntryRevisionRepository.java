@@ -0,0 +1,54 @@
+package dev.rubric.journalspring.repository;
+
+import dev.rubric.journalspring.models.EntryRevision;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface EntryRevisionRepository extends CrudRepository<EntryRevision, Long> {
+    Optional<EntryRevision> findFirstByEntryIdOrderByRevisionNumberDesc(Long entryId);
+
+    @Query("SELECT r.revisionNumber AS revisionNumber, r.editedAt AS editedAt, r.wordCount AS wordCount " +
+            "FROM EntryRevision r WHERE r.entryId = :entryId ORDER BY r.revisionNumber DESC")
+    List<RevisionSummary> findSummariesByEntryId(@Param("entryId") Long entryId);
+
+    /**
+     * The revisions needed to rebuild the given one, from it up to the first
+     * snapshot at or after it, or up to the newest revision when there is none
+     */
+    @Query("SELECT r FROM EntryRevision r WHERE r.entryId = :entryId AND r.revisionNumber >= :revisionNumber " +
+            "AND r.revisionNumber <= COALESCE((SELECT MIN(s.revisionNumber) FROM EntryRevision s " +
+            "WHERE s.entryId = :entryId AND s.revisionNumber >= :revisionNumber AND s.snapshot = true), " +
+            "r.revisionNumber) ORDER BY r.revisionNumber DESC")
+    List<EntryRevision> findChain(@Param("entryId") Long entryId, @Param("revisionNumber") int revisionNumber);
+
+    @Modifying
+    @Query("DELETE FROM EntryRevision r WHERE r.entryId = :entryId AND r.revisionNumber <= :revisionNumber")
+    int deleteAllByEntryIdUpTo(@Param("entryId") Long entryId, @Param("revisionNumber") int revisionNumber);
+
+    @Modifying
+    @Query("DELETE FROM EntryRevision r WHERE r.userId = :userId AND r.entryId IN :entryIds")
+    void deleteAllByUserIdAndEntryIdIn(@Param("userId") Long userId, @Param("entryIds") Collection<Long> entryIds);
+
+    @Query("SELECT r.id FROM EntryRevision r WHERE r.createdAt < :cutoff ORDER BY r.id")
+    List<Long> findIdsCreatedBefore(@Param("cutoff") ZonedDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM EntryRevision r WHERE r.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    interface RevisionSummary {
+        int getRevisionNumber();
+
+        ZonedDateTime getEditedAt();
+
+        int getWordCount();
+    }
+}
@@ -0,0 +1,32 @@
+package dev.rubric.journalspring.repository;
+
+import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.models.EntrySignature;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface EntrySignatureRepository extends CrudRepository<EntrySignature, Long> {
+    Optional<EntrySignature> findByEntry(Entry entry);
+
+    Optional<EntrySignature> findByEntryId(Long entryId);
+
+    @Query("SELECT s FROM EntrySignature s JOIN FETCH s.entry WHERE s.entry.id IN :entryIds")
+    List<EntrySignature> findAllWithEntryByEntryIdIn(@Param("entryIds") Collection<Long> entryIds);
+
+    @Query("SELECT e.id FROM Entry e WHERE e.id > :afterId " +
+            "AND NOT EXISTS (SELECT s.id FROM EntrySignature s WHERE s.entry = e) ORDER BY e.id")
+    List<Long> findEntryIdsWithoutSignature(@Param("afterId") Long afterId, Pageable pageable);
+
+    void deleteAllByEntry(Entry entry);
+
+    @Modifying
+    @Query("DELETE FROM EntrySignature s WHERE s.entry.id IN :entryIds")
+    void deleteAllByEntryIdIn(@Param("entryIds") Collection<Long> entryIds);
+}
@@ -0,0 +1,33 @@
+package dev.rubric.journalspring.repository;
+
+import dev.rubric.journalspring.models.Folder;
+import dev.rubric.journalspring.models.FolderStats;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface FolderStatsRepository extends CrudRepository<FolderStats, Long> {
+    @Query("SELECT s FROM FolderStats s WHERE s.folder.id IN :folderIds")
+    List<FolderStats> findByFolderIdIn(@Param("folderIds") Collection<Long> folderIds);
+
+    @Query("SELECT s.folder.id AS folderId, s.entryCount AS entryCount FROM FolderStats s WHERE s.user.id = :userId")
+    List<FolderCount> findFolderCountsByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM FolderStats s WHERE s.folder = :folder")
+    void deleteByFolder(@Param("folder") Folder folder);
+
+    @Modifying
+    @Query("DELETE FROM FolderStats s WHERE s.user.id = :userId")
+    void deleteAllByUserId(@Param("userId") Long userId);
+
+    interface FolderCount {
+        Long getFolderId();
+
+        Long getEntryCount();
+    }
+}
@@ -0,0 +1,13 @@
+package dev.rubric.journalspring.repository;
+
+import dev.rubric.journalspring.models.ImportJob;
+import dev.rubric.journalspring.models.User;
+import org.springframework.data.repository.CrudRepository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ImportJobRepository extends CrudRepository<ImportJob, Long> {
+
+    Optional<ImportJob> findByPublicIdAndUser(UUID publicId, User user);
+}
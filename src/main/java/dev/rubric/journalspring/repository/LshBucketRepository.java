@@ -0,0 +1,29 @@
+package dev.rubric.journalspring.repository;
+
+import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.models.LshBucket;
+import dev.rubric.journalspring.models.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface LshBucketRepository extends CrudRepository<LshBucket, Long> {
+    @Query("SELECT b.entry.id FROM LshBucket b " +
+            "WHERE b.user = :user AND b.bucketKey IN :bucketKeys AND b.entry.id <> :entryId " +
+            "GROUP BY b.entry.id ORDER BY COUNT(b) DESC")
+    List<Long> findCandidateEntryIds(@Param("user") User user,
+            @Param("bucketKeys") Collection<Long> bucketKeys,
+            @Param("entryId") Long entryId,
+            Pageable pageable);
+
+    void deleteAllByEntry(Entry entry);
+
+    @Modifying
+    @Query("DELETE FROM LshBucket b WHERE b.entry.id IN :entryIds")
+    void deleteAllByEntryIdIn(@Param("entryIds") Collection<Long> entryIds);
+}
@@ -0,0 +1,7 @@
+package dev.rubric.journalspring.repository;
+
+import dev.rubric.journalspring.models.MaintenanceJob;
+import org.springframework.data.repository.CrudRepository;
+
+public interface MaintenanceJobRepository extends CrudRepository<MaintenanceJob, String> {
+}
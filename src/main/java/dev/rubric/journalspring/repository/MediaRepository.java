@@ -1,12 +1,22 @@
 package dev.rubric.journalspring.repository;
 
 import dev.rubric.journalspring.models.Media;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface MediaRepository extends CrudRepository<Media, Long> {
     List<Media> findByEntryId(Long entryId);
 
     List<Media> findAllByEntryId(Long entryId);
+
+    List<Media> findAllByEntryIdIn(Collection<Long> entryIds);
+
+    @Modifying
+    @Query("DELETE FROM Media m WHERE m.entry.id IN :entryIds")
+    void deleteAllByEntryIdIn(@Param("entryIds") Collection<Long> entryIds);
 }
@@ -3,20 +3,60 @@ package dev.rubric.journalspring.repository;
 import dev.rubric.journalspring.models.Entry;
 import dev.rubric.journalspring.models.SearchToken;
 import dev.rubric.journalspring.models.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
+/**
+ * search_tokens is hash partitioned by user_id, every query filters on the
+ * token's own user so the planner reads a single partition
+ */
 public interface SearchTokenRepository extends CrudRepository<SearchToken, Long> {
-    List<SearchToken> findByTokenValueContaining(String tokenValue);
+    @Query("SELECT DISTINCT st.tokenValue FROM SearchToken st WHERE st.user = :user")
+    List<String> findDistinctTokenValuesByUser(@Param("user") User user);
 
-    List<SearchToken> findByTokenValueIn(List<String> tokenValues);
+    @Query("SELECT st.entry.id AS entryId, st.tokenValue AS tokenValue FROM SearchToken st " +
+            "WHERE st.user = :user AND st.entry.id IN :entryIds")
+    List<EntryToken> findTokensByUserAndEntryIdIn(@Param("user") User user,
+            @Param("entryIds") Collection<Long> entryIds);
 
-    @Query("SELECT st FROM SearchToken st WHERE st.tokenValue IN :tokenValues AND st.entry.user = :user")
-    List<SearchToken> findByTokenValueInAndUser(@Param("tokenValues") List<String> tokenValues,
+    @Query("SELECT st.entry.id AS entryId, COUNT(st) AS matches FROM SearchToken st " +
+            "WHERE st.user = :user AND st.tokenValue IN :tokenValues GROUP BY st.entry.id")
+    List<EntryMatchCount> countMatchesByEntry(@Param("tokenValues") List<String> tokenValues,
             @Param("user") User user);
 
-    void deleteAllByEntry(Entry entry);
-}
\ No newline at end of file
+    @Query("SELECT e.id FROM SearchToken st JOIN st.entry e " +
+            "WHERE st.user = :user AND e.user = :user AND st.tokenValue IN :tokenValues " +
+            "GROUP BY e.id, e.journalDate " +
+            "HAVING COUNT(st) = :tokenCount " +
+            "ORDER BY e.journalDate DESC, e.id DESC")
+    List<Long> findEntryIdsContainingAll(@Param("tokenValues") List<String> tokenValues,
+            @Param("user") User user,
+            @Param("tokenCount") long tokenCount,
+            Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM SearchToken st WHERE st.user = :user AND st.entry = :entry")
+    void deleteAllByUserAndEntry(@Param("user") User user, @Param("entry") Entry entry);
+
+    @Modifying
+    @Query("DELETE FROM SearchToken st WHERE st.user = :user AND st.entry.id IN :entryIds")
+    void deleteAllByUserAndEntryIdIn(@Param("user") User user, @Param("entryIds") Collection<Long> entryIds);
+
+    interface EntryToken {
+        Long getEntryId();
+
+        String getTokenValue();
+    }
+
+    interface EntryMatchCount {
+        Long getEntryId();
+
+        Long getMatches();
+    }
+}
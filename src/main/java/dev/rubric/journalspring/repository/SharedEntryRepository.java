@@ -2,8 +2,15 @@ package dev.rubric.journalspring.repository;
 
 import dev.rubric.journalspring.models.Entry;
 import dev.rubric.journalspring.models.SharedEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,4 +21,18 @@ public interface SharedEntryRepository extends CrudRepository<SharedEntry, Long>
 
     List<SharedEntry> getAllByEntry(Entry entry);
     List<SharedEntry> getAllByEntryOrderByExpiryTimeDesc(Entry entry);
+
+    /**
+     * Removes the allowed users of the shares of entries, the bulk share
+     * delete does not touch the join table
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "allowed_users"))
+    @Query(value = "DELETE FROM allowed_users WHERE shared_entry_id IN " +
+            "(SELECT id FROM shared_entries WHERE entry_id IN (:entryIds))", nativeQuery = true)
+    void deleteAllowedUsersByEntryIdIn(@Param("entryIds") Collection<Long> entryIds);
+
+    @Modifying
+    @Query("DELETE FROM SharedEntry s WHERE s.entry.id IN :entryIds")
+    void deleteAllByEntryIdIn(@Param("entryIds") Collection<Long> entryIds);
 }
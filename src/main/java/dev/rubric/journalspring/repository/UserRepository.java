@@ -1,7 +1,13 @@
 package dev.rubric.journalspring.repository;
 
 import dev.rubric.journalspring.models.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
@@ -17,4 +23,20 @@ public interface UserRepository extends CrudRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.email IN :emails")
     List<User> findAllByEmail(@Param("emails") List<String> emails);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> lockById(@Param("id") Long id);
+
+    // Native so the column is never part of an entity update, which could write back an older value
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    @Query(value = "UPDATE users SET search_version = search_version + 1 WHERE id = :id", nativeQuery = true)
+    void incrementSearchVersion(@Param("id") Long id);
+
+    @Query(value = "SELECT search_version FROM users WHERE id = :id", nativeQuery = true)
+    long findSearchVersion(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE User u SET u.streak = :streak WHERE u.id = :id")
+    void updateStreak(@Param("id") Long id, @Param("streak") int streak);
 }
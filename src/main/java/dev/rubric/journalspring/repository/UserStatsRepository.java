@@ -0,0 +1,18 @@
+package dev.rubric.journalspring.repository;
+
+import dev.rubric.journalspring.models.UserStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface UserStatsRepository extends CrudRepository<UserStats, Long> {
+    Optional<UserStats> findByUserId(Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UserStats s WHERE s.user.id = :userId")
+    Optional<UserStats> lockByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,30 @@
+package dev.rubric.journalspring.repository;
+
+import dev.rubric.journalspring.models.UserTagStats;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface UserTagStatsRepository extends CrudRepository<UserTagStats, Long> {
+    @Query("SELECT s FROM UserTagStats s WHERE s.user.id = :userId AND s.tag.id IN :tagIds")
+    List<UserTagStats> findByUserIdAndTagIdIn(@Param("userId") Long userId,
+            @Param("tagIds") Collection<Long> tagIds);
+
+    @Query("SELECT t.name AS name, s.entryCount AS entryCount FROM UserTagStats s JOIN s.tag t " +
+            "WHERE s.user.id = :userId ORDER BY s.entryCount DESC, t.name")
+    List<TagCount> findTagCountsByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM UserTagStats s WHERE s.user.id = :userId")
+    void deleteAllByUserId(@Param("userId") Long userId);
+
+    interface TagCount {
+        String getName();
+
+        Long getEntryCount();
+    }
+}
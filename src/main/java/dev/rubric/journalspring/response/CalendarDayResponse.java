@@ -0,0 +1,31 @@
+package dev.rubric.journalspring.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDate;
+
+public class CalendarDayResponse {
+    @JsonProperty
+    private final LocalDate date;
+    @JsonProperty
+    private final long entryCount;
+    @JsonProperty
+    private final long wordCount;
+    @JsonProperty
+    private final boolean hasFavorite;
+
+    public CalendarDayResponse(LocalDate date,
+                               Long entryCount,
+                               Long wordCount,
+                               Long favoriteCount) {
+        this.date = date;
+        this.entryCount = entryCount;
+        this.wordCount = wordCount == null ? 0 : wordCount;
+        this.hasFavorite = favoriteCount != null && favoriteCount > 0;
+    }
+
+    public LocalDate getDate() { return date; }
+    public long getEntryCount() { return entryCount; }
+    public long getWordCount() { return wordCount; }
+    public boolean hasFavorite() { return hasFavorite; }
+}
@@ -0,0 +1,21 @@
+package dev.rubric.journalspring.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public class EntryPageResponse {
+    @JsonProperty
+    private final List<EntryResponse> entries;
+    @JsonProperty
+    private final String nextCursor;
+
+    public EntryPageResponse(List<EntryResponse> entries,
+                             String nextCursor) {
+        this.entries = entries;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<EntryResponse> getEntries() { return entries; }
+    public String getNextCursor() { return nextCursor; }
+}
@@ -11,42 +11,49 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+/**
+ * A read-only view of an entry. The content is handed in decrypted, so the
+ * managed entity keeps its ciphertext and is never dirtied by a read.
+ */
 public class EntryResponse {
     @JsonProperty
-    private Long id;
+    private final Long id;
     @JsonProperty
-    private UUID publicId;
+    private final UUID publicId;
     @JsonProperty
-    private String title;
+    private final String title;
     @JsonProperty
-    private String content;
+    private final String content;
     @JsonProperty
-    private Set<String> tags;
+    private final Set<String> tags;
     @JsonProperty
-    private Integer wordCount;
+    private final Integer wordCount;
     @JsonProperty
-    private LocalDate journalDate;
+    private final LocalDate journalDate;
     @JsonProperty
-    private ZonedDateTime lastEdited;
+    private final ZonedDateTime lastEdited;
     @JsonProperty
-    private boolean isFavorite;
+    private final boolean isFavorite;
     @JsonProperty
-    private Long folderId;
+    private final Long folderId;
+    @JsonProperty
+    private final Long version;
 
-    public EntryResponse(Entry entry) {
+    public EntryResponse(Entry entry, String content) {
         if (entry == null) {
             throw new IllegalArgumentException("Entry cannot be null");
         }
         this.id = entry.getId();
         this.publicId = entry.getPublicId();
         this.title = entry.getTitle();
-        this.content = entry.getContent();
+        this.content = content;
         this.tags = entry.getTags().stream().map(Tag::getName).collect(Collectors.toSet());
         this.wordCount = entry.getWordCount();
         this.journalDate = entry.getJournalDate();
         this.lastEdited = entry.getLastEdited().orElse(null);
         this.isFavorite = entry.isFavorite();
         this.folderId = entry.getFolder().map(Folder::getId).orElse(null);
+        this.version = entry.getVersion();
     }
 
     public Long getId() { return id; }
@@ -59,4 +66,5 @@ public class EntryResponse {
     public ZonedDateTime getLastEdited() { return lastEdited; }
     public boolean isFavorite() { return isFavorite; }
     public Long getFolderId() { return folderId; }
+    public Long getVersion() { return version; }
 }
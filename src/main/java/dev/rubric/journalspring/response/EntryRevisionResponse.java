@@ -0,0 +1,40 @@
+package dev.rubric.journalspring.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import dev.rubric.journalspring.models.EntryRevision;
+
+import java.time.ZonedDateTime;
+
+/**
+ * An older title and content of an entry, rebuilt and decrypted
+ */
+public class EntryRevisionResponse {
+    @JsonProperty
+    private final Long entryId;
+    @JsonProperty
+    private final int revisionNumber;
+    @JsonProperty
+    private final ZonedDateTime editedAt;
+    @JsonProperty
+    private final int wordCount;
+    @JsonProperty
+    private final String title;
+    @JsonProperty
+    private final String content;
+
+    public EntryRevisionResponse(EntryRevision revision, String title, String content) {
+        this.entryId = revision.getEntryId();
+        this.revisionNumber = revision.getRevisionNumber();
+        this.editedAt = revision.getEditedAt();
+        this.wordCount = revision.getWordCount();
+        this.title = title;
+        this.content = content;
+    }
+
+    public Long getEntryId() { return entryId; }
+    public int getRevisionNumber() { return revisionNumber; }
+    public ZonedDateTime getEditedAt() { return editedAt; }
+    public int getWordCount() { return wordCount; }
+    public String getTitle() { return title; }
+    public String getContent() { return content; }
+}
@@ -0,0 +1,25 @@
+package dev.rubric.journalspring.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import dev.rubric.journalspring.repository.EntryRevisionRepository.RevisionSummary;
+
+import java.time.ZonedDateTime;
+
+public class EntryRevisionSummaryResponse {
+    @JsonProperty
+    private final int revisionNumber;
+    @JsonProperty
+    private final ZonedDateTime editedAt;
+    @JsonProperty
+    private final int wordCount;
+
+    public EntryRevisionSummaryResponse(RevisionSummary summary) {
+        this.revisionNumber = summary.getRevisionNumber();
+        this.editedAt = summary.getEditedAt();
+        this.wordCount = summary.getWordCount();
+    }
+
+    public int getRevisionNumber() { return revisionNumber; }
+    public ZonedDateTime getEditedAt() { return editedAt; }
+    public int getWordCount() { return wordCount; }
+}
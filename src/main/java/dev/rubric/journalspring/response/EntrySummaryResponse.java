@@ -0,0 +1,52 @@
+package dev.rubric.journalspring.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import dev.rubric.journalspring.repository.EntryRepository.EntrySummary;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+public class EntrySummaryResponse {
+    @JsonProperty
+    private final Long id;
+    @JsonProperty
+    private final UUID publicId;
+    @JsonProperty
+    private final String title;
+    @JsonProperty
+    private final Set<String> tags;
+    @JsonProperty
+    private final Integer wordCount;
+    @JsonProperty
+    private final LocalDate journalDate;
+    @JsonProperty
+    private final ZonedDateTime lastEdited;
+    @JsonProperty
+    private final boolean isFavorite;
+    @JsonProperty
+    private final Long folderId;
+
+    public EntrySummaryResponse(EntrySummary summary, Set<String> tags) {
+        this.id = summary.getId();
+        this.publicId = summary.getPublicId();
+        this.title = summary.getTitle();
+        this.tags = tags;
+        this.wordCount = summary.getWordCount();
+        this.journalDate = summary.getJournalDate();
+        this.lastEdited = summary.getLastEdited();
+        this.isFavorite = summary.isFavorite();
+        this.folderId = summary.getFolderId();
+    }
+
+    public Long getId() { return id; }
+    public UUID getPublicId() { return publicId; }
+    public String getTitle() { return title; }
+    public Set<String> getTags() { return tags; }
+    public Integer getWordCount() { return wordCount; }
+    public LocalDate getJournalDate() { return journalDate; }
+    public ZonedDateTime getLastEdited() { return lastEdited; }
+    public boolean isFavorite() { return isFavorite; }
+    public Long getFolderId() { return folderId; }
+}
@@ -0,0 +1,43 @@
+package dev.rubric.journalspring.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import dev.rubric.journalspring.enums.ImportStatus;
+import dev.rubric.journalspring.models.ImportJob;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+public class ImportJobResponse {
+    @JsonProperty
+    private final UUID jobId;
+    @JsonProperty
+    private final ImportStatus status;
+    @JsonProperty
+    private final long processedRecords;
+    @JsonProperty
+    private final long importedEntries;
+    @JsonProperty
+    private final long skippedRecords;
+    @JsonProperty
+    private final String error;
+    @JsonProperty
+    private final ZonedDateTime updatedAt;
+
+    public ImportJobResponse(ImportJob job) {
+        this.jobId = job.getPublicId();
+        this.status = job.getStatus();
+        this.processedRecords = job.getProcessedRecords();
+        this.importedEntries = job.getImportedEntries();
+        this.skippedRecords = job.getSkippedRecords();
+        this.error = job.getErrorMessage();
+        this.updatedAt = job.getUpdatedAt();
+    }
+
+    public UUID getJobId() { return jobId; }
+    public ImportStatus getStatus() { return status; }
+    public long getProcessedRecords() { return processedRecords; }
+    public long getImportedEntries() { return importedEntries; }
+    public long getSkippedRecords() { return skippedRecords; }
+    public String getError() { return error; }
+    public ZonedDateTime getUpdatedAt() { return updatedAt; }
+}
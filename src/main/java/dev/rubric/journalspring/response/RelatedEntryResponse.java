@@ -0,0 +1,31 @@
+package dev.rubric.journalspring.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.UUID;
+
+public class RelatedEntryResponse {
+    @JsonProperty
+    private final Long id;
+    @JsonProperty
+    private final UUID publicId;
+    @JsonProperty
+    private final String title;
+    @JsonProperty
+    private final double similarity;
+
+    public RelatedEntryResponse(Long id,
+                                UUID publicId,
+                                String title,
+                                double similarity) {
+        this.id = id;
+        this.publicId = publicId;
+        this.title = title;
+        this.similarity = similarity;
+    }
+
+    public Long getId() { return id; }
+    public UUID getPublicId() { return publicId; }
+    public String getTitle() { return title; }
+    public double getSimilarity() { return similarity; }
+}
@@ -0,0 +1,26 @@
+package dev.rubric.journalspring.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.UUID;
+
+public class SuggestionResponse {
+    @JsonProperty
+    private final Long id;
+    @JsonProperty
+    private final UUID publicId;
+    @JsonProperty
+    private final String title;
+
+    public SuggestionResponse(Long id,
+                              UUID publicId,
+                              String title) {
+        this.id = id;
+        this.publicId = publicId;
+        this.title = title;
+    }
+
+    public Long getId() { return id; }
+    public UUID getPublicId() { return publicId; }
+    public String getTitle() { return title; }
+}
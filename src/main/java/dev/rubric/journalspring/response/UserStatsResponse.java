@@ -0,0 +1,47 @@
+package dev.rubric.journalspring.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+public class UserStatsResponse {
+    @JsonProperty
+    private final long totalEntries;
+    @JsonProperty
+    private final long totalWords;
+    @JsonProperty
+    private final int currentStreak;
+    @JsonProperty
+    private final int longestStreak;
+    @JsonProperty
+    private final LocalDate lastJournalDate;
+    @JsonProperty
+    private final Map<String, Long> entriesPerTag;
+    @JsonProperty
+    private final Map<Long, Long> entriesPerFolder;
+
+    public UserStatsResponse(long totalEntries,
+                             long totalWords,
+                             int currentStreak,
+                             int longestStreak,
+                             LocalDate lastJournalDate,
+                             Map<String, Long> entriesPerTag,
+                             Map<Long, Long> entriesPerFolder) {
+        this.totalEntries = totalEntries;
+        this.totalWords = totalWords;
+        this.currentStreak = currentStreak;
+        this.longestStreak = longestStreak;
+        this.lastJournalDate = lastJournalDate;
+        this.entriesPerTag = entriesPerTag;
+        this.entriesPerFolder = entriesPerFolder;
+    }
+
+    public long getTotalEntries() { return totalEntries; }
+    public long getTotalWords() { return totalWords; }
+    public int getCurrentStreak() { return currentStreak; }
+    public int getLongestStreak() { return longestStreak; }
+    public LocalDate getLastJournalDate() { return lastJournalDate; }
+    public Map<String, Long> getEntriesPerTag() { return entriesPerTag; }
+    public Map<Long, Long> getEntriesPerFolder() { return entriesPerFolder; }
+}
@@ -4,7 +4,7 @@ package dev.rubric.journalspring.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.rubric.journalspring.exception.ApplicationException;
-import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.response.EntryResponse;
 import dev.rubric.journalspring.models.User;
 import dev.rubric.journalspring.repository.UserRepository;
 import okhttp3.*;
@@ -70,10 +70,7 @@ public class AiService {
 
         }
         else if (!allowContent) {
-            List<String> titles = entryService.getUserEntries(user, 0, 20)
-                    .stream()
-                    .map(Entry::getTitle)
-                    .toList();
+            List<String> titles = entryService.getRecentEntryTitles(user, 20);
 
             logger.info("Making prompt with titles for user {}", user.getId());
 
@@ -86,8 +83,8 @@ public class AiService {
             Map<String, List<String>> contentMap = entryService.getUserEntries(user, 0, 20)
                     .stream()
                     .collect(Collectors.groupingBy(
-                            Entry::getTitle,
-                            Collectors.mapping(Entry::getContent, Collectors.toList())
+                            EntryResponse::getTitle,
+                            Collectors.mapping(EntryResponse::getContent, Collectors.toList())
                     ));
 
             StringBuilder entriesPayload = new StringBuilder();
@@ -5,14 +5,11 @@ import dev.rubric.journalspring.dto.RegisterUserDto;
 import dev.rubric.journalspring.dto.UpdatePasswordDto;
 import dev.rubric.journalspring.dto.VerifyUserDto;
 import dev.rubric.journalspring.exception.ApplicationException;
-import dev.rubric.journalspring.models.Entry;
 import dev.rubric.journalspring.models.User;
 import dev.rubric.journalspring.repository.EntryRepository;
 import dev.rubric.journalspring.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -22,7 +19,7 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
-import java.util.List;
+import java.util.Optional;
 import java.util.Random;
 
 @Service
@@ -389,16 +386,15 @@ public class AuthService {
     private void checkAndResetStreakIfNeeded(User user) {
         LocalDate today = LocalDate.now();
 
-        // Find the most recent entry for this user
-        PageRequest pageRequest = PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "journalDate"));
-        List<Entry> recentEntries = entryRepository.findAllByUserOrderByDateCreatedDesc(user, pageRequest).getContent();
+        // Find the date of the most recent entry for this user
+        Optional<LocalDate> latestJournalDate = entryRepository.findLatestJournalDateByUser(user);
 
-        if (recentEntries.isEmpty()) {
+        if (latestJournalDate.isEmpty()) {
             // If no entries, no need to reset streak
             return;
         }
 
-        LocalDate lastEntryDate = recentEntries.get(0).getJournalDate();
+        LocalDate lastEntryDate = latestJournalDate.get();
 
         // If it's been more than 2 days since the last entry, reset streak to 0
         if (today.isAfter(lastEntryDate.plusDays(2))) {
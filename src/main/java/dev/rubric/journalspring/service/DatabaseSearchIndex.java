@@ -0,0 +1,97 @@
+package dev.rubric.journalspring.service;
+
+import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.repository.SearchTokenRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Search index stored in the search_tokens table, the default backend
+ */
+@Service
+@ConditionalOnProperty(name = "search.index.backend", havingValue = "database", matchIfMissing = true)
+public class DatabaseSearchIndex implements SearchIndex {
+    private static final String INSERT_TOKEN = "INSERT INTO search_tokens (token_value, entry_id, user_id) VALUES (?, ?, ?)";
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private final SearchTokenRepository searchTokenRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public DatabaseSearchIndex(SearchTokenRepository searchTokenRepository, JdbcTemplate jdbcTemplate) {
+        this.searchTokenRepository = searchTokenRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public void index(Entry entry, Collection<String> tokens) {
+        searchTokenRepository.deleteAllByUserAndEntry(entry.getUser(), entry);
+        indexNew(Map.of(entry, tokens));
+    }
+
+    /**
+     * Inserts the tokens with JDBC batches, token rows are never read back as
+     * entities so they skip the persistence context
+     */
+    @Override
+    @Transactional
+    public void indexNew(Map<Entry, ? extends Collection<String>> tokensByEntry) {
+        List<Object[]> rows = new ArrayList<>();
+        tokensByEntry.forEach((entry, tokens) ->
+                tokens.forEach(token -> rows.add(new Object[]{token, entry.getId(), entry.getUser().getId()})));
+
+        for (int from = 0; from < rows.size(); from += INSERT_BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(INSERT_TOKEN, rows.subList(from, Math.min(from + INSERT_BATCH_SIZE, rows.size())));
+        }
+    }
+
+    @Override
+    @Transactional
+    public void remove(Entry entry) {
+        searchTokenRepository.deleteAllByUserAndEntry(entry.getUser(), entry);
+    }
+
+    @Override
+    @Transactional
+    public void removeAll(User user, Collection<Long> entryIds) {
+        searchTokenRepository.deleteAllByUserAndEntryIdIn(user, entryIds);
+    }
+
+    @Override
+    public Map<Long, Integer> match(User user, Collection<String> tokens) {
+        return searchTokenRepository.countMatchesByEntry(List.copyOf(tokens), user).stream()
+                .collect(Collectors.toMap(
+                        SearchTokenRepository.EntryMatchCount::getEntryId,
+                        match -> match.getMatches().intValue()));
+    }
+
+    @Override
+    public List<Long> findEntriesContainingAll(User user, Collection<String> tokens, int limit) {
+        List<String> distinctTokens = tokens.stream().distinct().collect(Collectors.toList());
+        return searchTokenRepository.findEntryIdsContainingAll(
+                distinctTokens, user, distinctTokens.size(), PageRequest.of(0, limit));
+    }
+
+    @Override
+    public Map<Long, List<String>> entryTokens(User user, Collection<Long> entryIds) {
+        return searchTokenRepository.findTokensByUserAndEntryIdIn(user, entryIds).stream()
+                .collect(Collectors.groupingBy(
+                        SearchTokenRepository.EntryToken::getEntryId,
+                        Collectors.mapping(SearchTokenRepository.EntryToken::getTokenValue, Collectors.toList())));
+    }
+
+    @Override
+    public List<String> userTokens(User user) {
+        return searchTokenRepository.findDistinctTokenValuesByUser(user);
+    }
+}
@@ -23,6 +23,7 @@ public class EncryptionService {
     private static final int IV_LENGTH = 16;
     private static final int KEY_LENGTH = 256;
     private static final int ITERATION_COUNT = 65536;
+    private static final SecureRandom RANDOM = new SecureRandom();
 
     @Value("${encryption.secret}")
     private String secret;
@@ -33,6 +34,9 @@ public class EncryptionService {
     @Value("${encryption.token.secret:defaultTokenSecret}")
     private String tokenSecret;
 
+    // Derived once, PBKDF2 with this many iterations costs tens of milliseconds
+    private volatile SecretKey secretKey;
+
     /**
      * Encrypts the given text using AES encryption
      * 
@@ -40,34 +44,36 @@ public class EncryptionService {
      * @return Base64 encoded encrypted string with IV prepended
      */
     public String encrypt(String text) {
-        try {
-            if (text == null || text.isEmpty()) {
-                return text;
-            }
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        return Base64.getEncoder().encodeToString(encryptBytes(text.getBytes(StandardCharsets.UTF_8)));
+    }
 
+    /**
+     * Encrypts raw bytes using AES encryption
+     *
+     * @param data The bytes to encrypt
+     * @return The encrypted bytes with the IV prepended
+     */
+    public byte[] encryptBytes(byte[] data) {
+        try {
             // Generate a random IV
-            SecureRandom random = new SecureRandom();
             byte[] iv = new byte[IV_LENGTH];
-            random.nextBytes(iv);
+            RANDOM.nextBytes(iv);
             IvParameterSpec ivParameterSpec = new IvParameterSpec(iv);
 
-            // Generate the secret key
-            SecretKey secretKey = generateSecretKey();
-
             // Initialize the cipher for encryption
             Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.ENCRYPT_MODE, secretKey, ivParameterSpec);
+            cipher.init(Cipher.ENCRYPT_MODE, secretKey(), ivParameterSpec);
 
-            // Encrypt the text
-            byte[] encrypted = cipher.doFinal(text.getBytes(StandardCharsets.UTF_8));
+            byte[] encrypted = cipher.doFinal(data);
 
             // Combine IV and encrypted part
-            byte[] encryptedIVAndText = new byte[iv.length + encrypted.length];
-            System.arraycopy(iv, 0, encryptedIVAndText, 0, iv.length);
-            System.arraycopy(encrypted, 0, encryptedIVAndText, iv.length, encrypted.length);
-
-            // Encode with Base64
-            return Base64.getEncoder().encodeToString(encryptedIVAndText);
+            byte[] encryptedIVAndData = new byte[iv.length + encrypted.length];
+            System.arraycopy(iv, 0, encryptedIVAndData, 0, iv.length);
+            System.arraycopy(encrypted, 0, encryptedIVAndData, iv.length, encrypted.length);
+            return encryptedIVAndData;
         } catch (Exception e) {
             logger.error("Error encrypting text", e);
             throw new RuntimeException("Error encrypting text", e);
@@ -81,40 +87,49 @@ public class EncryptionService {
      * @return The decrypted text
      */
     public String decrypt(String encryptedText) {
-        try {
-            if (encryptedText == null || encryptedText.isEmpty()) {
-                return encryptedText;
-            }
-
-            // Decode with Base64
-            byte[] encryptedIVAndText = Base64.getDecoder().decode(encryptedText);
+        if (encryptedText == null || encryptedText.isEmpty()) {
+            return encryptedText;
+        }
+        return new String(decryptBytes(Base64.getDecoder().decode(encryptedText)), StandardCharsets.UTF_8);
+    }
 
+    /**
+     * Decrypts bytes produced by {@link #encryptBytes(byte[])}
+     *
+     * @param encryptedIVAndData The encrypted bytes with the IV prepended
+     * @return The decrypted bytes
+     */
+    public byte[] decryptBytes(byte[] encryptedIVAndData) {
+        try {
             // Extract IV
             byte[] iv = new byte[IV_LENGTH];
-            System.arraycopy(encryptedIVAndText, 0, iv, 0, iv.length);
+            System.arraycopy(encryptedIVAndData, 0, iv, 0, iv.length);
             IvParameterSpec ivParameterSpec = new IvParameterSpec(iv);
 
             // Extract encrypted part
-            byte[] encrypted = new byte[encryptedIVAndText.length - iv.length];
-            System.arraycopy(encryptedIVAndText, iv.length, encrypted, 0, encrypted.length);
-
-            // Generate the secret key
-            SecretKey secretKey = generateSecretKey();
+            byte[] encrypted = new byte[encryptedIVAndData.length - iv.length];
+            System.arraycopy(encryptedIVAndData, iv.length, encrypted, 0, encrypted.length);
 
             // Initialize the cipher for decryption
             Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.DECRYPT_MODE, secretKey, ivParameterSpec);
-
-            // Decrypt the text
-            byte[] decrypted = cipher.doFinal(encrypted);
+            cipher.init(Cipher.DECRYPT_MODE, secretKey(), ivParameterSpec);
 
-            return new String(decrypted, StandardCharsets.UTF_8);
+            return cipher.doFinal(encrypted);
         } catch (Exception e) {
             logger.error("Error decrypting text", e);
             throw new RuntimeException("Error decrypting text", e);
         }
     }
 
+    private SecretKey secretKey() throws Exception {
+        SecretKey key = secretKey;
+        if (key == null) {
+            key = generateSecretKey();
+            secretKey = key;
+        }
+        return key;
+    }
+
     private SecretKey generateSecretKey() throws Exception {
         SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
         KeySpec spec = new PBEKeySpec(
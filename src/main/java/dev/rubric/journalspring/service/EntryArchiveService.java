@@ -0,0 +1,228 @@
+package dev.rubric.journalspring.service;
+
+import dev.rubric.journalspring.exception.ApplicationException;
+import dev.rubric.journalspring.models.ArchivedEntry;
+import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.repository.ArchivedEntryRepository;
+import dev.rubric.journalspring.repository.EntryRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves the content of entries nobody has written for a while out of the
+ * entries table into entry_archives, compressed, so the hot table and its
+ * TOAST data only hold recent journals. The entry row keeps everything but
+ * its content, listings and search work on it unchanged.
+ * <p>
+ * Reads of an archived entry take the content from the archive, an edit
+ * moves it back into the entry first. Archiving keeps the entry version,
+ * an editor opened before it can still save.
+ */
+@Service
+public class EntryArchiveService {
+    private static final Logger logger = LoggerFactory.getLogger(EntryArchiveService.class);
+
+    private final EntryRepository entryRepository;
+    private final ArchivedEntryRepository archivedEntryRepository;
+    private final EncryptionService encryptionService;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "entry-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Zero disables archiving
+    @Value("${entry.archive.after:365d}")
+    private Duration archiveAfter = Duration.ofDays(365);
+
+    @Value("${entry.archive.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${entry.archive.interval:1h}")
+    private Duration interval = Duration.ofHours(1);
+
+    public EntryArchiveService(EntryRepository entryRepository,
+                               ArchivedEntryRepository archivedEntryRepository,
+                               EncryptionService encryptionService,
+                               PlatformTransactionManager transactionManager) {
+        this.entryRepository = entryRepository;
+        this.archivedEntryRepository = archivedEntryRepository;
+        this.encryptionService = encryptionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleArchiving() {
+        if (archiveAfter.isZero()) {
+            logger.info("Entry archiving is disabled");
+            return;
+        }
+
+        long delay = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::runArchiving, delay, delay, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void runArchiving() {
+        try {
+            int archived = archiveOldEntries();
+            if (archived > 0) {
+                logger.info("Archived {} entries not written for {}", archived, archiveAfter);
+            }
+        } catch (RuntimeException e) {
+            // Retried on the next run, entries archived so far are committed
+            logger.error("Archiving entries failed", e);
+        }
+    }
+
+    /**
+     * Archives every entry not written within the configured age, oldest
+     * first and one transaction per batch. Archived entries leave the index
+     * the ids are read from, so each batch is the oldest that remain.
+     *
+     * @return The number of entries archived
+     */
+    public int archiveOldEntries() {
+        ZonedDateTime cutoff = ZonedDateTime.now().minus(archiveAfter);
+        int archived = 0;
+        List<Long> ids;
+
+        while (!(ids = entryRepository.findIdsToArchive(cutoff, PageRequest.of(0, batchSize))).isEmpty()) {
+            List<Long> batch = ids;
+            int archivedInBatch = transactionTemplate.execute(status -> archiveBatch(batch, cutoff));
+            if (archivedInBatch == 0) {
+                // Every entry was edited since its id was read, the next run picks up what is left
+                break;
+            }
+            archived += archivedInBatch;
+        }
+
+        return archived;
+    }
+
+    private int archiveBatch(List<Long> ids, ZonedDateTime cutoff) {
+        List<Long> archived = new ArrayList<>();
+        for (Entry entry : entryRepository.lockAllByIdIn(ids)) {
+            // Edited after its id was read
+            if (entry.isArchived() || entry.getLastEdited().orElse(entry.getDateCreated()).isAfter(cutoff)) {
+                continue;
+            }
+
+            archivedEntryRepository.save(new ArchivedEntry(entry, compress(entry.getContent())));
+            archived.add(entry.getId());
+        }
+
+        if (!archived.isEmpty()) {
+            entryRepository.archiveAllByIdIn(archived);
+        }
+        return archived.size();
+    }
+
+    /**
+     * Reads the content of an archived entry
+     *
+     * @return The decrypted content
+     */
+    @Transactional(readOnly = true)
+    public String readContent(Entry entry) {
+        return decompress(findArchive(entry).getContent());
+    }
+
+    /**
+     * Reads the content of many archived entries of a user with one query
+     *
+     * @return The decrypted content by entry id
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, String> readContents(User user, Collection<Entry> entries) {
+        return archivedEntryRepository
+                .findAllByUserIdAndEntryIdIn(user.getId(), entries.stream().map(Entry::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(ArchivedEntry::getEntryId, archive -> decompress(archive.getContent())));
+    }
+
+    /**
+     * Moves the content of an archived entry back into the entry, before it is edited
+     */
+    @Transactional
+    public void rehydrate(Entry entry) {
+        ArchivedEntry archive = findArchive(entry);
+        entry.setContent(encryptionService.encrypt(decompress(archive.getContent())));
+        entry.setArchived(false);
+        archivedEntryRepository.delete(archive);
+        logger.debug("Rehydrated archived entry {}", entry.getId());
+    }
+
+    /**
+     * Deletes the archived content of entries that are deleted
+     */
+    @Transactional
+    public void remove(User user, Collection<Long> entryIds) {
+        archivedEntryRepository.deleteAllByUserIdAndEntryIdIn(user.getId(), entryIds);
+    }
+
+    private ArchivedEntry findArchive(Entry entry) {
+        return archivedEntryRepository.findById(entry.getId())
+                .orElseThrow(() -> new ApplicationException(
+                        String.format("Archived content of entry %d not found", entry.getId()),
+                        HttpStatus.INTERNAL_SERVER_ERROR));
+    }
+
+    /**
+     * Compresses the plaintext before encrypting it again, ciphertext would
+     * not compress
+     */
+    private byte[] compress(String encryptedContent) {
+        byte[] plaintext = encryptionService.decrypt(encryptedContent).getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(plaintext.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(plaintext);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return encryptionService.encryptBytes(compressed.toByteArray());
+    }
+
+    private String decompress(byte[] archived) {
+        byte[] compressed = encryptionService.decryptBytes(archived);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
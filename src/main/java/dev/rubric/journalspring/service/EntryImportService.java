@@ -0,0 +1,326 @@
+package dev.rubric.journalspring.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import dev.rubric.journalspring.dto.ImportEntryDto;
+import dev.rubric.journalspring.enums.ImportStatus;
+import dev.rubric.journalspring.exception.ApplicationException;
+import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.models.ImportJob;
+import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.repository.ImportJobRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Imports entries in bulk from an NDJSON stream, a JSON array or a zip of
+ * such files. Records are parsed one at a time, encrypted and tokenized in
+ * parallel on a bounded pool and written in batches: entries through the
+ * persistence context, their tags and search tokens with JDBC batch inserts.
+ * <p>
+ * Each batch commits together with the job's progress, so uploading the same
+ * file again with the job id skips the records that are already stored.
+ */
+@Service
+public class EntryImportService {
+    private static final Logger logger = LoggerFactory.getLogger(EntryImportService.class);
+    private static final String INSERT_ENTRY_TAG = "INSERT INTO entry_tags (entry_id, tag_id) VALUES (?, ?)";
+    private static final Set<String> ZIP_CONTENT_TYPES = Set.of("application/zip", "application/x-zip-compressed");
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final ImportJobRepository importJobRepository;
+    private final EncryptionService encryptionService;
+    private final SearchService searchService;
+    private final TagService tagService;
+    private final UserStatsService userStatsService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader recordReader;
+    private final ExecutorService workers;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${entry.import.batch-size:200}")
+    private int batchSize = 200;
+
+    public EntryImportService(ImportJobRepository importJobRepository,
+                              EncryptionService encryptionService,
+                              SearchService searchService,
+                              TagService tagService,
+                              UserStatsService userStatsService,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              @Value("${entry.import.threads:0}") int threads) {
+        this.importJobRepository = importJobRepository;
+        this.encryptionService = encryptionService;
+        this.searchService = searchService;
+        this.tagService = tagService;
+        this.userStatsService = userStatsService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.recordReader = objectMapper.readerFor(ImportEntryDto.class);
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "entry-import-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Imports the records of an uploaded file. Runs until the file is
+     * consumed, other requests can follow the progress with
+     * {@link #getImportJob(User, UUID)}.
+     *
+     * @param user        The user the entries are imported for
+     * @param jobId       The job to resume, null to start a new one
+     * @param contentType The content type of the upload, zip archives are unpacked
+     * @param body        The uploaded file
+     * @return The job after the import stopped
+     */
+    public ImportJob importEntries(User user, UUID jobId, String contentType, InputStream body) {
+        ImportJob job = jobId == null
+                ? importJobRepository.save(new ImportJob(user))
+                : getImportJob(user, jobId);
+
+        if (job.getStatus() == ImportStatus.COMPLETED) {
+            throw new ApplicationException("Import has already completed", HttpStatus.BAD_REQUEST);
+        }
+
+        long alreadyImported = job.getImportedEntries();
+        ImportBatch batch = new ImportBatch(user, job);
+
+        try {
+            job.setStatus(ImportStatus.RUNNING);
+            job.setErrorMessage(null);
+            batch.job = importJobRepository.save(job);
+
+            forEachRecord(body, contentType, batch::add);
+            batch.write();
+
+            batch.job.setStatus(ImportStatus.COMPLETED);
+            batch.job = importJobRepository.save(batch.job);
+            logger.info("Import {} completed for user {}: {} entries, {} records skipped",
+                    batch.job.getPublicId(), user.getId(), batch.job.getImportedEntries(), batch.job.getSkippedRecords());
+        } catch (OptimisticLockingFailureException e) {
+            throw new ApplicationException("Import is already running", HttpStatus.CONFLICT);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Import {} failed for user {} after {} records: {}",
+                    batch.job.getPublicId(), user.getId(), batch.job.getProcessedRecords(), e.getMessage());
+            // Reloaded, the copy held here may be older than the row and could not be saved
+            ImportJob failed = importJobRepository.findById(batch.job.getId()).orElse(batch.job);
+            failed.setStatus(ImportStatus.FAILED);
+            failed.setErrorMessage(truncate(e.getMessage()));
+            batch.job = importJobRepository.save(failed);
+        } finally {
+            if (batch.job.getImportedEntries() != alreadyImported) {
+                // Imported entries bypass the per-entry statistics deltas
+                userStatsService.rebuild(user);
+            }
+        }
+
+        return batch.job;
+    }
+
+    public ImportJob getImportJob(User user, UUID jobId) {
+        return importJobRepository.findByPublicIdAndUser(jobId, user)
+                .orElseThrow(() -> new ApplicationException(
+                        String.format("Import %s not found", jobId),
+                        HttpStatus.NOT_FOUND));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private void forEachRecord(InputStream body, String contentType, Consumer<ImportEntryDto> action)
+            throws IOException {
+        if (contentType == null || !ZIP_CONTENT_TYPES.contains(contentType.split(";")[0].trim())) {
+            readRecords(body, action);
+            return;
+        }
+
+        // Files are read in archive order, which keeps record numbers stable for resuming
+        ZipInputStream zip = new ZipInputStream(body);
+        for (ZipEntry zipEntry = zip.getNextEntry(); zipEntry != null; zipEntry = zip.getNextEntry()) {
+            String name = zipEntry.getName().toLowerCase();
+            if (!zipEntry.isDirectory()
+                    && (name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json"))) {
+                readRecords(StreamUtils.nonClosing(zip), action);
+            }
+        }
+    }
+
+    private void readRecords(InputStream in, Consumer<ImportEntryDto> action) throws IOException {
+        // Reads NDJSON and JSON arrays alike, one record at a time
+        try (MappingIterator<ImportEntryDto> records = recordReader.readValues(in)) {
+            while (records.hasNextValue()) {
+                action.accept(records.nextValue());
+            }
+        }
+    }
+
+    private PreparedEntry prepare(ImportEntryDto record) {
+        if (record.title() == null || record.title().isBlank()) {
+            return null;
+        }
+
+        String content = record.content() != null ? record.content() : "";
+        return new PreparedEntry(
+                record,
+                encryptionService.encrypt(content),
+                searchService.generateEntryTokens(record.title(), content),
+                record.wordCount() != null ? record.wordCount() : countWords(content));
+    }
+
+    private static int countWords(String content) {
+        String trimmed = content.trim();
+        return trimmed.isEmpty() ? 0 : trimmed.split("\\s+").length;
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private record PreparedEntry(ImportEntryDto record, String encryptedContent, Set<String> tokens, int wordCount) {}
+
+    /**
+     * Collects parsed records and writes them once a batch is full
+     */
+    private class ImportBatch {
+        private final User user;
+        private final long skip;
+        private final List<ImportEntryDto> records = new ArrayList<>();
+        private long seen;
+        private ImportJob job;
+
+        ImportBatch(User user, ImportJob job) {
+            this.user = user;
+            this.job = job;
+            this.skip = job.getProcessedRecords();
+        }
+
+        void add(ImportEntryDto record) {
+            // Records stored by an earlier run of the job are only parsed
+            if (seen++ < skip) {
+                return;
+            }
+
+            records.add(record);
+            if (records.size() >= batchSize) {
+                write();
+            }
+        }
+
+        void write() {
+            if (records.isEmpty()) {
+                return;
+            }
+
+            List<PreparedEntry> prepared = prepareAll(records);
+            int recordCount = records.size();
+            records.clear();
+
+            // Assigned only once the transaction committed, so a failed batch leaves the counters as stored
+            job = transactionTemplate.execute(status -> store(prepared, recordCount));
+            logger.debug("Import {} stored {} records", job.getPublicId(), job.getProcessedRecords());
+        }
+
+        private List<PreparedEntry> prepareAll(List<ImportEntryDto> batch) {
+            List<CompletableFuture<PreparedEntry>> futures = batch.stream()
+                    .map(record -> CompletableFuture.supplyAsync(() -> prepare(record), workers))
+                    .toList();
+
+            try {
+                List<PreparedEntry> prepared = new ArrayList<>(futures.size());
+                futures.forEach(future -> prepared.add(future.join()));
+                return prepared;
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        private ImportJob store(List<PreparedEntry> prepared, int recordCount) {
+            Map<Entry, Set<String>> tokensByEntry = new LinkedHashMap<>();
+            List<Object[]> entryTags = new ArrayList<>();
+            long skipped = 0;
+
+            for (PreparedEntry entry : prepared) {
+                if (entry == null) {
+                    skipped++;
+                    continue;
+                }
+
+                ImportEntryDto record = entry.record();
+                // Tags are inserted below, an empty set keeps Hibernate from writing the join rows
+                Entry saved = new Entry(user, null, record.title(), entry.encryptedContent(),
+                        new HashSet<>(), entry.wordCount());
+                saved.setJournalDate(record.journalDate());
+                saved.setFavorite(Boolean.TRUE.equals(record.isFavorite()));
+                entityManager.persist(saved);
+                tokensByEntry.put(saved, entry.tokens());
+
+                if (record.tags() != null) {
+                    tagService.resolveTagIds(record.tags())
+                            .forEach(tagId -> entryTags.add(new Object[]{saved.getId(), tagId}));
+                }
+            }
+
+            // The join rows and tokens reference the entries, which must be inserted first
+            entityManager.flush();
+            jdbcTemplate.batchUpdate(INSERT_ENTRY_TAG, entryTags);
+
+            searchService.indexNewEntries(user, tokensByEntry);
+
+            // Counted on the managed copy, the job held by the batch only changes after the commit
+            ImportJob stored = importJobRepository.save(job);
+            stored.setProcessedRecords(stored.getProcessedRecords() + recordCount);
+            stored.setImportedEntries(stored.getImportedEntries() + tokensByEntry.size());
+            stored.setSkippedRecords(stored.getSkippedRecords() + skipped);
+
+            entityManager.flush();
+            entityManager.clear();
+            return stored;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package dev.rubric.journalspring.service;
+
+import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.repository.EntryRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reindexes entries once an edit burst settles. The editor autosaves every
+ * few seconds, each save pushes the reindex of its entry back by the delay,
+ * so a burst of saves is indexed once from the content it ended with. An
+ * entry edited without pause is still indexed after the max delay.
+ */
+@Service
+public class EntryReindexService {
+    private static final Logger logger = LoggerFactory.getLogger(EntryReindexService.class);
+
+    private final EntryRepository entryRepository;
+    private final EncryptionService encryptionService;
+    private final EntryArchiveService entryArchiveService;
+    private final SearchService searchService;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, PendingReindex> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "entry-reindexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${entry.reindex.delay:2s}")
+    private Duration delay = Duration.ofSeconds(2);
+
+    @Value("${entry.reindex.max-delay:30s}")
+    private Duration maxDelay = Duration.ofSeconds(30);
+
+    public EntryReindexService(EntryRepository entryRepository,
+                               EncryptionService encryptionService,
+                               EntryArchiveService entryArchiveService,
+                               SearchService searchService,
+                               PlatformTransactionManager transactionManager) {
+        this.entryRepository = entryRepository;
+        this.encryptionService = encryptionService;
+        this.entryArchiveService = entryArchiveService;
+        this.searchService = searchService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Schedules the entry to be reindexed once it has not been saved for the
+     * delay. Inside a transaction the timer starts when it commits, so the
+     * reindex reads the saved content.
+     */
+    public void requestReindex(Long entryId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            schedule(entryId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                schedule(entryId);
+            }
+        });
+    }
+
+    /**
+     * Drops the pending reindexes of deleted entries
+     */
+    public void cancel(Collection<Long> entryIds) {
+        entryIds.forEach(entryId -> {
+            PendingReindex reindex = pending.remove(entryId);
+            if (reindex != null) {
+                reindex.future.cancel(false);
+            }
+        });
+    }
+
+    /**
+     * Runs the reindexes still waiting, so a restart does not leave entries
+     * indexed with the content before their last edits
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+
+        List<Long> entryIds = List.copyOf(pending.keySet());
+        cancel(entryIds);
+        entryIds.forEach(this::reindex);
+    }
+
+    private void schedule(Long entryId) {
+        pending.compute(entryId, (id, current) -> {
+            long now = System.nanoTime();
+            PendingReindex next = new PendingReindex(current != null ? current.firstRequested : now);
+            if (current != null) {
+                current.future.cancel(false);
+            }
+
+            long wait = Math.min(delay.toNanos(), maxDelay.toNanos() - (now - next.firstRequested));
+            next.future = scheduler.schedule(() -> {
+                // Superseded by a later save or cancelled by a delete
+                if (pending.remove(id, next)) {
+                    reindex(id);
+                }
+            }, Math.max(wait, 0), TimeUnit.NANOSECONDS);
+            return next;
+        });
+    }
+
+    private void reindex(Long entryId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> entryRepository.findById(entryId)
+                    .ifPresent(this::index));
+        } catch (RuntimeException e) {
+            // The tokens of the previous save stay until the entry is saved again
+            logger.error("Reindexing entry {} failed", entryId, e);
+        }
+    }
+
+    private void index(Entry entry) {
+        String content = entry.isArchived()
+                ? entryArchiveService.readContent(entry)
+                : encryptionService.decrypt(entry.getContent());
+        searchService.indexEntry(entry, content);
+        logger.debug("Reindexed entry {} after its edits settled", entry.getId());
+    }
+
+    private static final class PendingReindex {
+        private final long firstRequested;
+        private volatile ScheduledFuture<?> future;
+
+        private PendingReindex(long firstRequested) {
+            this.firstRequested = firstRequested;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package dev.rubric.journalspring.service;
+
+import dev.rubric.journalspring.exception.ApplicationException;
+import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.models.EntryRevision;
+import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.repository.EntryRevisionRepository;
+import dev.rubric.journalspring.response.EntryRevisionResponse;
+import dev.rubric.journalspring.response.EntryRevisionSummaryResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Keeps the history of entry titles and content. The entry holds the current
+ * text, each revision holds an older text as a delta against the next newer
+ * one, so storing a revision costs about the size of the edit. Every
+ * snapshot interval revisions one is stored whole, which bounds the deltas
+ * applied to rebuild any revision.
+ * <p>
+ * Saves closer together than the min interval are one revision, an autosave
+ * burst replaces the text it started from with one revision. Revisions
+ * beyond the per-entry limit are dropped as new ones are recorded, a
+ * background job drops those older than the max age. Dropping the oldest
+ * revisions is always safe, nothing newer depends on them.
+ */
+@Service
+public class EntryRevisionService {
+    private static final Logger logger = LoggerFactory.getLogger(EntryRevisionService.class);
+    private static final int PRUNE_BATCH_SIZE = 1000;
+
+    private final EntryRevisionRepository entryRevisionRepository;
+    private final EncryptionService encryptionService;
+    private final EntryArchiveService entryArchiveService;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "entry-revision-pruner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${entry.revisions.snapshot-interval:20}")
+    private int snapshotInterval = 20;
+
+    @Value("${entry.revisions.min-interval:10m}")
+    private Duration minInterval = Duration.ofMinutes(10);
+
+    @Value("${entry.revisions.max-per-entry:200}")
+    private int maxPerEntry = 200;
+
+    // Zero keeps revisions until the per-entry limit drops them
+    @Value("${entry.revisions.max-age:365d}")
+    private Duration maxAge = Duration.ofDays(365);
+
+    @Value("${entry.revisions.prune-interval:1d}")
+    private Duration pruneInterval = Duration.ofDays(1);
+
+    public EntryRevisionService(EntryRevisionRepository entryRevisionRepository,
+                                EncryptionService encryptionService,
+                                EntryArchiveService entryArchiveService,
+                                PlatformTransactionManager transactionManager) {
+        this.entryRevisionRepository = entryRevisionRepository;
+        this.encryptionService = encryptionService;
+        this.entryArchiveService = entryArchiveService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void schedulePruning() {
+        if (maxAge.isZero()) {
+            return;
+        }
+
+        long delay = pruneInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::runPruning, delay, delay, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void runPruning() {
+        try {
+            int pruned = pruneOldRevisions();
+            if (pruned > 0) {
+                logger.info("Pruned {} entry revisions older than {}", pruned, maxAge);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Pruning entry revisions failed", e);
+        }
+    }
+
+    /**
+     * Records the text an entry had before a save, in the transaction of the
+     * save and after the entry is written
+     *
+     * @param entry             The saved entry
+     * @param previous          The title and content before the save
+     * @param previousEditedAt  When the entry was given the previous text
+     * @param previousWordCount The word count of the previous text
+     * @param current           The title and content the save wrote
+     */
+    @Transactional
+    public void recordRevision(Entry entry, RevisionText previous, ZonedDateTime previousEditedAt,
+                               int previousWordCount, RevisionText current) {
+        byte[] previousText = previous.toBytes();
+        byte[] currentText = current.toBytes();
+        if (Arrays.equals(previousText, currentText)) {
+            return;
+        }
+
+        Optional<EntryRevision> newest = entryRevisionRepository.findFirstByEntryIdOrderByRevisionNumberDesc(entry.getId());
+        if (previousEditedAt.isAfter(ZonedDateTime.now().minus(minInterval))) {
+            // Within a burst of saves, the newest revision is kept as a delta against the new text
+            newest.filter(revision -> !revision.isSnapshot())
+                    .ifPresent(revision -> storeText(revision,
+                            RevisionDelta.apply(previousText, open(revision.getData())), currentText, false));
+            return;
+        }
+
+        int revisionNumber = newest.map(revision -> revision.getRevisionNumber() + 1).orElse(1);
+        EntryRevision revision = new EntryRevision(entry, revisionNumber, previousEditedAt, previousWordCount);
+        storeText(revision, previousText, currentText, revisionNumber % snapshotInterval == 0);
+        entryRevisionRepository.save(revision);
+
+        if (revisionNumber > maxPerEntry) {
+            entryRevisionRepository.deleteAllByEntryIdUpTo(entry.getId(), revisionNumber - maxPerEntry);
+        }
+        logger.debug("Recorded revision {} of entry {}", revisionNumber, entry.getId());
+    }
+
+    /**
+     * Stores text as a delta against the next newer text, or whole when it is
+     * due a snapshot or the delta would not be smaller
+     */
+    private void storeText(EntryRevision revision, byte[] text, byte[] newerText, boolean snapshot) {
+        if (!snapshot) {
+            byte[] delta = RevisionDelta.diff(newerText, text);
+            if (delta.length < text.length) {
+                revision.setData(seal(delta), false);
+                return;
+            }
+        }
+        revision.setData(seal(text), true);
+    }
+
+    /**
+     * Lists the revisions of an entry, newest first, without rebuilding them
+     */
+    @Transactional(readOnly = true)
+    public List<EntryRevisionSummaryResponse> getRevisions(Long entryId) {
+        return entryRevisionRepository.findSummariesByEntryId(entryId).stream()
+                .map(EntryRevisionSummaryResponse::new)
+                .toList();
+    }
+
+    /**
+     * Rebuilds a revision from the nearest snapshot or the entry, applying
+     * the deltas in between
+     */
+    @Transactional(readOnly = true)
+    public EntryRevisionResponse getRevision(Entry entry, int revisionNumber) {
+        List<EntryRevision> chain = entryRevisionRepository.findChain(entry.getId(), revisionNumber);
+        if (chain.isEmpty() || chain.get(chain.size() - 1).getRevisionNumber() != revisionNumber) {
+            throw new ApplicationException(
+                    String.format("Revision %d of entry %d not found", revisionNumber, entry.getId()),
+                    HttpStatus.NOT_FOUND);
+        }
+
+        byte[] text = null;
+        if (!chain.get(0).isSnapshot()) {
+            String content = entry.isArchived()
+                    ? entryArchiveService.readContent(entry)
+                    : encryptionService.decrypt(entry.getContent());
+            text = new RevisionText(entry.getTitle(), content).toBytes();
+        }
+        for (EntryRevision revision : chain) {
+            byte[] data = open(revision.getData());
+            text = revision.isSnapshot() ? data : RevisionDelta.apply(text, data);
+        }
+
+        EntryRevision revision = chain.get(chain.size() - 1);
+        RevisionText revisionText = RevisionText.fromBytes(text);
+        return new EntryRevisionResponse(revision, revisionText.title(), revisionText.content());
+    }
+
+    /**
+     * Deletes the revisions of entries that are deleted
+     */
+    @Transactional
+    public void remove(User user, Collection<Long> entryIds) {
+        entryRevisionRepository.deleteAllByUserIdAndEntryIdIn(user.getId(), entryIds);
+    }
+
+    /**
+     * Deletes every revision recorded before the max age, one transaction per batch
+     *
+     * @return The number of revisions deleted
+     */
+    public int pruneOldRevisions() {
+        ZonedDateTime cutoff = ZonedDateTime.now().minus(maxAge);
+        int pruned = 0;
+        List<Long> ids;
+
+        while (!(ids = entryRevisionRepository.findIdsCreatedBefore(cutoff, PageRequest.of(0, PRUNE_BATCH_SIZE))).isEmpty()) {
+            List<Long> batch = ids;
+            pruned += transactionTemplate.execute(status -> entryRevisionRepository.deleteAllByIdIn(batch));
+        }
+
+        return pruned;
+    }
+
+    /**
+     * Compresses before encrypting, ciphertext would not compress
+     */
+    private byte[] seal(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 2 + 16);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                compressed.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return encryptionService.encryptBytes(compressed.toByteArray());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] open(byte[] sealed) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(encryptionService.decryptBytes(sealed));
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && inflater.needsInput()) {
+                    throw new UncheckedIOException(new IOException("Truncated entry revision"));
+                }
+                data.write(buffer, 0, inflated);
+            }
+            return data.toByteArray();
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new IOException("Corrupt entry revision", e));
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * The text a revision keeps, the title length first so deltas cover
+     * title and content together
+     */
+    public record RevisionText(String title, String content) {
+        byte[] toBytes() {
+            byte[] titleBytes = title.getBytes(StandardCharsets.UTF_8);
+            byte[] contentBytes = content.getBytes(StandardCharsets.UTF_8);
+            return ByteBuffer.allocate(Integer.BYTES + titleBytes.length + contentBytes.length)
+                    .putInt(titleBytes.length)
+                    .put(titleBytes)
+                    .put(contentBytes)
+                    .array();
+        }
+
+        static RevisionText fromBytes(byte[] text) {
+            int titleLength = ByteBuffer.wrap(text).getInt();
+            return new RevisionText(
+                    new String(text, Integer.BYTES, titleLength, StandardCharsets.UTF_8),
+                    new String(text, Integer.BYTES + titleLength, text.length - Integer.BYTES - titleLength,
+                            StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -1,45 +1,76 @@
 package dev.rubric.journalspring.service;
 
 import dev.rubric.journalspring.dto.EntryDto;
+import dev.rubric.journalspring.dto.EntryPatchDto;
 import dev.rubric.journalspring.enums.MediaType;
 import dev.rubric.journalspring.exception.ApplicationException;
 import dev.rubric.journalspring.models.*;
 import dev.rubric.journalspring.repository.EntryRepository;
+import dev.rubric.journalspring.repository.EntryRepository.EntrySummary;
 import dev.rubric.journalspring.repository.MediaRepository;
 import dev.rubric.journalspring.repository.SharedEntryRepository;
-import dev.rubric.journalspring.repository.TagRepository;
+import dev.rubric.journalspring.response.CalendarDayResponse;
+import dev.rubric.journalspring.response.EntryPageResponse;
 import dev.rubric.journalspring.response.EntryResponse;
+import dev.rubric.journalspring.response.EntryRevisionResponse;
+import dev.rubric.journalspring.response.EntryRevisionSummaryResponse;
+import dev.rubric.journalspring.response.EntrySummaryResponse;
 import dev.rubric.journalspring.response.MediaResponse;
+import dev.rubric.journalspring.response.RelatedEntryResponse;
+import dev.rubric.journalspring.response.SuggestionResponse;
+import dev.rubric.journalspring.service.EntryRevisionService.RevisionText;
+import dev.rubric.journalspring.service.UserStatsService.EntryStatsSnapshot;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.YearMonth;
-import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 public class EntryService {
     private static final Logger logger = LoggerFactory.getLogger(EntryService.class);
+    private static final int MAX_PAGE_SIZE = 100;
+    // Matches the @BatchSize of Entry.tags so each chunk loads its tags in one query
+    private static final int STREAM_CHUNK_SIZE = 50;
+    private static final int MAX_CALENDAR_DAYS = 366;
+    private static final int MAX_BULK_SIZE = 500;
     private final EntryRepository entryRepository;
     private final EncryptionService encryptionService;
     private final MediaRepository mediaRepository;
     private final FolderService folderService;
     private final S3Service s3Service;
     private final SearchService searchService;
-    private final TagRepository tagRepository;
+    private final TagService tagService;
     private final SharedEntryService sharedEntryService;
     private final SharedEntryRepository sharedEntryRepository;
+    private final RelatedEntryService relatedEntryService;
+    private final UserStatsService userStatsService;
+    private final EntryArchiveService entryArchiveService;
+    private final EntryReindexService entryReindexService;
+    private final EntryRevisionService entryRevisionService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
     @PersistenceContext
     private EntityManager entityManager;
 
@@ -50,18 +81,33 @@ public class EntryService {
             MediaRepository mediaRepository,
             FolderService folderService,
             S3Service s3Service,
-            SearchService searchService, TagRepository tagRepository, SharedEntryService sharedEntryService, SharedEntryRepository sharedEntryRepository) {
+            SearchService searchService, TagService tagService, SharedEntryService sharedEntryService, SharedEntryRepository sharedEntryRepository,
+            RelatedEntryService relatedEntryService,
+            UserStatsService userStatsService,
+            EntryArchiveService entryArchiveService,
+            EntryReindexService entryReindexService,
+            EntryRevisionService entryRevisionService,
+            PlatformTransactionManager transactionManager) {
         this.entryRepository = entryRepository;
         this.encryptionService = encryptionService;
         this.mediaRepository = mediaRepository;
         this.s3Service = s3Service;
         this.folderService = folderService;
         this.searchService = searchService;
-        this.tagRepository = tagRepository;
+        this.tagService = tagService;
         this.sharedEntryService = sharedEntryService;
         this.sharedEntryRepository = sharedEntryRepository;
+        this.relatedEntryService = relatedEntryService;
+        this.userStatsService = userStatsService;
+        this.entryArchiveService = entryArchiveService;
+        this.entryReindexService = entryReindexService;
+        this.entryRevisionService = entryRevisionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
     }
 
+    @Transactional
     public Entry addEntry(User user, EntryDto details) {
         // Encrypt the content before saving
         String encryptedContent = encryptionService.encrypt(details.content());
@@ -75,12 +121,7 @@ public class EntryService {
         }
 
         if (details.tagNames() != null) {
-            tags = details.tagNames()
-                    .stream()
-                    .map(tagRepository::findByName)
-                    .filter(Optional::isPresent)
-                    .map(Optional::get)
-                    .collect(Collectors.toSet());
+            tags = tagService.resolveTags(details.tagNames());
         }
 
 
@@ -94,6 +135,7 @@ public class EntryService {
 
         entryRepository.save(entry);
         logger.info("Entry with id {} created for user {}", entry.getId(), user.getId());
+        userStatsService.recordCreated(user, entry);
 
         // Index the entry for searching
         searchService.indexEntry(entry, details.content());
@@ -102,153 +144,188 @@ public class EntryService {
         return entry;
     }
 
-    public Entry getEntryById(User user, Long entryId) {
-        Entry entry = entryRepository.findById(entryId)
-                .orElseThrow(() -> new ApplicationException(
-                        String.format("Entry with %d not found", entryId),
-                        HttpStatus.NOT_FOUND));
-
-        if (!entry.getUser().getId().equals(user.getId())) {
-            throw new ApplicationException(
-                    String.format("User with id %d is not authorized", user.getId()),
-                    HttpStatus.UNAUTHORIZED);
-        }
+    @Transactional(readOnly = true)
+    public EntryResponse getEntryById(User user, Long entryId) {
+        Entry entry = entryRepository.findWithTagsByIdAndUser(entryId, user)
+                .orElseThrow(() -> entryAccessError(user, entryId));
 
-        entityManager.detach(entry);
-
-        // Decrypt the content before returning
-        String decryptedContent = encryptionService.decrypt(entry.getContent());
-        entry.setContent(decryptedContent);
+        EntryResponse response = toResponse(entry);
         logger.debug("Content decrypted for entry id: {}", entryId);
-
-        return entry;
+        return response;
     }
 
-    public List<Entry> getAllUserEntries(User user) {
-
+    @Transactional(readOnly = true)
+    public List<EntryResponse> getAllUserEntries(User user) {
         List<Entry> entries = entryRepository.findAllByUser(user);
-
-        // Decrypt all entries' content
-        entries.forEach(entry -> {
-            String decryptedContent = encryptionService.decrypt(entry.getContent());
-            entry.setContent(decryptedContent);
-        });
         logger.debug("Decrypted content for {} entries", entries.size());
 
-        return new ArrayList<>(entries);
+        return toResponses(entries);
     }
 
-    public List<Entry> getUserEntries(User user, int offset, int count) {
-        PageRequest pageRequest = PageRequest.of(offset, count, Sort.by(Sort.Direction.DESC, "journalDate"));
-        List<Entry> entries = entryRepository.findAllByUserOrderByDateCreatedDesc(user, pageRequest).getContent();
+    /**
+     * Streams every entry of a user, newest first, without holding the whole
+     * journal in memory. Each chunk is read with a keyset query in its own
+     * short read-only transaction, which loads its tags in one batch, and is
+     * handed to the consumer once that transaction ended, so a slow client
+     * never holds a connection.
+     *
+     * @param user     The owner of the entries
+     * @param consumer Receives each decrypted entry
+     */
+    public void streamAllUserEntries(User user, Consumer<EntryResponse> consumer) {
+        PageRequest pageRequest = PageRequest.of(0, STREAM_CHUNK_SIZE);
+        int count = 0;
+        StreamChunk chunk = null;
+
+        do {
+            StreamChunk previous = chunk;
+            chunk = readOnlyTransactionTemplate.execute(status -> {
+                Slice<Entry> page = previous == null
+                        ? entryRepository.findFirstPageByUser(user, pageRequest)
+                        : entryRepository.findPageByUserBefore(user, previous.lastJournalDate(), previous.lastId(), pageRequest);
+                List<Entry> entries = page.getContent();
+                Entry last = entries.isEmpty() ? null : entries.get(entries.size() - 1);
+
+                return new StreamChunk(toResponses(entries),
+                        last == null ? null : last.getJournalDate(),
+                        last == null ? null : last.getId(),
+                        page.hasNext());
+            });
+
+            chunk.responses().forEach(consumer);
+            count += chunk.responses().size();
+        } while (chunk.hasNext());
+
+        logger.debug("Streamed {} entries for user {}", count, user.getId());
+    }
 
+    private record StreamChunk(List<EntryResponse> responses, LocalDate lastJournalDate, Long lastId, boolean hasNext) {}
 
-        // Decrypt all entries' content
-        entries.forEach(entry -> {
-            String decryptedContent = encryptionService.decrypt(entry.getContent());
-            entry.setContent(decryptedContent);
-        });
+    @Transactional(readOnly = true)
+    public List<EntryResponse> getUserEntries(User user, int offset, int count) {
+        PageRequest pageRequest = PageRequest.of(offset, count,
+                Sort.by(Sort.Direction.DESC, "journalDate").and(Sort.by(Sort.Direction.DESC, "id")));
+        List<Entry> entries = entryRepository.findAllByUser(user, pageRequest).getContent();
 
         logger.debug("Decrypted content for {} entries", entries.size());
 
-        return entries;
+        return toResponses(entries);
     }
 
-    public List<Entry> getUserEntriesByTags(User user, List<String> tagNames, int offset, int count){
-        PageRequest pageRequest = PageRequest.of(offset, count, Sort.by(Sort.Direction.DESC, "journalDate"));
+    /**
+     * Lists a user's entries newest first with keyset pagination. The cursor
+     * holds the journal date and id of the last entry of the previous page, so
+     * a page costs the same however deep it is and no count query is run.
+     *
+     * @param user   The owner of the entries
+     * @param cursor The cursor returned with the previous page, null for the first page
+     * @param size   The number of entries per page
+     * @return The entries and the cursor of the next page, null on the last page
+     */
+    @Transactional(readOnly = true)
+    public EntryPageResponse getUserEntriesPage(User user, String cursor, int size) {
+        PageRequest pageRequest = PageRequest.of(0, Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+
+        Slice<Entry> page;
+        if (cursor == null || cursor.isBlank()) {
+            page = entryRepository.findFirstPageByUser(user, pageRequest);
+        } else {
+            EntryCursor position = EntryCursor.decode(cursor);
+            page = entryRepository.findPageByUserBefore(user, position.journalDate(), position.id(), pageRequest);
+        }
+
+        List<Entry> entries = page.getContent();
+        String nextCursor = page.hasNext() && !entries.isEmpty()
+                ? EntryCursor.of(entries.get(entries.size() - 1)).encode()
+                : null;
 
-        Set<Tag> tags = tagNames.stream()
-                .map(tagRepository::findByName)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.toSet());
+        logger.debug("Returning {} entries for user {}, more pages: {}", entries.size(), user.getId(), page.hasNext());
+        return new EntryPageResponse(toResponses(entries), nextCursor);
+    }
 
+    /**
+     * Returns the titles of the user's most recent entries without loading
+     * their content
+     *
+     * @param user  The owner of the entries
+     * @param count The maximum number of titles
+     * @return Titles, newest entry first
+     */
+    @Transactional(readOnly = true)
+    public List<String> getRecentEntryTitles(User user, int count) {
+        return entryRepository.findRecentTitlesByUser(user, PageRequest.of(0, count));
+    }
 
+    @Transactional(readOnly = true)
+    public List<EntryResponse> getUserEntriesByTags(User user, List<String> tagNames, int offset, int count){
+        PageRequest pageRequest = PageRequest.of(offset, count, Sort.by(Sort.Direction.DESC, "journalDate"));
 
-        List<Entry> entries = entryRepository.findByUserAndTags(user, tags, pageRequest).getContent();
+        Set<Long> tagIds = tagService.resolveTagIds(tagNames);
+        if (tagIds.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-        entries.forEach(entry -> {
-            String decryptedContent = encryptionService.decrypt(entry.getContent());
-            entry.setContent(decryptedContent);
-        });
+        List<Entry> entries = entryRepository.findByUserAndTagIds(user, tagIds, pageRequest).getContent();
 
         logger.debug("Decrypted content for {} entries", entries.size());
         
-        return entries;
+        return toResponses(entries);
     }
 
 
 
-    public Entry getEntryByUuid(User user, UUID uuid) {
-        Entry entry = entryRepository.findEntryByPublicId(uuid)
-                .orElseThrow(() -> new ApplicationException("Entry not found", HttpStatus.NOT_FOUND));
+    @Transactional(readOnly = true)
+    public EntryResponse getEntryByUuid(User user, UUID uuid) {
+        Entry entry = entryRepository.findEntryByPublicIdAndUser(uuid, user)
+                .orElseThrow(() -> entryRepository.existsByPublicId(uuid)
+                        ? new ApplicationException(
+                                String.format("User with id %d is not authorized", user.getId()),
+                                HttpStatus.UNAUTHORIZED)
+                        : new ApplicationException("Entry not found", HttpStatus.NOT_FOUND));
 
-        if (!entry.getUser().getId().equals(user.getId())) {
-            throw new ApplicationException(
-                    String.format("User with id %d is not authorized", user.getId()),
-                    HttpStatus.UNAUTHORIZED);
-        }
-
-
-        String decryptedContent = encryptionService.decrypt(entry.getContent());
-        entry.setContent(decryptedContent);
-
-        return entry;
+        return toResponse(entry);
     }
+    @Transactional
     public void deleteEntry(User user, Long entryId) {
-        Entry entry = entryRepository.findById(entryId)
-                .orElseThrow(() -> new ApplicationException(
-                        String.format("Entry with %d not found", entryId),
-                        HttpStatus.NOT_FOUND));
-
-
-        if (!entry.getUser().getId().equals(user.getId())) {
-            throw new ApplicationException(
-                    String.format("User with id %d is not authorized", user.getId()),
-                    HttpStatus.UNAUTHORIZED);
-        }
+        Entry entry = verifyUserOwnsEntry(user, entryId);
 
-        // Remove search tokens before deleting the entry
         List<Media> mediaToDelete = mediaRepository.findAllByEntryId(entryId);
         logger.debug("Found {} media records associated with entry {}", mediaToDelete.size(), entryId);
 
-        for (Media media : mediaToDelete) {
-            try {
-                logger.debug("Deleting media file from S3 with key: {}", media.getS3Key());
-                s3Service.deleteFile(media.getS3Key());
-            } catch (Exception e) {
-                // Log the error but continue trying to delete other media and the entry itself
-                logger.error("Failed to delete media file {} from S3 for entry {}: {}", media.getS3Key(), entryId, e.getMessage());
-                // Depending on requirements, you might want to re-throw or handle this differently
-            }
-        }
-
-        // 3. Delete media records from the database
         if (!mediaToDelete.isEmpty()) {
             mediaRepository.deleteAll(mediaToDelete);
+            deleteFilesAfterCommit(mediaToDelete);
             logger.debug("Deleted {} media records from database for entry {}", mediaToDelete.size(), entryId);
         }
 
+        EntryStatsSnapshot before = EntryStatsSnapshot.of(entry);
         entry.getTags().clear();
         sharedEntryService.removeSharedEntry(user, entryId);
         searchService.removeEntryTokens(entry);
+        entryReindexService.cancel(List.of(entryId));
         logger.debug("Search tokens removed for entry {}", entryId);
+        if (entry.isArchived()) {
+            entryArchiveService.remove(user, List.of(entryId));
+        }
+        entryRevisionService.remove(user, List.of(entryId));
 
-        entryRepository.deleteById(entryId);
+        entryRepository.delete(entry);
+        userStatsService.recordDeleted(user, before);
     }
 
-    public Entry updateEntry(User user, EntryDto details, Long entryId) {
-        Entry entry = entryRepository.findById(entryId)
-                .orElseThrow(() -> new ApplicationException(
-                        String.format("Entry with %d not found", entryId),
-                        HttpStatus.NOT_FOUND));
-
-        if (!entry.getUser().getId().equals(user.getId())) {
-            throw new ApplicationException(
-                    String.format("User with id %d is not authorized", user.getId()),
-                    HttpStatus.UNAUTHORIZED);
+    @Transactional
+    public EntryResponse updateEntry(User user, EntryDto details, Long entryId) {
+        Entry entry = verifyUserOwnsEntry(user, entryId);
+        if (entry.isArchived()) {
+            entryArchiveService.rehydrate(entry);
         }
 
+        EntryStatsSnapshot before = EntryStatsSnapshot.of(entry);
+        RevisionText previous = details.content() != null || details.title() != null
+                ? new RevisionText(entry.getTitle(), encryptionService.decrypt(entry.getContent()))
+                : null;
+        ZonedDateTime previousEditedAt = entry.getLastEdited().orElse(entry.getDateCreated());
+        int previousWordCount = entry.getWordCount();
         boolean needIndexUpdate = false;
 
         if (details.content() != null) {
@@ -277,85 +354,165 @@ public class EntryService {
         }
 
         if (details.tagNames() != null) {
-            Set<Tag> tags = details.tagNames().stream()
-                            .map(name -> tagRepository.findByName(name))
-                            .filter(tag -> tag.isPresent())
-                            .map(tag -> tag.get())
-                            .collect(Collectors.toSet());
-            entry.setTags(tags);
+            entry.setTags(tagService.resolveTags(details.tagNames()));
         }
 
 
         entry.setLastEdited(ZonedDateTime.now());
 
-        entryRepository.save(entry);
+        saveVersioned(entry);
+        userStatsService.recordUpdated(user, before, EntryStatsSnapshot.of(entry));
+
+        if (previous != null) {
+            entryRevisionService.recordRevision(entry, previous, previousEditedAt, previousWordCount,
+                    new RevisionText(entry.getTitle(), details.content() != null ? details.content() : previous.content()));
+        }
 
         if (needIndexUpdate)
             searchService.indexEntry(entry, details.content());
 
+        return new EntryResponse(entry, details.content());
+    }
 
-        entry.setContent(details.content());
-        return entry;
+    /**
+     * Applies an autosave from the editor. Only the fields that differ from
+     * the entry are written, a save that changes nothing writes nothing, and
+     * the search index is updated once the edits pause.
+     *
+     * @param user    The owner of the entry
+     * @param entryId The entry being edited
+     * @param patch   The changed fields and the version they were made on
+     * @return The entry as saved, with its new version
+     */
+    @Transactional
+    public EntryResponse patchEntry(User user, Long entryId, EntryPatchDto patch) {
+        if (patch.version() == null) {
+            throw new ApplicationException("Entry version is required", HttpStatus.BAD_REQUEST);
+        }
+
+        Entry entry = verifyUserOwnsEntry(user, entryId);
+        checkVersion(entry, patch.version());
+        String content = entry.isArchived()
+                ? entryArchiveService.readContent(entry)
+                : encryptionService.decrypt(entry.getContent());
+        if (!changes(entry, content, patch)) {
+            return new EntryResponse(entry, content);
+        }
+        // Only once something is saved, rehydrating alone would bump the version
+        if (entry.isArchived()) {
+            entryArchiveService.rehydrate(entry);
+        }
+
+        EntryStatsSnapshot before = EntryStatsSnapshot.of(entry);
+        RevisionText previous = new RevisionText(entry.getTitle(), content);
+        ZonedDateTime previousEditedAt = entry.getLastEdited().orElse(entry.getDateCreated());
+        int previousWordCount = entry.getWordCount();
+        boolean needIndexUpdate = false;
+
+        if (patch.content() != null && !patch.content().equals(content)) {
+            content = patch.content();
+            entry.setContent(encryptionService.encrypt(content));
+            needIndexUpdate = true;
+        }
+
+        if (patch.title() != null && !patch.title().equals(entry.getTitle())) {
+            entry.setTitle(patch.title());
+            needIndexUpdate = true;
+        }
+
+        if (patch.wordCount() != null && !patch.wordCount().equals(entry.getWordCount())) {
+            entry.setWordCount(patch.wordCount());
+        }
+
+        if (patch.isFavorite() != null && patch.isFavorite() != entry.isFavorite()) {
+            entry.setFavorite(patch.isFavorite());
+        }
+
+        entry.setLastEdited(ZonedDateTime.now());
+        saveVersioned(entry);
+        userStatsService.recordUpdated(user, before, EntryStatsSnapshot.of(entry));
+
+        if (needIndexUpdate) {
+            entryRevisionService.recordRevision(entry, previous, previousEditedAt, previousWordCount,
+                    new RevisionText(entry.getTitle(), content));
+            entryReindexService.requestReindex(entryId);
+        }
+
+        return new EntryResponse(entry, content);
+    }
+
+    private static boolean changes(Entry entry, String content, EntryPatchDto patch) {
+        return (patch.content() != null && !patch.content().equals(content))
+                || (patch.title() != null && !patch.title().equals(entry.getTitle()))
+                || (patch.wordCount() != null && !patch.wordCount().equals(entry.getWordCount()))
+                || (patch.isFavorite() != null && patch.isFavorite() != entry.isFavorite());
+    }
+
+    private void checkVersion(Entry entry, Long version) {
+        if (!entry.getVersion().equals(version)) {
+            throw new ApplicationException(
+                    String.format("Entry was changed since version %d, it is at version %d", version, entry.getVersion()),
+                    HttpStatus.CONFLICT);
+        }
+    }
+
+    /**
+     * Writes the entry now rather than at commit, so a concurrent save is
+     * reported as a conflict and the response carries the new version
+     */
+    private void saveVersioned(Entry entry) {
+        entryRepository.save(entry);
+        try {
+            entityManager.flush();
+        } catch (OptimisticLockException e) {
+            throw new ApplicationException("Entry was changed by another save", HttpStatus.CONFLICT);
+        }
     }
 
-    public List<Entry> getEntriesByYearAndMonth(User user, LocalDate date) {
+    @Transactional(readOnly = true)
+    public List<EntryResponse> getEntriesByYearAndMonth(User user, LocalDate date) {
         if (date.isAfter(LocalDate.now())) {
             throw new ApplicationException("Date cannot be in the future", HttpStatus.BAD_REQUEST);
         }
 
-        ZoneId zoneId = ZoneId.systemDefault();
-
         LocalDate endOfMonthDate = YearMonth.of(date.getYear(), date.getMonth()).atEndOfMonth();
 
-        ZonedDateTime startDate = date.atStartOfDay(zoneId);
-        ZonedDateTime endDate = endOfMonthDate.atTime(23, 59, 59).atZone(zoneId);
-
-        List<Entry> entries = entryRepository.findByDateCreatedBetweenAndUser(startDate, endDate, user);
+        List<Entry> entries = entryRepository.findByUserAndJournalDateBetween(user, date, endOfMonthDate);
 
         if (entries == null || entries.isEmpty()) {
             throw new ApplicationException(
                     String.format("No entries found for %d-%02d", date.getYear(), date.getMonthValue()),
                     HttpStatus.NOT_FOUND);
         }
-        
 
-        // Decrypt all entries' content
-        entries.forEach(entry -> {
-            String decryptedContent = encryptionService.decrypt(entry.getContent());
-            entry.setContent(decryptedContent);
-        });
 
-        return entries;
+        return toResponses(entries);
     }
 
+    @Transactional
     public void addTags(User user, Long entryId, List<String> tagNames) {
         Entry entry = verifyUserOwnsEntry(user, entryId);
+        EntryStatsSnapshot before = EntryStatsSnapshot.of(entry);
 
-        Set<Tag> tags = tagNames.stream()
-                .map(tagRepository::findByName)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.toSet());
-
-
-        entry.addTags(tags);
+        // Tags are not part of the search index, so the content is not reindexed
+        entry.addTags(tagService.resolveTags(tagNames));
         entryRepository.save(entry);
-
-        // Re-index the entry after adding tags
-        String decryptedContent = encryptionService.decrypt(entry.getContent());
-        searchService.indexEntry(entry, decryptedContent);
+        userStatsService.recordUpdated(user, before, EntryStatsSnapshot.of(entry));
     }
 
+    @Transactional
     public void removeTag(User user, Long entryId, String tagName) {
         Entry entry = verifyUserOwnsEntry(user, entryId);
 
-        Tag tag = tagRepository.findByName(tagName)
+        Long tagId = tagService.findTagId(tagName)
                 .orElseThrow(() -> new ApplicationException(
                         "Tag does nto exist for entry", HttpStatus.NOT_FOUND)
                 );
 
-        entry.getTags().remove(tag);
+        EntryStatsSnapshot before = EntryStatsSnapshot.of(entry);
+        entry.getTags().removeIf(tag -> tag.getId().equals(tagId));
         entryRepository.save(entry);
+        userStatsService.recordUpdated(user, before, EntryStatsSnapshot.of(entry));
 
     }
 
@@ -366,65 +523,249 @@ public class EntryService {
      * @param query The search query
      * @return List of entries matching the query
      */
-    public List<Entry> searchEntries(User user, String query) {
+    public List<EntryResponse> searchEntries(User user, String query) {
         return searchService.search(user, query);
     }
 
+    /**
+     * Find entries similar to one of the user's entries
+     *
+     * @param user    The owner of the entry
+     * @param entryId The entry to find related entries for
+     * @param limit   The maximum number of entries
+     * @return Entry ids and titles with their estimated similarity
+     */
+    @Transactional(readOnly = true)
+    public List<RelatedEntryResponse> getRelatedEntries(User user, Long entryId, int limit) {
+        checkUserOwnsEntry(user, entryId);
+        return relatedEntryService.findRelated(user, entryId, limit);
+    }
+
+    /**
+     * Lists the earlier versions of an entry's title and content, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<EntryRevisionSummaryResponse> getRevisions(User user, Long entryId) {
+        checkUserOwnsEntry(user, entryId);
+        return entryRevisionService.getRevisions(entryId);
+    }
+
+    /**
+     * Rebuilds an earlier version of an entry's title and content
+     */
+    @Transactional(readOnly = true)
+    public EntryRevisionResponse getRevision(User user, Long entryId, int revisionNumber) {
+        return entryRevisionService.getRevision(verifyUserOwnsEntry(user, entryId), revisionNumber);
+    }
+
+    /**
+     * Suggest entries for a partially typed query
+     *
+     * @param user   The user typing the query
+     * @param prefix The partially typed text
+     * @param limit  The maximum number of suggestions
+     * @return Entry ids and titles, newest first
+     */
+    public List<SuggestionResponse> suggestEntries(User user, String prefix, int limit) {
+        return searchService.suggest(user, prefix, limit);
+    }
+
     // Fetching Entry
+    /**
+     * Checks that the entry exists and belongs to the user without loading it.
+     * Use it when the entry itself is not needed.
+     */
+    public void checkUserOwnsEntry(User user, Long entryId) {
+        if (!entryRepository.existsByIdAndUser(entryId, user)) {
+            throw entryAccessError(user, entryId);
+        }
+    }
+
     public Entry verifyUserOwnsEntry(User user, Long entryId) {
-        Entry entry = entryRepository.findById(entryId)
-                .orElseThrow(() -> new ApplicationException(
-                        String.format("Entry with %d not found", entryId),
-                        HttpStatus.NOT_FOUND));
+        return entryRepository.findByIdAndUser(entryId, user)
+                .orElseThrow(() -> entryAccessError(user, entryId));
+    }
 
-        if (!entry.getUser().getId().equals(user.getId())) {
-            throw new ApplicationException(
-                    String.format("User with id %d is not authorized", user.getId()),
-                    HttpStatus.UNAUTHORIZED);
+    /**
+     * Tells a missing entry from someone else's once the lookup by owner found
+     * nothing. Only this failure path looks the entry up without its partition.
+     */
+    private ApplicationException entryAccessError(User user, Long entryId) {
+        if (!entryRepository.existsById(entryId)) {
+            return new ApplicationException(
+                    String.format("Entry with %d not found", entryId),
+                    HttpStatus.NOT_FOUND);
         }
-        return entry;
+        return new ApplicationException(
+                String.format("User with id %d is not authorized", user.getId()),
+                HttpStatus.UNAUTHORIZED);
     }
 
 
+    @Transactional
     public void addEntryToFolder(User user, Long entryId, Long folderId) {
         Entry entry = verifyUserOwnsEntry(user, entryId);
         Folder folder = folderService.getFolder(user, folderId);
+        EntryStatsSnapshot before = EntryStatsSnapshot.of(entry);
 
         entry.setFolder(folder);
         entryRepository.save(entry);
+        userStatsService.recordUpdated(user, before, EntryStatsSnapshot.of(entry));
     }
 
+    @Transactional
     public void removeEntryFromFolder(User user,
             Long entryId) {
         Entry entry = verifyUserOwnsEntry(user, entryId);
+        EntryStatsSnapshot before = EntryStatsSnapshot.of(entry);
         entry.setFolder(null);
         entryRepository.save(entry);
+        userStatsService.recordUpdated(user, before, EntryStatsSnapshot.of(entry));
     }
 
-    public List<Entry> getAllEntriesFromFolder(User user, Long folderId) {
-        Folder folder = folderService.getFolder(user, folderId);
+    /**
+     * Adds tags to many entries with one INSERT, skipping tags an entry already has
+     *
+     * @return The number of tags added
+     */
+    @Transactional
+    public int bulkAddTags(User user, List<Long> entryIds, List<String> tagNames) {
+        Set<Long> ids = verifyUserOwnsEntries(user, entryIds);
+        Set<Long> tagIds = tagService.resolveTagIds(tagNames != null ? tagNames : List.of());
+        if (tagIds.isEmpty()) {
+            return 0;
+        }
+
+        userStatsService.recordTagsAdded(user, ids, tagIds);
+        int added = entryRepository.addTagsToEntries(user.getId(), ids, tagIds);
+        logger.info("Added {} tags to {} entries of user {}", added, ids.size(), user.getId());
+        return added;
+    }
 
-        List<Entry> entries = entryRepository.findAllByFolder(folder);
-        for (Entry entry: entries) {
-            String decryptedContent = encryptionService.decrypt(entry.getContent());
-            entry.setContent(decryptedContent);
+    /**
+     * Removes tags from many entries with one DELETE
+     *
+     * @return The number of tags removed
+     */
+    @Transactional
+    public int bulkRemoveTags(User user, List<Long> entryIds, List<String> tagNames) {
+        Set<Long> ids = verifyUserOwnsEntries(user, entryIds);
+        Set<Long> tagIds = tagService.resolveTagIds(tagNames != null ? tagNames : List.of());
+        if (tagIds.isEmpty()) {
+            return 0;
         }
-        return entries;
+
+        userStatsService.recordTagsRemoved(user, ids, tagIds);
+        int removed = entryRepository.removeTagsFromEntries(ids, tagIds);
+        logger.info("Removed {} tags from {} entries of user {}", removed, ids.size(), user.getId());
+        return removed;
     }
 
-    public List<Entry> getAllEntriesFromFolderByPublicId(User user, UUID publicFolderId) {
-        Folder folder = folderService.getFolderByPublicId(user, publicFolderId);
+    /**
+     * Moves many entries into a folder with one UPDATE
+     *
+     * @param folderId The target folder, null takes the entries out of their folder
+     */
+    @Transactional
+    public void bulkMoveToFolder(User user, List<Long> entryIds, Long folderId) {
+        Set<Long> ids = verifyUserOwnsEntries(user, entryIds);
+        Folder folder = folderId != null ? folderService.getFolder(user, folderId) : null;
+
+        userStatsService.recordMovedToFolder(user, ids, folderId);
+        entryRepository.moveToFolder(user, ids, folder);
+        logger.info("Moved {} entries of user {} to folder {}", ids.size(), user.getId(), folderId);
+    }
 
-        List<Entry> entries = entryRepository.findAllByFolder(folder);
-        for (Entry entry: entries) {
-            String decryptedContent = encryptionService.decrypt(entry.getContent());
-            entry.setContent(decryptedContent);
+    /**
+     * Deletes many entries together with their media, shares and search
+     * tokens, using one statement per table
+     */
+    @Transactional
+    public void bulkDelete(User user, List<Long> entryIds) {
+        Set<Long> ids = verifyUserOwnsEntries(user, entryIds);
+
+        List<Media> mediaToDelete = mediaRepository.findAllByEntryIdIn(ids);
+        if (!mediaToDelete.isEmpty()) {
+            mediaRepository.deleteAllByEntryIdIn(ids);
+            deleteFilesAfterCommit(mediaToDelete);
         }
-        return entries;
+
+        sharedEntryRepository.deleteAllowedUsersByEntryIdIn(ids);
+        sharedEntryRepository.deleteAllByEntryIdIn(ids);
+
+        searchService.removeEntriesTokens(user, ids);
+        entryReindexService.cancel(ids);
+        entryArchiveService.remove(user, ids);
+        entryRevisionService.remove(user, ids);
+
+        userStatsService.recordEntriesDeleted(user, ids);
+        entryRepository.clearTags(ids);
+        entryRepository.deleteAllByUserAndIdIn(user, ids);
+        logger.info("Deleted {} entries of user {}", ids.size(), user.getId());
     }
 
+    /**
+     * Checks with one query that every entry exists and belongs to the user
+     *
+     * @return The distinct entry ids
+     */
+    private Set<Long> verifyUserOwnsEntries(User user, Collection<Long> entryIds) {
+        if (entryIds == null || entryIds.isEmpty()) {
+            throw new ApplicationException("No entries given", HttpStatus.BAD_REQUEST);
+        }
+
+        Set<Long> ids = new LinkedHashSet<>(entryIds);
+        if (ids.size() > MAX_BULK_SIZE) {
+            throw new ApplicationException(
+                    String.format("At most %d entries can be changed at once", MAX_BULK_SIZE),
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        if (entryRepository.findIdsByUserAndIdIn(user, ids).size() == ids.size()) {
+            return ids;
+        }
+
+        // Some entries are missing or someone else's, count across partitions to tell which
+        long existing = entryRepository.countByIdIn(ids);
+        if (existing != ids.size()) {
+            throw new ApplicationException(
+                    String.format("%d of the entries were not found", ids.size() - existing),
+                    HttpStatus.NOT_FOUND);
+        }
+
+        throw new ApplicationException(
+                String.format("User with id %d is not authorized", user.getId()),
+                HttpStatus.UNAUTHORIZED);
+    }
+
+    @Transactional(readOnly = true)
+    public List<EntryResponse> getAllEntriesFromFolder(User user, Long folderId) {
+        Folder folder = folderService.getFolder(user, folderId);
+
+        return toResponses(entryRepository.findAllByUserAndFolder(user, folder));
+    }
+
+    @Transactional(readOnly = true)
+    public List<EntryResponse> getAllEntriesFromFolderByPublicId(User user, UUID publicFolderId) {
+        Folder folder = folderService.getFolderByPublicId(user, publicFolderId);
+
+        return toResponses(entryRepository.findAllByUserAndFolder(user, folder));
+    }
+
+    @Transactional(readOnly = true)
+    public List<EntrySummaryResponse> getEntrySummariesFromFolder(User user, Long folderId) {
+        Folder folder = folderService.getFolder(user, folderId);
+
+        return withTags(user, entryRepository.findSummariesByFolder(user, folder));
+    }
+
+    /**
+     * Uploads a file for an entry. The upload runs outside any transaction so
+     * no connection is held while the file is sent, the media row is written
+     * in a short transaction afterwards.
+     */
     public Media uploadMedia(User user, Long entryId, MultipartFile file, MediaType mediaType) {
-        Entry entry = getEntryById(user, entryId);
+        checkUserOwnsEntry(user, entryId);
 
         // Upload file to S3 with private access
         String s3Key = s3Service.uploadFile(file, mediaType);
@@ -432,27 +773,34 @@ public class EntryService {
         // Store the permanent URL in the database
         String s3Url = "https://diamond-diaries-media.s3.amazonaws.com/" + s3Key;
 
-        // Generate the presigned URL
-        String presignedUrl = s3Service.generatePresignedUrl(s3Key);
-
-        // Save media record with S3 key and URL
-        Media media = new Media();
-        media.setEntry(entry);
-        media.setMediaType(mediaType);
-        media.setS3Key(s3Key);
-        media.setUrl(s3Url);
-        media.setFilename(file.getOriginalFilename());
-        mediaRepository.save(media);
-
-        return media;
+        try {
+            return transactionTemplate.execute(status -> {
+                // The media row only needs the entry's id, a reference avoids loading it
+                Media media = new Media();
+                media.setEntry(entityManager.getReference(Entry.class, entryId));
+                media.setMediaType(mediaType);
+                media.setS3Key(s3Key);
+                media.setUrl(s3Url);
+                media.setFilename(file.getOriginalFilename());
+                return mediaRepository.save(media);
+            });
+        } catch (RuntimeException e) {
+            // The entry may have been deleted during the upload, don't leave the file behind
+            try {
+                s3Service.deleteFile(s3Key);
+            } catch (RuntimeException cleanup) {
+                e.addSuppressed(cleanup);
+            }
+            throw e;
+        }
     }
 
-    // Get all media for an entry with secure URLs
+    // Get all media for an entry with secure URLs, signed outside any transaction
     public List<MediaResponse> getMediaByEntryId(User user, Long entryId) {
 
 
         try {
-            verifyUserOwnsEntry(user, entryId);
+            checkUserOwnsEntry(user, entryId);
         } catch (ApplicationException ex) {
             if (ex.getStatus() == HttpStatus.UNAUTHORIZED) {
                 sharedEntryService.userCanAccessEntry(user, entryId);
@@ -472,7 +820,8 @@ public class EntryService {
                 .collect(Collectors.toList());
     }
 
-    // Delete media securely
+    // Delete media securely, the file is removed once the row is gone
+    @Transactional
     public void deleteMedia(Long mediaId, Long entryId) {
         Media media = mediaRepository.findById(mediaId)
                 .orElseThrow(() -> new ApplicationException("Media not found", HttpStatus.NOT_FOUND));
@@ -482,36 +831,162 @@ public class EntryService {
             throw new ApplicationException("Media does not belong to the specified entry", HttpStatus.BAD_REQUEST);
         }
 
-        // Delete from S3 using the S3 key
-        s3Service.deleteFile(media.getS3Key());
-
-        // Remove from database
         mediaRepository.delete(media);
+        deleteFilesAfterCommit(List.of(media));
     }
 
+    /**
+     * Deletes the files of removed media from S3 once the surrounding
+     * transaction commits, so no connection is held during the calls and a
+     * rolled back delete keeps its files
+     */
+    private void deleteFilesAfterCommit(List<Media> media) {
+        List<String> keys = media.stream().map(Media::getS3Key).toList();
+        Runnable deleteFiles = () -> keys.forEach(key -> {
+            try {
+                logger.debug("Deleting media file from S3 with key: {}", key);
+                s3Service.deleteFile(key);
+            } catch (Exception e) {
+                // The rows are already gone, an orphaned file must not fail the request
+                logger.error("Failed to delete media file {} from S3: {}", key, e.getMessage());
+            }
+        });
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteFiles.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deleteFiles.run();
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
     public List<EntryResponse> getEntryIdsByTimeRange(User user, LocalDate startDate, LocalDate endDate) {
         if (startDate.isAfter(endDate)) {
             throw new ApplicationException("Start date cannot be after end date", HttpStatus.BAD_REQUEST);
         }
 
-        ZoneId zoneId = ZoneId.systemDefault();
-
-        ZonedDateTime startDateTime = startDate.atStartOfDay(zoneId);
-        ZonedDateTime endDateTime = endDate.atTime(23, 59, 59).atZone(zoneId);
-
-        List<Entry> entries = entryRepository.findByDateCreatedBetweenAndUser(startDateTime, endDateTime, user);
+        List<Entry> entries = entryRepository.findByUserAndJournalDateBetween(user, startDate, endDate);
 
         if (entries == null || entries.isEmpty()) {
             return new ArrayList<>();
         }
 
-        for (Entry entry: entries) {
-            String decryptedContent = encryptionService.decrypt(entry.getContent());
-            entry.setContent(decryptedContent);
+        return toResponses(entries);
+
+    }
+
+
+    @Transactional(readOnly = true)
+    public List<EntrySummaryResponse> getEntrySummariesByTimeRange(User user, LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new ApplicationException("Start date cannot be after end date", HttpStatus.BAD_REQUEST);
+        }
+
+        return withTags(user, entryRepository.findSummariesByUserAndJournalDateBetween(user, startDate, endDate));
+    }
+
+    /**
+     * Aggregates the user's entries per journal day for calendar views. Runs
+     * a single GROUP BY over the (user_id, journal_date) index and never
+     * loads entry content.
+     *
+     * @param user      The owner of the entries
+     * @param startDate The first day, inclusive
+     * @param endDate   The last day, inclusive
+     * @return One element per day that has entries, oldest first
+     */
+    @Transactional(readOnly = true)
+    public List<CalendarDayResponse> getCalendar(User user, LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new ApplicationException("Start date cannot be after end date", HttpStatus.BAD_REQUEST);
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_CALENDAR_DAYS) {
+            throw new ApplicationException(
+                    String.format("Calendar range cannot exceed %d days", MAX_CALENDAR_DAYS),
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        return entryRepository.findCalendarDays(user, startDate, endDate);
+    }
+
+    /**
+     * Maps an entry to a response carrying its decrypted content, read from
+     * the archive for archived entries. The entity keeps its ciphertext, so a
+     * read never leaves it dirty.
+     */
+    private EntryResponse toResponse(Entry entry) {
+        String content = entry.isArchived()
+                ? entryArchiveService.readContent(entry)
+                : encryptionService.decrypt(entry.getContent());
+        return new EntryResponse(entry, content);
+    }
+
+    /**
+     * Maps entries of one user to responses, reading the archived ones with a single query
+     */
+    private List<EntryResponse> toResponses(List<Entry> entries) {
+        List<Entry> archived = entries.stream().filter(Entry::isArchived).toList();
+        Map<Long, String> archivedContent = archived.isEmpty()
+                ? Map.of()
+                : entryArchiveService.readContents(archived.get(0).getUser(), archived);
+
+        return entries.stream()
+                .map(entry -> new EntryResponse(entry, entry.isArchived()
+                        ? archivedContent.get(entry.getId())
+                        : encryptionService.decrypt(entry.getContent())))
+                .toList();
+    }
+
+    /**
+     * Attaches tag names to content-free entry rows with a single query
+     */
+    private List<EntrySummaryResponse> withTags(User user, List<EntrySummary> summaries) {
+        if (summaries.isEmpty()) {
+            return new ArrayList<>();
         }
 
-        return entries.stream().map(EntryResponse::new).toList();
+        Map<Long, Set<String>> tagsByEntry = new HashMap<>();
+        entryRepository.findTagNamesByEntryIdIn(summaries.stream().map(EntrySummary::getId).toList(), user)
+                .forEach(tag -> tagsByEntry
+                        .computeIfAbsent(tag.getEntryId(), id -> new HashSet<>())
+                        .add(tag.getName()));
 
+        return summaries.stream()
+                .map(summary -> new EntrySummaryResponse(summary,
+                        tagsByEntry.getOrDefault(summary.getId(), Set.of())))
+                .toList();
     }
 
+    /**
+     * Position of an entry in the (journalDate, id) listing order, exchanged
+     * with clients as an opaque base64url string
+     */
+    private record EntryCursor(LocalDate journalDate, Long id) {
+        static EntryCursor of(Entry entry) {
+            return new EntryCursor(entry.getJournalDate(), entry.getId());
+        }
+
+        static EntryCursor decode(String cursor) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = decoded.indexOf(':');
+                return new EntryCursor(
+                        LocalDate.parse(decoded.substring(0, separator)),
+                        Long.parseLong(decoded.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new ApplicationException("Invalid cursor", HttpStatus.BAD_REQUEST);
+            }
+        }
+
+        String encode() {
+            String value = journalDate + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
 }
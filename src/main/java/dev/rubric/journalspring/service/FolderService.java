@@ -1,13 +1,13 @@
 package dev.rubric.journalspring.service;
 
 import dev.rubric.journalspring.exception.ApplicationException;
-import dev.rubric.journalspring.models.Entry;
 import dev.rubric.journalspring.models.Folder;
 import dev.rubric.journalspring.models.User;
 import dev.rubric.journalspring.repository.EntryRepository;
 import dev.rubric.journalspring.repository.FolderRepository;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
@@ -17,18 +17,24 @@ public class FolderService {
 
     private final FolderRepository folderRepository;
     private final EntryRepository entryRepository;
+    private final UserStatsService userStatsService;
 
-    public FolderService(FolderRepository folderRepository, EntryRepository entryRepository) {
+    public FolderService(FolderRepository folderRepository,
+                         EntryRepository entryRepository,
+                         UserStatsService userStatsService) {
         this.folderRepository = folderRepository;
         this.entryRepository = entryRepository;
+        this.userStatsService = userStatsService;
     }
 
+    @Transactional
     public void createFolder(User user, String name) {
         Folder folder = new Folder(user, name);
 
         folderRepository.save(folder);
     }
 
+    @Transactional(readOnly = true)
     public Folder getFolder(User user, Long id) {
         Folder folder = folderRepository.findById(id)
                 .orElseThrow(() -> new ApplicationException(
@@ -45,6 +51,7 @@ public class FolderService {
         return folder;
     }
 
+    @Transactional(readOnly = true)
     public Folder getFolderByPublicId(User user, UUID publicId) {
         Folder folder = folderRepository.getByPublicId(publicId)
                 .orElseThrow(() -> new ApplicationException(
@@ -61,30 +68,27 @@ public class FolderService {
         return folder;
     }
 
+    @Transactional(readOnly = true)
     public List<Folder> getAllUserFolders(User user) {
         return folderRepository.getAllByUser(user);
     }
 
+    @Transactional
     public void deleteFolder(User user, Long id) {
         Folder folder = getFolder(user, id);
 
-        List<Entry> entriesToUpdate = entryRepository.findAllByFolder(folder);
-
-        for (Entry entry : entriesToUpdate) {
-            entry.setFolder(null);
-        }
-
-        if (!entriesToUpdate.isEmpty()) {
-            entryRepository.saveAll(entriesToUpdate);
-        }
+        // Take the entries out of the folder in one statement instead of loading them
+        entryRepository.clearFolder(user, folder);
+        userStatsService.removeFolder(folder);
 
         folderRepository.delete(folder);
     }
 
+    @Transactional
     public void updateFolderName(User user, Long id, String name) {
         Folder folder = getFolder(user, id);
 
-        if (!folder.getUser().equals(user)) {
+        if (!folder.getUser().getId().equals(user.getId())) {
             throw new ApplicationException(
                     String.format("User with id %d is not authorized", user.getId()),
                     HttpStatus.UNAUTHORIZED);
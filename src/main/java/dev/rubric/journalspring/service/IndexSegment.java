@@ -0,0 +1,243 @@
+package dev.rubric.journalspring.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Immutable, memory-mapped file holding a sorted token dictionary with the
+ * entry ids (postings) of every token, plus the ids of entries whose postings
+ * in older segments are superseded (tombstones).
+ * <p>
+ * Layout, all values big-endian:
+ * <pre>
+ * token records   int length, UTF-8 bytes, int count, long[count] entry ids
+ * tombstones      long[tombstoneCount], sorted
+ * offsets         long[tokenCount], position of each token record
+ * footer          long tombstonesPosition, int tombstoneCount,
+ *                 long offsetsPosition, int tokenCount, int version, int magic
+ * </pre>
+ * Token records are sorted by their unsigned bytes so a lookup is a binary
+ * search over the offset table.
+ */
+final class IndexSegment {
+    private static final int MAGIC = 0x4a534547; // "JSEG"
+    private static final int VERSION = 1;
+    private static final int FOOTER_SIZE = 32;
+
+    private final Path path;
+    private final long minGeneration;
+    private final long maxGeneration;
+    private final MappedByteBuffer buffer;
+    private final int tombstonesPosition;
+    private final int tombstoneCount;
+    private final int offsetsPosition;
+    private final int tokenCount;
+
+    private IndexSegment(Path path, long minGeneration, long maxGeneration, MappedByteBuffer buffer) throws IOException {
+        int footer = buffer.capacity() - FOOTER_SIZE;
+        if (buffer.getInt(footer + 28) != MAGIC || buffer.getInt(footer + 24) != VERSION) {
+            throw new IOException("Not a search index segment: " + path);
+        }
+
+        this.path = path;
+        this.minGeneration = minGeneration;
+        this.maxGeneration = maxGeneration;
+        this.buffer = buffer;
+        this.tombstonesPosition = (int) buffer.getLong(footer);
+        this.tombstoneCount = buffer.getInt(footer + 8);
+        this.offsetsPosition = (int) buffer.getLong(footer + 12);
+        this.tokenCount = buffer.getInt(footer + 20);
+    }
+
+    static IndexSegment open(Path path, long minGeneration, long maxGeneration) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < FOOTER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid segment size " + size + " for " + path);
+            }
+            // The mapping stays valid after the channel is closed
+            return new IndexSegment(path, minGeneration, maxGeneration,
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Writes a segment to a temporary file, syncs it and atomically moves it
+     * into place, so readers never observe a partial segment
+     *
+     * @param target     The final segment path
+     * @param tokens     Token records in unsigned byte order
+     * @param tombstones Sorted ids of entries superseded by this segment
+     */
+    static void write(Path target, Iterator<TokenPostings> tokens, long[] tombstones) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+
+            long[] offsets = new long[16];
+            int tokenCount = 0;
+
+            while (tokens.hasNext()) {
+                TokenPostings record = tokens.next();
+                if (tokenCount == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, tokenCount * 2);
+                }
+                offsets[tokenCount++] = out.size();
+
+                out.writeInt(record.token().length);
+                out.write(record.token());
+                out.writeInt(record.entryIds().length);
+                for (long entryId : record.entryIds()) {
+                    out.writeLong(entryId);
+                }
+            }
+
+            long tombstonesPosition = out.size();
+            for (long tombstone : tombstones) {
+                out.writeLong(tombstone);
+            }
+
+            long offsetsPosition = out.size();
+            for (int i = 0; i < tokenCount; i++) {
+                out.writeLong(offsets[i]);
+            }
+
+            out.writeLong(tombstonesPosition);
+            out.writeInt(tombstones.length);
+            out.writeLong(offsetsPosition);
+            out.writeInt(tokenCount);
+            out.writeInt(VERSION);
+            out.writeInt(MAGIC);
+            out.flush();
+
+            // DataOutputStream.size() saturates instead of overflowing
+            if (out.size() == Integer.MAX_VALUE) {
+                throw new IOException("Segment exceeds 2GB: " + target);
+            }
+            channel.force(true);
+        }
+
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the entry ids stored for a token, empty when it is absent
+     */
+    long[] postings(byte[] token) {
+        int low = 0;
+        int high = tokenCount - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int record = recordPosition(mid);
+            int comparison = compareToken(record, token);
+
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return readPostings(record + Integer.BYTES + token.length);
+            }
+        }
+
+        return new long[0];
+    }
+
+    boolean isTombstoned(long entryId) {
+        int low = 0;
+        int high = tombstoneCount - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long value = buffer.getLong(tombstonesPosition + mid * Long.BYTES);
+
+            if (value < entryId) {
+                low = mid + 1;
+            } else if (value > entryId) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Iterates the token records in dictionary order
+     */
+    Iterator<TokenPostings> tokens() {
+        return new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < tokenCount;
+            }
+
+            @Override
+            public TokenPostings next() {
+                int record = recordPosition(index++);
+                byte[] token = new byte[buffer.getInt(record)];
+                buffer.get(record + Integer.BYTES, token);
+                return new TokenPostings(token, readPostings(record + Integer.BYTES + token.length));
+            }
+        };
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getMinGeneration() {
+        return minGeneration;
+    }
+
+    long getMaxGeneration() {
+        return maxGeneration;
+    }
+
+    private int recordPosition(int index) {
+        return (int) buffer.getLong(offsetsPosition + index * Long.BYTES);
+    }
+
+    private long[] readPostings(int position) {
+        long[] entryIds = new long[buffer.getInt(position)];
+        for (int i = 0; i < entryIds.length; i++) {
+            entryIds[i] = buffer.getLong(position + Integer.BYTES + i * Long.BYTES);
+        }
+        return entryIds;
+    }
+
+    private int compareToken(int record, byte[] token) {
+        int length = buffer.getInt(record);
+        int common = Math.min(length, token.length);
+
+        for (int i = 0; i < common; i++) {
+            int comparison = Byte.compareUnsigned(buffer.get(record + Integer.BYTES + i), token[i]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+
+        return Integer.compare(length, token.length);
+    }
+
+    /**
+     * A token with its sorted entry ids
+     */
+    record TokenPostings(byte[] token, long[] entryIds) {}
+}
@@ -0,0 +1,320 @@
+package dev.rubric.journalspring.service;
+
+import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.models.EntrySignature;
+import dev.rubric.journalspring.models.LshBucket;
+import dev.rubric.journalspring.models.MaintenanceJob;
+import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.repository.EntryRepository;
+import dev.rubric.journalspring.repository.EntrySignatureRepository;
+import dev.rubric.journalspring.repository.LshBucketRepository;
+import dev.rubric.journalspring.repository.MaintenanceJobRepository;
+import dev.rubric.journalspring.response.RelatedEntryResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Finds similar entries from MinHash signatures of their encrypted search
+ * tokens. Signatures are split into LSH bands so a lookup only compares the
+ * entries sharing at least one band, and no plaintext is needed at any point.
+ */
+@Service
+public class RelatedEntryService {
+    private static final Logger logger = LoggerFactory.getLogger(RelatedEntryService.class);
+    static final int NUM_HASHES = 128;
+    static final int BANDS = 64;
+    static final int ROWS_PER_BAND = NUM_HASHES / BANDS;
+    private static final int MAX_CANDIDATES = 100;
+    private static final int MAX_RELATED = 20;
+    private static final int BACKFILL_BATCH_SIZE = 100;
+    private static final long SEED_STEP = 0x9e3779b97f4a7c15L;
+    static final String BACKFILL_JOB = "entry-signature-backfill";
+
+    private final EntrySignatureRepository entrySignatureRepository;
+    private final LshBucketRepository lshBucketRepository;
+    private final SearchIndex searchIndex;
+    private final EntryRepository entryRepository;
+    private final MaintenanceJobRepository maintenanceJobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService backfillExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "signature-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${search.related.min-similarity:0.2}")
+    private double minSimilarity = 0.2;
+
+    @Value("${search.related.backfill-on-startup:true}")
+    private boolean backfillOnStartup = true;
+
+    public RelatedEntryService(EntrySignatureRepository entrySignatureRepository,
+                               LshBucketRepository lshBucketRepository,
+                               SearchIndex searchIndex,
+                               EntryRepository entryRepository,
+                               MaintenanceJobRepository maintenanceJobRepository,
+                               PlatformTransactionManager transactionManager) {
+        this.entrySignatureRepository = entrySignatureRepository;
+        this.lshBucketRepository = lshBucketRepository;
+        this.searchIndex = searchIndex;
+        this.entryRepository = entryRepository;
+        this.maintenanceJobRepository = maintenanceJobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Replaces the signature and LSH buckets of an entry
+     *
+     * @param entry  The indexed entry
+     * @param tokens The encrypted tokens stored for the entry
+     */
+    @Transactional
+    public void updateSignature(Entry entry, Collection<String> tokens) {
+        lshBucketRepository.deleteAllByEntry(entry);
+
+        if (tokens.isEmpty()) {
+            entrySignatureRepository.deleteAllByEntry(entry);
+            return;
+        }
+
+        // Updated in place, a delete followed by an insert would be flushed
+        // in the wrong order and hit the unique entry_id constraint
+        EntrySignature entrySignature = entrySignatureRepository.findByEntry(entry)
+                .orElseGet(() -> new EntrySignature(entry));
+        storeSignature(entrySignature, computeSignature(tokens));
+    }
+
+    /**
+     * Removes the signature and LSH buckets of an entry
+     *
+     * @param entry The entry being deleted
+     */
+    @Transactional
+    public void removeSignature(Entry entry) {
+        lshBucketRepository.deleteAllByEntry(entry);
+        entrySignatureRepository.deleteAllByEntry(entry);
+    }
+
+    /**
+     * Removes the signatures and LSH buckets of several entries
+     *
+     * @param entryIds The entries being deleted
+     */
+    @Transactional
+    public void removeSignatures(Collection<Long> entryIds) {
+        lshBucketRepository.deleteAllByEntryIdIn(entryIds);
+        entrySignatureRepository.deleteAllByEntryIdIn(entryIds);
+    }
+
+    /**
+     * Finds the entries most similar to the given one
+     *
+     * @param user    The owner of the entry
+     * @param entryId The entry to find neighbours for
+     * @param limit   The maximum number of entries to return
+     * @return Related entries ordered by estimated similarity
+     */
+    @Transactional(readOnly = true)
+    public List<RelatedEntryResponse> findRelated(User user, Long entryId, int limit) {
+        Optional<EntrySignature> entrySignature = entrySignatureRepository.findByEntryId(entryId);
+        if (entrySignature.isEmpty()) {
+            logger.debug("Entry {} has no signature yet", entryId);
+            return Collections.emptyList();
+        }
+
+        long[] signature = fromBytes(entrySignature.get().getSignature());
+        List<Long> candidateIds = lshBucketRepository.findCandidateEntryIds(
+                user, bucketKeys(signature), entryId, PageRequest.of(0, MAX_CANDIDATES));
+
+        if (candidateIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        int size = Math.min(Math.max(limit, 1), MAX_RELATED);
+        List<RelatedEntryResponse> related = entrySignatureRepository.findAllWithEntryByEntryIdIn(candidateIds).stream()
+                .map(candidate -> new RelatedEntryResponse(
+                        candidate.getEntry().getId(),
+                        candidate.getEntry().getPublicId(),
+                        candidate.getEntry().getTitle(),
+                        estimateSimilarity(signature, fromBytes(candidate.getSignature()))))
+                .filter(response -> response.getSimilarity() >= minSimilarity)
+                .sorted(Comparator.comparingDouble(RelatedEntryResponse::getSimilarity).reversed())
+                .limit(size)
+                .collect(Collectors.toList());
+
+        logger.debug("Found {} related entries out of {} candidates for entry {}",
+                related.size(), candidateIds.size(), entryId);
+        return related;
+    }
+
+    /**
+     * Starts the signature backfill on its own thread unless it already
+     * completed, startup does not wait for it
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleBackfill() {
+        if (!backfillOnStartup || maintenanceJobRepository.existsById(BACKFILL_JOB)) {
+            return;
+        }
+
+        backfillExecutor.execute(() -> {
+            try {
+                int backfilled = backfillSignatures();
+                logger.info("Backfilled signatures for {} entries", backfilled);
+            } catch (RuntimeException e) {
+                // Not recorded as completed, the next start resumes it
+                logger.error("Backfilling entry signatures failed", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        backfillExecutor.shutdownNow();
+    }
+
+    /**
+     * Builds signatures for entries indexed before related entries existed,
+     * from the tokens in the search index, and records the job as completed.
+     * Each entry is stored in its own transaction.
+     *
+     * @return The number of entries given a signature
+     */
+    public int backfillSignatures() {
+        long lastId = 0;
+        int backfilled = 0;
+        List<Long> entryIds;
+
+        while (!(entryIds = entrySignatureRepository.findEntryIdsWithoutSignature(
+                lastId, PageRequest.of(0, BACKFILL_BATCH_SIZE))).isEmpty()) {
+            Map<Long, List<Entry>> entriesByUser = new LinkedHashMap<>();
+            for (Entry entry : entryRepository.findAllById(entryIds)) {
+                entriesByUser.computeIfAbsent(entry.getUser().getId(), id -> new ArrayList<>()).add(entry);
+            }
+
+            for (List<Entry> entries : entriesByUser.values()) {
+                Map<Long, List<String>> tokensByEntry = searchIndex.entryTokens(
+                        entries.get(0).getUser(), entries.stream().map(Entry::getId).toList());
+
+                for (Entry entry : entries) {
+                    List<String> tokens = tokensByEntry.getOrDefault(entry.getId(), List.of());
+                    if (tokens.isEmpty()) {
+                        continue;
+                    }
+                    try {
+                        transactionTemplate.executeWithoutResult(status ->
+                                storeSignature(new EntrySignature(entry), computeSignature(tokens)));
+                        backfilled++;
+                    } catch (DataIntegrityViolationException e) {
+                        // The entry was re-indexed concurrently and already has a signature
+                        logger.debug("Skipping signature backfill for entry {}", entry.getId());
+                    }
+                }
+            }
+            lastId = entryIds.get(entryIds.size() - 1);
+        }
+
+        try {
+            maintenanceJobRepository.save(new MaintenanceJob(BACKFILL_JOB, ZonedDateTime.now()));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance finished the backfill at the same time
+            logger.debug("Signature backfill was already recorded as completed");
+        }
+        return backfilled;
+    }
+
+    private void storeSignature(EntrySignature entrySignature, long[] signature) {
+        Entry entry = entrySignature.getEntry();
+        entrySignature.setSignature(toBytes(signature));
+        entrySignatureRepository.save(entrySignature);
+
+        List<LshBucket> buckets = bucketKeys(signature).stream()
+                .map(bucketKey -> new LshBucket(entry, entry.getUser(), bucketKey))
+                .collect(Collectors.toList());
+        lshBucketRepository.saveAll(buckets);
+    }
+
+    /**
+     * Computes the MinHash signature of a token set, one minimum per seeded
+     * hash function
+     */
+    static long[] computeSignature(Collection<String> tokens) {
+        long[] tokenHashes = tokens.stream()
+                .distinct()
+                .mapToLong(TokenGeneratorService::hashToken)
+                .toArray();
+
+        long[] signature = new long[NUM_HASHES];
+        Arrays.fill(signature, Long.MAX_VALUE);
+
+        for (long tokenHash : tokenHashes) {
+            for (int i = 0; i < NUM_HASHES; i++) {
+                long hash = TokenGeneratorService.mix64(tokenHash ^ (SEED_STEP * (i + 1)));
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+
+        return signature;
+    }
+
+    /**
+     * Fraction of equal signature positions, an unbiased estimate of the
+     * Jaccard similarity of the two token sets
+     */
+    static double estimateSimilarity(long[] first, long[] second) {
+        int equal = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (first[i] == second[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / NUM_HASHES;
+    }
+
+    /**
+     * Hashes each band of the signature, together with its index, into the
+     * key of the bucket it falls into
+     */
+    static List<Long> bucketKeys(long[] signature) {
+        List<Long> keys = new ArrayList<>(BANDS);
+        for (int band = 0; band < BANDS; band++) {
+            long key = SEED_STEP * (band + 1);
+            for (int row = 0; row < ROWS_PER_BAND; row++) {
+                key = TokenGeneratorService.mix64(key ^ signature[band * ROWS_PER_BAND + row]);
+            }
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    static byte[] toBytes(long[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(signature.length * Long.BYTES);
+        buffer.asLongBuffer().put(signature);
+        return buffer.array();
+    }
+
+    static long[] fromBytes(byte[] bytes) {
+        long[] signature = new long[bytes.length / Long.BYTES];
+        ByteBuffer.wrap(bytes).asLongBuffer().get(signature);
+        return signature;
+    }
+}
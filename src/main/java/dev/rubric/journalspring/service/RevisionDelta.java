@@ -0,0 +1,135 @@
+package dev.rubric.journalspring.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binary deltas between two versions of a text. A delta is a list of copy
+ * operations, ranges taken from the base, and insert operations carrying the
+ * bytes the base does not have. Matches are found on blocks of the base, so
+ * moved and repeated paragraphs are copied as well as the unchanged start
+ * and end of an edit.
+ */
+final class RevisionDelta {
+    private static final int BLOCK_SIZE = 16;
+    private static final int COPY = 0;
+    private static final int INSERT = 1;
+
+    private RevisionDelta() {
+    }
+
+    /**
+     * Encodes target as a delta against base
+     */
+    static byte[] diff(byte[] base, byte[] target) {
+        Map<Integer, Integer> blocks = new HashMap<>();
+        for (int offset = 0; offset + BLOCK_SIZE <= base.length; offset += BLOCK_SIZE) {
+            blocks.putIfAbsent(hash(base, offset), offset);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarint(out, target.length);
+
+        int literalStart = 0;
+        int position = 0;
+        while (position + BLOCK_SIZE <= target.length) {
+            Integer candidate = blocks.get(hash(target, position));
+            if (candidate == null || !Arrays.equals(
+                    target, position, position + BLOCK_SIZE, base, candidate, candidate + BLOCK_SIZE)) {
+                position++;
+                continue;
+            }
+
+            // Grow the match backwards over pending literals and forwards past the block
+            int baseStart = candidate;
+            int targetStart = position;
+            while (targetStart > literalStart && baseStart > 0 && target[targetStart - 1] == base[baseStart - 1]) {
+                targetStart--;
+                baseStart--;
+            }
+            int baseEnd = candidate + BLOCK_SIZE;
+            int targetEnd = position + BLOCK_SIZE;
+            while (targetEnd < target.length && baseEnd < base.length && target[targetEnd] == base[baseEnd]) {
+                targetEnd++;
+                baseEnd++;
+            }
+
+            writeInsert(out, target, literalStart, targetStart);
+            writeVarint(out, (baseEnd - baseStart) << 1 | COPY);
+            writeVarint(out, baseStart);
+            literalStart = position = targetEnd;
+        }
+        writeInsert(out, target, literalStart, target.length);
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Rebuilds the target a delta was made for from its base
+     *
+     * @throws IllegalArgumentException If the delta does not fit the base
+     */
+    static byte[] apply(byte[] base, byte[] delta) {
+        int[] cursor = {0};
+
+        try {
+            byte[] target = new byte[readVarint(delta, cursor)];
+            int position = 0;
+            while (cursor[0] < delta.length) {
+                int operation = readVarint(delta, cursor);
+                int length = operation >>> 1;
+                if ((operation & 1) == COPY) {
+                    System.arraycopy(base, readVarint(delta, cursor), target, position, length);
+                } else {
+                    System.arraycopy(delta, cursor[0], target, position, length);
+                    cursor[0] += length;
+                }
+                position += length;
+            }
+
+            if (position != target.length) {
+                throw new IllegalArgumentException("Revision delta does not match its base");
+            }
+            return target;
+        } catch (IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IllegalArgumentException("Revision delta does not match its base", e);
+        }
+    }
+
+    private static void writeInsert(ByteArrayOutputStream out, byte[] target, int from, int to) {
+        if (to > from) {
+            writeVarint(out, (to - from) << 1 | INSERT);
+            out.write(target, from, to - from);
+        }
+    }
+
+    private static int hash(byte[] data, int offset) {
+        int hash = 1;
+        for (int i = offset; i < offset + BLOCK_SIZE; i++) {
+            hash = 31 * hash + data[i];
+        }
+        return hash;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] data, int[] cursor) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = data[cursor[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in revision delta");
+    }
+}
@@ -0,0 +1,244 @@
+package dev.rubric.journalspring.service;
+
+import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps a Bloom filter of every indexed token per user so searches that
+ * cannot match anything skip the search index. Filters live in memory only.
+ * <p>
+ * Every indexing transaction increments the user's search version in the
+ * database, and a filter remembers the version it covers. A search reads the
+ * version first and only lets a filter answer when it covers it, so tokens
+ * indexed by another instance are never missed. Otherwise the index answers
+ * and the filter is rebuilt in the background, never on the request path.
+ * Tokens indexed by this instance are added when their transaction commits,
+ * which keeps the filter current without a rebuild.
+ * <p>
+ * Deleted tokens stay in a filter as false positives, filters older than the
+ * max age are rebuilt in the background to shed them.
+ */
+@Service
+public class SearchBloomFilterService {
+    private static final Logger logger = LoggerFactory.getLogger(SearchBloomFilterService.class);
+    private static final long MIN_CAPACITY = 10_000;
+
+    private final SearchIndex searchIndex;
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Map<Long, CachedFilter> filters;
+    private final Set<Long> rebuilding = ConcurrentHashMap.newKeySet();
+    private Executor builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bloom-filter-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${search.bloom.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${search.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    @Value("${search.bloom.max-users:10000}")
+    private int maxUsers = 10_000;
+
+    // Zero keeps filters until they are evicted or saturated
+    @Value("${search.bloom.max-age:6h}")
+    private Duration maxAge = Duration.ofHours(6);
+
+    public SearchBloomFilterService(SearchIndex searchIndex,
+                                    UserRepository userRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.searchIndex = searchIndex;
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.filters = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedFilter> eldest) {
+                return size() > maxUsers;
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (builder instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Checks whether any of the tokens may have been indexed for the user
+     *
+     * @param user   The user performing the search
+     * @param tokens The encrypted query tokens
+     * @return false only when none of the tokens can be in the index
+     */
+    public boolean mightContainAny(User user, Collection<String> tokens) {
+        if (!enabled) {
+            return true;
+        }
+
+        TokenBloomFilter filter = currentFilter(user);
+        if (filter == null) {
+            return true;
+        }
+
+        return tokens.stream().anyMatch(filter::mightContain);
+    }
+
+    /**
+     * Checks whether every token may have been indexed for the user
+     *
+     * @param user   The user performing the lookup
+     * @param tokens The encrypted tokens that must all be present
+     * @return false when at least one token cannot be in the index
+     */
+    public boolean mightContainAll(User user, Collection<String> tokens) {
+        if (!enabled) {
+            return true;
+        }
+
+        TokenBloomFilter filter = currentFilter(user);
+        if (filter == null) {
+            return true;
+        }
+
+        return tokens.stream().allMatch(filter::mightContain);
+    }
+
+    /**
+     * Records newly indexed tokens for a user. Increments the user's search
+     * version in the indexing transaction, the tokens are added to this
+     * instance's filter once it commits.
+     *
+     * @param user   The owner of the indexed entries
+     * @param tokens The encrypted tokens that were stored
+     */
+    public void addTokens(User user, Collection<String> tokens) {
+        if (!enabled) {
+            return;
+        }
+
+        Long userId = user.getId();
+        userRepository.incrementSearchVersion(userId);
+        // The row stays locked until commit, so this is the version the transaction wrote
+        long version = userRepository.findSearchVersion(userId);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(userId, version, tokens);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(userId, version, tokens);
+            }
+        });
+    }
+
+    private void add(Long userId, long version, Collection<String> tokens) {
+        synchronized (filters) {
+            CachedFilter cached = filters.get(userId);
+            // A filter missing the writes in between stays behind, searches skip it until it is rebuilt
+            if (cached == null || cached.version() != version - 1) {
+                return;
+            }
+
+            tokens.forEach(cached.filter()::put);
+
+            if (cached.filter().isSaturated()) {
+                logger.debug("Bloom filter for user {} is saturated, dropping it for a rebuild", userId);
+                filters.remove(userId);
+            } else {
+                filters.put(userId, new CachedFilter(cached.filter(), version, cached.builtAt()));
+            }
+        }
+    }
+
+    /**
+     * The user's filter when it covers every indexing transaction, otherwise
+     * null and a rebuild is started
+     */
+    private TokenBloomFilter currentFilter(User user) {
+        long version = userRepository.findSearchVersion(user.getId());
+        CachedFilter cached = filters.get(user.getId());
+
+        if (cached == null || cached.version() < version) {
+            rebuildInBackground(user);
+            return null;
+        }
+
+        if (!maxAge.isZero() && System.nanoTime() - cached.builtAt() >= maxAge.toNanos()) {
+            rebuildInBackground(user);
+        }
+        return cached.filter();
+    }
+
+    private void rebuildInBackground(User user) {
+        if (!rebuilding.add(user.getId())) {
+            return;
+        }
+
+        try {
+            builder.execute(() -> {
+                try {
+                    rebuild(user);
+                } catch (RuntimeException e) {
+                    logger.warn("Rebuilding the Bloom filter for user {} failed", user.getId(), e);
+                } finally {
+                    rebuilding.remove(user.getId());
+                }
+            });
+        } catch (RuntimeException e) {
+            rebuilding.remove(user.getId());
+            throw e;
+        }
+    }
+
+    private void rebuild(User user) {
+        // The version is read first, so the tokens read after it include everything it counts
+        record Snapshot(long version, List<String> tokens) {}
+        Snapshot snapshot = readOnlyTransaction.execute(status -> new Snapshot(
+                userRepository.findSearchVersion(user.getId()),
+                searchIndex.userTokens(user)));
+
+        TokenBloomFilter filter = TokenBloomFilter.create(Math.max(MIN_CAPACITY, snapshot.tokens().size() * 2L), falsePositiveRate);
+        snapshot.tokens().forEach(filter::put);
+
+        synchronized (filters) {
+            CachedFilter cached = filters.get(user.getId());
+            // A commit on this instance may have moved the current filter past the snapshot
+            if (cached == null || cached.version() <= snapshot.version()) {
+                filters.put(user.getId(), new CachedFilter(filter, snapshot.version(), System.nanoTime()));
+            }
+        }
+        logger.debug("Built Bloom filter over {} tokens for user {}", snapshot.tokens().size(), user.getId());
+    }
+
+    private record CachedFilter(TokenBloomFilter filter, long version, long builtAt) {}
+}
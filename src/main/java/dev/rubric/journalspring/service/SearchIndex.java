@@ -0,0 +1,65 @@
+package dev.rubric.journalspring.service;
+
+import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.models.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage for the encrypted search tokens of entries. The backend is chosen
+ * with {@code search.index.backend}: {@code database} (default) keeps tokens
+ * in the search_tokens table, {@code segment} keeps them in per-user segment
+ * files on local disk.
+ */
+public interface SearchIndex {
+
+    /**
+     * Replaces the tokens indexed for an entry
+     */
+    void index(Entry entry, Collection<String> tokens);
+
+    /**
+     * Stores the tokens of entries that have none indexed yet, such as
+     * freshly imported entries
+     *
+     * @param tokensByEntry Each entry mapped to its tokens
+     */
+    default void indexNew(Map<Entry, ? extends Collection<String>> tokensByEntry) {
+        tokensByEntry.forEach(this::index);
+    }
+
+    /**
+     * Removes every token indexed for an entry
+     */
+    void remove(Entry entry);
+
+    /**
+     * Removes every token indexed for the user's entries
+     */
+    void removeAll(User user, Collection<Long> entryIds);
+
+    /**
+     * Counts, for each of the user's entries, how many of the tokens it contains
+     *
+     * @return Entry ids mapped to their number of matching tokens
+     */
+    Map<Long, Integer> match(User user, Collection<String> tokens);
+
+    /**
+     * Finds the user's most recent entries containing every token
+     */
+    List<Long> findEntriesContainingAll(User user, Collection<String> tokens, int limit);
+
+    /**
+     * Returns the tokens indexed for each of the user's entries, entries
+     * without tokens are left out
+     */
+    Map<Long, List<String>> entryTokens(User user, Collection<Long> entryIds);
+
+    /**
+     * Returns every distinct token indexed for the user
+     */
+    List<String> userTokens(User user);
+}
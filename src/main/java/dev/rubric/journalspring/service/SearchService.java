@@ -2,9 +2,10 @@ package dev.rubric.journalspring.service;
 
 import dev.rubric.journalspring.exception.ApplicationException;
 import dev.rubric.journalspring.models.Entry;
-import dev.rubric.journalspring.models.SearchToken;
 import dev.rubric.journalspring.models.User;
-import dev.rubric.journalspring.repository.SearchTokenRepository;
+import dev.rubric.journalspring.repository.EntryRepository;
+import dev.rubric.journalspring.response.EntryResponse;
+import dev.rubric.journalspring.response.SuggestionResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,28 +13,48 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class SearchService {
     private static final Logger logger = LoggerFactory.getLogger(SearchService.class);
+    private static final int MAX_SUGGESTIONS = 20;
 
-    private final SearchTokenRepository searchTokenRepository;
+    private final SearchIndex searchIndex;
+    private final EntryRepository entryRepository;
     private final TokenGeneratorService tokenGeneratorService;
     private final EncryptionService encryptionService;
+    private final SearchBloomFilterService searchBloomFilterService;
+    private final SuggestionCache suggestionCache;
+    private final RelatedEntryService relatedEntryService;
+    private final EntryArchiveService entryArchiveService;
 
     @Autowired
     public SearchService(
-            SearchTokenRepository searchTokenRepository,
+            SearchIndex searchIndex,
+            EntryRepository entryRepository,
             TokenGeneratorService tokenGeneratorService,
-            EncryptionService encryptionService) {
-        this.searchTokenRepository = searchTokenRepository;
+            EncryptionService encryptionService,
+            SearchBloomFilterService searchBloomFilterService,
+            SuggestionCache suggestionCache,
+            RelatedEntryService relatedEntryService,
+            EntryArchiveService entryArchiveService) {
+        this.searchIndex = searchIndex;
+        this.entryRepository = entryRepository;
         this.tokenGeneratorService = tokenGeneratorService;
         this.encryptionService = encryptionService;
+        this.searchBloomFilterService = searchBloomFilterService;
+        this.suggestionCache = suggestionCache;
+        this.relatedEntryService = relatedEntryService;
+        this.entryArchiveService = entryArchiveService;
     }
 
     /**
@@ -44,24 +65,61 @@ public class SearchService {
      */
     @Transactional
     public void indexEntry(Entry entry, String plainTextContent) {
-        // Generate tokens from the entry content
-        List<String> tokens = tokenGeneratorService.generateSearchTokens(plainTextContent);
-
-        // Also add tokens from the title for better search coverage
-        tokens.addAll(tokenGeneratorService.generateSearchTokens(entry.getTitle()));
-
+        Set<String> tokens = generateEntryTokens(entry.getTitle(), plainTextContent);
         logger.debug("Generated {} tokens for entry {}", tokens.size(), entry.getId());
 
-        // Remove any existing tokens for this entry (for updates)
-        searchTokenRepository.deleteAllByEntry(entry);
+        // Replaces any existing tokens for this entry (for updates)
+        searchIndex.index(entry, tokens);
+        searchBloomFilterService.addTokens(entry.getUser(), tokens);
+        suggestionCache.invalidate(entry.getUser());
+        relatedEntryService.updateSignature(entry, tokens);
+        logger.debug("Saved {} search tokens for entry {}", tokens.size(), entry.getId());
+    }
 
-        // Save the new tokens
-        List<SearchToken> searchTokens = tokens.stream()
-                .map(token -> new SearchToken(token, entry))
-                .collect(Collectors.toList());
+    /**
+     * Generates the search tokens of an entry without storing them. Does not
+     * touch the database, so it can run on any thread.
+     *
+     * @param title            The entry title
+     * @param plainTextContent The plaintext content of the entry
+     * @return The encrypted tokens, title tokens first
+     */
+    public Set<String> generateEntryTokens(String title, String plainTextContent) {
+        // Title tokens go first so that they survive the per-entry cap,
+        // the set drops tokens shared between title and content
+        Set<String> tokens = new LinkedHashSet<>(tokenGeneratorService.generateSearchTokens(title));
+        tokens.addAll(tokenGeneratorService.generateSearchTokens(plainTextContent));
+
+        int maxTokens = tokenGeneratorService.getMaxTokensPerEntry();
+        if (maxTokens > 0 && tokens.size() > maxTokens) {
+            tokens = tokens.stream()
+                    .limit(maxTokens)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+        }
 
-        searchTokenRepository.saveAll(searchTokens);
-        logger.debug("Saved {} search tokens for entry {}", searchTokens.size(), entry.getId());
+        return tokens;
+    }
+
+    /**
+     * Indexes new entries of one user from tokens generated with
+     * {@link #generateEntryTokens(String, String)}
+     *
+     * @param user          The owner of the entries
+     * @param tokensByEntry Each saved entry mapped to its tokens
+     */
+    @Transactional
+    public void indexNewEntries(User user, Map<Entry, Set<String>> tokensByEntry) {
+        searchIndex.indexNew(tokensByEntry);
+
+        // One Bloom filter update, so the batch moves the user's search version once
+        Set<String> allTokens = new LinkedHashSet<>();
+        tokensByEntry.forEach((entry, tokens) -> {
+            allTokens.addAll(tokens);
+            relatedEntryService.updateSignature(entry, tokens);
+        });
+        searchBloomFilterService.addTokens(user, allTokens);
+        suggestionCache.invalidate(user);
+        logger.debug("Indexed {} new entries for user {}", tokensByEntry.size(), user.getId());
     }
 
     /**
@@ -71,7 +129,8 @@ public class SearchService {
      * @param query The search query
      * @return List of entries matching the query, with decrypted content
      */
-    public List<Entry> search(User user, String query) {
+    @Transactional(readOnly = true)
+    public List<EntryResponse> search(User user, String query) {
         if (query == null || query.trim().isEmpty()) {
             throw new ApplicationException("Search query cannot be empty", HttpStatus.BAD_REQUEST);
         }
@@ -86,36 +145,76 @@ public class SearchService {
 
         logger.debug("Generated {} search tokens from query", queryTokens.size());
 
-        // Find all matching tokens for this user's entries
-        List<SearchToken> matchingTokens = searchTokenRepository.findByTokenValueInAndUser(queryTokens, user);
-
-        if (matchingTokens.isEmpty()) {
-            logger.debug("No matching tokens found for query: {}", query);
+        if (!searchBloomFilterService.mightContainAny(user, queryTokens)) {
+            logger.debug("Bloom filter rules out query for user {}, skipping database", user.getId());
             return Collections.emptyList();
         }
 
-        // Group entries by how many query tokens they match
-        Map<Entry, Integer> entryRelevanceMap = new HashMap<>();
+        // Count how many query tokens each of the user's entries matches
+        Map<Long, Integer> matches = searchIndex.match(user, queryTokens);
 
-        for (SearchToken token : matchingTokens) {
-            Entry entry = token.getEntry();
-            entryRelevanceMap.put(entry, entryRelevanceMap.getOrDefault(entry, 0) + 1);
+        if (matches.isEmpty()) {
+            logger.debug("No matching tokens found for query: {}", query);
+            return Collections.emptyList();
         }
 
         // Sort entries by relevance (number of matching tokens)
-        List<Entry> results = entryRelevanceMap.entrySet().stream()
-                .sorted(Map.Entry.<Entry, Integer>comparingByValue().reversed())
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
-
-        // Decrypt the content for each entry
-        results.forEach(entry -> {
-            String decryptedContent = encryptionService.decrypt(entry.getContent());
-            entry.setContent(decryptedContent);
-        });
+        List<Entry> results = new ArrayList<>(entryRepository.findAllByUserAndIdIn(user, matches.keySet()));
+        results.sort(Comparator.comparing((Entry entry) -> matches.get(entry.getId())).reversed());
 
         logger.debug("Found {} matching entries for query: {}", results.size(), query);
-        return results;
+        List<Entry> archived = results.stream().filter(Entry::isArchived).toList();
+        Map<Long, String> archivedContent = archived.isEmpty()
+                ? Map.of()
+                : entryArchiveService.readContents(user, archived);
+
+        return results.stream()
+                .map(entry -> new EntryResponse(entry, entry.isArchived()
+                        ? archivedContent.get(entry.getId())
+                        : encryptionService.decrypt(entry.getContent())))
+                .toList();
+    }
+
+    /**
+     * Suggests entries whose indexed text starts with the typed prefix. Only
+     * ids and titles are returned so no content is decrypted.
+     *
+     * @param user   The user typing the query
+     * @param prefix The partially typed text
+     * @param limit  The maximum number of suggestions
+     * @return The most recent matching entries, newest first
+     */
+    public List<SuggestionResponse> suggest(User user, String prefix, int limit) {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            throw new ApplicationException("Suggestion prefix cannot be empty", HttpStatus.BAD_REQUEST);
+        }
+
+        int size = Math.min(Math.max(limit, 1), MAX_SUGGESTIONS);
+        List<String> prefixTokens = tokenGeneratorService.generatePrefixQueryTokens(prefix);
+
+        if (prefixTokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        String cacheKey = size + ":" + String.join(",", prefixTokens);
+        List<SuggestionResponse> cached = suggestionCache.get(user, cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<SuggestionResponse> suggestions;
+        if (!searchBloomFilterService.mightContainAll(user, prefixTokens)) {
+            suggestions = Collections.emptyList();
+        } else {
+            List<Long> entryIds = searchIndex.findEntriesContainingAll(user, prefixTokens, size);
+            suggestions = entryIds.isEmpty()
+                    ? Collections.emptyList()
+                    : entryRepository.findSuggestionsByIdIn(entryIds, user);
+        }
+
+        suggestionCache.put(user, cacheKey, suggestions);
+        logger.debug("Found {} suggestions for user {}", suggestions.size(), user.getId());
+        return suggestions;
     }
 
     /**
@@ -126,7 +225,23 @@ public class SearchService {
      */
     @Transactional
     public void removeEntryTokens(Entry entry) {
-        searchTokenRepository.deleteAllByEntry(entry);
+        searchIndex.remove(entry);
+        suggestionCache.invalidate(entry.getUser());
+        relatedEntryService.removeSignature(entry);
         logger.debug("Removed all search tokens for entry {}", entry.getId());
     }
+
+    /**
+     * Removes all search tokens for several entries of one user
+     *
+     * @param user     The owner of the entries
+     * @param entryIds The ids of the entries being deleted, already checked to be the user's
+     */
+    @Transactional
+    public void removeEntriesTokens(User user, Collection<Long> entryIds) {
+        searchIndex.removeAll(user, entryIds);
+        suggestionCache.invalidate(user);
+        relatedEntryService.removeSignatures(entryIds);
+        logger.debug("Removed all search tokens for {} entries of user {}", entryIds.size(), user.getId());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,606 @@
+package dev.rubric.journalspring.service;
+
+import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.service.IndexSegment.TokenPostings;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Search index kept in per-user directories of immutable, memory-mapped
+ * segment files. Every write adds a small segment whose tombstones hide the
+ * entry's postings in older segments; once a user has too many segments they
+ * are merged into one in the background, like an LSM tree.
+ * <p>
+ * Segment files are named {@code <minGeneration>-<maxGeneration>.seg}. A
+ * merged segment covers the generations of its inputs, so inputs left over
+ * by a crash during a merge are recognised and deleted on the next load.
+ * <p>
+ * Segments cannot be rolled back, so writes made inside a transaction are
+ * buffered and written once it commits, one segment per user. Until then
+ * the index, including reads in the same transaction, shows the entries as
+ * they were.
+ * <p>
+ * A write that fails after its transaction committed is kept in the user's
+ * {@code pending-writes} file and retried in the background until it
+ * succeeds, also after a restart. A later write of the same entry replaces it.
+ */
+@Service
+@ConditionalOnProperty(name = "search.index.backend", havingValue = "segment")
+public class SegmentSearchIndex implements SearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(SegmentSearchIndex.class);
+    private static final Pattern SEGMENT_NAME = Pattern.compile("(\\d+)-(\\d+)\\.seg");
+    private static final String PENDING_WRITES = "pending-writes";
+
+    private final Path directory;
+    private final int maxSegments;
+    private final Map<Long, UserSegments> users = new ConcurrentHashMap<>();
+    // Committed writes whose segment could not be written, by user and entry
+    private final Map<Long, Map<Long, Collection<String>>> pendingWrites = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService mergeExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-index-merge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${search.index.segment.retry-interval:1m}")
+    private Duration retryInterval = Duration.ofMinutes(1);
+
+    public SegmentSearchIndex(@Value("${search.index.segment.directory:data/search-index}") String directory,
+                              @Value("${search.index.segment.max-segments:8}") int maxSegments) {
+        this.directory = Paths.get(directory);
+        this.maxSegments = maxSegments;
+    }
+
+    @Override
+    public void index(Entry entry, Collection<String> tokens) {
+        write(entry.getUser().getId(), Map.of(entry.getId(), tokens));
+    }
+
+    @Override
+    public void indexNew(Map<Entry, ? extends Collection<String>> tokensByEntry) {
+        // One segment per user for the whole batch instead of one per entry
+        tokensByEntry.entrySet().stream()
+                .collect(Collectors.groupingBy(indexed -> indexed.getKey().getUser().getId(),
+                        Collectors.toMap(indexed -> indexed.getKey().getId(), Map.Entry::getValue)))
+                .forEach(this::write);
+    }
+
+    @Override
+    public void remove(Entry entry) {
+        write(entry.getUser().getId(), Map.of(entry.getId(), List.of()));
+    }
+
+    @Override
+    public void removeAll(User user, Collection<Long> entryIds) {
+        // One segment of tombstones instead of one per entry
+        write(user.getId(), entryIds.stream()
+                .distinct()
+                .collect(Collectors.toMap(entryId -> entryId, entryId -> List.<String>of())));
+    }
+
+    @Override
+    public Map<Long, Integer> match(User user, Collection<String> tokens) {
+        List<IndexSegment> segments = segments(user).segments;
+        Map<Long, Integer> matches = new HashMap<>();
+
+        for (String token : new LinkedHashSet<>(tokens)) {
+            byte[] bytes = token.getBytes(StandardCharsets.UTF_8);
+
+            for (int i = 0; i < segments.size(); i++) {
+                for (long entryId : segments.get(i).postings(bytes)) {
+                    if (!isHiddenByNewer(segments, i, entryId)) {
+                        matches.merge(entryId, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+
+        return matches;
+    }
+
+    @Override
+    public List<Long> findEntriesContainingAll(User user, Collection<String> tokens, int limit) {
+        int required = new HashSet<>(tokens).size();
+
+        // Entry ids grow with creation time, which stands in for recency here
+        return match(user, tokens).entrySet().stream()
+                .filter(match -> match.getValue() == required)
+                .map(Map.Entry::getKey)
+                .sorted(Comparator.reverseOrder())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Map<Long, List<String>> entryTokens(User user, Collection<Long> entryIds) {
+        List<IndexSegment> segments = segments(user).segments;
+        Set<Long> wanted = new HashSet<>(entryIds);
+        Map<Long, List<String>> tokensByEntry = new HashMap<>();
+
+        for (int i = 0; i < segments.size(); i++) {
+            int index = i;
+            segments.get(i).tokens().forEachRemaining(record -> {
+                for (long entryId : record.entryIds()) {
+                    if (wanted.contains(entryId) && !isHiddenByNewer(segments, index, entryId)) {
+                        tokensByEntry.computeIfAbsent(entryId, id -> new ArrayList<>())
+                                .add(new String(record.token(), StandardCharsets.UTF_8));
+                    }
+                }
+            });
+        }
+
+        return tokensByEntry;
+    }
+
+    @Override
+    public List<String> userTokens(User user) {
+        Set<String> tokens = new HashSet<>();
+
+        for (IndexSegment segment : segments(user).segments) {
+            segment.tokens().forEachRemaining(record ->
+                    tokens.add(new String(record.token(), StandardCharsets.UTF_8)));
+        }
+
+        return new ArrayList<>(tokens);
+    }
+
+    /**
+     * Loads the users left with pending writes by the previous run, then
+     * retries pending writes on the merge thread
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleRetries() {
+        mergeExecutor.execute(this::loadUsersWithPendingWrites);
+        long delay = retryInterval.toMillis();
+        mergeExecutor.scheduleWithFixedDelay(this::retryPendingWrites, 0, delay, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        mergeExecutor.shutdown();
+        mergeExecutor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Writes the tokens of entries of one user, an entry without tokens is
+     * only tombstoned. Inside a transaction the write waits for the commit.
+     */
+    private void write(Long userId, Map<Long, ? extends Collection<String>> tokensByEntry) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(userId, tokensByEntry);
+            return;
+        }
+
+        PendingWrites pending = TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(synchronization -> synchronization instanceof PendingWrites writes && writes.index() == this)
+                .map(PendingWrites.class::cast)
+                .findFirst()
+                .orElseGet(() -> {
+                    PendingWrites writes = new PendingWrites();
+                    TransactionSynchronizationManager.registerSynchronization(writes);
+                    return writes;
+                });
+        pending.add(userId, tokensByEntry);
+    }
+
+    /**
+     * Appends one segment holding the tokens of the entries, whose tombstones
+     * hide the postings of their previous versions
+     */
+    private void append(Long userId, Map<Long, ? extends Collection<String>> tokensByEntry) {
+        UserSegments userSegments = users.computeIfAbsent(userId, this::load);
+
+        synchronized (userSegments) {
+            writeSegment(userSegments, tokensByEntry);
+            dropPendingWrites(userSegments, userId, tokensByEntry.keySet());
+        }
+
+        scheduleMergeIfNeeded(userSegments);
+    }
+
+    /**
+     * Appends the writes of a committed transaction. If that fails they are
+     * kept as pending writes, they cannot be rolled back anymore.
+     */
+    private void appendCommitted(Long userId, Map<Long, Collection<String>> tokensByEntry) {
+        UserSegments userSegments;
+        try {
+            userSegments = users.computeIfAbsent(userId, this::load);
+        } catch (UncheckedIOException e) {
+            logger.error("Failed to index {} entries of user {}, retrying in memory only", tokensByEntry.size(), userId, e);
+            pendingWrites.computeIfAbsent(userId, id -> new ConcurrentHashMap<>()).putAll(tokensByEntry);
+            return;
+        }
+
+        synchronized (userSegments) {
+            try {
+                writeSegment(userSegments, tokensByEntry);
+                dropPendingWrites(userSegments, userId, tokensByEntry.keySet());
+            } catch (UncheckedIOException e) {
+                // Recorded under the lock, so a later write of these entries cannot be overtaken by the retry
+                logger.error("Failed to index {} entries of user {}, retrying later", tokensByEntry.size(), userId, e);
+                pendingWrites.computeIfAbsent(userId, id -> new ConcurrentHashMap<>()).putAll(tokensByEntry);
+                savePendingWrites(userSegments.directory, userId);
+                return;
+            }
+        }
+
+        scheduleMergeIfNeeded(userSegments);
+    }
+
+    /**
+     * Writes the pending writes of every user again, each user's as one segment
+     */
+    void retryPendingWrites() {
+        for (Long userId : List.copyOf(pendingWrites.keySet())) {
+            try {
+                UserSegments userSegments = users.computeIfAbsent(userId, this::load);
+                Map<Long, Collection<String>> writes;
+
+                synchronized (userSegments) {
+                    writes = Map.copyOf(pendingWrites.getOrDefault(userId, Map.of()));
+                    if (!writes.isEmpty()) {
+                        writeSegment(userSegments, writes);
+                        dropPendingWrites(userSegments, userId, writes.keySet());
+                    }
+                }
+
+                scheduleMergeIfNeeded(userSegments);
+                logger.info("Indexed {} entries of user {} whose write had failed", writes.size(), userId);
+            } catch (UncheckedIOException e) {
+                logger.warn("Retrying the pending search index writes of user {} failed", userId, e);
+            }
+        }
+    }
+
+    private void loadUsersWithPendingWrites() {
+        try (Stream<Path> userDirectories = Files.list(directory)) {
+            userDirectories
+                    .filter(userDirectory -> Files.exists(userDirectory.resolve(PENDING_WRITES)))
+                    .map(userDirectory -> Long.valueOf(userDirectory.getFileName().toString()))
+                    .forEach(userId -> users.computeIfAbsent(userId, this::load));
+        } catch (NoSuchFileException e) {
+            // Nothing indexed yet
+        } catch (IOException | UncheckedIOException | NumberFormatException e) {
+            logger.error("Failed to look for pending search index writes in {}", directory, e);
+        }
+    }
+
+    /**
+     * Drops the pending writes of entries written since, call while holding
+     * the monitor of the user's segments
+     */
+    private void dropPendingWrites(UserSegments userSegments, Long userId, Collection<Long> entryIds) {
+        Map<Long, Collection<String>> pending = pendingWrites.get(userId);
+        if (pending != null && pending.keySet().removeAll(entryIds)) {
+            savePendingWrites(userSegments.directory, userId);
+        }
+    }
+
+    /**
+     * Replaces the user's pending-writes file, one line per entry holding its
+     * id followed by its tokens
+     */
+    private void savePendingWrites(Path userDirectory, Long userId) {
+        Path file = userDirectory.resolve(PENDING_WRITES);
+        Map<Long, Collection<String>> pending = pendingWrites.getOrDefault(userId, Map.of());
+
+        try {
+            if (pending.isEmpty()) {
+                pendingWrites.remove(userId, pending);
+                Files.deleteIfExists(file);
+                return;
+            }
+
+            List<String> lines = pending.entrySet().stream()
+                    .map(write -> Stream.concat(Stream.of(write.getKey().toString()), write.getValue().stream())
+                            .collect(Collectors.joining(" ")))
+                    .collect(Collectors.toList());
+            Path temp = file.resolveSibling(PENDING_WRITES + ".tmp");
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Failed to save the pending search index writes of user {}, they are lost on restart", userId, e);
+        }
+    }
+
+    /**
+     * Writes one segment holding the tokens of the entries, call while
+     * holding the monitor of the user's segments
+     */
+    private void writeSegment(UserSegments userSegments, Map<Long, ? extends Collection<String>> tokensByEntry) {
+        SortedMap<byte[], SortedSet<Long>> postings = new TreeMap<>(Arrays::compareUnsigned);
+        tokensByEntry.forEach((entryId, tokens) -> tokens.forEach(token -> postings
+                .computeIfAbsent(token.getBytes(StandardCharsets.UTF_8), bytes -> new TreeSet<>())
+                .add(entryId)));
+
+        Iterator<TokenPostings> records = postings.entrySet().stream()
+                .map(posting -> new TokenPostings(posting.getKey(),
+                        posting.getValue().stream().mapToLong(Long::longValue).toArray()))
+                .iterator();
+        long[] tombstones = tokensByEntry.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+
+        long generation = userSegments.nextGeneration++;
+        Path path = userSegments.directory.resolve(segmentName(generation, generation));
+
+        try {
+            IndexSegment.write(path, records, tombstones);
+            IndexSegment segment = IndexSegment.open(path, generation, generation);
+
+            List<IndexSegment> updated = new ArrayList<>(userSegments.segments.size() + 1);
+            updated.add(segment);
+            updated.addAll(userSegments.segments);
+            userSegments.segments = List.copyOf(updated);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write search index segment " + path, e);
+        }
+    }
+
+    private void scheduleMergeIfNeeded(UserSegments userSegments) {
+        if (userSegments.segments.size() > maxSegments && userSegments.mergeScheduled.compareAndSet(false, true)) {
+            mergeExecutor.execute(() -> {
+                try {
+                    merge(userSegments);
+                } catch (IOException | UncheckedIOException e) {
+                    logger.error("Failed to merge search index segments in {}", userSegments.directory, e);
+                } finally {
+                    userSegments.mergeScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Merges every current segment of a user into one. Segments written while
+     * the merge runs are newer than all of its inputs and stay on top of it.
+     */
+    void merge(UserSegments userSegments) throws IOException {
+        List<IndexSegment> snapshot = userSegments.segments;
+        if (snapshot.size() < 2) {
+            return;
+        }
+
+        long minGeneration = snapshot.get(snapshot.size() - 1).getMinGeneration();
+        long maxGeneration = snapshot.get(0).getMaxGeneration();
+        Path path = userSegments.directory.resolve(segmentName(minGeneration, maxGeneration));
+
+        // The oldest segment is an input, so no tombstones need to be carried over
+        IndexSegment.write(path, mergedTokens(snapshot), new long[0]);
+        IndexSegment merged = IndexSegment.open(path, minGeneration, maxGeneration);
+
+        synchronized (userSegments) {
+            List<IndexSegment> updated = new ArrayList<>(userSegments.segments);
+            updated.removeAll(snapshot);
+            updated.add(merged);
+            userSegments.segments = List.copyOf(updated);
+        }
+
+        for (IndexSegment segment : snapshot) {
+            try {
+                // Open mappings stay readable after the file is unlinked
+                Files.deleteIfExists(segment.getPath());
+            } catch (IOException e) {
+                logger.warn("Could not delete merged segment {}, it will be removed on next load", segment.getPath());
+            }
+        }
+
+        logger.debug("Merged {} segments into {}", snapshot.size(), path);
+    }
+
+    UserSegments segments(User user) {
+        return users.computeIfAbsent(user.getId(), this::load);
+    }
+
+    private UserSegments load(Long userId) {
+        Path userDirectory = directory.resolve(userId.toString());
+
+        try {
+            Files.createDirectories(userDirectory);
+
+            List<long[]> ranges = new ArrayList<>();
+            try (Stream<Path> files = Files.list(userDirectory)) {
+                for (Path file : files.collect(Collectors.toList())) {
+                    Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                    if (matcher.matches()) {
+                        ranges.add(new long[]{Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2))});
+                    } else if (file.getFileName().toString().endsWith(".tmp")) {
+                        Files.delete(file);
+                    }
+                }
+            }
+
+            // Widest ranges first so merge inputs are seen after their output
+            ranges.sort(Comparator.comparingLong((long[] range) -> range[0] - range[1])
+                    .thenComparingLong(range -> -range[1]));
+
+            List<IndexSegment> segments = new ArrayList<>();
+            for (long[] range : ranges) {
+                Path file = userDirectory.resolve(segmentName(range[0], range[1]));
+                boolean covered = segments.stream().anyMatch(segment ->
+                        segment.getMinGeneration() <= range[0] && range[1] <= segment.getMaxGeneration());
+
+                if (covered) {
+                    Files.delete(file);
+                } else {
+                    segments.add(IndexSegment.open(file, range[0], range[1]));
+                }
+            }
+
+            segments.sort(Comparator.comparingLong(IndexSegment::getMaxGeneration).reversed());
+
+            Path pendingFile = userDirectory.resolve(PENDING_WRITES);
+            if (Files.exists(pendingFile)) {
+                // Writes still pending in memory are newer than the file
+                Map<Long, Collection<String>> pending = pendingWrites.computeIfAbsent(userId, id -> new ConcurrentHashMap<>());
+                for (String line : Files.readAllLines(pendingFile, StandardCharsets.UTF_8)) {
+                    if (!line.isBlank()) {
+                        List<String> fields = List.of(line.split(" "));
+                        pending.putIfAbsent(Long.valueOf(fields.get(0)), fields.subList(1, fields.size()));
+                    }
+                }
+            }
+
+            long nextGeneration = segments.isEmpty() ? 1 : segments.get(0).getMaxGeneration() + 1;
+            logger.debug("Loaded {} search index segments for user {}", segments.size(), userId);
+            return new UserSegments(userDirectory, List.copyOf(segments), nextGeneration);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load search index for user " + userId, e);
+        }
+    }
+
+    private static boolean isHiddenByNewer(List<IndexSegment> segments, int index, long entryId) {
+        for (int i = 0; i < index; i++) {
+            if (segments.get(i).isTombstoned(entryId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Streams the union of the segments' dictionaries in byte order, keeping
+     * only postings that are not hidden by a newer segment
+     */
+    private static Iterator<TokenPostings> mergedTokens(List<IndexSegment> segments) {
+        PriorityQueue<SegmentCursor> queue = new PriorityQueue<>(
+                (first, second) -> Arrays.compareUnsigned(first.current.token(), second.current.token()));
+
+        for (int i = 0; i < segments.size(); i++) {
+            Iterator<TokenPostings> tokens = segments.get(i).tokens();
+            if (tokens.hasNext()) {
+                queue.add(new SegmentCursor(i, tokens, tokens.next()));
+            }
+        }
+
+        return new Iterator<>() {
+            private TokenPostings next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public TokenPostings next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                TokenPostings current = next;
+                next = advance();
+                return current;
+            }
+
+            private TokenPostings advance() {
+                while (!queue.isEmpty()) {
+                    byte[] token = queue.peek().current.token();
+                    TreeSet<Long> entryIds = new TreeSet<>();
+
+                    while (!queue.isEmpty() && Arrays.equals(queue.peek().current.token(), token)) {
+                        SegmentCursor cursor = queue.poll();
+                        for (long entryId : cursor.current.entryIds()) {
+                            if (!isHiddenByNewer(segments, cursor.index, entryId)) {
+                                entryIds.add(entryId);
+                            }
+                        }
+                        if (cursor.tokens.hasNext()) {
+                            cursor.current = cursor.tokens.next();
+                            queue.add(cursor);
+                        }
+                    }
+
+                    if (!entryIds.isEmpty()) {
+                        return new TokenPostings(token, entryIds.stream().mapToLong(Long::longValue).toArray());
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    private static String segmentName(long minGeneration, long maxGeneration) {
+        return String.format("%020d-%020d.seg", minGeneration, maxGeneration);
+    }
+
+    /**
+     * The segments of one user, newest first. Readers use the list they see
+     * without locking, writers replace it while holding the object's monitor.
+     */
+    static final class UserSegments {
+        private final Path directory;
+        private volatile List<IndexSegment> segments;
+        private long nextGeneration;
+        private final AtomicBoolean mergeScheduled = new AtomicBoolean();
+
+        private UserSegments(Path directory, List<IndexSegment> segments, long nextGeneration) {
+            this.directory = directory;
+            this.segments = segments;
+            this.nextGeneration = nextGeneration;
+        }
+
+        int segmentCount() {
+            return segments.size();
+        }
+    }
+
+    /**
+     * The writes of one transaction, later writes of an entry replacing
+     * earlier ones as their segments would have
+     */
+    private final class PendingWrites implements TransactionSynchronization {
+        private final Map<Long, Map<Long, Collection<String>>> byUser = new LinkedHashMap<>();
+
+        SegmentSearchIndex index() {
+            return SegmentSearchIndex.this;
+        }
+
+        void add(Long userId, Map<Long, ? extends Collection<String>> tokensByEntry) {
+            byUser.computeIfAbsent(userId, id -> new LinkedHashMap<>()).putAll(tokensByEntry);
+        }
+
+        @Override
+        public void afterCommit() {
+            byUser.forEach(SegmentSearchIndex.this::appendCommitted);
+        }
+    }
+
+    private static final class SegmentCursor {
+        private final int index;
+        private final Iterator<TokenPostings> tokens;
+        private TokenPostings current;
+
+        private SegmentCursor(int index, Iterator<TokenPostings> tokens, TokenPostings current) {
+            this.index = index;
+            this.tokens = tokens;
+            this.current = current;
+        }
+    }
+}
@@ -9,8 +9,10 @@ import dev.rubric.journalspring.models.User;
 import dev.rubric.journalspring.repository.EntryRepository;
 import dev.rubric.journalspring.repository.SharedEntryRepository;
 import dev.rubric.journalspring.repository.UserRepository;
+import dev.rubric.journalspring.response.EntryResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
@@ -24,25 +26,22 @@ public class SharedEntryService {
     private final SharedEntryRepository sharedEntryRepository;
     private final EncryptionService encryptionService;
     private final EntryRepository entryRepository;
+    private final EntryArchiveService entryArchiveService;
 
-    public SharedEntryService(UserRepository userRepository, SharedEntryRepository sharedEntryRepository, EncryptionService encryptionService, EntryRepository entryRepository) {
+    public SharedEntryService(UserRepository userRepository, SharedEntryRepository sharedEntryRepository, EncryptionService encryptionService, EntryRepository entryRepository, EntryArchiveService entryArchiveService) {
         this.userRepository = userRepository;
         this.sharedEntryRepository = sharedEntryRepository;
         this.encryptionService = encryptionService;
         this.entryRepository = entryRepository;
+        this.entryArchiveService = entryArchiveService;
     }
 
 
+    @Transactional
     public UUID createSharedEntry(User user,
                                   SharedEntryDto input) {
-        Entry entry = entryRepository.findById(input.entryId())
-                .orElseThrow(() -> new ApplicationException(
-                        "Entry not found", HttpStatus.NOT_FOUND));
-
-        if (!entry.getUser().getId().equals(user.getId())) {
-            throw new ApplicationException(
-                    "Not authorized to share this entry", HttpStatus.UNAUTHORIZED);
-        }
+        Entry entry = entryRepository.findByIdAndUser(input.entryId(), user)
+                .orElseThrow(() -> entryAccessError(input.entryId(), "Not authorized to share this entry"));
 
         List<SharedEntry> existing = sharedEntryRepository.getAllByEntry(entry);
         existing.stream()
@@ -68,7 +67,8 @@ public class SharedEntryService {
         return s.getPublicId();
     }
 
-    public Entry accessSharedEntry(User user,
+    @Transactional(readOnly = true)
+    public EntryResponse accessSharedEntry(User user,
                                    UUID sharedEntryUUID) {
 
         SharedEntry s = sharedEntryRepository.getByPublicId(sharedEntryUUID)
@@ -86,11 +86,14 @@ public class SharedEntryService {
         }
 
         Entry e = s.getEntry();
-        // decrypt before handing it back
-        e.setContent(encryptionService.decrypt(e.getContent()));
-        return e;
+        // decrypt into the response, the entity keeps its ciphertext
+        String content = e.isArchived()
+                ? entryArchiveService.readContent(e)
+                : encryptionService.decrypt(e.getContent());
+        return new EntryResponse(e, content);
     }
 
+    @Transactional(readOnly = true)
     public void userCanAccessEntry(User user, Long entryId) {
        Entry entry = entryRepository.findById(entryId)
                 .orElseThrow(() -> new ApplicationException(
@@ -119,6 +122,7 @@ public class SharedEntryService {
         
     }
 
+    @Transactional
     public void addUserToSharedEntry(User user,
                                      UUID sEntryUUID,
                                      String targetEmail) {
@@ -147,6 +151,7 @@ public class SharedEntryService {
         sharedEntryRepository.save(sEntry);
     }
 
+    @Transactional
     public void removeUserFromSharedEntry(User user,
                                           UUID sEntryUUID,
                                           String targetEmail) {
@@ -181,16 +186,19 @@ public class SharedEntryService {
         sharedEntryRepository.save(sEntry);
     }
 
+    @Transactional
     public void removeSharedEntry(User user, Long entryId) {
-        Entry entry = entryRepository.findById(entryId)
-                .orElseThrow(() -> new ApplicationException(
-                        "Entry not found", HttpStatus.NOT_FOUND));
-
-        if (!entry.getUser().getId().equals(user.getId())) {
-            throw new ApplicationException(
-                    "Not your entry", HttpStatus.UNAUTHORIZED);
-        }
+        Entry entry = entryRepository.findByIdAndUser(entryId, user)
+                .orElseThrow(() -> entryAccessError(entryId, "Not your entry"));
         List<SharedEntry> list = sharedEntryRepository.getAllByEntry(entry);
         sharedEntryRepository.deleteAll(list);
     }
+
+    // The entry was not found under the user's partition, check whether it exists at all
+    private ApplicationException entryAccessError(Long entryId, String unauthorizedMessage) {
+        if (!entryRepository.existsById(entryId)) {
+            return new ApplicationException("Entry not found", HttpStatus.NOT_FOUND);
+        }
+        return new ApplicationException(unauthorizedMessage, HttpStatus.UNAUTHORIZED);
+    }
 }
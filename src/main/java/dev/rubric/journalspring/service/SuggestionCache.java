@@ -0,0 +1,96 @@
+package dev.rubric.journalspring.service;
+
+import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.response.SuggestionResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Small two level LRU of type-ahead results, bounded per user and in the
+ * number of users. Results expire after a short TTL and a user's results are
+ * dropped whenever one of their entries is re-indexed, once that commits.
+ */
+@Component
+class SuggestionCache {
+    private final int maxPrefixesPerUser;
+    private final long ttlNanos;
+    private final Map<Long, Map<String, CachedSuggestions>> byUser;
+
+    SuggestionCache(@Value("${search.suggest.cache.max-users:10000}") int maxUsers,
+                    @Value("${search.suggest.cache.max-prefixes-per-user:64}") int maxPrefixesPerUser,
+                    @Value("${search.suggest.cache.ttl:30s}") Duration ttl) {
+        this.maxPrefixesPerUser = maxPrefixesPerUser;
+        this.ttlNanos = ttl.toNanos();
+        this.byUser = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Map<String, CachedSuggestions>> eldest) {
+                return size() > maxUsers;
+            }
+        });
+    }
+
+    List<SuggestionResponse> get(User user, String key) {
+        Map<String, CachedSuggestions> userCache = byUser.get(user.getId());
+        if (userCache == null) {
+            return null;
+        }
+
+        synchronized (userCache) {
+            CachedSuggestions cached = userCache.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (System.nanoTime() - cached.createdAt() > ttlNanos) {
+                userCache.remove(key);
+                return null;
+            }
+            return cached.suggestions();
+        }
+    }
+
+    void put(User user, String key, List<SuggestionResponse> suggestions) {
+        Map<String, CachedSuggestions> userCache = byUser.computeIfAbsent(user.getId(), id -> newUserCache());
+
+        synchronized (userCache) {
+            userCache.put(key, new CachedSuggestions(List.copyOf(suggestions), System.nanoTime()));
+        }
+    }
+
+    /**
+     * Drops the user's results. Inside a transaction they are dropped after
+     * it commits, results cached while it runs still show the old entries.
+     */
+    void invalidate(User user) {
+        Long userId = user.getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            byUser.remove(userId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                byUser.remove(userId);
+            }
+        });
+    }
+
+    private Map<String, CachedSuggestions> newUserCache() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedSuggestions> eldest) {
+                return size() > maxPrefixesPerUser;
+            }
+        };
+    }
+
+    private record CachedSuggestions(List<SuggestionResponse> suggestions, long createdAt) {}
+}
@@ -11,9 +11,11 @@ import java.util.List;
 public class TagInitializerService {
 
     private final TagRepository tagRepository;
+    private final TagService tagService;
 
-    public TagInitializerService(TagRepository tagRepository) {
+    public TagInitializerService(TagRepository tagRepository, TagService tagService) {
         this.tagRepository = tagRepository;
+        this.tagService = tagService;
     }
 
     @PostConstruct
@@ -55,5 +57,7 @@ public class TagInitializerService {
                 tagRepository.save(new Tag(tagName));
             }
         }
+
+        tagService.refresh();
     }
 }
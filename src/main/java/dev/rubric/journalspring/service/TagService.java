@@ -2,25 +2,104 @@ package dev.rubric.journalspring.service;
 
 import dev.rubric.journalspring.models.Tag;
 import dev.rubric.journalspring.repository.TagRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
+/**
+ * Resolves tag names from an immutable in-memory dictionary of the tags
+ * table. The set of tags is seeded at startup and rarely changes, so the
+ * dictionary is loaded once and swapped whole by {@link #refresh()} whenever
+ * tags are added. Resolved tags are entity references, so attaching them to
+ * an entry runs no query.
+ */
 @Service
 public class TagService {
+    private static final Logger logger = LoggerFactory.getLogger(TagService.class);
 
     private final TagRepository tagRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile TagDictionary dictionary;
+
     public TagService(TagRepository tagRepository) {
         this.tagRepository = tagRepository;
     }
 
     public List<String> getAllTagNames() {
-        return StreamSupport.stream(
-                tagRepository.findAll().spliterator(), false)
-                .map(Tag::getName)
-                .collect(Collectors.toList());
+        return dictionary().names();
+    }
+
+    /**
+     * Resolves tag names to tag references, skipping unknown names
+     *
+     * @param names The tag names
+     * @return References to the existing tags
+     */
+    public Set<Tag> resolveTags(Collection<String> names) {
+        Set<Tag> tags = new HashSet<>();
+        for (Long id : resolveTagIds(names)) {
+            tags.add(entityManager.getReference(Tag.class, id));
+        }
+        return tags;
+    }
+
+    /**
+     * Resolves tag names to tag ids, skipping unknown names
+     */
+    public Set<Long> resolveTagIds(Collection<String> names) {
+        Map<String, Long> idsByName = dictionary().idsByName();
+        Set<Long> ids = new HashSet<>();
+        for (String name : names) {
+            Long id = idsByName.get(name);
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    public Optional<Long> findTagId(String name) {
+        return Optional.ofNullable(dictionary().idsByName().get(name));
+    }
+
+    /**
+     * Reloads the dictionary from the tags table. Call after tags are added.
+     */
+    public void refresh() {
+        Map<String, Long> idsByName = new LinkedHashMap<>();
+        for (Tag tag : tagRepository.findAll()) {
+            idsByName.put(tag.getName(), tag.getId());
+        }
+
+        dictionary = new TagDictionary(Map.copyOf(idsByName), List.copyOf(idsByName.keySet()));
+        logger.debug("Loaded {} tags into the tag dictionary", idsByName.size());
     }
+
+    private TagDictionary dictionary() {
+        TagDictionary current = dictionary;
+        if (current == null) {
+            synchronized (this) {
+                if (dictionary == null) {
+                    refresh();
+                }
+                current = dictionary;
+            }
+        }
+        return current;
+    }
+
+    private record TagDictionary(Map<String, Long> idsByName, List<String> names) {}
 }
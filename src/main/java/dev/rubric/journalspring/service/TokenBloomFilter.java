@@ -0,0 +1,80 @@
+package dev.rubric.journalspring.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe Bloom filter over encrypted search tokens. Bits are only ever
+ * set, so removed tokens stay as false positives until the filter is rebuilt.
+ */
+final class TokenBloomFilter {
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final long capacity;
+    private final AtomicLong insertions = new AtomicLong();
+
+    private TokenBloomFilter(long capacity, double falsePositiveRate) {
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int words = (int) Math.max(1, (optimalBits + 63) / 64);
+
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = words * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * ln2));
+        this.capacity = capacity;
+    }
+
+    static TokenBloomFilter create(long capacity, double falsePositiveRate) {
+        return new TokenBloomFilter(Math.max(1, capacity), falsePositiveRate);
+    }
+
+    void put(String token) {
+        long hash = TokenGeneratorService.hashToken(token);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= hashCount; i++) {
+            long index = bitIndex(hash1, hash2, i);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+
+        insertions.incrementAndGet();
+    }
+
+    boolean mightContain(String token) {
+        long hash = TokenGeneratorService.hashToken(token);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= hashCount; i++) {
+            long index = bitIndex(hash1, hash2, i);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * True once more tokens were added than the filter was sized for, at
+     * which point the false positive rate degrades and it should be rebuilt
+     */
+    boolean isSaturated() {
+        return insertions.get() > capacity;
+    }
+
+    private long bitIndex(int hash1, int hash2, int i) {
+        long combined = hash1 + (long) i * hash2;
+        return (combined & Long.MAX_VALUE) % bitCount;
+    }
+}
@@ -1,5 +1,6 @@
 package dev.rubric.journalspring.service;
 
+import dev.rubric.journalspring.enums.TokenProfile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -23,6 +24,7 @@ public class TokenGeneratorService {
     private static final int MAX_PREFIX_LENGTH = 7;
     private static final int MIN_NGRAM_SIZE = 2;
     private static final int MAX_NGRAM_SIZE = 3;
+    private static final int TRIGRAM_SIZE = 3;
 
     @Value("${encryption.token.secret:defaultTokenSecret}")
     private String tokenSecret;
@@ -30,10 +32,22 @@ public class TokenGeneratorService {
     @Value("${encryption.token.salt:defaultTokenSalt}")
     private String tokenSalt;
 
+    @Value("${search.tokens.profile:PREFIX}")
+    private TokenProfile profile = TokenProfile.PREFIX;
+
+    @Value("${search.tokens.max-per-entry:0}")
+    private int maxTokensPerEntry;
+
+    // Mac instances are not thread safe, each thread keeps one initialized with the token key
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::createMac);
+
 
     /**
-     * Generates search tokens from text, including full words, prefixes, and
-     * n-grams
+     * Generates search tokens from text. Full words are always included; the
+     * remaining tokens depend on the configured {@link TokenProfile}:
+     * PREFIX adds word prefixes and n-grams, TRIGRAM adds per-word character
+     * trigrams. Tokens are returned with full words first so that callers
+     * capping the token count keep the most useful ones.
      * 
      * @param text The plaintext content to tokenize
      * @return A list of encrypted tokens
@@ -43,22 +57,23 @@ public class TokenGeneratorService {
             return Collections.emptyList();
         }
 
-        // Normalize the text - lowercase and remove punctuation
-        String normalizedText = text.toLowerCase()
-                .replaceAll("[^a-z0-9\\s]", " ")
-                .replaceAll("\\s+", " ")
-                .trim();
+        String normalizedText = normalize(text);
 
-        Set<String> tokens = new HashSet<>();
+        Set<String> tokens = new LinkedHashSet<>();
 
         // Add full words
         tokens.addAll(extractFullWords(normalizedText));
 
-        // Add prefix tokens for partial matching
-        tokens.addAll(generatePrefixTokens(normalizedText));
+        if (profile == TokenProfile.TRIGRAM) {
+            // Add character trigrams for partial matching
+            tokens.addAll(generateTrigrams(normalizedText));
+        } else {
+            // Add prefix tokens for partial matching
+            tokens.addAll(generatePrefixTokens(normalizedText));
 
-        // Add n-grams for multi-word search
-        tokens.addAll(generateNGrams(normalizedText));
+            // Add n-grams for multi-word search
+            tokens.addAll(generateNGrams(normalizedText));
+        }
 
         // Encrypt tokens deterministically
         return tokens.stream()
@@ -66,6 +81,27 @@ public class TokenGeneratorService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Maximum number of tokens stored for a single entry, 0 when uncapped
+     */
+    public int getMaxTokensPerEntry() {
+        return maxTokensPerEntry;
+    }
+
+    public TokenProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Lowercases the text and strips punctuation
+     */
+    private String normalize(String text) {
+        return text.toLowerCase()
+                .replaceAll("[^a-z0-9\\s]", " ")
+                .replaceAll("\\s+", " ")
+                .trim();
+    }
+
     /**
      * Extracts full words from text
      */
@@ -95,6 +131,22 @@ public class TokenGeneratorService {
         return prefixTokens;
     }
 
+    /**
+     * Generates character trigrams for every word, used instead of prefixes
+     * by the TRIGRAM profile
+     */
+    private List<String> generateTrigrams(String text) {
+        List<String> trigrams = new ArrayList<>();
+
+        for (String word : text.split("\\s+")) {
+            for (int i = 0; i + TRIGRAM_SIZE <= word.length(); i++) {
+                trigrams.add("trigram:" + word.substring(i, i + TRIGRAM_SIZE));
+            }
+        }
+
+        return trigrams;
+    }
+
     /**
      * Generates n-grams (overlapping sequences of n words)
      */
@@ -122,26 +174,96 @@ public class TokenGeneratorService {
      * This allows the same token to encrypt to the same value for search purposes
      */
     public String encryptToken(String token) {
-        try {
-            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+        // Combine token and salt for additional security
+        String tokenWithSalt = token + tokenSalt;
 
-            // Combine token and salt for additional security
-            String tokenWithSalt = token + tokenSalt;
+        // doFinal resets the Mac for the next token
+        byte[] hashBytes = macs.get().doFinal(tokenWithSalt.getBytes(StandardCharsets.UTF_8));
 
+        // Convert to Base64 string
+        return Base64.getEncoder().encodeToString(hashBytes);
+    }
+
+    private Mac createMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
             SecretKeySpec secretKeySpec = new SecretKeySpec(
                     tokenSecret.getBytes(StandardCharsets.UTF_8),
                     HMAC_ALGORITHM);
             mac.init(secretKeySpec);
-            byte[] hashBytes = mac.doFinal(tokenWithSalt.getBytes(StandardCharsets.UTF_8));
-
-            // Convert to Base64 string
-            return Base64.getEncoder().encodeToString(hashBytes);
+            return mac;
         } catch (NoSuchAlgorithmException | InvalidKeyException e) {
             logger.error("Error encrypting token", e);
             throw new RuntimeException("Error encrypting token", e);
         }
     }
 
+    /**
+     * Generates the tokens an entry must contain to match a type-ahead prefix.
+     * Earlier words must match as full words, the last word is matched
+     * through the prefix (PREFIX profile) or trigram (TRIGRAM profile) tokens
+     * that are already stored in the index.
+     *
+     * @param prefix The partially typed text
+     * @return The encrypted tokens, empty when the last word is too short
+     */
+    public List<String> generatePrefixQueryTokens(String prefix) {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        String[] words = normalize(prefix).split("\\s+");
+        String lastWord = words[words.length - 1];
+
+        if (lastWord.length() < MIN_PREFIX_LENGTH) {
+            return Collections.emptyList();
+        }
+
+        Set<String> tokens = new LinkedHashSet<>();
+
+        for (int i = 0; i < words.length - 1; i++) {
+            if (words[i].length() >= MIN_TOKEN_LENGTH) {
+                tokens.add(words[i]);
+            }
+        }
+
+        if (profile == TokenProfile.TRIGRAM) {
+            tokens.addAll(generateTrigrams(lastWord));
+        } else {
+            tokens.add("prefix:" + lastWord.substring(0, Math.min(lastWord.length(), MAX_PREFIX_LENGTH)));
+        }
+
+        return tokens.stream()
+                .map(this::encryptToken)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Computes a well mixed 64-bit hash of an encrypted token, used by the
+     * in-memory structures built over a user's tokens
+     */
+    public static long hashToken(String token) {
+        // FNV-1a over the characters followed by the murmur3 finalizer
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < token.length(); i++) {
+            hash ^= token.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix64(hash);
+    }
+
+    /**
+     * murmur3 fmix64 finalizer, spreads every input bit over the output
+     */
+    public static long mix64(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
     /**
      * Processes a search query to generate searchable tokens
      */
@@ -150,23 +272,24 @@ public class TokenGeneratorService {
             return Collections.emptyList();
         }
 
-        // Normalize the query text
-        String normalizedText = query.toLowerCase()
-                .replaceAll("[^a-z0-9\\s]", " ")
-                .replaceAll("\\s+", " ")
-                .trim();
+        String normalizedText = normalize(query);
 
-        Set<String> tokens = new HashSet<>();
+        Set<String> tokens = new LinkedHashSet<>();
 
         // Add full words
         tokens.addAll(extractFullWords(normalizedText));
 
-        // Add prefix tokens for partial matching
-        tokens.addAll(generatePrefixTokens(normalizedText));
+        if (profile == TokenProfile.TRIGRAM) {
+            // Add character trigrams for partial matching
+            tokens.addAll(generateTrigrams(normalizedText));
+        } else {
+            // Add prefix tokens for partial matching
+            tokens.addAll(generatePrefixTokens(normalizedText));
 
-        // Add n-grams for multi-word search if query has multiple words
-        if (normalizedText.contains(" ")) {
-            tokens.addAll(generateNGrams(normalizedText));
+            // Add n-grams for multi-word search if query has multiple words
+            if (normalizedText.contains(" ")) {
+                tokens.addAll(generateNGrams(normalizedText));
+            }
         }
 
         // Encrypt tokens deterministically
@@ -0,0 +1,453 @@
+package dev.rubric.journalspring.service;
+
+import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.models.Folder;
+import dev.rubric.journalspring.models.FolderStats;
+import dev.rubric.journalspring.models.Tag;
+import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.models.UserStats;
+import dev.rubric.journalspring.models.UserTagStats;
+import dev.rubric.journalspring.repository.EntryRepository;
+import dev.rubric.journalspring.repository.EntryRepository.EntryTotals;
+import dev.rubric.journalspring.repository.FolderStatsRepository;
+import dev.rubric.journalspring.repository.UserRepository;
+import dev.rubric.journalspring.repository.UserStatsRepository;
+import dev.rubric.journalspring.repository.UserTagStatsRepository;
+import dev.rubric.journalspring.response.UserStatsResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains per-user dashboard statistics. The entry create, update and
+ * delete paths apply deltas inside their own transaction, so reading the
+ * statistics never scans entries. Writers lock the user's user_stats row,
+ * which serializes the deltas of one user. A user without a row gets one
+ * built from their entries on first use, concurrent first writers queue on
+ * the user row so only one of them creates it.
+ */
+@Service
+public class UserStatsService {
+    private static final Logger logger = LoggerFactory.getLogger(UserStatsService.class);
+
+    private final UserStatsRepository userStatsRepository;
+    private final UserTagStatsRepository userTagStatsRepository;
+    private final FolderStatsRepository folderStatsRepository;
+    private final EntryRepository entryRepository;
+    private final UserRepository userRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public UserStatsService(UserStatsRepository userStatsRepository,
+                            UserTagStatsRepository userTagStatsRepository,
+                            FolderStatsRepository folderStatsRepository,
+                            EntryRepository entryRepository,
+                            UserRepository userRepository) {
+        this.userStatsRepository = userStatsRepository;
+        this.userTagStatsRepository = userTagStatsRepository;
+        this.folderStatsRepository = folderStatsRepository;
+        this.entryRepository = entryRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Records a saved entry
+     */
+    @Transactional
+    public void recordCreated(User user, Entry entry) {
+        apply(user, null, EntryStatsSnapshot.of(entry));
+    }
+
+    /**
+     * Records a change to a saved entry
+     *
+     * @param before The entry as it was before the change
+     * @param after  The entry as it is after the change
+     */
+    @Transactional
+    public void recordUpdated(User user, EntryStatsSnapshot before, EntryStatsSnapshot after) {
+        if (!before.equals(after)) {
+            apply(user, before, after);
+        }
+    }
+
+    /**
+     * Records a deleted entry
+     *
+     * @param before The entry as it was before it was deleted
+     */
+    @Transactional
+    public void recordDeleted(User user, EntryStatsSnapshot before) {
+        apply(user, before, null);
+    }
+
+    /**
+     * Records tags being added to entries by one statement. Call before it
+     * runs, the entries that do not have a tag yet are the ones it adds to.
+     */
+    @Transactional
+    public void recordTagsAdded(User user, Collection<Long> entryIds, Collection<Long> tagIds) {
+        if (lockExisting(user).isEmpty()) {
+            // The row is built from the entries on first use, which includes this change
+            return;
+        }
+
+        Map<Long, Long> tagged = counts(entryRepository.countByTagForEntries(user, entryIds, tagIds));
+        Map<Long, Long> deltas = new HashMap<>();
+        tagIds.forEach(tagId -> deltas.put(tagId, entryIds.size() - tagged.getOrDefault(tagId, 0L)));
+        applyTagDeltas(user, deltas);
+    }
+
+    /**
+     * Records tags being removed from entries by one statement. Call before it runs.
+     */
+    @Transactional
+    public void recordTagsRemoved(User user, Collection<Long> entryIds, Collection<Long> tagIds) {
+        if (lockExisting(user).isEmpty()) {
+            return;
+        }
+
+        Map<Long, Long> deltas = new HashMap<>();
+        counts(entryRepository.countByTagForEntries(user, entryIds, tagIds))
+                .forEach((tagId, count) -> deltas.put(tagId, -count));
+        applyTagDeltas(user, deltas);
+    }
+
+    /**
+     * Records entries being moved into a folder by one statement. Call before it runs.
+     *
+     * @param folderId The target folder, null when the entries are taken out of their folders
+     */
+    @Transactional
+    public void recordMovedToFolder(User user, Collection<Long> entryIds, Long folderId) {
+        if (lockExisting(user).isEmpty()) {
+            return;
+        }
+
+        Map<Long, Long> deltas = new HashMap<>();
+        long moved = entryIds.size();
+        for (Map.Entry<Long, Long> folder : counts(entryRepository.countByFolderForEntries(user, entryIds)).entrySet()) {
+            if (folder.getKey().equals(folderId)) {
+                moved -= folder.getValue();
+            } else {
+                deltas.put(folder.getKey(), -folder.getValue());
+            }
+        }
+        if (folderId != null) {
+            deltas.put(folderId, moved);
+        }
+        applyFolderDeltas(user, deltas);
+    }
+
+    /**
+     * Records entries being deleted by one statement. Call before it runs.
+     */
+    @Transactional
+    public void recordEntriesDeleted(User user, Collection<Long> entryIds) {
+        UserStats stats = lockExisting(user).orElse(null);
+        if (stats == null) {
+            return;
+        }
+
+        EntryTotals totals = entryRepository.findTotalsByUserAndIdIn(user, entryIds);
+        stats.setEntryCount(stats.getEntryCount() - totals.getEntryCount());
+        stats.setWordCount(stats.getWordCount() - totals.getWordCount());
+
+        Map<Long, Long> tagDeltas = new HashMap<>();
+        counts(entryRepository.countByTagForEntries(user, entryIds))
+                .forEach((tagId, count) -> tagDeltas.put(tagId, -count));
+        applyTagDeltas(user, tagDeltas);
+
+        Map<Long, Long> folderDeltas = new HashMap<>();
+        counts(entryRepository.countByFolderForEntries(user, entryIds))
+                .forEach((folderId, count) -> folderDeltas.put(folderId, -count));
+        applyFolderDeltas(user, folderDeltas);
+
+        int streak = stats.getCurrentStreak();
+        recomputeStreaks(stats, entryRepository.findJournalDatesByUserExcluding(user, entryIds));
+        if (stats.getCurrentStreak() != streak) {
+            userRepository.updateStreak(user.getId(), stats.getCurrentStreak());
+        }
+
+        userStatsRepository.save(stats);
+    }
+
+    /**
+     * Drops the counters of a folder that is about to be deleted
+     */
+    @Transactional
+    public void removeFolder(Folder folder) {
+        folderStatsRepository.deleteByFolder(folder);
+    }
+
+    /**
+     * Recounts the statistics of a user from their entries, for writes that
+     * bypass the per-entry deltas such as bulk imports
+     */
+    @Transactional
+    public void rebuild(User user) {
+        UserStats stats = lockExisting(user).orElseGet(() -> new UserStats(user));
+        rebuild(user, stats);
+    }
+
+    @Transactional
+    public UserStatsResponse getStats(User user) {
+        UserStats stats = userStatsRepository.findByUserId(user.getId())
+                .or(() -> lockExisting(user))
+                .orElseGet(() -> rebuild(user, new UserStats(user)));
+
+        Map<String, Long> tagCounts = new LinkedHashMap<>();
+        userTagStatsRepository.findTagCountsByUserId(user.getId())
+                .forEach(count -> tagCounts.put(count.getName(), count.getEntryCount()));
+
+        Map<Long, Long> folderCounts = new LinkedHashMap<>();
+        folderStatsRepository.findFolderCountsByUserId(user.getId())
+                .forEach(count -> folderCounts.put(count.getFolderId(), count.getEntryCount()));
+
+        // A streak is still alive on the day after the last entry
+        LocalDate last = stats.getLastJournalDate();
+        boolean streakActive = last != null && !last.isBefore(LocalDate.now().minusDays(1));
+
+        return new UserStatsResponse(
+                stats.getEntryCount(),
+                stats.getWordCount(),
+                streakActive ? stats.getCurrentStreak() : 0,
+                stats.getLongestStreak(),
+                last,
+                tagCounts,
+                folderCounts);
+    }
+
+    /**
+     * Locks the user's statistics row. When there is none yet, waits on the
+     * user row for a concurrent first write that may be creating it.
+     *
+     * @return The locked row, empty when the caller is to create it
+     */
+    private Optional<UserStats> lockExisting(User user) {
+        Optional<UserStats> stats = userStatsRepository.lockByUserId(user.getId());
+        if (stats.isPresent()) {
+            return stats;
+        }
+
+        userRepository.lockById(user.getId());
+        return userStatsRepository.lockByUserId(user.getId());
+    }
+
+    private void apply(User user, EntryStatsSnapshot before, EntryStatsSnapshot after) {
+        UserStats stats = lockExisting(user).orElse(null);
+        if (stats == null) {
+            // The entry change is already flushed, so a rebuild includes it
+            rebuild(user, new UserStats(user));
+            return;
+        }
+
+        stats.setEntryCount(stats.getEntryCount() + (after != null ? 1 : 0) - (before != null ? 1 : 0));
+        stats.setWordCount(stats.getWordCount() + wordCount(after) - wordCount(before));
+
+        applyTagDeltas(user,
+                before != null ? before.tagIds() : Set.of(),
+                after != null ? after.tagIds() : Set.of());
+        applyFolderDeltas(user,
+                before != null ? before.folderId() : null,
+                after != null ? after.folderId() : null);
+
+        LocalDate dateBefore = before != null ? before.journalDate() : null;
+        LocalDate dateAfter = after != null ? after.journalDate() : null;
+        if (!Objects.equals(dateBefore, dateAfter)) {
+            int streak = stats.getCurrentStreak();
+            if (dateBefore != null) {
+                dayRemoved(user, stats, dateBefore);
+            }
+            if (dateAfter != null) {
+                dayAdded(user, stats, dateAfter);
+            }
+            if (stats.getCurrentStreak() != streak) {
+                userRepository.updateStreak(user.getId(), stats.getCurrentStreak());
+            }
+        }
+
+        userStatsRepository.save(stats);
+    }
+
+    private void dayAdded(User user, UserStats stats, LocalDate date) {
+        if (entryRepository.countByUserAndJournalDate(user, date) > 1) {
+            // The day already had entries
+            return;
+        }
+
+        LocalDate last = stats.getLastJournalDate();
+        if (last != null && !date.isAfter(last)) {
+            // A backdated day can join two runs, recount from the stored days
+            recomputeStreaks(user, stats);
+            return;
+        }
+
+        int streak = last != null && date.equals(last.plusDays(1)) ? stats.getCurrentStreak() + 1 : 1;
+        stats.setCurrentStreak(streak);
+        stats.setLongestStreak(Math.max(stats.getLongestStreak(), streak));
+        stats.setLastJournalDate(date);
+    }
+
+    private void dayRemoved(User user, UserStats stats, LocalDate date) {
+        if (entryRepository.countByUserAndJournalDate(user, date) > 0) {
+            // Other entries still cover the day
+            return;
+        }
+
+        recomputeStreaks(user, stats);
+    }
+
+    private void recomputeStreaks(User user, UserStats stats) {
+        recomputeStreaks(stats, entryRepository.findJournalDatesByUser(user));
+    }
+
+    /**
+     * @param dates The distinct days the user has entries on, in order
+     */
+    private static void recomputeStreaks(UserStats stats, List<LocalDate> dates) {
+        int longest = 0;
+        int run = 0;
+        LocalDate previous = null;
+        for (LocalDate date : dates) {
+            run = previous != null && date.equals(previous.plusDays(1)) ? run + 1 : 1;
+            longest = Math.max(longest, run);
+            previous = date;
+        }
+
+        stats.setCurrentStreak(run);
+        stats.setLongestStreak(longest);
+        stats.setLastJournalDate(previous);
+    }
+
+    private void applyTagDeltas(User user, Set<Long> before, Set<Long> after) {
+        Map<Long, Long> deltas = new HashMap<>();
+        before.forEach(tagId -> deltas.merge(tagId, -1L, Long::sum));
+        after.forEach(tagId -> deltas.merge(tagId, 1L, Long::sum));
+        applyTagDeltas(user, deltas);
+    }
+
+    private void applyTagDeltas(User user, Map<Long, Long> deltas) {
+        deltas.values().removeIf(delta -> delta == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Map<Long, UserTagStats> existing = userTagStatsRepository
+                .findByUserIdAndTagIdIn(user.getId(), deltas.keySet())
+                .stream()
+                .collect(Collectors.toMap(stats -> stats.getTag().getId(), Function.identity()));
+
+        deltas.forEach((tagId, delta) -> {
+            UserTagStats tagStats = existing.computeIfAbsent(tagId,
+                    id -> new UserTagStats(user, entityManager.getReference(Tag.class, id)));
+            tagStats.setEntryCount(tagStats.getEntryCount() + delta);
+
+            if (tagStats.getEntryCount() > 0) {
+                userTagStatsRepository.save(tagStats);
+            } else if (tagStats.getId() != null) {
+                userTagStatsRepository.delete(tagStats);
+            }
+        });
+    }
+
+    private void applyFolderDeltas(User user, Long before, Long after) {
+        if (Objects.equals(before, after)) {
+            return;
+        }
+
+        Map<Long, Long> deltas = new HashMap<>();
+        if (before != null) {
+            deltas.put(before, -1L);
+        }
+        if (after != null) {
+            deltas.put(after, 1L);
+        }
+        applyFolderDeltas(user, deltas);
+    }
+
+    private void applyFolderDeltas(User user, Map<Long, Long> deltas) {
+        deltas.values().removeIf(delta -> delta == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Map<Long, FolderStats> existing = folderStatsRepository.findByFolderIdIn(deltas.keySet())
+                .stream()
+                .collect(Collectors.toMap(stats -> stats.getFolder().getId(), Function.identity()));
+
+        deltas.forEach((folderId, delta) -> {
+            FolderStats folderStats = existing.computeIfAbsent(folderId,
+                    id -> new FolderStats(entityManager.getReference(Folder.class, id), user));
+            folderStats.setEntryCount(folderStats.getEntryCount() + delta);
+
+            if (folderStats.getEntryCount() > 0) {
+                folderStatsRepository.save(folderStats);
+            } else if (folderStats.getId() != null) {
+                folderStatsRepository.delete(folderStats);
+            }
+        });
+    }
+
+    private UserStats rebuild(User user, UserStats stats) {
+        EntryTotals totals = entryRepository.findTotalsByUser(user);
+        stats.setEntryCount(totals.getEntryCount());
+        stats.setWordCount(totals.getWordCount());
+        recomputeStreaks(user, stats);
+
+        userTagStatsRepository.deleteAllByUserId(user.getId());
+        entryRepository.countByTagForUser(user).forEach(count -> {
+            UserTagStats tagStats = new UserTagStats(user, entityManager.getReference(Tag.class, count.getId()));
+            tagStats.setEntryCount(count.getEntryCount());
+            userTagStatsRepository.save(tagStats);
+        });
+
+        folderStatsRepository.deleteAllByUserId(user.getId());
+        entryRepository.countByFolderForUser(user).forEach(count -> {
+            FolderStats folderStats = new FolderStats(entityManager.getReference(Folder.class, count.getId()), user);
+            folderStats.setEntryCount(count.getEntryCount());
+            folderStatsRepository.save(folderStats);
+        });
+
+        userRepository.updateStreak(user.getId(), stats.getCurrentStreak());
+        logger.info("Built statistics for user {} from {} entries", user.getId(), stats.getEntryCount());
+        return userStatsRepository.save(stats);
+    }
+
+    private static Map<Long, Long> counts(List<EntryRepository.IdCount> counts) {
+        return counts.stream().collect(Collectors.toMap(EntryRepository.IdCount::getId, EntryRepository.IdCount::getEntryCount));
+    }
+
+    private static long wordCount(EntryStatsSnapshot snapshot) {
+        return snapshot != null ? snapshot.wordCount() : 0;
+    }
+
+    /**
+     * The parts of an entry that statistics are kept for
+     */
+    public record EntryStatsSnapshot(int wordCount, Long folderId, Set<Long> tagIds, LocalDate journalDate) {
+        public static EntryStatsSnapshot of(Entry entry) {
+            return new EntryStatsSnapshot(
+                    entry.getWordCount() != null ? entry.getWordCount() : 0,
+                    entry.getFolder().map(Folder::getId).orElse(null),
+                    entry.getTags().stream().map(Tag::getId).collect(Collectors.toUnmodifiableSet()),
+                    entry.getJournalDate());
+        }
+    }
+}
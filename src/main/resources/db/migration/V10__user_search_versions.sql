@@ -0,0 +1,3 @@
+-- Counts the indexing transactions of each user, Bloom filters built before
+-- the latest one are not used. A constant default only changes the catalog.
+ALTER TABLE users ADD COLUMN search_version BIGINT NOT NULL DEFAULT 0;
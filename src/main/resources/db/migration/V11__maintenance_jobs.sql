@@ -0,0 +1,7 @@
+-- One-off jobs that completed, such as the signature backfill, so that
+-- instances starting later do not run them again.
+CREATE TABLE maintenance_jobs (
+    name VARCHAR(100) NOT NULL,
+    completed_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (name)
+);
@@ -0,0 +1,85 @@
+-- Tables added for statistics, related entries and imports while the schema
+-- was still generated by Hibernate. Baselined databases do not have them yet,
+-- identity ids like the baseline so V2 moves them to sequences with the rest.
+
+CREATE TABLE entry_signatures (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    entry_id BIGINT NOT NULL UNIQUE,
+    signature BYTEA NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE folder_stats (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    entry_count BIGINT NOT NULL,
+    folder_id BIGINT NOT NULL UNIQUE,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE import_jobs (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    imported_entries BIGINT NOT NULL,
+    processed_records BIGINT NOT NULL,
+    skipped_records BIGINT NOT NULL,
+    updated_at TIMESTAMP(6) WITH TIME ZONE,
+    user_id BIGINT NOT NULL,
+    version BIGINT,
+    public_id UUID NOT NULL UNIQUE,
+    error_message VARCHAR(255),
+    status VARCHAR(255) NOT NULL CHECK (status IN ('RUNNING','COMPLETED','FAILED')),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE lsh_buckets (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    bucket_key BIGINT NOT NULL,
+    entry_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE user_stats (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    current_streak INTEGER NOT NULL,
+    last_journal_date DATE,
+    longest_streak INTEGER NOT NULL,
+    entry_count BIGINT NOT NULL,
+    user_id BIGINT NOT NULL UNIQUE,
+    word_count BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE user_tag_stats (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    entry_count BIGINT NOT NULL,
+    tag_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT user_tag_stats_user_tag_uk UNIQUE (user_id, tag_id)
+);
+
+CREATE INDEX folder_stats_user_idx ON folder_stats (user_id);
+
+CREATE INDEX lsh_bucket_user_key_idx ON lsh_buckets (user_id, bucket_key);
+
+CREATE INDEX lsh_bucket_entry_idx ON lsh_buckets (entry_id);
+
+ALTER TABLE entry_signatures ADD CONSTRAINT FK41so2kwy335pwb8l4b0v04a24 FOREIGN KEY (entry_id) REFERENCES entries;
+
+ALTER TABLE folder_stats ADD CONSTRAINT FKn0jk4csdt2tu1f8uwmt16fp7l FOREIGN KEY (folder_id) REFERENCES folders;
+
+ALTER TABLE folder_stats ADD CONSTRAINT FKkn4xf1fjr5q31j9rsej0g5y1h FOREIGN KEY (user_id) REFERENCES users;
+
+ALTER TABLE import_jobs ADD CONSTRAINT FKo5dvhggkn12ksklf4643js2vs FOREIGN KEY (user_id) REFERENCES users;
+
+ALTER TABLE lsh_buckets ADD CONSTRAINT FKd0nm9uv5ymrptfid9f91ig2q2 FOREIGN KEY (entry_id) REFERENCES entries;
+
+ALTER TABLE lsh_buckets ADD CONSTRAINT FK8luh017qwfap85lfmpxgprj24 FOREIGN KEY (user_id) REFERENCES users;
+
+ALTER TABLE user_stats ADD CONSTRAINT FKj277c5rcqlsvwkk3hj39e2b74 FOREIGN KEY (user_id) REFERENCES users;
+
+ALTER TABLE user_tag_stats ADD CONSTRAINT FKfxnbbb3yfshxnvoupplxm33vf FOREIGN KEY (tag_id) REFERENCES tags;
+
+ALTER TABLE user_tag_stats ADD CONSTRAINT FK3q0sxfbjepctmky8e3j6lafsi FOREIGN KEY (user_id) REFERENCES users;
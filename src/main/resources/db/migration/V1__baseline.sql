@@ -0,0 +1,117 @@
+-- Schema as Hibernate's ddl-auto=update left it before migrations took over.
+-- Existing databases are baselined at this version and skip it.
+
+CREATE TABLE allowed_users (
+    shared_entry_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL
+);
+
+CREATE TABLE entries (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    is_favorite BOOLEAN NOT NULL,
+    journal_date DATE NOT NULL,
+    word_count INTEGER NOT NULL,
+    date_created TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    folder_id BIGINT,
+    last_edited TIMESTAMP(6) WITH TIME ZONE,
+    user_id BIGINT NOT NULL,
+    public_id UUID NOT NULL UNIQUE,
+    content TEXT NOT NULL,
+    title TEXT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE entry_tags (
+    entry_id BIGINT NOT NULL,
+    tag_id BIGINT NOT NULL,
+    PRIMARY KEY (entry_id, tag_id)
+);
+
+CREATE TABLE folders (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    user_id BIGINT NOT NULL,
+    public_id UUID,
+    name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE media (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    entry_id BIGINT,
+    s3_key VARCHAR(2048) NOT NULL,
+    filename VARCHAR(255) NOT NULL,
+    type VARCHAR(255) NOT NULL CHECK (type IN ('IMAGE','VIDEO','FILE')),
+    url VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE search_tokens (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    entry_id BIGINT NOT NULL,
+    token_value VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE shared_entries (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    allow_anyone BOOLEAN NOT NULL,
+    entry_id BIGINT,
+    expiry_time TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    public_id UUID NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE tags (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name VARCHAR(255) NOT NULL UNIQUE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    "2fa_enabled" BOOLEAN,
+    ai_allow_content_access BOOLEAN NOT NULL,
+    ai_allow_title_access BOOLEAN NOT NULL,
+    is_activated BOOLEAN,
+    streak INTEGER NOT NULL,
+    ai_cooldown TIMESTAMP(6),
+    code_exp TIMESTAMP(6),
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    last_login TIMESTAMP(6) WITH TIME ZONE,
+    username VARCHAR(50) NOT NULL,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    google_id VARCHAR(255),
+    password VARCHAR(255),
+    profile_picture VARCHAR(255),
+    verification_code VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX entry_user_journal_idx ON entries (user_id, journal_date);
+
+CREATE INDEX search_token_idx ON search_tokens (token_value);
+
+CREATE INDEX tag_name_idx ON tags (name);
+
+CREATE INDEX user_email ON users (email);
+
+ALTER TABLE allowed_users ADD CONSTRAINT FK40lp25004omgnf79bsls5o49m FOREIGN KEY (user_id) REFERENCES users;
+
+ALTER TABLE allowed_users ADD CONSTRAINT FK8femief4wada1cark43ugttnk FOREIGN KEY (shared_entry_id) REFERENCES shared_entries;
+
+ALTER TABLE entries ADD CONSTRAINT FKlagbe2jl18eawp5bvrp1voq7v FOREIGN KEY (folder_id) REFERENCES folders;
+
+ALTER TABLE entries ADD CONSTRAINT FKoia5s1p9sk4x5fld87yjqpjg9 FOREIGN KEY (user_id) REFERENCES users;
+
+ALTER TABLE entry_tags ADD CONSTRAINT FK209uy78sq0ev7psmy9o0qg3vx FOREIGN KEY (tag_id) REFERENCES tags;
+
+ALTER TABLE entry_tags ADD CONSTRAINT FK8578vf1i1ayhjalfnom5vkunj FOREIGN KEY (entry_id) REFERENCES entries;
+
+ALTER TABLE folders ADD CONSTRAINT FKc2qooq7m62v6o0c8ptaj3x4cj FOREIGN KEY (user_id) REFERENCES users;
+
+ALTER TABLE media ADD CONSTRAINT FK8mmvknafwy1fgt2v3owqnvn9t FOREIGN KEY (entry_id) REFERENCES entries;
+
+ALTER TABLE search_tokens ADD CONSTRAINT FKkfupovbxhfvhwqc35p11tft47 FOREIGN KEY (entry_id) REFERENCES entries;
+
+ALTER TABLE shared_entries ADD CONSTRAINT FKlw8smsxbrfn5osubwp3ripbkq FOREIGN KEY (entry_id) REFERENCES entries;
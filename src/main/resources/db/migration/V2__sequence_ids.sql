@@ -0,0 +1,52 @@
+-- Moves every table but search_tokens from identity columns to sequences
+-- handed out in blocks of 50 (pooled-lo), so Hibernate can batch inserts.
+-- Each sequence starts after the table's current highest id.
+-- search_tokens keeps its identity column, its rows are inserted over JDBC.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+SELECT setval('users_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 1, false);
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS folders_seq INCREMENT BY 50;
+SELECT setval('folders_seq', COALESCE((SELECT MAX(id) FROM folders), 0) + 1, false);
+ALTER TABLE folders ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS entries_seq INCREMENT BY 50;
+SELECT setval('entries_seq', COALESCE((SELECT MAX(id) FROM entries), 0) + 1, false);
+ALTER TABLE entries ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS tags_seq INCREMENT BY 50;
+SELECT setval('tags_seq', COALESCE((SELECT MAX(id) FROM tags), 0) + 1, false);
+ALTER TABLE tags ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS media_seq INCREMENT BY 50;
+SELECT setval('media_seq', COALESCE((SELECT MAX(id) FROM media), 0) + 1, false);
+ALTER TABLE media ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS shared_entries_seq INCREMENT BY 50;
+SELECT setval('shared_entries_seq', COALESCE((SELECT MAX(id) FROM shared_entries), 0) + 1, false);
+ALTER TABLE shared_entries ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS entry_signatures_seq INCREMENT BY 50;
+SELECT setval('entry_signatures_seq', COALESCE((SELECT MAX(id) FROM entry_signatures), 0) + 1, false);
+ALTER TABLE entry_signatures ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS lsh_buckets_seq INCREMENT BY 50;
+SELECT setval('lsh_buckets_seq', COALESCE((SELECT MAX(id) FROM lsh_buckets), 0) + 1, false);
+ALTER TABLE lsh_buckets ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS import_jobs_seq INCREMENT BY 50;
+SELECT setval('import_jobs_seq', COALESCE((SELECT MAX(id) FROM import_jobs), 0) + 1, false);
+ALTER TABLE import_jobs ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS user_stats_seq INCREMENT BY 50;
+SELECT setval('user_stats_seq', COALESCE((SELECT MAX(id) FROM user_stats), 0) + 1, false);
+ALTER TABLE user_stats ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS user_tag_stats_seq INCREMENT BY 50;
+SELECT setval('user_tag_stats_seq', COALESCE((SELECT MAX(id) FROM user_tag_stats), 0) + 1, false);
+ALTER TABLE user_tag_stats ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS folder_stats_seq INCREMENT BY 50;
+SELECT setval('folder_stats_seq', COALESCE((SELECT MAX(id) FROM folder_stats), 0) + 1, false);
+ALTER TABLE folder_stats ALTER COLUMN id DROP IDENTITY IF EXISTS;
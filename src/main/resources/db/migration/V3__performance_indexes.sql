@@ -0,0 +1,27 @@
+-- Indexes for lookups and deletes that scanned their table under ddl-auto=update.
+-- Built concurrently so writes continue on large tables, Flyway runs this
+-- migration outside a transaction.
+
+-- Entries by user in creation order
+CREATE INDEX CONCURRENTLY IF NOT EXISTS entries_user_created_idx ON entries (user_id, date_created);
+
+-- Folder listings and clearing a deleted folder, most entries have no folder
+CREATE INDEX CONCURRENTLY IF NOT EXISTS entries_folder_idx ON entries (folder_id) WHERE folder_id IS NOT NULL;
+
+-- Tag filters join from the tag side
+CREATE INDEX CONCURRENTLY IF NOT EXISTS entry_tags_tag_idx ON entry_tags (tag_id, entry_id);
+
+-- Shared entry links, finding expired shares and an entry's shares newest first
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS shared_entries_public_id_uk ON shared_entries (public_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS shared_entries_expiry_time_idx ON shared_entries (expiry_time);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS shared_entries_entry_expiry_idx ON shared_entries (entry_id, expiry_time);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS allowed_users_shared_entry_idx ON allowed_users (shared_entry_id);
+
+-- Media of an entry, also used when the entry is deleted
+CREATE INDEX CONCURRENTLY IF NOT EXISTS media_entry_idx ON media (entry_id);
+
+-- Tokens are deleted by entry on every edit
+CREATE INDEX CONCURRENTLY IF NOT EXISTS search_tokens_entry_idx ON search_tokens (entry_id);
+
+-- Folder links by public id, the natural id of folders
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS folders_public_id_uk ON folders (public_id);
@@ -0,0 +1,75 @@
+-- First step of moving entries and search_tokens to tables hash partitioned
+-- by user_id. Creates the partitioned tables next to the current ones and
+-- mirrors every write into them, V5 copies the existing rows and V6 swaps
+-- the tables. The application keeps running against the old tables until then.
+
+CREATE TABLE entries_p (LIKE entries INCLUDING DEFAULTS) PARTITION BY HASH (user_id);
+ALTER TABLE entries_p ADD CONSTRAINT entries_part_pk PRIMARY KEY (id, user_id);
+-- A unique constraint on a partitioned table has to contain the partition key
+ALTER TABLE entries_p ADD CONSTRAINT entries_part_user_public_id_uk UNIQUE (user_id, public_id);
+ALTER TABLE entries_p ADD CONSTRAINT entries_part_user_fk FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE entries_p ADD CONSTRAINT entries_part_folder_fk FOREIGN KEY (folder_id) REFERENCES folders;
+CREATE INDEX entries_part_user_journal_idx ON entries_p (user_id, journal_date);
+CREATE INDEX entries_part_user_created_idx ON entries_p (user_id, date_created);
+CREATE INDEX entries_part_user_folder_idx ON entries_p (user_id, folder_id) WHERE folder_id IS NOT NULL;
+
+-- Identity columns are not allowed on partitioned tables, ids come from a sequence.
+-- Instances still running the previous release insert tokens without a user
+-- after V6, so user_id only becomes NOT NULL in a later release, with
+-- db/pending/search_tokens_user_not_null.sql. The unique key stands in for
+-- the primary key until then.
+CREATE SEQUENCE search_tokens_p_id_seq;
+CREATE TABLE search_tokens_p (
+    id BIGINT NOT NULL DEFAULT nextval('search_tokens_p_id_seq'),
+    token_value VARCHAR(255) NOT NULL,
+    entry_id BIGINT NOT NULL,
+    user_id BIGINT,
+    CONSTRAINT search_tokens_part_id_uk UNIQUE (id, user_id)
+) PARTITION BY HASH (user_id);
+ALTER TABLE search_tokens_p ADD CONSTRAINT search_tokens_part_user_fk FOREIGN KEY (user_id) REFERENCES users;
+CREATE INDEX search_tokens_part_user_value_idx ON search_tokens_p (user_id, token_value);
+CREATE INDEX search_tokens_part_user_entry_idx ON search_tokens_p (user_id, entry_id);
+
+DO $$
+BEGIN
+    FOR r IN 0..15 LOOP
+        EXECUTE format('CREATE TABLE entries_part_%s PARTITION OF entries_p FOR VALUES WITH (MODULUS 16, REMAINDER %s)',
+                       lpad(r::text, 2, '0'), r);
+        EXECUTE format('CREATE TABLE search_tokens_part_%s PARTITION OF search_tokens_p FOR VALUES WITH (MODULUS 16, REMAINDER %s)',
+                       lpad(r::text, 2, '0'), r);
+    END LOOP;
+END $$;
+
+-- An update removes the old version and inserts the new one, so a row the
+-- copy in V5 has not reached yet is simply inserted early
+CREATE FUNCTION entries_mirror() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM entries_p WHERE id = OLD.id AND user_id = OLD.user_id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO entries_p SELECT NEW.* ON CONFLICT DO NOTHING;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER entries_mirror AFTER INSERT OR UPDATE OR DELETE ON entries
+    FOR EACH ROW EXECUTE FUNCTION entries_mirror();
+
+-- Tokens are only inserted and deleted, their user is the owner of the entry
+CREATE FUNCTION search_tokens_mirror() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        DELETE FROM search_tokens_p WHERE id = OLD.id;
+    ELSE
+        INSERT INTO search_tokens_p (id, token_value, entry_id, user_id)
+        SELECT NEW.id, NEW.token_value, NEW.entry_id, e.user_id FROM entries e WHERE e.id = NEW.entry_id
+        ON CONFLICT DO NOTHING;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER search_tokens_mirror AFTER INSERT OR DELETE ON search_tokens
+    FOR EACH ROW EXECUTE FUNCTION search_tokens_mirror();
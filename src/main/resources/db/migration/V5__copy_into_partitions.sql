@@ -0,0 +1,135 @@
+-- Copies the existing rows into the partitioned tables, one hash partition
+-- per statement. Flyway runs this migration outside a transaction (see the
+-- .conf file) so each statement commits on its own and writers mirrored by
+-- the V4 triggers only wait on the partition being copied. Rows the triggers
+-- already wrote win over the copy, rerunning the script is safe. The cleanup
+-- V6 would otherwise do while holding its lock is done here as well.
+
+INSERT INTO entries_p SELECT * FROM entries
+WHERE satisfies_hash_partition('entries_p'::regclass, 16, 0, user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO entries_p SELECT * FROM entries
+WHERE satisfies_hash_partition('entries_p'::regclass, 16, 1, user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO entries_p SELECT * FROM entries
+WHERE satisfies_hash_partition('entries_p'::regclass, 16, 2, user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO entries_p SELECT * FROM entries
+WHERE satisfies_hash_partition('entries_p'::regclass, 16, 3, user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO entries_p SELECT * FROM entries
+WHERE satisfies_hash_partition('entries_p'::regclass, 16, 4, user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO entries_p SELECT * FROM entries
+WHERE satisfies_hash_partition('entries_p'::regclass, 16, 5, user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO entries_p SELECT * FROM entries
+WHERE satisfies_hash_partition('entries_p'::regclass, 16, 6, user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO entries_p SELECT * FROM entries
+WHERE satisfies_hash_partition('entries_p'::regclass, 16, 7, user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO entries_p SELECT * FROM entries
+WHERE satisfies_hash_partition('entries_p'::regclass, 16, 8, user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO entries_p SELECT * FROM entries
+WHERE satisfies_hash_partition('entries_p'::regclass, 16, 9, user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO entries_p SELECT * FROM entries
+WHERE satisfies_hash_partition('entries_p'::regclass, 16, 10, user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO entries_p SELECT * FROM entries
+WHERE satisfies_hash_partition('entries_p'::regclass, 16, 11, user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO entries_p SELECT * FROM entries
+WHERE satisfies_hash_partition('entries_p'::regclass, 16, 12, user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO entries_p SELECT * FROM entries
+WHERE satisfies_hash_partition('entries_p'::regclass, 16, 13, user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO entries_p SELECT * FROM entries
+WHERE satisfies_hash_partition('entries_p'::regclass, 16, 14, user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO entries_p SELECT * FROM entries
+WHERE satisfies_hash_partition('entries_p'::regclass, 16, 15, user_id)
+ON CONFLICT DO NOTHING;
+
+INSERT INTO search_tokens_p (id, token_value, entry_id, user_id)
+SELECT st.id, st.token_value, st.entry_id, e.user_id FROM search_tokens st JOIN entries e ON e.id = st.entry_id
+WHERE satisfies_hash_partition('search_tokens_p'::regclass, 16, 0, e.user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO search_tokens_p (id, token_value, entry_id, user_id)
+SELECT st.id, st.token_value, st.entry_id, e.user_id FROM search_tokens st JOIN entries e ON e.id = st.entry_id
+WHERE satisfies_hash_partition('search_tokens_p'::regclass, 16, 1, e.user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO search_tokens_p (id, token_value, entry_id, user_id)
+SELECT st.id, st.token_value, st.entry_id, e.user_id FROM search_tokens st JOIN entries e ON e.id = st.entry_id
+WHERE satisfies_hash_partition('search_tokens_p'::regclass, 16, 2, e.user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO search_tokens_p (id, token_value, entry_id, user_id)
+SELECT st.id, st.token_value, st.entry_id, e.user_id FROM search_tokens st JOIN entries e ON e.id = st.entry_id
+WHERE satisfies_hash_partition('search_tokens_p'::regclass, 16, 3, e.user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO search_tokens_p (id, token_value, entry_id, user_id)
+SELECT st.id, st.token_value, st.entry_id, e.user_id FROM search_tokens st JOIN entries e ON e.id = st.entry_id
+WHERE satisfies_hash_partition('search_tokens_p'::regclass, 16, 4, e.user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO search_tokens_p (id, token_value, entry_id, user_id)
+SELECT st.id, st.token_value, st.entry_id, e.user_id FROM search_tokens st JOIN entries e ON e.id = st.entry_id
+WHERE satisfies_hash_partition('search_tokens_p'::regclass, 16, 5, e.user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO search_tokens_p (id, token_value, entry_id, user_id)
+SELECT st.id, st.token_value, st.entry_id, e.user_id FROM search_tokens st JOIN entries e ON e.id = st.entry_id
+WHERE satisfies_hash_partition('search_tokens_p'::regclass, 16, 6, e.user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO search_tokens_p (id, token_value, entry_id, user_id)
+SELECT st.id, st.token_value, st.entry_id, e.user_id FROM search_tokens st JOIN entries e ON e.id = st.entry_id
+WHERE satisfies_hash_partition('search_tokens_p'::regclass, 16, 7, e.user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO search_tokens_p (id, token_value, entry_id, user_id)
+SELECT st.id, st.token_value, st.entry_id, e.user_id FROM search_tokens st JOIN entries e ON e.id = st.entry_id
+WHERE satisfies_hash_partition('search_tokens_p'::regclass, 16, 8, e.user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO search_tokens_p (id, token_value, entry_id, user_id)
+SELECT st.id, st.token_value, st.entry_id, e.user_id FROM search_tokens st JOIN entries e ON e.id = st.entry_id
+WHERE satisfies_hash_partition('search_tokens_p'::regclass, 16, 9, e.user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO search_tokens_p (id, token_value, entry_id, user_id)
+SELECT st.id, st.token_value, st.entry_id, e.user_id FROM search_tokens st JOIN entries e ON e.id = st.entry_id
+WHERE satisfies_hash_partition('search_tokens_p'::regclass, 16, 10, e.user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO search_tokens_p (id, token_value, entry_id, user_id)
+SELECT st.id, st.token_value, st.entry_id, e.user_id FROM search_tokens st JOIN entries e ON e.id = st.entry_id
+WHERE satisfies_hash_partition('search_tokens_p'::regclass, 16, 11, e.user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO search_tokens_p (id, token_value, entry_id, user_id)
+SELECT st.id, st.token_value, st.entry_id, e.user_id FROM search_tokens st JOIN entries e ON e.id = st.entry_id
+WHERE satisfies_hash_partition('search_tokens_p'::regclass, 16, 12, e.user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO search_tokens_p (id, token_value, entry_id, user_id)
+SELECT st.id, st.token_value, st.entry_id, e.user_id FROM search_tokens st JOIN entries e ON e.id = st.entry_id
+WHERE satisfies_hash_partition('search_tokens_p'::regclass, 16, 13, e.user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO search_tokens_p (id, token_value, entry_id, user_id)
+SELECT st.id, st.token_value, st.entry_id, e.user_id FROM search_tokens st JOIN entries e ON e.id = st.entry_id
+WHERE satisfies_hash_partition('search_tokens_p'::regclass, 16, 14, e.user_id)
+ON CONFLICT DO NOTHING;
+INSERT INTO search_tokens_p (id, token_value, entry_id, user_id)
+SELECT st.id, st.token_value, st.entry_id, e.user_id FROM search_tokens st JOIN entries e ON e.id = st.entry_id
+WHERE satisfies_hash_partition('search_tokens_p'::regclass, 16, 15, e.user_id)
+ON CONFLICT DO NOTHING;
+
+-- A row deleted while its partition was being copied can have been copied
+-- after its delete was mirrored. Later deletes find the row and are mirrored.
+DELETE FROM search_tokens_p p WHERE NOT EXISTS (SELECT 1 FROM search_tokens st WHERE st.id = p.id);
+DELETE FROM entries_p p WHERE NOT EXISTS (SELECT 1 FROM entries e WHERE e.id = p.id);
+
+-- A foreign key can only reference a partitioned table through its whole
+-- primary key (id, user_id). Rows pointing at an entry are removed by the
+-- services before the entry itself.
+ALTER TABLE entry_signatures DROP CONSTRAINT IF EXISTS FK41so2kwy335pwb8l4b0v04a24;
+ALTER TABLE entry_tags DROP CONSTRAINT IF EXISTS FK8578vf1i1ayhjalfnom5vkunj;
+ALTER TABLE lsh_buckets DROP CONSTRAINT IF EXISTS FKd0nm9uv5ymrptfid9f91ig2q2;
+ALTER TABLE media DROP CONSTRAINT IF EXISTS FK8mmvknafwy1fgt2v3owqnvn9t;
+ALTER TABLE search_tokens DROP CONSTRAINT IF EXISTS FKkfupovbxhfvhwqc35p11tft47;
+ALTER TABLE shared_entries DROP CONSTRAINT IF EXISTS FKlw8smsxbrfn5osubwp3ripbkq;
@@ -0,0 +1,22 @@
+-- Puts the partitioned tables in place of entries and search_tokens. Only
+-- the swap itself runs under the lock, V5 already reconciled the copies.
+-- Giving up after the lock timeout keeps the migration from queueing every
+-- query behind a long running one, it is retried on the next start.
+-- The old tables are kept as *_unpartitioned until a later release drops them.
+
+SET LOCAL lock_timeout = '5s';
+LOCK TABLE entries, search_tokens IN ACCESS EXCLUSIVE MODE;
+
+DROP TRIGGER search_tokens_mirror ON search_tokens;
+DROP TRIGGER entries_mirror ON entries;
+DROP FUNCTION search_tokens_mirror();
+DROP FUNCTION entries_mirror();
+
+ALTER TABLE entries RENAME TO entries_unpartitioned;
+ALTER TABLE search_tokens RENAME TO search_tokens_unpartitioned;
+ALTER TABLE entries_p RENAME TO entries;
+ALTER TABLE search_tokens_p RENAME TO search_tokens;
+
+-- Copied tokens kept the ids of the old identity column
+SELECT setval('search_tokens_p_id_seq', COALESCE((SELECT MAX(id) FROM search_tokens), 0) + 1, false);
+ALTER SEQUENCE search_tokens_p_id_seq OWNED BY search_tokens.id;
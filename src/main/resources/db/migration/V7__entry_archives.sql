@@ -0,0 +1,76 @@
+-- Archive tier for the content of entries nobody has written for a long time.
+-- Flyway runs this migration outside a transaction (see the .conf file) so
+-- the index of the archiving job is built without blocking writes. Every
+-- statement can be rerun.
+
+-- A constant default only changes the catalog, the partitions are not rewritten.
+ALTER TABLE entries ADD COLUMN IF NOT EXISTS archived BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE TABLE IF NOT EXISTS entry_archives (
+    entry_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    content BYTEA NOT NULL,
+    archived_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (entry_id),
+    CONSTRAINT entry_archives_user_fk FOREIGN KEY (user_id) REFERENCES users
+);
+
+-- The content is compressed and encrypted already, TOAST would only try to compress it again
+ALTER TABLE entry_archives ALTER COLUMN content SET STORAGE EXTERNAL;
+
+CREATE INDEX IF NOT EXISTS entry_archive_user_idx ON entry_archives (user_id);
+
+-- The entries the archiving job looks for, by the time they were last
+-- written. Archived entries leave the index, so it shrinks as the job
+-- catches up. An index on a partitioned table cannot be built concurrently,
+-- each partition's is built on its own and attached to the parent index.
+CREATE INDEX IF NOT EXISTS entries_to_archive_idx
+    ON ONLY entries ((COALESCE(last_edited, date_created)), id) WHERE NOT archived;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS entries_part_00_to_archive_idx
+    ON entries_part_00 ((COALESCE(last_edited, date_created)), id) WHERE NOT archived;
+ALTER INDEX entries_to_archive_idx ATTACH PARTITION entries_part_00_to_archive_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS entries_part_01_to_archive_idx
+    ON entries_part_01 ((COALESCE(last_edited, date_created)), id) WHERE NOT archived;
+ALTER INDEX entries_to_archive_idx ATTACH PARTITION entries_part_01_to_archive_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS entries_part_02_to_archive_idx
+    ON entries_part_02 ((COALESCE(last_edited, date_created)), id) WHERE NOT archived;
+ALTER INDEX entries_to_archive_idx ATTACH PARTITION entries_part_02_to_archive_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS entries_part_03_to_archive_idx
+    ON entries_part_03 ((COALESCE(last_edited, date_created)), id) WHERE NOT archived;
+ALTER INDEX entries_to_archive_idx ATTACH PARTITION entries_part_03_to_archive_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS entries_part_04_to_archive_idx
+    ON entries_part_04 ((COALESCE(last_edited, date_created)), id) WHERE NOT archived;
+ALTER INDEX entries_to_archive_idx ATTACH PARTITION entries_part_04_to_archive_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS entries_part_05_to_archive_idx
+    ON entries_part_05 ((COALESCE(last_edited, date_created)), id) WHERE NOT archived;
+ALTER INDEX entries_to_archive_idx ATTACH PARTITION entries_part_05_to_archive_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS entries_part_06_to_archive_idx
+    ON entries_part_06 ((COALESCE(last_edited, date_created)), id) WHERE NOT archived;
+ALTER INDEX entries_to_archive_idx ATTACH PARTITION entries_part_06_to_archive_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS entries_part_07_to_archive_idx
+    ON entries_part_07 ((COALESCE(last_edited, date_created)), id) WHERE NOT archived;
+ALTER INDEX entries_to_archive_idx ATTACH PARTITION entries_part_07_to_archive_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS entries_part_08_to_archive_idx
+    ON entries_part_08 ((COALESCE(last_edited, date_created)), id) WHERE NOT archived;
+ALTER INDEX entries_to_archive_idx ATTACH PARTITION entries_part_08_to_archive_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS entries_part_09_to_archive_idx
+    ON entries_part_09 ((COALESCE(last_edited, date_created)), id) WHERE NOT archived;
+ALTER INDEX entries_to_archive_idx ATTACH PARTITION entries_part_09_to_archive_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS entries_part_10_to_archive_idx
+    ON entries_part_10 ((COALESCE(last_edited, date_created)), id) WHERE NOT archived;
+ALTER INDEX entries_to_archive_idx ATTACH PARTITION entries_part_10_to_archive_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS entries_part_11_to_archive_idx
+    ON entries_part_11 ((COALESCE(last_edited, date_created)), id) WHERE NOT archived;
+ALTER INDEX entries_to_archive_idx ATTACH PARTITION entries_part_11_to_archive_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS entries_part_12_to_archive_idx
+    ON entries_part_12 ((COALESCE(last_edited, date_created)), id) WHERE NOT archived;
+ALTER INDEX entries_to_archive_idx ATTACH PARTITION entries_part_12_to_archive_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS entries_part_13_to_archive_idx
+    ON entries_part_13 ((COALESCE(last_edited, date_created)), id) WHERE NOT archived;
+ALTER INDEX entries_to_archive_idx ATTACH PARTITION entries_part_13_to_archive_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS entries_part_14_to_archive_idx
+    ON entries_part_14 ((COALESCE(last_edited, date_created)), id) WHERE NOT archived;
+ALTER INDEX entries_to_archive_idx ATTACH PARTITION entries_part_14_to_archive_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS entries_part_15_to_archive_idx
+    ON entries_part_15 ((COALESCE(last_edited, date_created)), id) WHERE NOT archived;
+ALTER INDEX entries_to_archive_idx ATTACH PARTITION entries_part_15_to_archive_idx;
@@ -0,0 +1,3 @@
+-- Optimistic locking for entries. A constant default only changes the catalog,
+-- existing rows start at version 0 without the partitions being rewritten.
+ALTER TABLE entries ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
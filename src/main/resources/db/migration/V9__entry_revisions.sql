@@ -0,0 +1,25 @@
+-- Revision history of entry titles and content, stored as deltas between
+-- neighbouring revisions with a whole copy every few revisions.
+CREATE SEQUENCE IF NOT EXISTS entry_revisions_seq INCREMENT BY 50;
+
+CREATE TABLE entry_revisions (
+    id BIGINT NOT NULL,
+    entry_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    revision_number INTEGER NOT NULL,
+    snapshot BOOLEAN NOT NULL,
+    data BYTEA NOT NULL,
+    word_count INTEGER NOT NULL,
+    edited_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT entry_revision_entry_number_uk UNIQUE (entry_id, revision_number)
+);
+
+-- The data is compressed and encrypted already, TOAST would only try to compress it again
+ALTER TABLE entry_revisions ALTER COLUMN data SET STORAGE EXTERNAL;
+
+CREATE INDEX entry_revision_user_idx ON entry_revisions (user_id);
+-- Pruning by age
+CREATE INDEX entry_revision_created_idx ON entry_revisions (created_at);
+ALTER TABLE entry_revisions ADD CONSTRAINT entry_revisions_user_fk FOREIGN KEY (user_id) REFERENCES users;
@@ -0,0 +1,33 @@
+-- Last step of partitioning search_tokens. It is kept out of db/migration
+-- until no instance of the release before V6 is left, the release after that
+-- moves it there as the next version. Instances before V6 inserted tokens
+-- without a user, hash partitioning puts them all in one partition until
+-- they are filled in here.
+
+UPDATE search_tokens st SET user_id = e.user_id
+FROM entries e
+WHERE st.user_id IS NULL AND e.id = st.entry_id;
+
+DELETE FROM search_tokens WHERE user_id IS NULL;
+
+-- Validating a check does not block writes, and once it holds SET NOT NULL
+-- does not scan the partitions under its lock
+DO $$
+BEGIN
+    FOR r IN 0..15 LOOP
+        EXECUTE format('ALTER TABLE search_tokens_part_%s ADD CONSTRAINT search_tokens_part_%s_user_nn CHECK (user_id IS NOT NULL) NOT VALID',
+                       lpad(r::text, 2, '0'), lpad(r::text, 2, '0'));
+        EXECUTE format('ALTER TABLE search_tokens_part_%s VALIDATE CONSTRAINT search_tokens_part_%s_user_nn',
+                       lpad(r::text, 2, '0'), lpad(r::text, 2, '0'));
+    END LOOP;
+END $$;
+
+ALTER TABLE search_tokens ALTER COLUMN user_id SET NOT NULL;
+
+DO $$
+BEGIN
+    FOR r IN 0..15 LOOP
+        EXECUTE format('ALTER TABLE search_tokens_part_%s DROP CONSTRAINT search_tokens_part_%s_user_nn',
+                       lpad(r::text, 2, '0'), lpad(r::text, 2, '0'));
+    END LOOP;
+END $$;
@@ -0,0 +1,172 @@
+package dev.rubric.journalspring;
+
+import dev.rubric.journalspring.dto.EntryDto;
+import dev.rubric.journalspring.dto.EntryPatchDto;
+import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.repository.ArchivedEntryRepository;
+import dev.rubric.journalspring.repository.EntryRepository;
+import dev.rubric.journalspring.repository.UserRepository;
+import dev.rubric.journalspring.response.EntryResponse;
+import dev.rubric.journalspring.service.EncryptionService;
+import dev.rubric.journalspring.service.EntryArchiveService;
+import dev.rubric.journalspring.service.EntryService;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"entry.archive.after=30d", "entry.archive.batch-size=1"})
+@ActiveProfiles("test")
+@Transactional
+public class EntryArchiveIntegrationTests {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntryRepository entryRepository;
+
+    @Autowired
+    private ArchivedEntryRepository archivedEntryRepository;
+
+    @Autowired
+    private EntryService entryService;
+
+    @Autowired
+    private EntryArchiveService entryArchiveService;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setUsername("archiveuser");
+        testUser.setEmail("archiveuser@example.com");
+        testUser.setPassword("unused");
+        testUser.setActivated(true);
+        testUser = userRepository.save(testUser);
+    }
+
+    private Entry createEntry(String content, ZonedDateTime lastEdited) {
+        Entry entry = entryService.addEntry(testUser, new EntryDto("Title", null, content, List.of(), 3, false));
+        entry.setLastEdited(lastEdited);
+        entityManager.flush();
+        return entry;
+    }
+
+    private Long archiveOldEntry(String content) {
+        Long id = createEntry(content, ZonedDateTime.now().minusDays(60)).getId();
+        assertEquals(1, entryArchiveService.archiveOldEntries());
+        entityManager.flush();
+        entityManager.clear();
+        return id;
+    }
+
+    @Test
+    void archiveOldEntries_MovesOnlyOldContentOut() {
+        Long oldId = createEntry("Walked along the old canal", ZonedDateTime.now().minusDays(60)).getId();
+        Long recentId = createEntry("Written this week", ZonedDateTime.now().minusDays(2)).getId();
+
+        assertEquals(1, entryArchiveService.archiveOldEntries());
+        entityManager.flush();
+        entityManager.clear();
+
+        Entry archived = entryRepository.findById(oldId).orElseThrow();
+        assertTrue(archived.isArchived());
+        assertEquals("", archived.getContent());
+        assertTrue(archivedEntryRepository.existsById(oldId));
+        assertFalse(entryRepository.findById(recentId).orElseThrow().isArchived());
+        assertEquals(0, entryArchiveService.archiveOldEntries());
+    }
+
+    @Test
+    void archiveOldEntries_SeveralBatches_ArchivesAll() {
+        Long older = createEntry("Two months ago", ZonedDateTime.now().minusDays(60)).getId();
+        Long old = createEntry("Six weeks ago", ZonedDateTime.now().minusDays(42)).getId();
+
+        assertEquals(2, entryArchiveService.archiveOldEntries());
+        entityManager.clear();
+
+        assertTrue(entryRepository.findById(older).orElseThrow().isArchived());
+        assertTrue(entryRepository.findById(old).orElseThrow().isArchived());
+    }
+
+    @Test
+    void archiveOldEntries_KeepsVersion() {
+        Entry entry = createEntry("Walked along the old canal", ZonedDateTime.now().minusDays(60));
+        Long version = entry.getVersion();
+
+        assertEquals(1, entryArchiveService.archiveOldEntries());
+        entityManager.clear();
+
+        assertEquals(version, entryRepository.findById(entry.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void patchEntry_ArchivedEntryNothingChanged_StaysArchived() {
+        Long id = archiveOldEntry("Left as it was");
+        Long version = entryRepository.findById(id).orElseThrow().getVersion();
+
+        EntryResponse response = entryService.patchEntry(testUser, id,
+                new EntryPatchDto(version, "Title", "Left as it was", 3, false));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(version, response.getVersion());
+        assertEquals("Left as it was", response.getContent());
+        Entry entry = entryRepository.findById(id).orElseThrow();
+        assertTrue(entry.isArchived());
+        assertEquals(version, entry.getVersion());
+    }
+
+    @Test
+    void readArchivedEntry_FallsBackToArchive() {
+        Long id = archiveOldEntry("Walked along the old canal");
+
+        assertEquals("Walked along the old canal", entryService.getEntryById(testUser, id).getContent());
+        List<EntryResponse> all = entryService.getAllUserEntries(testUser);
+        assertEquals(1, all.size());
+        assertEquals("Walked along the old canal", all.get(0).getContent());
+    }
+
+    @Test
+    void updateEntry_ArchivedEntry_Rehydrates() {
+        Long id = archiveOldEntry("Before the edit");
+
+        entryService.updateEntry(testUser, new EntryDto("Renamed", null, null, null, null, null), id);
+        entityManager.flush();
+        entityManager.clear();
+
+        Entry entry = entryRepository.findById(id).orElseThrow();
+        assertFalse(entry.isArchived());
+        assertEquals("Renamed", entry.getTitle());
+        assertEquals("Before the edit", encryptionService.decrypt(entry.getContent()));
+        assertFalse(archivedEntryRepository.existsById(id));
+    }
+
+    @Test
+    void deleteEntry_ArchivedEntry_RemovesArchive() {
+        Long id = archiveOldEntry("Soon gone");
+
+        entryService.deleteEntry(testUser, id);
+        entityManager.flush();
+
+        assertFalse(entryRepository.existsById(id));
+        assertFalse(archivedEntryRepository.existsById(id));
+    }
+}
@@ -0,0 +1,201 @@
+package dev.rubric.journalspring;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rubric.journalspring.dto.LoginUserDto;
+import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.models.Tag;
+import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.repository.EntryRepository;
+import dev.rubric.journalspring.repository.TagRepository;
+import dev.rubric.journalspring.repository.UserRepository;
+import dev.rubric.journalspring.response.EntryResponse;
+import dev.rubric.journalspring.service.AuthService;
+import dev.rubric.journalspring.service.EncryptionService;
+import dev.rubric.journalspring.service.JwtService;
+import dev.rubric.journalspring.service.SearchService;
+import dev.rubric.journalspring.service.TagService;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Small batches so a failing import has already committed some records
+@SpringBootTest(properties = "entry.import.batch-size=2")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Transactional
+public class EntryImportIntegrationTests {
+
+    private static final String RECORDS = """
+            {"title":"Lighthouse","content":"Walked to the lighthouse","tags":["import-a"],"journalDate":"2023-03-01","isFavorite":true}
+            {"title":"","content":"No title, skipped"}
+            {"title":"Harbour","content":"Boats in the harbour","tags":["import-a","unknown"],"journalDate":"2023-03-02"}
+            {"title":"Market","content":"Bought bread","journalDate":"2023-03-04","id":99,"folderId":12}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntryRepository entryRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    private User testUser;
+    private String testUserToken;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setUsername("importuser");
+        testUser.setEmail("importuser@example.com");
+        testUser.setPassword(passwordEncoder.encode("P@ssword1"));
+        testUser.setActivated(true);
+        testUser = userRepository.save(testUser);
+
+        User authenticated = authService.authenticate(new LoginUserDto(testUser.getEmail(), "P@ssword1"));
+        testUserToken = jwtService.generateToken(authenticated);
+
+        tagRepository.save(new Tag("import-a"));
+        tagService.refresh();
+    }
+
+    private JsonNode importRecords(MediaType contentType, byte[] body, String jobId) throws Exception {
+        var request = post("/api/v1/entry/import")
+                .header("Authorization", "Bearer " + testUserToken)
+                .contentType(contentType)
+                .content(body);
+        if (jobId != null) {
+            request.param("jobId", jobId);
+        }
+
+        MvcResult result = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    @Test
+    void importEntries_Ndjson_StoresEncryptedTaggedAndSearchableEntries() throws Exception {
+        JsonNode job = importRecords(MediaType.APPLICATION_NDJSON, RECORDS.getBytes(StandardCharsets.UTF_8), null);
+
+        assertEquals("COMPLETED", job.get("status").asText());
+        assertEquals(4, job.get("processedRecords").asLong());
+        assertEquals(3, job.get("importedEntries").asLong());
+        assertEquals(1, job.get("skippedRecords").asLong());
+
+        List<Entry> entries = entryRepository.findAllByUser(testUser);
+        assertEquals(3, entries.size());
+
+        Entry lighthouse = entries.stream().filter(e -> e.getTitle().equals("Lighthouse")).findFirst().orElseThrow();
+        assertNotEquals("Walked to the lighthouse", lighthouse.getContent());
+        assertEquals("Walked to the lighthouse", encryptionService.decrypt(lighthouse.getContent()));
+        assertEquals(LocalDate.of(2023, 3, 1), lighthouse.getJournalDate());
+        assertTrue(lighthouse.isFavorite());
+        assertEquals(4, lighthouse.getWordCount());
+        assertEquals(List.of("import-a"), lighthouse.getTags().stream().map(Tag::getName).toList());
+
+        assertEquals(List.of("Harbour"),
+                searchService.search(testUser, "harbour").stream().map(EntryResponse::getTitle).toList());
+
+        mockMvc.perform(get("/api/v1/user/stats")
+                        .header("Authorization", "Bearer " + testUserToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalEntries", is(3)))
+                .andExpect(jsonPath("$.longestStreak", is(2)));
+    }
+
+    @Test
+    void importEntries_JsonArrayInZip_IsUnpacked() throws Exception {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            zip.putNextEntry(new ZipEntry("export/entries.json"));
+            zip.write("[{\"title\":\"Zipped\",\"content\":\"From an archive\"}]".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("export/readme.txt"));
+            zip.write("not a record".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        JsonNode job = importRecords(MediaType.parseMediaType("application/zip"), archive.toByteArray(), null);
+
+        assertEquals("COMPLETED", job.get("status").asText());
+        assertEquals(1, job.get("importedEntries").asLong());
+        assertEquals(List.of("Zipped"), entryRepository.findAllByUser(testUser).stream().map(Entry::getTitle).toList());
+    }
+
+    @Test
+    void importEntries_MalformedRecord_FailsAndResumesAfterStoredRecords() throws Exception {
+        String broken = RECORDS.replace("{\"title\":\"Market\"", "{\"title\":");
+        JsonNode failed = importRecords(MediaType.APPLICATION_NDJSON, broken.getBytes(StandardCharsets.UTF_8), null);
+
+        assertEquals("FAILED", failed.get("status").asText());
+        assertNotNull(failed.get("error").asText());
+        assertEquals(2, failed.get("processedRecords").asLong());
+
+        String jobId = failed.get("jobId").asText();
+        mockMvc.perform(get("/api/v1/entry/import/{jobId}", jobId)
+                        .header("Authorization", "Bearer " + testUserToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("FAILED")));
+
+        JsonNode resumed = importRecords(MediaType.APPLICATION_NDJSON, RECORDS.getBytes(StandardCharsets.UTF_8), jobId);
+
+        assertEquals("COMPLETED", resumed.get("status").asText());
+        assertEquals(4, resumed.get("processedRecords").asLong());
+        assertEquals(3, resumed.get("importedEntries").asLong());
+        assertEquals(3, entryRepository.findAllByUser(testUser).size());
+    }
+
+    @Test
+    void getImportJob_OtherUsersJob_NotFound() throws Exception {
+        mockMvc.perform(get("/api/v1/entry/import/{jobId}", "00000000-0000-0000-0000-000000000000")
+                        .header("Authorization", "Bearer " + testUserToken))
+                .andExpect(status().isNotFound());
+    }
+}
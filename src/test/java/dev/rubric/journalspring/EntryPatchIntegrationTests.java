@@ -0,0 +1,122 @@
+package dev.rubric.journalspring;
+
+import dev.rubric.journalspring.dto.EntryDto;
+import dev.rubric.journalspring.dto.EntryPatchDto;
+import dev.rubric.journalspring.exception.ApplicationException;
+import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.models.Tag;
+import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.repository.EntryRepository;
+import dev.rubric.journalspring.repository.TagRepository;
+import dev.rubric.journalspring.repository.UserRepository;
+import dev.rubric.journalspring.response.EntryResponse;
+import dev.rubric.journalspring.service.EncryptionService;
+import dev.rubric.journalspring.service.EntryService;
+import dev.rubric.journalspring.service.TagService;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class EntryPatchIntegrationTests {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntryRepository entryRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private EntryService entryService;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User testUser;
+    private Long entryId;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setUsername("patchuser");
+        testUser.setEmail("patchuser@example.com");
+        testUser.setPassword("unused");
+        testUser.setActivated(true);
+        testUser = userRepository.save(testUser);
+
+        entryId = entryService.addEntry(testUser, new EntryDto("Draft", null, "First line", List.of(), 2, false)).getId();
+        entityManager.flush();
+    }
+
+    @Test
+    void patchEntry_SuccessiveSaves_EachBumpTheVersion() {
+        EntryResponse first = entryService.patchEntry(testUser, entryId,
+                new EntryPatchDto(0L, null, "First line, second line", 4, null));
+        EntryResponse second = entryService.patchEntry(testUser, entryId,
+                new EntryPatchDto(first.getVersion(), "Draft two", null, null, null));
+
+        assertEquals(1L, first.getVersion());
+        assertEquals(2L, second.getVersion());
+
+        entityManager.clear();
+        Entry saved = entryRepository.findById(entryId).orElseThrow();
+        assertEquals("Draft two", saved.getTitle());
+        assertEquals("First line, second line", encryptionService.decrypt(saved.getContent()));
+        assertEquals(2L, saved.getVersion());
+    }
+
+    @Test
+    void patchEntry_StaleVersion_Conflict() {
+        entryService.patchEntry(testUser, entryId, new EntryPatchDto(0L, null, "Saved from the laptop", 3, null));
+
+        ApplicationException exception = assertThrows(ApplicationException.class, () ->
+                entryService.patchEntry(testUser, entryId, new EntryPatchDto(0L, null, "Saved from the phone", 4, null)));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+    }
+
+    @Test
+    void patchEntry_NothingChanged_KeepsVersion() {
+        EntryResponse response = entryService.patchEntry(testUser, entryId,
+                new EntryPatchDto(0L, "Draft", "First line", 2, false));
+
+        assertEquals(0L, response.getVersion());
+        assertEquals("First line", response.getContent());
+        assertTrue(entryRepository.findById(entryId).orElseThrow().getLastEdited().isEmpty());
+    }
+
+    @Test
+    void addTags_KeepsVersion() {
+        tagRepository.save(new Tag("patch-tag"));
+        tagService.refresh();
+
+        entryService.addTags(testUser, entryId, List.of("patch-tag"));
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(0L, entryRepository.findById(entryId).orElseThrow().getVersion());
+
+        EntryResponse response = entryService.patchEntry(testUser, entryId,
+                new EntryPatchDto(0L, "Draft two", null, null, null));
+        assertEquals(1L, response.getVersion());
+    }
+}
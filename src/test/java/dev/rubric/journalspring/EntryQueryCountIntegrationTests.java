@@ -0,0 +1,226 @@
+package dev.rubric.journalspring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rubric.journalspring.dto.EntryDto;
+import dev.rubric.journalspring.dto.LoginUserDto;
+import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.models.Folder;
+import dev.rubric.journalspring.models.Tag;
+import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.repository.FolderRepository;
+import dev.rubric.journalspring.repository.TagRepository;
+import dev.rubric.journalspring.repository.UserRepository;
+import dev.rubric.journalspring.service.AuthService;
+import dev.rubric.journalspring.service.EntryService;
+import dev.rubric.journalspring.service.JwtService;
+import dev.rubric.journalspring.service.TagService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Guards the entry list endpoints against N+1 loading: the number of SQL
+ * statements a request runs must not grow with the number of entries returned.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Transactional
+public class EntryQueryCountIntegrationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FolderRepository folderRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private EntryService entryService;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private User testUser;
+    private Folder folder;
+    private String testUserToken;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        testUser = createUser("queryuser", "queryuser@example.com", "P@ssword1");
+        testUserToken = getAuthToken(testUser.getEmail(), "P@ssword1");
+
+        folder = folderRepository.save(new Folder(testUser, "Counted"));
+        tagRepository.save(new Tag("query-count-a"));
+        tagRepository.save(new Tag("query-count-b"));
+        tagService.refresh();
+    }
+
+    private User createUser(String username, String email, String password) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setPassword(passwordEncoder.encode(password));
+        user.setActivated(true);
+        return userRepository.save(user);
+    }
+
+    private String getAuthToken(String email, String password) {
+        try {
+            LoginUserDto loginDto = new LoginUserDto(email, password);
+            User user = authService.authenticate(loginDto);
+            return jwtService.generateToken(user);
+        } catch (Exception e) {
+            fail("Failed to get auth token for user " + email, e);
+            return null;
+        }
+    }
+
+    private Entry addEntries(int count) {
+        Entry last = null;
+        for (int i = 0; i < count; i++) {
+            EntryDto entryDto = new EntryDto("Entry " + i, folder.getId(), "Counted content " + i,
+                    List.of("query-count-a", "query-count-b"), 3, false);
+            last = entryService.addEntry(testUser, entryDto);
+        }
+        return last;
+    }
+
+    /**
+     * Runs the request against an empty persistence context and returns the
+     * number of statements it prepared
+     */
+    private long countStatements(MockHttpServletRequestBuilder request) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        mockMvc.perform(request.header("Authorization", "Bearer " + testUserToken))
+                .andExpect(status().isOk());
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void assertStatementCountIndependentOfEntries(MockHttpServletRequestBuilder request) throws Exception {
+        addEntries(2);
+        long fewEntries = countStatements(request);
+
+        addEntries(20);
+        long manyEntries = countStatements(request);
+
+        assertEquals(fewEntries, manyEntries,
+                "Statement count grew from " + fewEntries + " to " + manyEntries + " with the number of entries");
+    }
+
+    @Test
+    void getUserEntries_StatementCountIsConstant() throws Exception {
+        assertStatementCountIndependentOfEntries(get("/api/v1/entry")
+                .param("offset", "0")
+                .param("amount", "50"));
+    }
+
+    @Test
+    void getUserEntriesPage_StatementCountIsConstant() throws Exception {
+        assertStatementCountIndependentOfEntries(get("/api/v1/entry/page")
+                .param("size", "50"));
+    }
+
+    @Test
+    void getAllUserEntries_StatementCountIsConstant() throws Exception {
+        assertStatementCountIndependentOfEntries(get("/api/v1/entry/all")
+                .accept(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void getEntriesByDate_StatementCountIsConstant() throws Exception {
+        assertStatementCountIndependentOfEntries(get("/api/v1/entry/date/{date}",
+                LocalDate.now().withDayOfMonth(1)));
+    }
+
+    @Test
+    void getEntriesByTimeRange_StatementCountIsConstant() throws Exception {
+        assertStatementCountIndependentOfEntries(get("/api/v1/entry/time-range")
+                .param("startDate", LocalDate.now().minusDays(1).toString())
+                .param("endDate", LocalDate.now().toString()));
+    }
+
+    @Test
+    void getEntriesByTags_StatementCountIsConstant() throws Exception {
+        assertStatementCountIndependentOfEntries(post("/api/v1/entry/tag")
+                .param("offset", "0")
+                .param("size", "50")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of("query-count-a"))));
+    }
+
+    @Test
+    void getAllFromFolder_StatementCountIsConstant() throws Exception {
+        assertStatementCountIndependentOfEntries(get("/api/v1/entry/folder/{folderId}", folder.getId()));
+    }
+
+    @Test
+    void getAllFromFolderByPublicId_StatementCountIsConstant() throws Exception {
+        assertStatementCountIndependentOfEntries(get("/api/v1/entry/folder/public/{folderPublicId}",
+                folder.getPublicId()));
+    }
+
+    @Test
+    void getEntryById_ReturnsTagsOfDetachedEntry() throws Exception {
+        Entry entry = addEntries(1);
+        entityManager.flush();
+        entityManager.clear();
+
+        mockMvc.perform(get("/api/v1/entry/{id}", entry.getId())
+                        .header("Authorization", "Bearer " + testUserToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tags", containsInAnyOrder("query-count-a", "query-count-b")))
+                .andExpect(jsonPath("$.folderId", is(folder.getId().intValue())));
+    }
+}
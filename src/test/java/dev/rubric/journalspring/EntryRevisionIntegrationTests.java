@@ -0,0 +1,112 @@
+package dev.rubric.journalspring;
+
+import dev.rubric.journalspring.dto.EntryDto;
+import dev.rubric.journalspring.dto.EntryPatchDto;
+import dev.rubric.journalspring.exception.ApplicationException;
+import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.repository.EntryRevisionRepository;
+import dev.rubric.journalspring.repository.UserRepository;
+import dev.rubric.journalspring.response.EntryResponse;
+import dev.rubric.journalspring.response.EntryRevisionResponse;
+import dev.rubric.journalspring.response.EntryRevisionSummaryResponse;
+import dev.rubric.journalspring.service.EntryService;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class EntryRevisionIntegrationTests {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntryRevisionRepository entryRevisionRepository;
+
+    @Autowired
+    private EntryService entryService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User testUser;
+    private Entry entry;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setUsername("revisionuser");
+        testUser.setEmail("revisionuser@example.com");
+        testUser.setPassword("unused");
+        testUser.setActivated(true);
+        testUser = userRepository.save(testUser);
+
+        entry = entryService.addEntry(testUser, new EntryDto("Monday", null, "Went for a run.", List.of(), 4, false));
+        // Written long enough ago that the next save starts a new revision
+        entry.setLastEdited(ZonedDateTime.now().minusHours(2));
+        entityManager.flush();
+    }
+
+    private EntryResponse save(long version, String title, String content) {
+        EntryResponse response = entryService.patchEntry(testUser, entry.getId(),
+                new EntryPatchDto(version, title, content, null, null));
+        entityManager.flush();
+        return response;
+    }
+
+    @Test
+    void patchEntry_AfterPause_KeepsPreviousText() {
+        save(entry.getVersion(), null, "Went for a run. It rained.");
+
+        List<EntryRevisionSummaryResponse> revisions = entryService.getRevisions(testUser, entry.getId());
+        assertEquals(1, revisions.size());
+        assertEquals(1, revisions.get(0).getRevisionNumber());
+
+        EntryRevisionResponse revision = entryService.getRevision(testUser, entry.getId(), 1);
+        assertEquals("Monday", revision.getTitle());
+        assertEquals("Went for a run.", revision.getContent());
+    }
+
+    @Test
+    void patchEntry_BurstOfSaves_IsOneRevision() {
+        EntryResponse first = save(entry.getVersion(), null, "Went for a run. It");
+        EntryResponse second = save(first.getVersion(), null, "Went for a run. It rained");
+        save(second.getVersion(), "Rainy Monday", "Went for a run. It rained all day.");
+
+        assertEquals(1, entryService.getRevisions(testUser, entry.getId()).size());
+        EntryRevisionResponse revision = entryService.getRevision(testUser, entry.getId(), 1);
+        assertEquals("Monday", revision.getTitle());
+        assertEquals("Went for a run.", revision.getContent());
+    }
+
+    @Test
+    void getRevision_Missing_NotFound() {
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> entryService.getRevision(testUser, entry.getId(), 1));
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+    }
+
+    @Test
+    void deleteEntry_RemovesRevisions() {
+        save(entry.getVersion(), null, "Went for a run. It rained.");
+
+        entryService.deleteEntry(testUser, entry.getId());
+        entityManager.flush();
+
+        assertTrue(entryRevisionRepository.findSummariesByEntryId(entry.getId()).isEmpty());
+    }
+}
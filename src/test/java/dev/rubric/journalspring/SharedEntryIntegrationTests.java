@@ -1,6 +1,7 @@
 package dev.rubric.journalspring;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rubric.journalspring.dto.BulkEntryDto;
 import dev.rubric.journalspring.dto.EntryDto;
 import dev.rubric.journalspring.dto.LoginUserDto;
 import dev.rubric.journalspring.dto.RegisterUserDto;
@@ -307,4 +308,28 @@ public class SharedEntryIntegrationTests {
                 .andExpect(status().isUnauthorized())
                 .andExpect(jsonPath("$.message").value(String.format("User with id %d is not authorized", otherUser.getId())));
     }
-}
\ No newline at end of file
+
+    @Test
+    void bulkDelete_EntrySharedWithUsers_RemovesShare() throws Exception {
+        SharedEntryDto shareDto = new SharedEntryDto(testEntry.getId(), List.of(otherUser.getEmail()), false);
+        MvcResult shareResult = mockMvc.perform(post("/api/v1/shared-entry/new")
+                        .header("Authorization", "Bearer " + ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(shareDto)))
+                .andExpect(status().isOk())
+                .andReturn();
+        UUID sharedUuid = objectMapper.readValue(shareResult.getResponse().getContentAsString(), UUID.class);
+
+        BulkEntryDto bulkDto = new BulkEntryDto(List.of(testEntry.getId()), null, null);
+
+        mockMvc.perform(post("/api/v1/entry/bulk/delete")
+                        .header("Authorization", "Bearer " + ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bulkDto)))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isNoContent());
+
+        assertTrue(sharedEntryRepository.getByPublicId(sharedUuid).isEmpty());
+        assertFalse(entryRepository.existsById(testEntry.getId()));
+    }
+}
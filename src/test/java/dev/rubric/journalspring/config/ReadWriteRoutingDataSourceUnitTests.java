@@ -0,0 +1,189 @@
+package dev.rubric.journalspring.config;
+
+import jakarta.servlet.http.Cookie;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routes between two in-memory H2 databases that each know their own name
+ */
+public class ReadWriteRoutingDataSourceUnitTests {
+
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        RequestContextHolder.resetRequestAttributes();
+        if (routingDataSource != null) {
+            routingDataSource.close();
+        }
+    }
+
+    private static DataSource database(String name) throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+            statement.execute("DELETE FROM node");
+            statement.execute("INSERT INTO node VALUES ('" + name + "')");
+        }
+        return dataSource;
+    }
+
+    private ReadWriteRoutingDataSource routing(String lagQuery, Duration readYourWritesWindow) throws SQLException {
+        routingDataSource = new ReadWriteRoutingDataSource(
+                database("primary"),
+                List.of(database("replica")),
+                Duration.ofSeconds(5),
+                readYourWritesWindow,
+                lagQuery,
+                Duration.ofMinutes(1));
+        return routingDataSource;
+    }
+
+    private String servedBy() throws SQLException {
+        try (Connection connection = routingDataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT name FROM node")) {
+            assertTrue(result.next());
+            return result.getString(1);
+        }
+    }
+
+    private static MockHttpServletResponse request(Cookie... cookies) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(cookies);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        return response;
+    }
+
+    private String writeAndCommit() throws SQLException {
+        TransactionSynchronizationManager.initSynchronization();
+        String node = servedBy();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        return node;
+    }
+
+    @Test
+    void readOnlyTransaction_UsesReplica() throws SQLException {
+        routing("", Duration.ofSeconds(10));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("replica", servedBy());
+    }
+
+    @Test
+    void readWriteTransaction_UsesPrimary() throws SQLException {
+        routing("", Duration.ofSeconds(10));
+
+        assertEquals("primary", servedBy());
+    }
+
+    @Test
+    void replicaLagsTooMuch_ReadsFallBackToPrimary() throws SQLException {
+        routing("SELECT 60", Duration.ofSeconds(10));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("primary", servedBy());
+    }
+
+    @Test
+    void replicaWithinLag_StaysInRotation() throws SQLException {
+        routing("SELECT 1", Duration.ofSeconds(10));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("replica", servedBy());
+    }
+
+    @Test
+    void committedWrite_KeepsReadsOfThatRequestOnPrimary() throws SQLException {
+        routing("", Duration.ofMinutes(1));
+        MockHttpServletResponse response = request();
+
+        assertEquals("primary", writeAndCommit());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals("primary", servedBy());
+        assertEquals(1, response.getHeaders(HttpHeaders.SET_COOKIE).size());
+
+        request();
+        assertEquals("replica", servedBy());
+    }
+
+    @Test
+    void committedWrite_CookieKeepsLaterRequestsOnPrimary() throws SQLException {
+        routing("", Duration.ofMinutes(1));
+        MockHttpServletResponse response = request();
+        writeAndCommit();
+        Cookie cookie = response.getCookie(ReadWriteRoutingDataSource.LAST_WRITE_COOKIE);
+        assertNotNull(cookie);
+        assertTrue(cookie.isHttpOnly());
+        assertEquals(60, cookie.getMaxAge());
+
+        // Any instance honours the cookie, nothing is kept per node
+        routingDataSource.close();
+        routing("", Duration.ofMinutes(1));
+        request(cookie);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("primary", servedBy());
+    }
+
+    @Test
+    void cookieOlderThanWindow_ReadsFromReplica() throws SQLException {
+        routing("", Duration.ofMinutes(1));
+        long twoMinutesAgo = System.currentTimeMillis() - Duration.ofMinutes(2).toMillis();
+        request(new Cookie(ReadWriteRoutingDataSource.LAST_WRITE_COOKIE, Long.toString(twoMinutesAgo)));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("replica", servedBy());
+    }
+
+    @Test
+    void malformedCookie_IsIgnored() throws SQLException {
+        routing("", Duration.ofMinutes(1));
+        request(new Cookie(ReadWriteRoutingDataSource.LAST_WRITE_COOKIE, "soon"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("replica", servedBy());
+    }
+
+    @Test
+    void rolledBackWrite_DoesNotPinReads() throws SQLException {
+        routing("", Duration.ofMinutes(1));
+        MockHttpServletResponse response = request();
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertEquals("primary", servedBy());
+        TransactionSynchronizationManager.clearSynchronization();
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals("replica", servedBy());
+        assertNull(response.getCookie(ReadWriteRoutingDataSource.LAST_WRITE_COOKIE));
+    }
+}
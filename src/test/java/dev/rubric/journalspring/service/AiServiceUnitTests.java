@@ -5,6 +5,7 @@ import dev.rubric.journalspring.exception.ApplicationException;
 import dev.rubric.journalspring.models.Entry;
 import dev.rubric.journalspring.models.User;
 import dev.rubric.journalspring.repository.UserRepository;
+import dev.rubric.journalspring.response.EntryResponse;
 import okhttp3.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -96,13 +97,8 @@ public class AiServiceUnitTests {
         user.setAiAllowContentAccess(false);
         user.setAiCooldown(LocalDateTime.now().minusMinutes(1));
 
-        Entry entry1 = new Entry();
-        entry1.setTitle("Morning Thoughts");
-        Entry entry2 = new Entry();
-        entry2.setTitle("Evening Reflections");
-        List<Entry> entries = List.of(entry1, entry2);
-
-        when(entryService.getUserEntries(user, 0, 20)).thenReturn(entries);
+        when(entryService.getRecentEntryTitles(user, 20))
+                .thenReturn(List.of("Morning Thoughts", "Evening Reflections"));
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         String fakeResponseJson = "{\"candidates\": [{\"content\": {\"parts\": [{\"text\": \"Prompt based on titles\"}]}}]}";
@@ -121,7 +117,8 @@ public class AiServiceUnitTests {
         String prompt = aiService.generatePrompt(user);
         assertEquals("Prompt based on titles", prompt);
 
-        verify(entryService, times(1)).getUserEntries(user, 0, 20);
+        verify(entryService, times(1)).getRecentEntryTitles(user, 20);
+        verify(entryService, never()).getUserEntries(any(), anyInt(), anyInt());
     }
 
     @Test
@@ -133,11 +130,11 @@ public class AiServiceUnitTests {
 
         Entry entry1 = new Entry();
         entry1.setTitle("Gratitude");
-        entry1.setContent("Today I am thankful for my family.");
         Entry entry2 = new Entry();
         entry2.setTitle("Challenge");
-        entry2.setContent("Faced a difficult decision at work.");
-        List<Entry> entries = List.of(entry1, entry2);
+        List<EntryResponse> entries = List.of(
+                new EntryResponse(entry1, "Today I am thankful for my family."),
+                new EntryResponse(entry2, "Faced a difficult decision at work."));
 
         when(entryService.getUserEntries(user, 0, 20)).thenReturn(entries);
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
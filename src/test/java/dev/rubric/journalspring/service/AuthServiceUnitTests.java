@@ -4,7 +4,6 @@ import dev.rubric.journalspring.dto.LoginUserDto;
 import dev.rubric.journalspring.dto.RegisterUserDto;
 import dev.rubric.journalspring.dto.VerifyUserDto;
 import dev.rubric.journalspring.exception.ApplicationException;
-import dev.rubric.journalspring.models.Entry;
 import dev.rubric.journalspring.models.User;
 import dev.rubric.journalspring.repository.EntryRepository;
 import dev.rubric.journalspring.repository.UserRepository;
@@ -14,8 +13,6 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -23,7 +20,6 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -291,8 +287,7 @@ public class AuthServiceUnitTests {
         mockUser.setStreak(5);
 
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(mockUser));
-        when(entryRepository.findAllByUserOrderByDateCreatedDesc(eq(mockUser), any(PageRequest.class)))
-                .thenReturn(new PageImpl<>(List.of()));
+        when(entryRepository.findLatestJournalDateByUser(mockUser)).thenReturn(Optional.empty());
 
         ArgumentCaptor<UsernamePasswordAuthenticationToken> authCaptor = ArgumentCaptor
                 .forClass(UsernamePasswordAuthenticationToken.class);
@@ -321,12 +316,9 @@ public class AuthServiceUnitTests {
         mockUser.setActivated(true);
         mockUser.setStreak(5);
 
-        Entry lastEntry = new Entry();
-        lastEntry.setJournalDate(LocalDate.now().minusDays(3));
-
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(mockUser));
-        when(entryRepository.findAllByUserOrderByDateCreatedDesc(eq(mockUser), any(PageRequest.class)))
-                .thenReturn(new PageImpl<>(List.of(lastEntry)));
+        when(entryRepository.findLatestJournalDateByUser(mockUser))
+                .thenReturn(Optional.of(LocalDate.now().minusDays(3)));
 
         User authenticatedUser = authService.authenticate(input);
 
@@ -346,12 +338,9 @@ public class AuthServiceUnitTests {
         mockUser.setActivated(true);
         mockUser.setStreak(5);
 
-        Entry lastEntry = new Entry();
-        lastEntry.setJournalDate(LocalDate.now().minusDays(1));
-
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(mockUser));
-        when(entryRepository.findAllByUserOrderByDateCreatedDesc(eq(mockUser), any(PageRequest.class)))
-                .thenReturn(new PageImpl<>(List.of(lastEntry)));
+        when(entryRepository.findLatestJournalDateByUser(mockUser))
+                .thenReturn(Optional.of(LocalDate.now().minusDays(1)));
 
         User authenticatedUser = authService.authenticate(input);
 
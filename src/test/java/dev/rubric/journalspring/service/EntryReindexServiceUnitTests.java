@@ -0,0 +1,115 @@
+package dev.rubric.journalspring.service;
+
+import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.repository.EntryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EntryReindexServiceUnitTests {
+    @Mock
+    EntryRepository entryRepository;
+
+    @Mock
+    EncryptionService encryptionService;
+
+    @Mock
+    EntryArchiveService entryArchiveService;
+
+    @Mock
+    SearchService searchService;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    EntryReindexService entryReindexService;
+
+    private Entry entry;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setId(1L);
+        entry = new Entry(user, null, "title", "encryptedContent", new HashSet<>(), 1);
+        entry.setId(5L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        entryReindexService.shutdown();
+    }
+
+    private void setDelays(Duration delay, Duration maxDelay) {
+        ReflectionTestUtils.setField(entryReindexService, "delay", delay);
+        ReflectionTestUtils.setField(entryReindexService, "maxDelay", maxDelay);
+    }
+
+    private void stubEntry() {
+        when(entryRepository.findById(5L)).thenReturn(Optional.of(entry));
+        when(encryptionService.decrypt("encryptedContent")).thenReturn("content");
+    }
+
+    @Test
+    void requestReindex_BurstOfSaves_IndexesOnce() {
+        stubEntry();
+        setDelays(Duration.ofMillis(100), Duration.ofSeconds(10));
+
+        entryReindexService.requestReindex(5L);
+        entryReindexService.requestReindex(5L);
+        entryReindexService.requestReindex(5L);
+
+        verify(searchService, timeout(2000)).indexEntry(entry, "content");
+        verify(searchService, after(300).times(1)).indexEntry(any(), any());
+    }
+
+    @Test
+    void requestReindex_EditedWithoutPause_IndexesAfterMaxDelay() throws InterruptedException {
+        stubEntry();
+        setDelays(Duration.ofMillis(200), Duration.ofMillis(300));
+
+        for (int i = 0; i < 12; i++) {
+            entryReindexService.requestReindex(5L);
+            Thread.sleep(50);
+        }
+
+        // Indexed while the saves were still coming in
+        verify(searchService, atLeastOnce()).indexEntry(entry, "content");
+    }
+
+    @Test
+    void cancel_DeletedEntry_IsNotIndexed() {
+        setDelays(Duration.ofMillis(100), Duration.ofSeconds(10));
+
+        entryReindexService.requestReindex(5L);
+        entryReindexService.cancel(List.of(5L));
+
+        verify(searchService, after(400).never()).indexEntry(any(), any());
+    }
+
+    @Test
+    void shutdown_RunsPendingReindexes() {
+        stubEntry();
+        setDelays(Duration.ofMinutes(1), Duration.ofMinutes(5));
+
+        entryReindexService.requestReindex(5L);
+        entryReindexService.shutdown();
+
+        verify(searchService).indexEntry(entry, "content");
+    }
+}
@@ -0,0 +1,156 @@
+package dev.rubric.journalspring.service;
+
+import dev.rubric.journalspring.exception.ApplicationException;
+import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.models.EntryRevision;
+import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.repository.EntryRevisionRepository;
+import dev.rubric.journalspring.response.EntryRevisionResponse;
+import dev.rubric.journalspring.service.EntryRevisionService.RevisionText;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EntryRevisionServiceUnitTests {
+    private static final String LONG_CONTENT = "Woke up early and walked along the canal before work. ".repeat(40);
+
+    @Mock
+    EntryRevisionRepository entryRevisionRepository;
+
+    @Mock
+    EntryArchiveService entryArchiveService;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    private EncryptionService encryptionService;
+    private EntryRevisionService entryRevisionService;
+    private Entry entry;
+
+    @BeforeEach
+    void setUp() {
+        encryptionService = new EncryptionService();
+        ReflectionTestUtils.setField(encryptionService, "secret", "mySuperSecretKey1234567890");
+        ReflectionTestUtils.setField(encryptionService, "salt", "mySaltValue");
+        entryRevisionService = new EntryRevisionService(
+                entryRevisionRepository, encryptionService, entryArchiveService, transactionManager);
+
+        User user = new User();
+        user.setId(1L);
+        entry = new Entry(user, null, "Title", encryptionService.encrypt(LONG_CONTENT), new HashSet<>(), 400);
+        entry.setId(7L);
+    }
+
+    private EntryRevision record(RevisionText previous, ZonedDateTime previousEditedAt, RevisionText current) {
+        entryRevisionService.recordRevision(entry, previous, previousEditedAt, 400, current);
+        ArgumentCaptor<EntryRevision> saved = ArgumentCaptor.forClass(EntryRevision.class);
+        verify(entryRevisionRepository).save(saved.capture());
+        return saved.getValue();
+    }
+
+    private void moveEntryTo(RevisionText text) {
+        entry.setTitle(text.title());
+        entry.setContent(encryptionService.encrypt(text.content()));
+    }
+
+    @Test
+    void recordRevision_EditAfterPause_StoresSmallDelta() {
+        RevisionText previous = new RevisionText("Title", LONG_CONTENT);
+        RevisionText current = new RevisionText("Title", LONG_CONTENT + "Rained in the evening.");
+
+        EntryRevision revision = record(previous, ZonedDateTime.now().minusHours(3), current);
+        moveEntryTo(current);
+
+        assertEquals(1, revision.getRevisionNumber());
+        assertFalse(revision.isSnapshot());
+        assertTrue(revision.getData().length < LONG_CONTENT.length() / 10);
+
+        when(entryRevisionRepository.findChain(7L, 1)).thenReturn(List.of(revision));
+        EntryRevisionResponse response = entryRevisionService.getRevision(entry, 1);
+        assertEquals("Title", response.getTitle());
+        assertEquals(LONG_CONTENT, response.getContent());
+    }
+
+    @Test
+    void recordRevision_WithinBurst_RebasesNewestRevision() {
+        RevisionText original = new RevisionText("Title", LONG_CONTENT);
+        RevisionText firstSave = new RevisionText("Title", LONG_CONTENT + "Rained");
+        RevisionText secondSave = new RevisionText("Evening", LONG_CONTENT + "Rained in the evening.");
+
+        EntryRevision revision = record(original, ZonedDateTime.now().minusHours(3), firstSave);
+        moveEntryTo(firstSave);
+        when(entryRevisionRepository.findFirstByEntryIdOrderByRevisionNumberDesc(7L)).thenReturn(Optional.of(revision));
+
+        entryRevisionService.recordRevision(entry, firstSave, ZonedDateTime.now().minusSeconds(5), 401, secondSave);
+        moveEntryTo(secondSave);
+
+        verify(entryRevisionRepository, times(1)).save(any());
+        when(entryRevisionRepository.findChain(7L, 1)).thenReturn(List.of(revision));
+        EntryRevisionResponse response = entryRevisionService.getRevision(entry, 1);
+        assertEquals("Title", response.getTitle());
+        assertEquals(LONG_CONTENT, response.getContent());
+    }
+
+    @Test
+    void recordRevision_SnapshotDue_StoresWholeText() {
+        EntryRevision newest = new EntryRevision(entry, 19, ZonedDateTime.now().minusDays(1), 400);
+        when(entryRevisionRepository.findFirstByEntryIdOrderByRevisionNumberDesc(7L)).thenReturn(Optional.of(newest));
+
+        EntryRevision revision = record(new RevisionText("Title", LONG_CONTENT), ZonedDateTime.now().minusHours(3),
+                new RevisionText("Title", LONG_CONTENT + "More."));
+
+        assertEquals(20, revision.getRevisionNumber());
+        assertTrue(revision.isSnapshot());
+
+        when(entryRevisionRepository.findChain(7L, 20)).thenReturn(List.of(revision));
+        assertEquals(LONG_CONTENT, entryRevisionService.getRevision(entry, 20).getContent());
+        verify(entryArchiveService, never()).readContent(any());
+    }
+
+    @Test
+    void recordRevision_BeyondLimit_DropsOldest() {
+        EntryRevision newest = new EntryRevision(entry, 200, ZonedDateTime.now().minusDays(1), 400);
+        when(entryRevisionRepository.findFirstByEntryIdOrderByRevisionNumberDesc(7L)).thenReturn(Optional.of(newest));
+
+        record(new RevisionText("Title", LONG_CONTENT), ZonedDateTime.now().minusHours(3),
+                new RevisionText("Title", LONG_CONTENT + "More."));
+
+        verify(entryRevisionRepository).deleteAllByEntryIdUpTo(7L, 1);
+    }
+
+    @Test
+    void recordRevision_TextUnchanged_RecordsNothing() {
+        entryRevisionService.recordRevision(entry, new RevisionText("Title", LONG_CONTENT),
+                ZonedDateTime.now().minusHours(3), 400, new RevisionText("Title", LONG_CONTENT));
+
+        verifyNoInteractions(entryRevisionRepository);
+    }
+
+    @Test
+    void getRevision_Missing_NotFound() {
+        when(entryRevisionRepository.findChain(7L, 3)).thenReturn(List.of());
+
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> entryRevisionService.getRevision(entry, 3));
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+        verify(entryRevisionRepository, never()).deleteAllByEntryIdUpTo(any(), anyInt());
+    }
+}
@@ -1,21 +1,36 @@
 package dev.rubric.journalspring.service;
 
 import dev.rubric.journalspring.dto.EntryDto;
+import dev.rubric.journalspring.dto.EntryPatchDto;
+import dev.rubric.journalspring.enums.MediaType;
 import dev.rubric.journalspring.exception.ApplicationException;
 import dev.rubric.journalspring.models.*;
 import dev.rubric.journalspring.repository.EntryRepository;
+import dev.rubric.journalspring.repository.EntryRepository.EntrySummary;
+import dev.rubric.journalspring.repository.EntryRepository.EntryTagName;
 import dev.rubric.journalspring.repository.FolderRepository; // Assuming you might need it, added import
-import dev.rubric.journalspring.repository.TagRepository;
 import dev.rubric.journalspring.repository.SharedEntryRepository; // Added import
 import dev.rubric.journalspring.repository.MediaRepository; // Added import
 import jakarta.persistence.EntityManager; // Added import
+import jakarta.persistence.OptimisticLockException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import dev.rubric.journalspring.response.CalendarDayResponse;
+import dev.rubric.journalspring.response.EntryPageResponse;
+import dev.rubric.journalspring.response.EntryResponse;
+import dev.rubric.journalspring.response.EntrySummaryResponse;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
@@ -41,14 +56,20 @@ public class EntryServiceUnitTests {
     FolderService folderService; // Mock FolderService
 
     @Mock
-    TagRepository tagRepository; // Mock TagRepository
+    TagService tagService;
 
     // Add mocks for other dependencies if needed by methods under test
     @Mock MediaRepository mediaRepository;
     @Mock S3Service s3Service;
     @Mock SharedEntryService sharedEntryService;
     @Mock SharedEntryRepository sharedEntryRepository;
+    @Mock RelatedEntryService relatedEntryService;
+    @Mock UserStatsService userStatsService;
+    @Mock EntryArchiveService entryArchiveService;
+    @Mock EntryReindexService entryReindexService;
+    @Mock EntryRevisionService entryRevisionService;
     @Mock EntityManager entityManager;
+    @Mock PlatformTransactionManager transactionManager;
 
 
     @InjectMocks
@@ -84,7 +105,7 @@ public class EntryServiceUnitTests {
 
         // Mock dependencies
         when(folderService.getFolder(mockUser, folderId)).thenReturn(mockFolder);
-        when(tagRepository.findByName(tagName)).thenReturn(Optional.of(testTag));
+        when(tagService.resolveTags(List.of(tagName))).thenReturn(Set.of(testTag));
         when(encryptionService.encrypt(originalContent)).thenReturn(expectedEncryptedContent);
         // Mock search service (important for void methods)
         doNothing().when(searchService).indexEntry(any(Entry.class), eq(originalContent));
@@ -97,7 +118,7 @@ public class EntryServiceUnitTests {
         // --- Assert ---
         // Verify interactions and capture the saved entry
         verify(folderService, times(1)).getFolder(mockUser, folderId);
-        verify(tagRepository, times(1)).findByName(tagName);
+        verify(tagService, times(1)).resolveTags(List.of(tagName));
         verify(encryptionService, times(1)).encrypt(originalContent);
 
         ArgumentCaptor<Entry> entryCaptor = ArgumentCaptor.forClass(Entry.class);
@@ -105,6 +126,7 @@ public class EntryServiceUnitTests {
 
         // Verify searchService interaction with the *captured* entry and *original* content
         verify(searchService, times(1)).indexEntry(eq(entryCaptor.getValue()), eq(originalContent));
+        verify(userStatsService, times(1)).recordCreated(mockUser, entryCaptor.getValue());
 
         // Assertions on the captured entry that was saved
         Entry savedEntry = entryCaptor.getValue();
@@ -137,9 +159,9 @@ public class EntryServiceUnitTests {
                 true
         );
 
-        // Mock dependencies as needed (folderService, tagRepository, encryptionService, etc.)
+        // Mock dependencies as needed (folderService, tagService, encryptionService, etc.)
         when(folderService.getFolder(mockUser, folderId)).thenReturn(mockFolder);
-        when(tagRepository.findByName("testTag")).thenReturn(Optional.of(new Tag("testTag")));
+        when(tagService.resolveTags(List.of("testTag"))).thenReturn(Set.of(new Tag("testTag")));
         when(encryptionService.encrypt(anyString())).thenReturn("encryptedContent");
 
         assertDoesNotThrow(() -> entryService.addEntry(mockUser, entryDto));
@@ -170,7 +192,7 @@ public class EntryServiceUnitTests {
         );
         // Mock dependencies as needed
         when(folderService.getFolder(mockUser, folderId)).thenReturn(mockFolder);
-        when(tagRepository.findByName("testTag")).thenReturn(Optional.of(new Tag("testTag")));
+        when(tagService.resolveTags(List.of("testTag"))).thenReturn(Set.of(new Tag("testTag")));
         when(encryptionService.encrypt(anyString())).thenReturn("encryptedContent");
 
         assertDoesNotThrow(() -> entryService.addEntry(mockUser, entryDto));
@@ -200,7 +222,7 @@ public class EntryServiceUnitTests {
         );
         // Mock dependencies as needed
         when(folderService.getFolder(mockUser, folderId)).thenReturn(mockFolder);
-        when(tagRepository.findByName("testTag")).thenReturn(Optional.of(new Tag("testTag")));
+        when(tagService.resolveTags(List.of("testTag"))).thenReturn(Set.of(new Tag("testTag")));
         when(encryptionService.encrypt(null)).thenReturn(null); // Mock encrypting null
 
         assertDoesNotThrow(() -> entryService.addEntry(mockUser, entryDto));
@@ -232,7 +254,7 @@ public class EntryServiceUnitTests {
         );
         // Mock dependencies as needed
         when(folderService.getFolder(mockUser, folderId)).thenReturn(mockFolder);
-        when(tagRepository.findByName("testTag")).thenReturn(Optional.of(new Tag("testTag")));
+        when(tagService.resolveTags(List.of("testTag"))).thenReturn(Set.of(new Tag("testTag")));
         when(encryptionService.encrypt("")).thenReturn(""); // Mock encrypting empty string
 
         assertDoesNotThrow(() -> entryService.addEntry(mockUser, entryDto));
@@ -266,7 +288,7 @@ public class EntryServiceUnitTests {
 
         String expectedEncryptedContent = "encryptedTestContent";
         when(folderService.getFolder(mockUser, folderId)).thenReturn(mockFolder);
-        when(tagRepository.findByName(tagName)).thenReturn(Optional.of(new Tag(tagName)));
+        when(tagService.resolveTags(List.of(tagName))).thenReturn(Set.of(new Tag(tagName)));
         when(encryptionService.encrypt(originalContent)).thenReturn(expectedEncryptedContent);
         doNothing().when(searchService).indexEntry(any(Entry.class), eq(originalContent));
 
@@ -297,14 +319,15 @@ public class EntryServiceUnitTests {
         mockEntry.setId(1L);
         mockEntry.setUser(authorizedUser);
 
-        when(entryRepository.findById(1L)).thenReturn(Optional.of(mockEntry));
+        when(entryRepository.findWithTagsByIdAndUser(1L, unauthorizedUser)).thenReturn(Optional.empty());
+        when(entryRepository.existsById(1L)).thenReturn(true);
         // No need to mock entityManager.detach as it won't be reached
 
         ApplicationException exception = assertThrows(ApplicationException.class, () -> {
             entryService.getEntryById(unauthorizedUser, 1L);
         });
 
-        verify(entryRepository, times(1)).findById(1L);
+        verify(entryRepository, times(1)).findWithTagsByIdAndUser(1L, unauthorizedUser);
         verify(encryptionService, never()).decrypt(anyString()); // Decrypt should not be called
         verify(entityManager, never()).detach(any()); // Detach should not be called
 
@@ -318,7 +341,8 @@ public class EntryServiceUnitTests {
         mockUser.setId(1L);
         Long entryId = 1L;
 
-        when(entryRepository.findById(entryId)).thenReturn(Optional.empty());
+        when(entryRepository.findWithTagsByIdAndUser(entryId, mockUser)).thenReturn(Optional.empty());
+        when(entryRepository.existsById(entryId)).thenReturn(false);
 
         ApplicationException exception = assertThrows(ApplicationException.class, () -> {
             entryService.getEntryById(mockUser, entryId);
@@ -327,11 +351,32 @@ public class EntryServiceUnitTests {
         assertEquals("Entry with 1 not found", exception.getMessage());
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
 
-        verify(entryRepository, times(1)).findById(entryId);
+        verify(entryRepository, times(1)).findWithTagsByIdAndUser(entryId, mockUser);
         verify(encryptionService, never()).decrypt(anyString());
         verify(entityManager, never()).detach(any());
     }
 
+    @Test
+    void getEntryById_ReturnsDecryptedViewAndLeavesEntityEncrypted() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+
+        Entry mockEntry = new Entry();
+        mockEntry.setId(1L);
+        mockEntry.setUser(mockUser);
+        mockEntry.setContent("encrypted");
+
+        when(entryRepository.findWithTagsByIdAndUser(1L, mockUser)).thenReturn(Optional.of(mockEntry));
+        when(encryptionService.decrypt("encrypted")).thenReturn("decrypted");
+
+        EntryResponse response = entryService.getEntryById(mockUser, 1L);
+
+        assertEquals(1L, response.getId());
+        assertEquals("decrypted", response.getContent());
+        assertEquals("encrypted", mockEntry.getContent());
+        verify(entityManager, never()).detach(any());
+    }
+
     @Test
     void getAllUserEntries_Success() {
         User mockUser = new User();
@@ -345,7 +390,7 @@ public class EntryServiceUnitTests {
         when(encryptionService.decrypt("encrypted1")).thenReturn("decrypted1");
         when(encryptionService.decrypt("encrypted2")).thenReturn("decrypted2");
 
-        List<Entry> results = entryService.getAllUserEntries(mockUser);
+        List<EntryResponse> results = entryService.getAllUserEntries(mockUser);
 
         assertNotNull(results);
         assertEquals(2, results.size());
@@ -357,6 +402,28 @@ public class EntryServiceUnitTests {
     }
 
 
+    @Test
+    void getAllUserEntries_ArchivedEntriesReadFromArchiveInOneCall() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+
+        Entry hot = new Entry(); hot.setId(1L); hot.setUser(mockUser); hot.setContent("encrypted1");
+        Entry cold1 = new Entry(); cold1.setId(2L); cold1.setUser(mockUser); cold1.setContent(""); cold1.setArchived(true);
+        Entry cold2 = new Entry(); cold2.setId(3L); cold2.setUser(mockUser); cold2.setContent(""); cold2.setArchived(true);
+
+        when(entryRepository.findAllByUser(mockUser)).thenReturn(List.of(hot, cold1, cold2));
+        when(encryptionService.decrypt("encrypted1")).thenReturn("decrypted1");
+        when(entryArchiveService.readContents(mockUser, List.of(cold1, cold2)))
+                .thenReturn(Map.of(2L, "archived2", 3L, "archived3"));
+
+        List<EntryResponse> results = entryService.getAllUserEntries(mockUser);
+
+        assertEquals(List.of("decrypted1", "archived2", "archived3"),
+                results.stream().map(EntryResponse::getContent).toList());
+        verify(encryptionService, never()).decrypt("");
+        verify(entryArchiveService, never()).readContent(any());
+    }
+
     @Test
     void getAllUserEntries_NoEntries() {
         User mockUser = new User();
@@ -364,7 +431,7 @@ public class EntryServiceUnitTests {
 
         when(entryRepository.findAllByUser(mockUser)).thenReturn(Collections.emptyList());
 
-        List<Entry> responses = entryService.getAllUserEntries(mockUser);
+        List<EntryResponse> responses = entryService.getAllUserEntries(mockUser);
 
         verify(entryRepository, times(1)).findAllByUser(mockUser);
         verify(encryptionService, never()).decrypt(anyString()); // Ensure decrypt is not called
@@ -384,18 +451,20 @@ public class EntryServiceUnitTests {
         mockEntry.setUser(mockUser);
         mockEntry.setTags(new HashSet<>()); // Initialize tags
 
-        when(entryRepository.findById(entryId)).thenReturn(Optional.of(mockEntry));
+        when(entryRepository.findByIdAndUser(entryId, mockUser)).thenReturn(Optional.of(mockEntry));
         doNothing().when(searchService).removeEntryTokens(mockEntry);
         doNothing().when(sharedEntryService).removeSharedEntry(mockUser, entryId); // Mock shared entry removal
-        doNothing().when(entryRepository).deleteById(entryId);
+        doNothing().when(entryRepository).delete(mockEntry);
 
 
         assertDoesNotThrow(() -> entryService.deleteEntry(mockUser, entryId));
 
-        verify(entryRepository, times(1)).findById(entryId);
+        verify(entryRepository, times(1)).findByIdAndUser(entryId, mockUser);
         verify(searchService, times(1)).removeEntryTokens(mockEntry);
         verify(sharedEntryService, times(1)).removeSharedEntry(mockUser, entryId); // Verify shared entry removal
-        verify(entryRepository, times(1)).deleteById(entryId);
+        verify(entryRepository, times(1)).delete(mockEntry);
+        verify(userStatsService, times(1)).recordDeleted(mockUser,
+                new UserStatsService.EntryStatsSnapshot(0, null, Set.of(), null));
     }
 
 
@@ -405,7 +474,8 @@ public class EntryServiceUnitTests {
         mockUser.setId(1L);
         Long entryId = 1L;
 
-        when(entryRepository.findById(entryId)).thenReturn(Optional.empty());
+        when(entryRepository.findByIdAndUser(entryId, mockUser)).thenReturn(Optional.empty());
+        when(entryRepository.existsById(entryId)).thenReturn(false);
 
         ApplicationException exception = assertThrows(ApplicationException.class, () -> {
             entryService.deleteEntry(mockUser, entryId);
@@ -414,10 +484,10 @@ public class EntryServiceUnitTests {
         assertEquals("Entry with 1 not found", exception.getMessage());
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
 
-        verify(entryRepository, times(1)).findById(entryId);
+        verify(entryRepository, times(1)).findByIdAndUser(entryId, mockUser);
         verify(searchService, never()).removeEntryTokens(any(Entry.class));
         verify(sharedEntryService, never()).removeSharedEntry(any(User.class), anyLong());
-        verify(entryRepository, never()).deleteById(anyLong());
+        verify(entryRepository, never()).delete(any(Entry.class));
     }
 
     @Test
@@ -433,7 +503,8 @@ public class EntryServiceUnitTests {
         mockEntry.setId(entryId);
         mockEntry.setUser(authorizedUser);
 
-        when(entryRepository.findById(entryId)).thenReturn(Optional.of(mockEntry));
+        when(entryRepository.findByIdAndUser(entryId, unauthorizedUser)).thenReturn(Optional.empty());
+        when(entryRepository.existsById(entryId)).thenReturn(true);
 
         ApplicationException exception = assertThrows(ApplicationException.class, () -> {
             entryService.deleteEntry(unauthorizedUser, entryId);
@@ -442,10 +513,10 @@ public class EntryServiceUnitTests {
         assertEquals("User with id 2 is not authorized", exception.getMessage());
         assertEquals(HttpStatus.UNAUTHORIZED, exception.getStatus());
 
-        verify(entryRepository, times(1)).findById(entryId);
+        verify(entryRepository, times(1)).findByIdAndUser(entryId, unauthorizedUser);
         verify(searchService, never()).removeEntryTokens(any(Entry.class));
         verify(sharedEntryService, never()).removeSharedEntry(any(User.class), anyLong());
-        verify(entryRepository, never()).deleteById(anyLong());
+        verify(entryRepository, never()).delete(any(Entry.class));
     }
 
     @Test
@@ -463,7 +534,8 @@ public class EntryServiceUnitTests {
                 true
         );
 
-        when(entryRepository.findById(entryId)).thenReturn(Optional.empty());
+        when(entryRepository.findByIdAndUser(entryId, mockUser)).thenReturn(Optional.empty());
+        when(entryRepository.existsById(entryId)).thenReturn(false);
 
         ApplicationException exception = assertThrows(ApplicationException.class, () -> {
             entryService.updateEntry(mockUser, updatedDetails, entryId);
@@ -472,7 +544,7 @@ public class EntryServiceUnitTests {
         assertEquals("Entry with 1 not found", exception.getMessage());
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
 
-        verify(entryRepository, times(1)).findById(entryId);
+        verify(entryRepository, times(1)).findByIdAndUser(entryId, mockUser);
         verify(encryptionService, never()).encrypt(anyString());
         verify(entryRepository, never()).save(any(Entry.class));
         verify(searchService, never()).indexEntry(any(Entry.class), anyString());
@@ -500,7 +572,8 @@ public class EntryServiceUnitTests {
                 true
         );
 
-        when(entryRepository.findById(entryId)).thenReturn(Optional.of(mockEntry));
+        when(entryRepository.findByIdAndUser(entryId, unauthorizedUser)).thenReturn(Optional.empty());
+        when(entryRepository.existsById(entryId)).thenReturn(true);
 
         ApplicationException exception = assertThrows(ApplicationException.class, () -> {
             // Attempt update by unauthorizedUser
@@ -510,9 +583,470 @@ public class EntryServiceUnitTests {
         assertEquals("User with id 2 is not authorized", exception.getMessage());
         assertEquals(HttpStatus.UNAUTHORIZED, exception.getStatus());
 
-        verify(entryRepository, times(1)).findById(entryId);
+        verify(entryRepository, times(1)).findByIdAndUser(entryId, unauthorizedUser);
         verify(encryptionService, never()).encrypt(anyString());
         verify(entryRepository, never()).save(any(Entry.class));
         verify(searchService, never()).indexEntry(any(Entry.class), anyString());
     }
-}
\ No newline at end of file
+
+    private Entry versionedEntry(User user, Long entryId, long version) {
+        Entry entry = new Entry(user, null, "title", "encryptedContent", new HashSet<>(), 2);
+        entry.setId(entryId);
+        ReflectionTestUtils.setField(entry, "version", version);
+        return entry;
+    }
+
+    @Test
+    void patchEntry_ContentChanged_SavesAndDefersReindex() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+        Long entryId = 1L;
+        Entry entry = versionedEntry(mockUser, entryId, 3L);
+
+        when(entryRepository.findByIdAndUser(entryId, mockUser)).thenReturn(Optional.of(entry));
+        when(encryptionService.decrypt("encryptedContent")).thenReturn("old content");
+        when(encryptionService.encrypt("new content")).thenReturn("encryptedNewContent");
+
+        EntryResponse response = entryService.patchEntry(mockUser, entryId,
+                new EntryPatchDto(3L, null, "new content", 2, null));
+
+        assertEquals("new content", response.getContent());
+        assertEquals("encryptedNewContent", entry.getContent());
+        assertTrue(entry.getLastEdited().isPresent());
+        verify(entryRepository).save(entry);
+        verify(entityManager).flush();
+        verify(entryReindexService).requestReindex(entryId);
+        verify(entryRevisionService).recordRevision(eq(entry), eq(new EntryRevisionService.RevisionText("title", "old content")),
+                any(), eq(2), eq(new EntryRevisionService.RevisionText("title", "new content")));
+        verify(searchService, never()).indexEntry(any(Entry.class), any());
+    }
+
+    @Test
+    void patchEntry_NothingChanged_WritesNothing() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+        Long entryId = 1L;
+        Entry entry = versionedEntry(mockUser, entryId, 3L);
+
+        when(entryRepository.findByIdAndUser(entryId, mockUser)).thenReturn(Optional.of(entry));
+        when(encryptionService.decrypt("encryptedContent")).thenReturn("same content");
+
+        EntryResponse response = entryService.patchEntry(mockUser, entryId,
+                new EntryPatchDto(3L, "title", "same content", 2, false));
+
+        assertEquals(3L, response.getVersion());
+        verify(encryptionService, never()).encrypt(anyString());
+        verify(entryRepository, never()).save(any(Entry.class));
+        verify(entryReindexService, never()).requestReindex(anyLong());
+        verify(userStatsService, never()).recordUpdated(any(), any(), any());
+        verifyNoInteractions(entryRevisionService);
+    }
+
+    @Test
+    void patchEntry_ArchivedNothingChanged_DoesNotRehydrate() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+        Long entryId = 1L;
+        Entry entry = versionedEntry(mockUser, entryId, 3L);
+        entry.setArchived(true);
+
+        when(entryRepository.findByIdAndUser(entryId, mockUser)).thenReturn(Optional.of(entry));
+        when(entryArchiveService.readContent(entry)).thenReturn("archived content");
+
+        EntryResponse response = entryService.patchEntry(mockUser, entryId,
+                new EntryPatchDto(3L, null, "archived content", null, null));
+
+        assertEquals("archived content", response.getContent());
+        verify(entryArchiveService, never()).rehydrate(any());
+        verify(entryRepository, never()).save(any(Entry.class));
+    }
+
+    @Test
+    void patchEntry_FavoriteOnly_SavesWithoutReindex() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+        Long entryId = 1L;
+        Entry entry = versionedEntry(mockUser, entryId, 0L);
+
+        when(entryRepository.findByIdAndUser(entryId, mockUser)).thenReturn(Optional.of(entry));
+        when(encryptionService.decrypt("encryptedContent")).thenReturn("content");
+
+        entryService.patchEntry(mockUser, entryId, new EntryPatchDto(0L, null, null, null, true));
+
+        assertTrue(entry.isFavorite());
+        verify(entryRepository).save(entry);
+        verify(entryReindexService, never()).requestReindex(anyLong());
+    }
+
+    @Test
+    void patchEntry_StaleVersion_Conflict() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+        Long entryId = 1L;
+        Entry entry = versionedEntry(mockUser, entryId, 4L);
+
+        when(entryRepository.findByIdAndUser(entryId, mockUser)).thenReturn(Optional.of(entry));
+
+        ApplicationException exception = assertThrows(ApplicationException.class, () ->
+                entryService.patchEntry(mockUser, entryId, new EntryPatchDto(3L, null, "new content", null, null)));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+        verify(entryRepository, never()).save(any(Entry.class));
+        verify(entryReindexService, never()).requestReindex(anyLong());
+    }
+
+    @Test
+    void patchEntry_ConcurrentSave_Conflict() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+        Long entryId = 1L;
+        Entry entry = versionedEntry(mockUser, entryId, 3L);
+
+        when(entryRepository.findByIdAndUser(entryId, mockUser)).thenReturn(Optional.of(entry));
+        when(encryptionService.decrypt("encryptedContent")).thenReturn("old content");
+        doThrow(new OptimisticLockException()).when(entityManager).flush();
+
+        ApplicationException exception = assertThrows(ApplicationException.class, () ->
+                entryService.patchEntry(mockUser, entryId, new EntryPatchDto(3L, "new title", null, null, null)));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+        verify(entryReindexService, never()).requestReindex(anyLong());
+    }
+
+    @Test
+    void patchEntry_MissingVersion_BadRequest() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+
+        ApplicationException exception = assertThrows(ApplicationException.class, () ->
+                entryService.patchEntry(mockUser, 1L, new EntryPatchDto(null, "title", null, null, null)));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verifyNoInteractions(entryRepository);
+    }
+
+    @Test
+    void getUserEntriesPage_SeeksFromCursor() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+
+        Entry newer = new Entry();
+        newer.setId(12L);
+        newer.setJournalDate(LocalDate.of(2024, 5, 2));
+        newer.setContent("encrypted12");
+        Entry older = new Entry();
+        older.setId(7L);
+        older.setJournalDate(LocalDate.of(2024, 5, 1));
+        older.setContent("encrypted7");
+
+        PageRequest pageRequest = PageRequest.of(0, 2);
+        when(entryRepository.findFirstPageByUser(mockUser, pageRequest))
+                .thenReturn(new SliceImpl<>(List.of(newer, older), pageRequest, true));
+        when(entryRepository.findPageByUserBefore(mockUser, LocalDate.of(2024, 5, 1), 7L, pageRequest))
+                .thenReturn(new SliceImpl<>(List.of(), pageRequest, false));
+        when(encryptionService.decrypt(anyString())).thenAnswer(invocation -> "decrypted");
+
+        EntryPageResponse firstPage = entryService.getUserEntriesPage(mockUser, null, 2);
+
+        assertEquals(2, firstPage.getEntries().size());
+        assertNotNull(firstPage.getNextCursor());
+
+        EntryPageResponse secondPage = entryService.getUserEntriesPage(mockUser, firstPage.getNextCursor(), 2);
+
+        assertTrue(secondPage.getEntries().isEmpty());
+        assertNull(secondPage.getNextCursor());
+        verify(entryRepository, never()).findAllByUser(any(), any());
+    }
+
+    @Test
+    void getUserEntriesPage_InvalidCursor_ThrowsBadRequest() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> entryService.getUserEntriesPage(mockUser, "not-a-cursor", 20));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verifyNoInteractions(entryRepository);
+    }
+
+    @Test
+    void streamAllUserEntries_ReadsChunksByKeysetInTheirOwnTransactions() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+
+        Entry first = new Entry();
+        first.setId(2L);
+        first.setJournalDate(LocalDate.of(2024, 5, 2));
+        first.setContent("encrypted2");
+        Entry second = new Entry();
+        second.setId(1L);
+        second.setJournalDate(LocalDate.of(2024, 5, 1));
+        second.setContent("encrypted1");
+
+        PageRequest pageRequest = PageRequest.of(0, 50);
+        when(entryRepository.findFirstPageByUser(mockUser, pageRequest))
+                .thenReturn(new SliceImpl<>(List.of(first), pageRequest, true));
+        when(entryRepository.findPageByUserBefore(mockUser, LocalDate.of(2024, 5, 2), 2L, pageRequest))
+                .thenReturn(new SliceImpl<>(List.of(second), pageRequest, false));
+        when(encryptionService.decrypt("encrypted2")).thenReturn("content2");
+        when(encryptionService.decrypt("encrypted1")).thenReturn("content1");
+
+        List<String> streamed = new ArrayList<>();
+        entryService.streamAllUserEntries(mockUser, entry -> {
+            // Each chunk is written after its transaction committed
+            verify(transactionManager, times(streamed.size() + 1)).commit(any());
+            streamed.add(entry.getContent());
+        });
+
+        assertEquals(List.of("content2", "content1"), streamed);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void getEntrySummariesFromFolder_AttachesTagsWithoutLoadingEntries() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+        Folder folder = new Folder(mockUser, "Folder");
+        folder.setId(7L);
+
+        EntrySummary tagged = mock(EntrySummary.class);
+        when(tagged.getId()).thenReturn(1L);
+        when(tagged.getTitle()).thenReturn("Tagged");
+        EntrySummary untagged = mock(EntrySummary.class);
+        when(untagged.getId()).thenReturn(2L);
+
+        EntryTagName work = mock(EntryTagName.class);
+        when(work.getEntryId()).thenReturn(1L);
+        when(work.getName()).thenReturn("Work");
+        EntryTagName travel = mock(EntryTagName.class);
+        when(travel.getEntryId()).thenReturn(1L);
+        when(travel.getName()).thenReturn("Travel");
+
+        when(folderService.getFolder(mockUser, 7L)).thenReturn(folder);
+        when(entryRepository.findSummariesByFolder(mockUser, folder)).thenReturn(List.of(tagged, untagged));
+        when(entryRepository.findTagNamesByEntryIdIn(List.of(1L, 2L), mockUser)).thenReturn(List.of(work, travel));
+
+        List<EntrySummaryResponse> summaries = entryService.getEntrySummariesFromFolder(mockUser, 7L);
+
+        assertEquals(2, summaries.size());
+        assertEquals("Tagged", summaries.get(0).getTitle());
+        assertEquals(Set.of("Work", "Travel"), summaries.get(0).getTags());
+        assertTrue(summaries.get(1).getTags().isEmpty());
+        verify(entryRepository, never()).findAllByUserAndFolder(any(), any());
+        verifyNoInteractions(encryptionService);
+    }
+
+    @Test
+    void getEntrySummariesByTimeRange_NoEntries() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+
+        when(entryRepository.findSummariesByUserAndJournalDateBetween(eq(mockUser), any(), any()))
+                .thenReturn(List.of());
+
+        List<EntrySummaryResponse> summaries = entryService.getEntrySummariesByTimeRange(
+                mockUser, LocalDate.now().minusDays(7), LocalDate.now());
+
+        assertTrue(summaries.isEmpty());
+        verify(entryRepository, never()).findTagNamesByEntryIdIn(any(), any());
+    }
+
+    @Test
+    void getCalendar_ReturnsAggregatedDays() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+        LocalDate start = LocalDate.of(2025, 3, 1);
+        LocalDate end = LocalDate.of(2025, 3, 31);
+        List<CalendarDayResponse> days = List.of(
+                new CalendarDayResponse(LocalDate.of(2025, 3, 4), 2L, 350L, 1L),
+                new CalendarDayResponse(LocalDate.of(2025, 3, 9), 1L, 120L, 0L));
+
+        when(entryRepository.findCalendarDays(mockUser, start, end)).thenReturn(days);
+
+        List<CalendarDayResponse> calendar = entryService.getCalendar(mockUser, start, end);
+
+        assertEquals(days, calendar);
+        assertTrue(calendar.get(0).hasFavorite());
+        assertFalse(calendar.get(1).hasFavorite());
+        verifyNoInteractions(encryptionService);
+    }
+
+    @Test
+    void getCalendar_RangeTooLong() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> entryService.getCalendar(mockUser, LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1)));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verifyNoInteractions(entryRepository);
+    }
+
+    @Test
+    void bulkAddTags_InsertsTagsWithoutLoadingEntries() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+        List<Long> entryIds = List.of(10L, 11L, 10L);
+
+        when(entryRepository.findIdsByUserAndIdIn(mockUser, Set.of(10L, 11L))).thenReturn(List.of(10L, 11L));
+        when(tagService.resolveTagIds(List.of("work"))).thenReturn(Set.of(5L));
+        when(entryRepository.addTagsToEntries(1L, Set.of(10L, 11L), Set.of(5L))).thenReturn(2);
+
+        assertEquals(2, entryService.bulkAddTags(mockUser, entryIds, List.of("work")));
+
+        verify(userStatsService).recordTagsAdded(mockUser, Set.of(10L, 11L), Set.of(5L));
+        verify(userStatsService, never()).rebuild(any());
+        verify(entryRepository, never()).findById(any());
+        verify(entryRepository, never()).countByIdIn(any());
+        verifyNoInteractions(searchService, encryptionService);
+    }
+
+    @Test
+    void bulkMoveToFolder_OtherUsersEntry_Unauthorized() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+
+        when(entryRepository.findIdsByUserAndIdIn(mockUser, Set.of(10L, 11L))).thenReturn(List.of(10L));
+        when(entryRepository.countByIdIn(Set.of(10L, 11L))).thenReturn(2L);
+
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> entryService.bulkMoveToFolder(mockUser, List.of(10L, 11L), 3L));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, exception.getStatus());
+        verify(entryRepository, never()).moveToFolder(any(), any(), any());
+        verifyNoInteractions(folderService, userStatsService);
+    }
+
+    @Test
+    void bulkDelete_MissingEntry_NotFound() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+
+        when(entryRepository.findIdsByUserAndIdIn(mockUser, Set.of(10L, 11L))).thenReturn(List.of(10L));
+        when(entryRepository.countByIdIn(Set.of(10L, 11L))).thenReturn(1L);
+
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> entryService.bulkDelete(mockUser, List.of(10L, 11L)));
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+        verify(entryRepository, never()).deleteAllByUserAndIdIn(any(), any());
+    }
+
+    @Test
+    void bulkDelete_RemovesDependentsWithSetBasedStatements() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+
+        when(entryRepository.findIdsByUserAndIdIn(mockUser, Set.of(10L))).thenReturn(List.of(10L));
+        when(mediaRepository.findAllByEntryIdIn(Set.of(10L))).thenReturn(List.of());
+
+        entryService.bulkDelete(mockUser, List.of(10L));
+
+        verify(sharedEntryRepository).deleteAllowedUsersByEntryIdIn(Set.of(10L));
+        verify(sharedEntryRepository).deleteAllByEntryIdIn(Set.of(10L));
+        verify(searchService).removeEntriesTokens(mockUser, Set.of(10L));
+        verify(entryRepository).clearTags(Set.of(10L));
+        verify(entryRepository).deleteAllByUserAndIdIn(mockUser, Set.of(10L));
+        verify(entryRepository, never()).findAllByUserAndIdIn(any(), any());
+        verify(mediaRepository, never()).deleteAllByEntryIdIn(any());
+        verify(userStatsService).recordEntriesDeleted(mockUser, Set.of(10L));
+        verify(userStatsService, never()).rebuild(any());
+    }
+
+    @Test
+    void uploadMedia_ChecksOwnerIdWithoutLoadingEntry() {
+        ReflectionTestUtils.setField(entryService, "entityManager", entityManager);
+        User mockUser = new User();
+        mockUser.setId(1L);
+        Entry reference = new Entry();
+        reference.setId(10L);
+        MultipartFile file = mock(MultipartFile.class);
+
+        when(entryRepository.existsByIdAndUser(10L, mockUser)).thenReturn(true);
+        when(entityManager.getReference(Entry.class, 10L)).thenReturn(reference);
+        when(s3Service.uploadFile(file, MediaType.IMAGE)).thenReturn("key");
+        when(mediaRepository.save(any(Media.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Media media = entryService.uploadMedia(mockUser, 10L, file, MediaType.IMAGE);
+
+        assertEquals(reference, media.getEntry());
+        verify(mediaRepository).save(media);
+        verify(entryRepository, never()).findByIdAndUser(any(), any());
+        verifyNoInteractions(encryptionService);
+    }
+
+    @Test
+    void checkUserOwnsEntry_OtherUsersEntry_Unauthorized() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+
+        when(entryRepository.existsByIdAndUser(10L, mockUser)).thenReturn(false);
+        when(entryRepository.existsById(10L)).thenReturn(true);
+
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> entryService.getRelatedEntries(mockUser, 10L, 5));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, exception.getStatus());
+        verify(entryRepository, never()).findByIdAndUser(any(), any());
+        verifyNoInteractions(relatedEntryService);
+    }
+
+    @Test
+    void checkUserOwnsEntry_MissingEntry_NotFound() {
+        User mockUser = new User();
+        mockUser.setId(1L);
+
+        when(entryRepository.existsByIdAndUser(10L, mockUser)).thenReturn(false);
+        when(entryRepository.existsById(10L)).thenReturn(false);
+
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> entryService.getMediaByEntryId(mockUser, 10L));
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+        verifyNoInteractions(sharedEntryService, mediaRepository);
+    }
+
+    @Test
+    void uploadMedia_SaveFails_DeletesUploadedFile() {
+        ReflectionTestUtils.setField(entryService, "entityManager", entityManager);
+        User mockUser = new User();
+        mockUser.setId(1L);
+        MultipartFile file = mock(MultipartFile.class);
+
+        when(entryRepository.existsByIdAndUser(10L, mockUser)).thenReturn(true);
+        when(s3Service.uploadFile(file, MediaType.IMAGE)).thenReturn("key");
+        when(mediaRepository.save(any(Media.class))).thenThrow(new IllegalStateException("entry is gone"));
+
+        assertThrows(IllegalStateException.class,
+                () -> entryService.uploadMedia(mockUser, 10L, file, MediaType.IMAGE));
+
+        verify(s3Service).deleteFile("key");
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void deleteMedia_DeletesFileOnlyAfterCommit() {
+        Entry entry = new Entry();
+        entry.setId(10L);
+        Media media = new Media();
+        media.setEntry(entry);
+        media.setS3Key("key");
+
+        when(mediaRepository.findById(5L)).thenReturn(Optional.of(media));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            entryService.deleteMedia(5L, 10L);
+
+            verify(mediaRepository).delete(media);
+            verify(s3Service, never()).deleteFile(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(s3Service).deleteFile("key");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -14,7 +14,6 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,6 +30,9 @@ public class FolderServiceUnitTests {
     @Mock
     private EntryRepository entryRepository;
 
+    @Mock
+    private UserStatsService userStatsService;
+
     @InjectMocks
     private FolderService folderService;
 
@@ -125,12 +127,12 @@ public class FolderServiceUnitTests {
         folder.setId(400L);
 
         when(folderRepository.findById(400L)).thenReturn(Optional.of(folder));
-        when(entryRepository.findAllByFolder(any(Folder.class))).thenReturn(Collections.emptyList());
-
         folderService.deleteFolder(user, 400L);
 
         verify(folderRepository, times(1)).delete(folder);
-         verify(entryRepository, times(1)).findAllByFolder(folder);
+        verify(entryRepository, times(1)).clearFolder(user, folder);
+        verify(userStatsService, times(1)).removeFolder(folder);
+        verify(entryRepository, never()).findAllByUserAndFolder(any(), any());
     }
 
     @Test
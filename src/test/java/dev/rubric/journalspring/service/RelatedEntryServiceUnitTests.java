@@ -0,0 +1,186 @@
+package dev.rubric.journalspring.service;
+
+import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.models.EntrySignature;
+import dev.rubric.journalspring.models.LshBucket;
+import dev.rubric.journalspring.models.MaintenanceJob;
+import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.repository.EntryRepository;
+import dev.rubric.journalspring.repository.EntrySignatureRepository;
+import dev.rubric.journalspring.repository.LshBucketRepository;
+import dev.rubric.journalspring.repository.MaintenanceJobRepository;
+import dev.rubric.journalspring.response.RelatedEntryResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RelatedEntryServiceUnitTests {
+
+    @Mock
+    private EntrySignatureRepository entrySignatureRepository;
+
+    @Mock
+    private LshBucketRepository lshBucketRepository;
+
+    @Mock
+    private SearchIndex searchIndex;
+
+    @Mock
+    private EntryRepository entryRepository;
+
+    @Mock
+    private MaintenanceJobRepository maintenanceJobRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private RelatedEntryService relatedEntryService;
+
+    @Test
+    void computeSignature_EstimatesJaccardSimilarity() {
+        // 100 shared tokens out of 300 distinct ones
+        long[] first = RelatedEntryService.computeSignature(tokens(0, 200));
+        long[] second = RelatedEntryService.computeSignature(tokens(100, 300));
+
+        assertEquals(1.0 / 3, RelatedEntryService.estimateSimilarity(first, second), 0.15);
+        assertEquals(1.0, RelatedEntryService.estimateSimilarity(first, RelatedEntryService.computeSignature(tokens(0, 200))));
+        assertEquals(RelatedEntryService.BANDS, RelatedEntryService.bucketKeys(first).size());
+    }
+
+    @Test
+    void updateSignature_StoresSignatureAndBuckets() {
+        User user = new User();
+        user.setId(1L);
+        Entry entry = new Entry();
+        entry.setId(1L);
+        entry.setUser(user);
+
+        when(entrySignatureRepository.findByEntry(entry)).thenReturn(Optional.empty());
+
+        relatedEntryService.updateSignature(entry, tokens(0, 50));
+
+        verify(lshBucketRepository, times(1)).deleteAllByEntry(entry);
+
+        ArgumentCaptor<EntrySignature> signatureCaptor = ArgumentCaptor.forClass(EntrySignature.class);
+        verify(entrySignatureRepository, times(1)).save(signatureCaptor.capture());
+        assertArrayEquals(RelatedEntryService.computeSignature(tokens(0, 50)),
+                RelatedEntryService.fromBytes(signatureCaptor.getValue().getSignature()));
+
+        ArgumentCaptor<List<LshBucket>> bucketCaptor = ArgumentCaptor.forClass(List.class);
+        verify(lshBucketRepository, times(1)).saveAll(bucketCaptor.capture());
+        assertEquals(RelatedEntryService.BANDS, bucketCaptor.getValue().size());
+        bucketCaptor.getValue().forEach(bucket -> assertEquals(user, bucket.getUser()));
+    }
+
+    @Test
+    void updateSignature_NoTokens_RemovesSignature() {
+        Entry entry = new Entry();
+        entry.setId(1L);
+
+        relatedEntryService.updateSignature(entry, Collections.emptyList());
+
+        verify(entrySignatureRepository, times(1)).deleteAllByEntry(entry);
+        verify(entrySignatureRepository, never()).save(any());
+        verify(lshBucketRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void findRelated_OrdersBySimilarityAndDropsWeakMatches() {
+        User user = new User();
+        user.setId(1L);
+
+        EntrySignature source = signature(1L, "Source", tokens(0, 100));
+        EntrySignature close = signature(2L, "Close", tokens(0, 90));
+        EntrySignature closer = signature(3L, "Closer", tokens(0, 99));
+        EntrySignature unrelated = signature(4L, "Unrelated", tokens(500, 600));
+
+        when(entrySignatureRepository.findByEntryId(1L)).thenReturn(Optional.of(source));
+        when(lshBucketRepository.findCandidateEntryIds(eq(user), any(), eq(1L), any()))
+                .thenReturn(List.of(2L, 3L, 4L));
+        when(entrySignatureRepository.findAllWithEntryByEntryIdIn(List.of(2L, 3L, 4L)))
+                .thenReturn(List.of(close, closer, unrelated));
+
+        List<RelatedEntryResponse> related = relatedEntryService.findRelated(user, 1L, 5);
+
+        assertEquals(List.of(3L, 2L), related.stream().map(RelatedEntryResponse::getId).collect(Collectors.toList()));
+        assertEquals("Closer", related.get(0).getTitle());
+    }
+
+    @Test
+    void findRelated_NoSignature_ReturnsEmptyList() {
+        User user = new User();
+        user.setId(1L);
+
+        when(entrySignatureRepository.findByEntryId(1L)).thenReturn(Optional.empty());
+
+        assertTrue(relatedEntryService.findRelated(user, 1L, 5).isEmpty());
+        verifyNoInteractions(lshBucketRepository);
+    }
+
+    @Test
+    void backfillSignatures_UsesIndexedTokensAndRecordsCompletion() {
+        User user = new User();
+        user.setId(1L);
+        Entry indexed = new Entry();
+        indexed.setId(1L);
+        indexed.setUser(user);
+        Entry empty = new Entry();
+        empty.setId(2L);
+        empty.setUser(user);
+
+        when(entrySignatureRepository.findEntryIdsWithoutSignature(eq(0L), any())).thenReturn(List.of(1L, 2L));
+        when(entrySignatureRepository.findEntryIdsWithoutSignature(eq(2L), any())).thenReturn(List.of());
+        when(entryRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(indexed, empty));
+        when(searchIndex.entryTokens(user, List.of(1L, 2L))).thenReturn(Map.of(1L, tokens(0, 50)));
+
+        assertEquals(1, relatedEntryService.backfillSignatures());
+
+        ArgumentCaptor<EntrySignature> signatureCaptor = ArgumentCaptor.forClass(EntrySignature.class);
+        verify(entrySignatureRepository, times(1)).save(signatureCaptor.capture());
+        assertEquals(indexed, signatureCaptor.getValue().getEntry());
+
+        ArgumentCaptor<MaintenanceJob> jobCaptor = ArgumentCaptor.forClass(MaintenanceJob.class);
+        verify(maintenanceJobRepository, times(1)).save(jobCaptor.capture());
+        assertEquals(RelatedEntryService.BACKFILL_JOB, jobCaptor.getValue().getName());
+    }
+
+    @Test
+    void scheduleBackfill_AlreadyCompleted_DoesNothing() {
+        when(maintenanceJobRepository.existsById(RelatedEntryService.BACKFILL_JOB)).thenReturn(true);
+
+        relatedEntryService.scheduleBackfill();
+
+        verifyNoInteractions(entrySignatureRepository, searchIndex);
+    }
+
+    private static List<String> tokens(int from, int to) {
+        return IntStream.range(from, to)
+                .mapToObj(i -> "token-" + i)
+                .collect(Collectors.toList());
+    }
+
+    private static EntrySignature signature(Long entryId, String title, List<String> tokens) {
+        Entry entry = new Entry();
+        entry.setId(entryId);
+        entry.setTitle(title);
+
+        EntrySignature signature = new EntrySignature(entry);
+        signature.setSignature(RelatedEntryService.toBytes(RelatedEntryService.computeSignature(tokens)));
+        return signature;
+    }
+}
@@ -0,0 +1,188 @@
+package dev.rubric.journalspring.service;
+
+import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SearchBloomFilterServiceUnitTests {
+
+    @Mock
+    private SearchIndex searchIndex;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SearchBloomFilterService searchBloomFilterService;
+    private List<Runnable> pendingBuilds;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        searchBloomFilterService = new SearchBloomFilterService(searchIndex, userRepository, transactionManager);
+        // Rebuilds are queued and run by the test instead of the builder thread
+        pendingBuilds = new ArrayList<>();
+        ReflectionTestUtils.setField(searchBloomFilterService, "builder", (Executor) pendingBuilds::add);
+
+        user = new User();
+        user.setId(1L);
+    }
+
+    private void runPendingBuilds() {
+        List<Runnable> builds = new ArrayList<>(pendingBuilds);
+        pendingBuilds.clear();
+        builds.forEach(Runnable::run);
+    }
+
+    @Test
+    void mightContainAny_NoFilter_FallsBackToIndexAndBuildsInBackground() {
+        when(userRepository.findSearchVersion(1L)).thenReturn(0L);
+        when(searchIndex.userTokens(user)).thenReturn(List.of("tokenA", "tokenB"));
+
+        assertTrue(searchBloomFilterService.mightContainAny(user, List.of("missing")));
+        verifyNoInteractions(searchIndex);
+
+        runPendingBuilds();
+
+        assertTrue(searchBloomFilterService.mightContainAny(user, List.of("missing", "tokenA")));
+        assertFalse(searchBloomFilterService.mightContainAny(user, List.of("missing")));
+        verify(searchIndex, times(1)).userTokens(user);
+    }
+
+    @Test
+    void mightContainAny_RepeatedMisses_QueueOneRebuild() {
+        when(userRepository.findSearchVersion(1L)).thenReturn(0L);
+
+        searchBloomFilterService.mightContainAny(user, List.of("tokenA"));
+        searchBloomFilterService.mightContainAny(user, List.of("tokenA"));
+
+        assertEquals(1, pendingBuilds.size());
+    }
+
+    @Test
+    void addTokens_UpdatesCurrentFilter() {
+        when(userRepository.findSearchVersion(1L)).thenReturn(0L);
+        when(searchIndex.userTokens(user)).thenReturn(List.of());
+        searchBloomFilterService.mightContainAny(user, List.of("newToken"));
+        runPendingBuilds();
+        assertFalse(searchBloomFilterService.mightContainAny(user, List.of("newToken")));
+
+        when(userRepository.findSearchVersion(1L)).thenReturn(1L);
+        searchBloomFilterService.addTokens(user, List.of("newToken"));
+
+        assertTrue(searchBloomFilterService.mightContainAny(user, List.of("newToken")));
+        assertFalse(searchBloomFilterService.mightContainAny(user, List.of("missing")));
+        verify(userRepository).incrementSearchVersion(1L);
+        verify(searchIndex, times(1)).userTokens(user);
+    }
+
+    @Test
+    void mightContainAny_WrittenByAnotherInstance_FallsBackToIndexUntilRebuilt() {
+        when(userRepository.findSearchVersion(1L)).thenReturn(0L);
+        when(searchIndex.userTokens(user)).thenReturn(List.of(), List.of("remoteToken"));
+        searchBloomFilterService.mightContainAny(user, List.of("remoteToken"));
+        runPendingBuilds();
+        assertFalse(searchBloomFilterService.mightContainAny(user, List.of("remoteToken")));
+
+        // Another instance indexed the token and moved the version
+        when(userRepository.findSearchVersion(1L)).thenReturn(1L);
+
+        assertTrue(searchBloomFilterService.mightContainAny(user, List.of("remoteToken")));
+        runPendingBuilds();
+        assertTrue(searchBloomFilterService.mightContainAny(user, List.of("remoteToken")));
+        assertFalse(searchBloomFilterService.mightContainAny(user, List.of("missing")));
+    }
+
+    @Test
+    void addTokens_AfterMissedWrite_LeavesFilterUnused() {
+        when(userRepository.findSearchVersion(1L)).thenReturn(0L);
+        when(searchIndex.userTokens(user)).thenReturn(List.of());
+        searchBloomFilterService.mightContainAny(user, List.of("localToken"));
+        runPendingBuilds();
+
+        // Version 1 was written elsewhere, this instance commits version 2
+        when(userRepository.findSearchVersion(1L)).thenReturn(2L);
+        searchBloomFilterService.addTokens(user, List.of("localToken"));
+
+        assertTrue(searchBloomFilterService.mightContainAny(user, List.of("missing")));
+        assertEquals(1, pendingBuilds.size());
+    }
+
+    @Test
+    void addTokens_InTransaction_AddsOnlyOnCommit() {
+        when(userRepository.findSearchVersion(1L)).thenReturn(0L);
+        when(searchIndex.userTokens(user)).thenReturn(List.of());
+        searchBloomFilterService.mightContainAny(user, List.of("newToken"));
+        runPendingBuilds();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            when(userRepository.findSearchVersion(1L)).thenReturn(1L);
+            searchBloomFilterService.addTokens(user, List.of("newToken"));
+
+            // Not committed, the filter stays at version 0
+            when(userRepository.findSearchVersion(1L)).thenReturn(0L);
+            assertFalse(searchBloomFilterService.mightContainAny(user, List.of("newToken")));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        when(userRepository.findSearchVersion(1L)).thenReturn(1L);
+        assertTrue(searchBloomFilterService.mightContainAny(user, List.of("newToken")));
+        assertTrue(pendingBuilds.isEmpty());
+    }
+
+    @Test
+    void addTokens_RolledBack_LeavesFilterUnchanged() {
+        when(userRepository.findSearchVersion(1L)).thenReturn(0L);
+        when(searchIndex.userTokens(user)).thenReturn(List.of());
+        searchBloomFilterService.mightContainAny(user, List.of("newToken"));
+        runPendingBuilds();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            searchBloomFilterService.addTokens(user, List.of("newToken"));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertFalse(searchBloomFilterService.mightContainAny(user, List.of("newToken")));
+    }
+
+    @Test
+    void mightContainAny_OldFilter_AnswersAndRebuildsInBackground() {
+        ReflectionTestUtils.setField(searchBloomFilterService, "maxAge", Duration.ofNanos(1));
+        when(userRepository.findSearchVersion(1L)).thenReturn(0L);
+        when(searchIndex.userTokens(user)).thenReturn(List.of("deletedToken"), List.of());
+        searchBloomFilterService.mightContainAny(user, List.of("deletedToken"));
+        runPendingBuilds();
+
+        assertTrue(searchBloomFilterService.mightContainAny(user, List.of("deletedToken")));
+        runPendingBuilds();
+
+        // The rebuild dropped the token of the deleted entry
+        assertFalse(searchBloomFilterService.mightContainAny(user, List.of("deletedToken")));
+        verify(searchIndex, times(2)).userTokens(user);
+    }
+}
@@ -2,9 +2,10 @@ package dev.rubric.journalspring.service;
 
 import dev.rubric.journalspring.exception.ApplicationException;
 import dev.rubric.journalspring.models.Entry;
-import dev.rubric.journalspring.models.SearchToken;
 import dev.rubric.journalspring.models.User;
-import dev.rubric.journalspring.repository.SearchTokenRepository;
+import dev.rubric.journalspring.repository.EntryRepository;
+import dev.rubric.journalspring.response.EntryResponse;
+import dev.rubric.journalspring.response.SuggestionResponse;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -14,17 +15,20 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class SearchServiceUnitTests {
 
     @Mock
-    private SearchTokenRepository searchTokenRepository;
+    private SearchIndex searchIndex;
+
+    @Mock
+    private EntryRepository entryRepository;
 
     @Mock
     private TokenGeneratorService tokenGeneratorService;
@@ -32,6 +36,15 @@ public class SearchServiceUnitTests {
     @Mock
     private EncryptionService encryptionService;
 
+    @Mock
+    private SearchBloomFilterService searchBloomFilterService;
+
+    @Mock
+    private SuggestionCache suggestionCache;
+
+    @Mock
+    private RelatedEntryService relatedEntryService;
+
     @InjectMocks
     private SearchService searchService;
 
@@ -49,20 +62,41 @@ public class SearchServiceUnitTests {
 
         searchService.indexEntry(entry, plainTextContent);
 
-        verify(searchTokenRepository, times(1)).deleteAllByEntry(entry);
+        verify(searchBloomFilterService, times(1)).addTokens(eq(entry.getUser()), any());
+        verify(relatedEntryService, times(1)).updateSignature(eq(entry), any());
 
-        ArgumentCaptor<List<SearchToken>> tokenListCaptor = ArgumentCaptor.forClass(List.class);
-        verify(searchTokenRepository, times(1)).saveAll(tokenListCaptor.capture());
+        ArgumentCaptor<Collection<String>> tokenCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(searchIndex, times(1)).index(eq(entry), tokenCaptor.capture());
 
-        List<SearchToken> savedTokens = tokenListCaptor.getValue();
+        Collection<String> savedTokens = tokenCaptor.getValue();
 
-        assertEquals(5, savedTokens.size());
+        // "test" appears in both title and content and is only stored once
+        assertEquals(4, savedTokens.size());
         List<String> allTokens = new ArrayList<>();
         allTokens.addAll(contentTokens);
         allTokens.addAll(titleTokens);
-        List<String> savedTokenValues = savedTokens.stream().map(SearchToken::getTokenValue).collect(Collectors.toList());
-        assertTrue(savedTokenValues.containsAll(allTokens));
-        savedTokens.forEach(token -> assertEquals(entry, token.getEntry()));
+        assertTrue(savedTokens.containsAll(allTokens));
+    }
+
+    @Test
+    void indexEntry_CapsTokensKeepingTitleFirst() {
+        Entry entry = new Entry();
+        entry.setId(1L);
+        entry.setTitle("Title");
+        String plainTextContent = "Long content";
+
+        when(tokenGeneratorService.generateSearchTokens(entry.getTitle()))
+                .thenReturn(new ArrayList<>(List.of("title")));
+        when(tokenGeneratorService.generateSearchTokens(plainTextContent))
+                .thenReturn(new ArrayList<>(List.of("long", "content", "extra")));
+        when(tokenGeneratorService.getMaxTokensPerEntry()).thenReturn(2);
+
+        searchService.indexEntry(entry, plainTextContent);
+
+        ArgumentCaptor<Collection<String>> tokenCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(searchIndex, times(1)).index(eq(entry), tokenCaptor.capture());
+
+        assertEquals(List.of("title", "long"), new ArrayList<>(tokenCaptor.getValue()));
     }
 
     @Test
@@ -73,6 +107,7 @@ public class SearchServiceUnitTests {
 
         List<String> queryTokens = Arrays.asList("test", "query");
         when(tokenGeneratorService.processSearchQuery(query)).thenReturn(queryTokens);
+        when(searchBloomFilterService.mightContainAny(user, queryTokens)).thenReturn(true);
 
         Entry entry1 = new Entry();
         entry1.setId(1L);
@@ -82,26 +117,26 @@ public class SearchServiceUnitTests {
         entry2.setId(2L);
         entry2.setContent("EncryptedContent2");
 
-        SearchToken token1 = new SearchToken("test", entry1);
-        SearchToken token2 = new SearchToken("query", entry1);
-        SearchToken token3 = new SearchToken("test", entry2);
-
-        List<SearchToken> matchingTokens = Arrays.asList(token1, token2, token3);
-        when(searchTokenRepository.findByTokenValueInAndUser(queryTokens, user)).thenReturn(matchingTokens);
+        // entry1 matches both tokens, entry2 only "test"
+        when(searchIndex.match(user, queryTokens)).thenReturn(Map.of(1L, 2, 2L, 1));
+        when(entryRepository.findAllByUserAndIdIn(user, Set.of(1L, 2L))).thenReturn(List.of(entry2, entry1));
 
         when(encryptionService.decrypt("EncryptedContent1")).thenReturn("DecryptedContent1");
         when(encryptionService.decrypt("EncryptedContent2")).thenReturn("DecryptedContent2");
 
-        List<Entry> result = searchService.search(user, query);
+        List<EntryResponse> result = searchService.search(user, query);
 
-        verify(searchTokenRepository, times(1)).findByTokenValueInAndUser(queryTokens, user);
+        verify(searchIndex, times(1)).match(user, queryTokens);
 
         assertEquals(2, result.size());
-        assertEquals(entry1, result.get(0));
-        assertEquals(entry2, result.get(1));
-
-        assertEquals("DecryptedContent1", entry1.getContent());
-        assertEquals("DecryptedContent2", entry2.getContent());
+        assertEquals(1L, result.get(0).getId());
+        assertEquals(2L, result.get(1).getId());
+
+        assertEquals("DecryptedContent1", result.get(0).getContent());
+        assertEquals("DecryptedContent2", result.get(1).getContent());
+        // The managed entities keep their ciphertext
+        assertEquals("EncryptedContent1", entry1.getContent());
+        assertEquals("EncryptedContent2", entry2.getContent());
     }
 
     @Test
@@ -124,13 +159,30 @@ public class SearchServiceUnitTests {
 
         List<String> queryTokens = Arrays.asList("unmatched", "query");
         when(tokenGeneratorService.processSearchQuery(query)).thenReturn(queryTokens);
+        when(searchBloomFilterService.mightContainAny(user, queryTokens)).thenReturn(true);
 
-        when(searchTokenRepository.findByTokenValueInAndUser(queryTokens, user)).thenReturn(Collections.emptyList());
+        when(searchIndex.match(user, queryTokens)).thenReturn(Collections.emptyMap());
 
-        List<Entry> result = searchService.search(user, query);
+        List<EntryResponse> result = searchService.search(user, query);
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void search_BloomFilterRulesOutQuery_SkipsDatabase() {
+        User user = new User();
+        user.setId(1L);
+        String query = "never written";
+
+        List<String> queryTokens = Arrays.asList("never", "written");
+        when(tokenGeneratorService.processSearchQuery(query)).thenReturn(queryTokens);
+        when(searchBloomFilterService.mightContainAny(user, queryTokens)).thenReturn(false);
+
+        List<EntryResponse> result = searchService.search(user, query);
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(searchIndex, entryRepository);
+    }
+
     @Test
     void removeEntryTokens_Success() {
         Entry entry = new Entry();
@@ -138,7 +190,68 @@ public class SearchServiceUnitTests {
 
         searchService.removeEntryTokens(entry);
 
-        verify(searchTokenRepository, times(1)).deleteAllByEntry(entry);
+        verify(searchIndex, times(1)).remove(entry);
+        verify(relatedEntryService, times(1)).removeSignature(entry);
     }
-}
 
+    @Test
+    void suggest_ReturnsTitlesWithoutDecrypting() {
+        User user = new User();
+        user.setId(1L);
+        String prefix = "morning wa";
+
+        List<String> prefixTokens = Arrays.asList("morning", "prefix:wa");
+        List<SuggestionResponse> suggestions = List.of(
+                new SuggestionResponse(3L, UUID.randomUUID(), "Morning walk"));
+        when(tokenGeneratorService.generatePrefixQueryTokens(prefix)).thenReturn(prefixTokens);
+        when(searchBloomFilterService.mightContainAll(user, prefixTokens)).thenReturn(true);
+        when(searchIndex.findEntriesContainingAll(user, prefixTokens, 5)).thenReturn(List.of(3L));
+        when(entryRepository.findSuggestionsByIdIn(List.of(3L), user)).thenReturn(suggestions);
+
+        List<SuggestionResponse> result = searchService.suggest(user, prefix, 5);
+
+        assertEquals(suggestions, result);
+        verify(suggestionCache, times(1)).put(eq(user), any(), eq(suggestions));
+        verifyNoInteractions(encryptionService);
+    }
+
+    @Test
+    void suggest_CachedPrefix_SkipsDatabase() {
+        User user = new User();
+        user.setId(1L);
+        String prefix = "mor";
+
+        List<String> prefixTokens = List.of("prefix:mor");
+        List<SuggestionResponse> cached = List.of(
+                new SuggestionResponse(3L, UUID.randomUUID(), "Morning walk"));
+        when(tokenGeneratorService.generatePrefixQueryTokens(prefix)).thenReturn(prefixTokens);
+        when(suggestionCache.get(eq(user), any())).thenReturn(cached);
+
+        List<SuggestionResponse> result = searchService.suggest(user, prefix, 5);
+
+        assertEquals(cached, result);
+        verifyNoInteractions(searchIndex, searchBloomFilterService);
+    }
+
+    @Test
+    void suggest_PrefixTooShort_ReturnsEmptyList() {
+        User user = new User();
+        user.setId(1L);
+
+        when(tokenGeneratorService.generatePrefixQueryTokens("mo")).thenReturn(Collections.emptyList());
+
+        assertTrue(searchService.suggest(user, "mo", 5).isEmpty());
+        verifyNoInteractions(searchIndex);
+    }
+
+    @Test
+    void suggest_EmptyPrefix_ThrowsException() {
+        User user = new User();
+        user.setId(1L);
+
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> searchService.suggest(user, " ", 5));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+}
@@ -0,0 +1,188 @@
+package dev.rubric.journalspring.service;
+
+import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SegmentSearchIndexUnitTests {
+
+    @TempDir
+    Path directory;
+
+    private SegmentSearchIndex searchIndex;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        // Merges are triggered explicitly by the tests
+        searchIndex = new SegmentSearchIndex(directory.toString(), 100);
+        user = new User();
+        user.setId(1L);
+    }
+
+    @Test
+    void match_CountsTokensPerEntry() {
+        searchIndex.index(entry(1L), List.of("morning", "walk", "river"));
+        searchIndex.index(entry(2L), List.of("morning", "coffee"));
+
+        assertEquals(Map.of(1L, 2, 2L, 1), searchIndex.match(user, List.of("morning", "walk")));
+        assertEquals(List.of(2L, 1L), searchIndex.findEntriesContainingAll(user, List.of("morning"), 5));
+        assertEquals(List.of(1L), searchIndex.findEntriesContainingAll(user, List.of("morning", "river"), 5));
+        assertTrue(searchIndex.match(user, List.of("evening")).isEmpty());
+    }
+
+    @Test
+    void index_ReplacesTokensOfPreviousVersion() {
+        searchIndex.index(entry(1L), List.of("draft", "shared"));
+        searchIndex.index(entry(1L), List.of("final", "shared"));
+
+        assertTrue(searchIndex.match(user, List.of("draft")).isEmpty());
+        assertEquals(Map.of(1L, 2), searchIndex.match(user, List.of("final", "shared")));
+    }
+
+    @Test
+    void remove_HidesEntry() {
+        searchIndex.index(entry(1L), List.of("morning"));
+        searchIndex.index(entry(2L), List.of("morning"));
+        searchIndex.remove(entry(1L));
+
+        assertEquals(Map.of(2L, 1), searchIndex.match(user, List.of("morning")));
+    }
+
+    @Test
+    void entryTokens_ReturnsCurrentTokensOfRequestedEntries() {
+        searchIndex.index(entry(1L), List.of("draft", "shared"));
+        searchIndex.index(entry(1L), List.of("final", "shared"));
+        searchIndex.index(entry(2L), List.of("morning"));
+        searchIndex.index(entry(3L), List.of("evening"));
+
+        Map<Long, List<String>> tokens = searchIndex.entryTokens(user, List.of(1L, 2L));
+
+        assertEquals(Set.of(1L, 2L), tokens.keySet());
+        assertEquals(Set.of("final", "shared"), Set.copyOf(tokens.get(1L)));
+        assertEquals(List.of("morning"), tokens.get(2L));
+    }
+
+    @Test
+    void merge_KeepsLiveTokensAndSurvivesReload() throws Exception {
+        searchIndex.index(entry(1L), List.of("draft", "shared"));
+        searchIndex.index(entry(2L), List.of("shared", "other"));
+        searchIndex.index(entry(1L), List.of("final", "shared"));
+        searchIndex.index(entry(3L), List.of("gone"));
+        searchIndex.remove(entry(3L));
+
+        SegmentSearchIndex.UserSegments segments = searchIndex.segments(user);
+        searchIndex.merge(segments);
+
+        assertEquals(1, segments.segmentCount());
+        try (Stream<Path> files = Files.list(directory.resolve("1"))) {
+            assertEquals(1, files.count());
+        }
+
+        SegmentSearchIndex reopened = new SegmentSearchIndex(directory.toString(), 100);
+        assertEquals(Map.of(1L, 1, 2L, 1), reopened.match(user, List.of("shared")));
+        assertTrue(reopened.match(user, List.of("draft", "gone")).isEmpty());
+        assertEquals(Set.of("final", "shared", "other"), Set.copyOf(reopened.userTokens(user)));
+
+        // Writes after a merge still hide the merged postings
+        reopened.remove(entry(2L));
+        assertEquals(Map.of(1L, 1), reopened.match(user, List.of("shared")));
+    }
+
+    @Test
+    void indexNew_WritesOneSegmentPerBatch() throws Exception {
+        searchIndex.indexNew(Map.of(
+                entry(1L), List.of("morning", "walk"),
+                entry(2L), List.of("morning"),
+                entry(3L), List.of("river")));
+
+        assertEquals(Map.of(1L, 2, 2L, 1), searchIndex.match(user, List.of("morning", "walk")));
+        assertEquals(Map.of(3L, 1), searchIndex.match(user, List.of("river")));
+        try (Stream<Path> files = Files.list(directory.resolve("1"))) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void remove_InTransaction_WrittenOnlyOnCommit() throws Exception {
+        searchIndex.index(entry(1L), List.of("morning"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            searchIndex.remove(entry(1L));
+            searchIndex.index(entry(2L), List.of("morning"));
+
+            assertEquals(Map.of(1L, 1), searchIndex.match(user, List.of("morning")));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(Map.of(2L, 1), searchIndex.match(user, List.of("morning")));
+        // Both writes of the transaction share one segment
+        try (Stream<Path> files = Files.list(directory.resolve("1"))) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    void remove_RolledBack_KeepsPostings() {
+        searchIndex.index(entry(1L), List.of("morning"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            searchIndex.remove(entry(1L));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(Map.of(1L, 1), searchIndex.match(user, List.of("morning")));
+    }
+
+    @Test
+    void index_FailedAfterCommit_IsRetriedAfterRestart() throws Exception {
+        searchIndex.index(entry(1L), List.of("morning"));
+        // A directory where the next segment is written makes that write fail
+        Path obstacle = directory.resolve("1").resolve(String.format("%020d-%020d.seg.tmp", 2, 2));
+        Files.createDirectories(obstacle);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            searchIndex.index(entry(2L), List.of("morning", "walk"));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(Map.of(1L, 1), searchIndex.match(user, List.of("morning")));
+        assertTrue(Files.exists(directory.resolve("1").resolve("pending-writes")));
+
+        SegmentSearchIndex reopened = new SegmentSearchIndex(directory.toString(), 100);
+        reopened.segments(user);
+        reopened.retryPendingWrites();
+
+        assertEquals(Map.of(1L, 1, 2L, 2), reopened.match(user, List.of("morning", "walk")));
+        assertFalse(Files.exists(directory.resolve("1").resolve("pending-writes")));
+    }
+
+    private Entry entry(Long id) {
+        Entry entry = new Entry();
+        entry.setId(id);
+        entry.setUser(user);
+        return entry;
+    }
+}
@@ -8,6 +8,7 @@ import dev.rubric.journalspring.models.User;
 import dev.rubric.journalspring.repository.EntryRepository;
 import dev.rubric.journalspring.repository.SharedEntryRepository;
 import dev.rubric.journalspring.repository.UserRepository;
+import dev.rubric.journalspring.response.EntryResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -95,7 +96,7 @@ public class SharedEntryServiceUnitTests {
         List<String> allowedEmails = List.of("allowed@example.com");
         SharedEntryDto input = new SharedEntryDto(entry.getId(), allowedEmails, false);
 
-        when(entryRepository.findById(entry.getId())).thenReturn(Optional.of(entry));
+        when(entryRepository.findByIdAndUser(entry.getId(), ownerUser)).thenReturn(Optional.of(entry));
         when(userRepository.findAllByEmail(allowedEmails)).thenReturn(new ArrayList<>(List.of(allowedUser)));
         when(sharedEntryRepository.getAllByEntry(entry)).thenReturn(Collections.emptyList());
         when(sharedEntryRepository.save(any(SharedEntry.class))).thenAnswer(i -> i.getArgument(0));
@@ -117,7 +118,7 @@ public class SharedEntryServiceUnitTests {
     void createSharedEntry_Success_AllowAnyone() {
         SharedEntryDto input = new SharedEntryDto(entry.getId(), Collections.emptyList(), true);
 
-        when(entryRepository.findById(entry.getId())).thenReturn(Optional.of(entry));
+        when(entryRepository.findByIdAndUser(entry.getId(), ownerUser)).thenReturn(Optional.of(entry));
         when(userRepository.findAllByEmail(Collections.emptyList())).thenReturn(new ArrayList<>());
         when(sharedEntryRepository.getAllByEntry(entry)).thenReturn(Collections.emptyList());
         when(sharedEntryRepository.save(any(SharedEntry.class))).thenAnswer(i -> i.getArgument(0));
@@ -138,7 +139,8 @@ public class SharedEntryServiceUnitTests {
     @Test
     void createSharedEntry_EntryNotFound() {
         SharedEntryDto input = new SharedEntryDto(99L, List.of("allowed@example.com"), false);
-        when(entryRepository.findById(99L)).thenReturn(Optional.empty());
+        when(entryRepository.findByIdAndUser(99L, ownerUser)).thenReturn(Optional.empty());
+        when(entryRepository.existsById(99L)).thenReturn(false);
 
         ApplicationException exception = assertThrows(ApplicationException.class, () -> {
             sharedEntryService.createSharedEntry(ownerUser, input);
@@ -151,7 +153,8 @@ public class SharedEntryServiceUnitTests {
     @Test
     void createSharedEntry_NotAuthorized() {
         SharedEntryDto input = new SharedEntryDto(entry.getId(), List.of("allowed@example.com"), false);
-        when(entryRepository.findById(entry.getId())).thenReturn(Optional.of(entry));
+        when(entryRepository.findByIdAndUser(entry.getId(), nonAllowedUser)).thenReturn(Optional.empty());
+        when(entryRepository.existsById(entry.getId())).thenReturn(true);
 
         ApplicationException exception = assertThrows(ApplicationException.class, () -> {
             sharedEntryService.createSharedEntry(nonAllowedUser, input);
@@ -164,7 +167,7 @@ public class SharedEntryServiceUnitTests {
     @Test
     void createSharedEntry_ActiveShareExists() {
         SharedEntryDto input = new SharedEntryDto(entry.getId(), List.of("allowed@example.com"), false);
-        when(entryRepository.findById(entry.getId())).thenReturn(Optional.of(entry));
+        when(entryRepository.findByIdAndUser(entry.getId(), ownerUser)).thenReturn(Optional.of(entry));
         when(sharedEntryRepository.getAllByEntry(entry)).thenReturn(List.of(sharedEntry));
 
         ApplicationException exception = assertThrows(ApplicationException.class, () -> {
@@ -180,7 +183,7 @@ public class SharedEntryServiceUnitTests {
         when(sharedEntryRepository.getByPublicId(sharedEntry.getPublicId())).thenReturn(Optional.of(sharedEntry));
         when(encryptionService.decrypt("EncryptedContent")).thenReturn("DecryptedContent");
 
-        Entry accessedEntry = sharedEntryService.accessSharedEntry(allowedUser, sharedEntry.getPublicId());
+        EntryResponse accessedEntry = sharedEntryService.accessSharedEntry(allowedUser, sharedEntry.getPublicId());
 
         assertNotNull(accessedEntry);
         assertEquals(entry.getId(), accessedEntry.getId());
@@ -193,7 +196,7 @@ public class SharedEntryServiceUnitTests {
         when(sharedEntryRepository.getByPublicId(sharedEntryAllowAnyone.getPublicId())).thenReturn(Optional.of(sharedEntryAllowAnyone));
         when(encryptionService.decrypt("EncryptedContent")).thenReturn("DecryptedContent");
 
-        Entry accessedEntry = sharedEntryService.accessSharedEntry(nonAllowedUser, sharedEntryAllowAnyone.getPublicId());
+        EntryResponse accessedEntry = sharedEntryService.accessSharedEntry(nonAllowedUser, sharedEntryAllowAnyone.getPublicId());
 
         assertNotNull(accessedEntry);
         assertEquals(entry.getId(), accessedEntry.getId());
@@ -228,7 +231,7 @@ public class SharedEntryServiceUnitTests {
 
     @Test
     void removeSharedEntry_Success() {
-        when(entryRepository.findById(entry.getId())).thenReturn(Optional.of(entry));
+        when(entryRepository.findByIdAndUser(entry.getId(), ownerUser)).thenReturn(Optional.of(entry));
         when(sharedEntryRepository.getAllByEntry(entry)).thenReturn(List.of(sharedEntry));
 
         assertDoesNotThrow(() -> sharedEntryService.removeSharedEntry(ownerUser, entry.getId()));
@@ -238,7 +241,8 @@ public class SharedEntryServiceUnitTests {
 
     @Test
     void removeSharedEntry_EntryNotFound() {
-        when(entryRepository.findById(99L)).thenReturn(Optional.empty());
+        when(entryRepository.findByIdAndUser(99L, ownerUser)).thenReturn(Optional.empty());
+        when(entryRepository.existsById(99L)).thenReturn(false);
 
         ApplicationException exception = assertThrows(ApplicationException.class, () -> {
             sharedEntryService.removeSharedEntry(ownerUser, 99L);
@@ -250,7 +254,8 @@ public class SharedEntryServiceUnitTests {
 
     @Test
     void removeSharedEntry_NotYourEntry() {
-        when(entryRepository.findById(entry.getId())).thenReturn(Optional.of(entry));
+        when(entryRepository.findByIdAndUser(entry.getId(), nonAllowedUser)).thenReturn(Optional.empty());
+        when(entryRepository.existsById(entry.getId())).thenReturn(true);
 
         ApplicationException exception = assertThrows(ApplicationException.class, () -> {
             sharedEntryService.removeSharedEntry(nonAllowedUser, entry.getId());
@@ -0,0 +1,63 @@
+package dev.rubric.journalspring.service;
+
+import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.response.SuggestionResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SuggestionCacheUnitTests {
+
+    private SuggestionCache suggestionCache;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        suggestionCache = new SuggestionCache(10, 10, Duration.ofMinutes(1));
+        user = new User();
+        user.setId(1L);
+    }
+
+    @Test
+    void invalidate_InTransaction_DropsResultsOnlyOnCommit() {
+        List<SuggestionResponse> suggestions = List.of();
+        suggestionCache.put(user, "mor", suggestions);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            suggestionCache.invalidate(user);
+
+            assertEquals(suggestions, suggestionCache.get(user, "mor"));
+
+            // Cached by a concurrent request before the commit
+            suggestionCache.put(user, "mo", suggestions);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNull(suggestionCache.get(user, "mor"));
+        assertNull(suggestionCache.get(user, "mo"));
+    }
+
+    @Test
+    void invalidate_RolledBack_KeepsResults() {
+        List<SuggestionResponse> suggestions = List.of();
+        suggestionCache.put(user, "mor", suggestions);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            suggestionCache.invalidate(user);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(suggestions, suggestionCache.get(user, "mor"));
+    }
+}
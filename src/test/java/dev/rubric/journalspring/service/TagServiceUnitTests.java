@@ -0,0 +1,82 @@
+package dev.rubric.journalspring.service;
+
+import dev.rubric.journalspring.models.Tag;
+import dev.rubric.journalspring.repository.TagRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TagServiceUnitTests {
+
+    @Mock
+    TagRepository tagRepository;
+
+    @Mock
+    EntityManager entityManager;
+
+    @InjectMocks
+    TagService tagService;
+
+    private Tag tag(Long id, String name) {
+        Tag tag = new Tag(name);
+        ReflectionTestUtils.setField(tag, "id", id);
+        return tag;
+    }
+
+    @Test
+    void getAllTagNames_LoadsDictionaryOnce() {
+        when(tagRepository.findAll()).thenReturn(List.of(tag(1L, "Family"), tag(2L, "Music")));
+
+        assertEquals(List.of("Family", "Music"), tagService.getAllTagNames());
+        assertEquals(List.of("Family", "Music"), tagService.getAllTagNames());
+
+        verify(tagRepository, times(1)).findAll();
+    }
+
+    @Test
+    void resolveTags_ReturnsReferencesForKnownNames() {
+        ReflectionTestUtils.setField(tagService, "entityManager", entityManager);
+        Tag family = tag(1L, "Family");
+
+        when(tagRepository.findAll()).thenReturn(List.of(family, tag(2L, "Music")));
+        when(entityManager.getReference(Tag.class, 1L)).thenReturn(family);
+
+        Set<Tag> tags = tagService.resolveTags(List.of("Family", "Unknown"));
+
+        assertEquals(Set.of(family), tags);
+        verify(tagRepository, never()).findByName(any());
+    }
+
+    @Test
+    void findTagId_UnknownName() {
+        when(tagRepository.findAll()).thenReturn(List.of(tag(1L, "Family")));
+
+        assertEquals(Optional.of(1L), tagService.findTagId("Family"));
+        assertTrue(tagService.findTagId("family").isEmpty());
+    }
+
+    @Test
+    void refresh_PicksUpNewTags() {
+        when(tagRepository.findAll())
+                .thenReturn(List.of(tag(1L, "Family")))
+                .thenReturn(List.of(tag(1L, "Family"), tag(2L, "Music")));
+
+        assertEquals(Set.of(1L), tagService.resolveTagIds(List.of("Family", "Music")));
+
+        tagService.refresh();
+
+        assertEquals(Set.of(1L, 2L), tagService.resolveTagIds(List.of("Family", "Music")));
+    }
+}
@@ -0,0 +1,93 @@
+package dev.rubric.journalspring.service;
+
+import dev.rubric.journalspring.enums.TokenProfile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenGeneratorServiceUnitTests {
+
+    private TokenGeneratorService tokenGeneratorService;
+
+    @BeforeEach
+    void setUp() {
+        tokenGeneratorService = new TokenGeneratorService();
+        ReflectionTestUtils.setField(tokenGeneratorService, "tokenSecret", "testTokenSecret");
+        ReflectionTestUtils.setField(tokenGeneratorService, "tokenSalt", "testTokenSalt");
+    }
+
+    @Test
+    void generateSearchTokens_PrefixProfile() {
+        List<String> tokens = tokenGeneratorService.generateSearchTokens("Morning walk");
+
+        // 2 words, prefixes mor/morn/morni/mornin/morning and wal/walk, one 2-gram
+        assertEquals(10, tokens.size());
+        assertTrue(tokens.contains(tokenGeneratorService.encryptToken("prefix:morn")));
+        assertTrue(tokens.contains(tokenGeneratorService.encryptToken("ngram:morning walk")));
+        assertFalse(tokens.contains(tokenGeneratorService.encryptToken("trigram:orn")));
+    }
+
+    @Test
+    void generateSearchTokens_TrigramProfile() {
+        ReflectionTestUtils.setField(tokenGeneratorService, "profile", TokenProfile.TRIGRAM);
+
+        List<String> tokens = tokenGeneratorService.generateSearchTokens("Morning walk");
+
+        // 2 words, trigrams mor/orn/rni/nin/ing and wal/alk
+        assertEquals(9, tokens.size());
+        assertEquals(tokenGeneratorService.encryptToken("morning"), tokens.get(0));
+        assertTrue(tokens.contains(tokenGeneratorService.encryptToken("trigram:orn")));
+        assertFalse(tokens.contains(tokenGeneratorService.encryptToken("prefix:morn")));
+        assertFalse(tokens.contains(tokenGeneratorService.encryptToken("ngram:morning walk")));
+    }
+
+    @Test
+    void processSearchQuery_TrigramProfileMatchesIndexedTrigrams() {
+        ReflectionTestUtils.setField(tokenGeneratorService, "profile", TokenProfile.TRIGRAM);
+
+        List<String> indexed = tokenGeneratorService.generateSearchTokens("Meditation before breakfast");
+        List<String> query = tokenGeneratorService.processSearchQuery("medit");
+
+        assertTrue(indexed.containsAll(query.subList(1, query.size())));
+        assertFalse(indexed.contains(query.get(0)));
+    }
+
+    @Test
+    void generatePrefixQueryTokens_MatchIndexedTokens() {
+        List<String> indexed = tokenGeneratorService.generateSearchTokens("Morning walk by the river");
+
+        List<String> query = tokenGeneratorService.generatePrefixQueryTokens("Morning riv");
+
+        assertEquals(2, query.size());
+        assertTrue(indexed.containsAll(query));
+    }
+
+    @Test
+    void generatePrefixQueryTokens_TrigramProfileMatchIndexedTokens() {
+        ReflectionTestUtils.setField(tokenGeneratorService, "profile", TokenProfile.TRIGRAM);
+
+        List<String> indexed = tokenGeneratorService.generateSearchTokens("Meditation before breakfast");
+
+        List<String> query = tokenGeneratorService.generatePrefixQueryTokens("medit");
+
+        // med/edi/dit
+        assertEquals(3, query.size());
+        assertTrue(indexed.containsAll(query));
+    }
+
+    @Test
+    void generatePrefixQueryTokens_ShortLastWord() {
+        assertTrue(tokenGeneratorService.generatePrefixQueryTokens("morning w").isEmpty());
+        assertTrue(tokenGeneratorService.generatePrefixQueryTokens(null).isEmpty());
+    }
+
+    @Test
+    void generateSearchTokens_EmptyText() {
+        assertTrue(tokenGeneratorService.generateSearchTokens("   ").isEmpty());
+        assertTrue(tokenGeneratorService.generateSearchTokens(null).isEmpty());
+    }
+}
@@ -0,0 +1,174 @@
+package dev.rubric.journalspring.service;
+
+import dev.rubric.journalspring.enums.TokenProfile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Measures the index size and recall@10 of the tokenization profiles, the
+ * numbers in the README. Ranks entries like {@link SearchService#search} and
+ * compares the top 10 with plain substring matching of the query words.
+ * Only runs when given a corpus, the README numbers use the usr_*.txt files
+ * of the Vim 9.0 user manual:
+ * <pre>
+ * mvn test -Dtest=TokenProfileRecallTests -Dsearch.recall.corpus=/usr/share/vim/vim90/doc
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "search.recall.corpus", matches = ".+")
+public class TokenProfileRecallTests {
+    private static final String TITLE = "Entry title";
+    private static final int QUERIES = 600;
+    private static final int TOP = 10;
+
+    @Test
+    void measureProfiles() throws IOException {
+        List<String> entries = loadEntries(Paths.get(System.getProperty("search.recall.corpus")));
+        long words = entries.stream().mapToLong(entry -> entry.split("\\s+").length).sum();
+
+        System.out.printf("%d entries, %d words%n", entries.size(), words);
+        System.out.println("| Profile | Cap  | Rows per word | Largest entry | Prefix query | Word query | Two-word query |");
+        measure(entries, words, TokenProfile.PREFIX, 0);
+        measure(entries, words, TokenProfile.TRIGRAM, 0);
+        measure(entries, words, TokenProfile.TRIGRAM, 1000);
+    }
+
+    /**
+     * Splits the usr_*.txt files of the directory into entries of 80-500
+     * words, one in 25 is 3000 words long. Punctuation and digits are dropped.
+     */
+    private List<String> loadEntries(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.list(directory)) {
+            files = paths.filter(path -> path.getFileName().toString().startsWith("usr_")).sorted().toList();
+        }
+
+        List<String> entries = new ArrayList<>();
+        Random random = new Random(1);
+        for (Path file : files) {
+            String[] words = Files.readString(file).replaceAll("[^A-Za-z\\s]", " ").trim().split("\\s+");
+            int start = 0;
+            while (start < words.length) {
+                int length = 80 + random.nextInt(420);
+                if (random.nextInt(25) == 0) {
+                    length = 3000;
+                }
+                entries.add(String.join(" ", Arrays.copyOfRange(words, start, Math.min(words.length, start + length))));
+                start += length;
+            }
+        }
+        return entries;
+    }
+
+    private void measure(List<String> entries, long words, TokenProfile profile, int maxTokens) {
+        TokenGeneratorService tokenGeneratorService = new TokenGeneratorService();
+        ReflectionTestUtils.setField(tokenGeneratorService, "tokenSecret", "testTokenSecret");
+        ReflectionTestUtils.setField(tokenGeneratorService, "tokenSalt", "testTokenSalt");
+        ReflectionTestUtils.setField(tokenGeneratorService, "profile", profile);
+        ReflectionTestUtils.setField(tokenGeneratorService, "maxTokensPerEntry", maxTokens);
+
+        // Same tokens as SearchService.generateEntryTokens, title first and capped
+        List<Set<String>> index = new ArrayList<>();
+        long rows = 0;
+        int largest = 0;
+        for (String entry : entries) {
+            Set<String> tokens = new LinkedHashSet<>(tokenGeneratorService.generateSearchTokens(TITLE));
+            tokens.addAll(tokenGeneratorService.generateSearchTokens(entry));
+            if (maxTokens > 0 && tokens.size() > maxTokens) {
+                tokens = new LinkedHashSet<>(new ArrayList<>(tokens).subList(0, maxTokens));
+            }
+            index.add(tokens);
+            rows += tokens.size();
+            largest = Math.max(largest, tokens.size());
+        }
+
+        List<String> vocabulary = new ArrayList<>();
+        for (String entry : entries) {
+            for (String word : entry.toLowerCase().split("\\s+")) {
+                if (word.length() >= 4) {
+                    vocabulary.add(word);
+                }
+            }
+        }
+
+        // Prefix, word and two-word queries in turn
+        double[] recall = new double[3];
+        int[] queries = new int[3];
+        Random random = new Random(7);
+        for (int i = 0; i < QUERIES; i++) {
+            String word = vocabulary.get(random.nextInt(vocabulary.size()));
+            int kind = i % 3;
+            String query = switch (kind) {
+                case 0 -> word.substring(0, Math.min(word.length(), 3 + random.nextInt(4)));
+                case 1 -> word;
+                default -> word + " " + vocabulary.get(random.nextInt(vocabulary.size()));
+            };
+
+            Set<Integer> relevant = substringMatches(entries, query);
+            if (relevant.isEmpty()) {
+                continue;
+            }
+
+            List<Integer> ranked = rank(index, tokenGeneratorService.processSearchQuery(query));
+            int hits = 0;
+            for (int j = 0; j < Math.min(TOP, ranked.size()); j++) {
+                if (relevant.contains(ranked.get(j))) {
+                    hits++;
+                }
+            }
+            recall[kind] += (double) hits / Math.min(TOP, relevant.size());
+            queries[kind]++;
+        }
+
+        System.out.printf("| %-7s | %-4d | %-13.2f | %-13d | %-12.3f | %-10.3f | %-14.3f |%n",
+                profile, maxTokens, (double) rows / words, largest,
+                recall[0] / queries[0], recall[1] / queries[1], recall[2] / queries[2]);
+    }
+
+    /**
+     * Entries containing a word starting with each query word
+     */
+    private Set<Integer> substringMatches(List<String> entries, String query) {
+        Set<Integer> matches = new HashSet<>();
+        for (int i = 0; i < entries.size(); i++) {
+            String entry = " " + entries.get(i).toLowerCase() + " ";
+            if (Arrays.stream(query.split(" ")).allMatch(word -> entry.contains(" " + word))) {
+                matches.add(i);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Entries matching any query token, most matching tokens first
+     */
+    private List<Integer> rank(List<Set<String>> index, List<String> queryTokens) {
+        Map<Integer, Integer> matches = new HashMap<>();
+        for (int i = 0; i < index.size(); i++) {
+            Set<String> tokens = index.get(i);
+            int count = (int) queryTokens.stream().filter(tokens::contains).count();
+            if (count > 0) {
+                matches.put(i, count);
+            }
+        }
+
+        List<Integer> ranked = new ArrayList<>(matches.keySet());
+        ranked.sort((a, b) -> matches.get(b) - matches.get(a));
+        return ranked;
+    }
+}
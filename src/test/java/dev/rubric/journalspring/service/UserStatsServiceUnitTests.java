@@ -0,0 +1,304 @@
+package dev.rubric.journalspring.service;
+
+import dev.rubric.journalspring.models.Entry;
+import dev.rubric.journalspring.models.Folder;
+import dev.rubric.journalspring.models.FolderStats;
+import dev.rubric.journalspring.models.Tag;
+import dev.rubric.journalspring.models.User;
+import dev.rubric.journalspring.models.UserStats;
+import dev.rubric.journalspring.models.UserTagStats;
+import dev.rubric.journalspring.repository.EntryRepository;
+import dev.rubric.journalspring.repository.EntryRepository.EntryTotals;
+import dev.rubric.journalspring.repository.EntryRepository.IdCount;
+import dev.rubric.journalspring.repository.FolderStatsRepository;
+import dev.rubric.journalspring.repository.UserRepository;
+import dev.rubric.journalspring.repository.UserStatsRepository;
+import dev.rubric.journalspring.repository.UserTagStatsRepository;
+import dev.rubric.journalspring.response.UserStatsResponse;
+import dev.rubric.journalspring.service.UserStatsService.EntryStatsSnapshot;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserStatsServiceUnitTests {
+
+    @Mock
+    private UserStatsRepository userStatsRepository;
+
+    @Mock
+    private UserTagStatsRepository userTagStatsRepository;
+
+    @Mock
+    private FolderStatsRepository folderStatsRepository;
+
+    @Mock
+    private EntryRepository entryRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private UserStatsService userStatsService;
+
+    private User user;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userStatsService, "entityManager", entityManager);
+        user = new User();
+        user.setId(1L);
+        today = LocalDate.now();
+    }
+
+    private UserStats stats(int currentStreak, int longestStreak, LocalDate lastJournalDate) {
+        UserStats stats = new UserStats(user);
+        stats.setEntryCount(5);
+        stats.setWordCount(500);
+        stats.setCurrentStreak(currentStreak);
+        stats.setLongestStreak(longestStreak);
+        stats.setLastJournalDate(lastJournalDate);
+        return stats;
+    }
+
+    private EntryStatsSnapshot snapshot(int wordCount, LocalDate journalDate) {
+        return new EntryStatsSnapshot(wordCount, null, Set.of(), journalDate);
+    }
+
+    @Test
+    void recordCreated_NextDay_ExtendsStreak() {
+        UserStats stats = stats(3, 3, today.minusDays(1));
+        when(userStatsRepository.lockByUserId(1L)).thenReturn(Optional.of(stats));
+        when(entryRepository.countByUserAndJournalDate(user, today)).thenReturn(1L);
+
+        Entry entry = new Entry(user, null, "title", "content", new HashSet<>(), 120);
+        entry.setJournalDate(today);
+
+        userStatsService.recordCreated(user, entry);
+
+        assertEquals(6, stats.getEntryCount());
+        assertEquals(620, stats.getWordCount());
+        assertEquals(4, stats.getCurrentStreak());
+        assertEquals(4, stats.getLongestStreak());
+        assertEquals(today, stats.getLastJournalDate());
+        verify(userRepository).updateStreak(1L, 4);
+        verify(entryRepository, never()).findJournalDatesByUser(any());
+    }
+
+    @Test
+    void recordDeleted_OtherEntriesOnSameDay_KeepsStreak() {
+        UserStats stats = stats(2, 6, today);
+        when(userStatsRepository.lockByUserId(1L)).thenReturn(Optional.of(stats));
+        when(entryRepository.countByUserAndJournalDate(user, today)).thenReturn(1L);
+
+        userStatsService.recordDeleted(user, snapshot(100, today));
+
+        assertEquals(4, stats.getEntryCount());
+        assertEquals(400, stats.getWordCount());
+        assertEquals(2, stats.getCurrentStreak());
+        assertEquals(6, stats.getLongestStreak());
+        verify(entryRepository, never()).findJournalDatesByUser(any());
+        verify(userRepository, never()).updateStreak(any(), anyInt());
+        verify(userStatsRepository).save(stats);
+    }
+
+    @Test
+    void recordDeleted_LastEntryOfDay_RecomputesStreaks() {
+        UserStats stats = stats(3, 3, today);
+        when(userStatsRepository.lockByUserId(1L)).thenReturn(Optional.of(stats));
+        when(entryRepository.countByUserAndJournalDate(user, today.minusDays(1))).thenReturn(0L);
+        when(entryRepository.findJournalDatesByUser(user))
+                .thenReturn(List.of(today.minusDays(2), today));
+
+        userStatsService.recordDeleted(user, snapshot(10, today.minusDays(1)));
+
+        assertEquals(1, stats.getCurrentStreak());
+        assertEquals(1, stats.getLongestStreak());
+        assertEquals(today, stats.getLastJournalDate());
+        verify(userRepository).updateStreak(1L, 1);
+    }
+
+    @Test
+    void recordUpdated_UnchangedSnapshot_DoesNothing() {
+        EntryStatsSnapshot snapshot = snapshot(10, today);
+
+        userStatsService.recordUpdated(user, snapshot, snapshot);
+
+        verifyNoInteractions(userStatsRepository, userTagStatsRepository, folderStatsRepository, entryRepository);
+    }
+
+    @Test
+    void recordUpdated_AddedTag_CreatesTagCounter() {
+        UserStats stats = stats(1, 1, today);
+        Tag tag = new Tag("work");
+        when(userStatsRepository.lockByUserId(1L)).thenReturn(Optional.of(stats));
+        when(userTagStatsRepository.findByUserIdAndTagIdIn(1L, Set.of(7L))).thenReturn(List.of());
+        when(entityManager.getReference(Tag.class, 7L)).thenReturn(tag);
+
+        userStatsService.recordUpdated(user,
+                new EntryStatsSnapshot(10, null, Set.of(), today),
+                new EntryStatsSnapshot(10, null, Set.of(7L), today));
+
+        ArgumentCaptor<UserTagStats> captor = ArgumentCaptor.forClass(UserTagStats.class);
+        verify(userTagStatsRepository).save(captor.capture());
+        assertEquals(tag, captor.getValue().getTag());
+        assertEquals(1, captor.getValue().getEntryCount());
+        assertEquals(5, stats.getEntryCount());
+    }
+
+    @Test
+    void recordDeleted_WithoutStatsRow_RebuildsFromEntries() {
+        EntryTotals totals = mock(EntryTotals.class);
+        when(totals.getEntryCount()).thenReturn(3L);
+        when(totals.getWordCount()).thenReturn(90L);
+        when(userStatsRepository.lockByUserId(1L)).thenReturn(Optional.empty());
+        when(entryRepository.findTotalsByUser(user)).thenReturn(totals);
+        when(entryRepository.findJournalDatesByUser(user))
+                .thenReturn(List.of(today.minusDays(5), today.minusDays(1), today));
+        when(entryRepository.countByTagForUser(user)).thenReturn(List.of());
+        when(entryRepository.countByFolderForUser(user)).thenReturn(List.of());
+
+        userStatsService.recordDeleted(user, snapshot(10, today));
+
+        ArgumentCaptor<UserStats> captor = ArgumentCaptor.forClass(UserStats.class);
+        verify(userStatsRepository).save(captor.capture());
+        UserStats saved = captor.getValue();
+        assertEquals(3, saved.getEntryCount());
+        assertEquals(90, saved.getWordCount());
+        assertEquals(2, saved.getCurrentStreak());
+        assertEquals(2, saved.getLongestStreak());
+        verify(userTagStatsRepository).deleteAllByUserId(1L);
+        verify(folderStatsRepository).deleteAllByUserId(1L);
+        verify(userRepository).updateStreak(1L, 2);
+        // Waited on the user row in case a concurrent write was creating the stats row
+        verify(userRepository).lockById(1L);
+        verify(userStatsRepository, times(2)).lockByUserId(1L);
+    }
+
+    @Test
+    void recordDeleted_StatsRowCreatedConcurrently_AppliesDelta() {
+        UserStats stats = stats(2, 6, today);
+        when(userStatsRepository.lockByUserId(1L)).thenReturn(Optional.empty(), Optional.of(stats));
+        when(entryRepository.countByUserAndJournalDate(user, today)).thenReturn(1L);
+
+        userStatsService.recordDeleted(user, snapshot(100, today));
+
+        assertEquals(4, stats.getEntryCount());
+        assertEquals(400, stats.getWordCount());
+        verify(userRepository).lockById(1L);
+        verify(entryRepository, never()).findTotalsByUser(any());
+        verify(userStatsRepository).save(stats);
+    }
+
+    @Test
+    void recordTagsAdded_CountsEntriesWithoutTheTag() {
+        UserStats stats = stats(1, 1, today);
+        Tag tag = new Tag("work");
+        UserTagStats tagStats = new UserTagStats(user, tag);
+        tagStats.setEntryCount(4);
+        ReflectionTestUtils.setField(tag, "id", 7L);
+        List<IdCount> tagged = List.of(idCount(7L, 1L));
+        when(userStatsRepository.lockByUserId(1L)).thenReturn(Optional.of(stats));
+        when(entryRepository.countByTagForEntries(user, Set.of(10L, 11L, 12L), Set.of(7L))).thenReturn(tagged);
+        when(userTagStatsRepository.findByUserIdAndTagIdIn(1L, Set.of(7L))).thenReturn(List.of(tagStats));
+
+        userStatsService.recordTagsAdded(user, Set.of(10L, 11L, 12L), Set.of(7L));
+
+        assertEquals(6, tagStats.getEntryCount());
+        verify(userTagStatsRepository).save(tagStats);
+        verify(entryRepository, never()).countByTagForUser(any());
+    }
+
+    @Test
+    void recordMovedToFolder_MovesCountsBetweenFolders() {
+        UserStats stats = stats(1, 1, today);
+        Folder source = new Folder();
+        source.setId(3L);
+        Folder target = new Folder();
+        target.setId(4L);
+        FolderStats sourceStats = new FolderStats(source, user);
+        sourceStats.setEntryCount(2);
+        ReflectionTestUtils.setField(sourceStats, "id", 30L);
+        List<IdCount> byFolder = List.of(idCount(3L, 2L), idCount(4L, 1L));
+        when(userStatsRepository.lockByUserId(1L)).thenReturn(Optional.of(stats));
+        when(entryRepository.countByFolderForEntries(user, Set.of(10L, 11L, 12L))).thenReturn(byFolder);
+        when(folderStatsRepository.findByFolderIdIn(Set.of(3L, 4L))).thenReturn(List.of(sourceStats));
+        when(entityManager.getReference(Folder.class, 4L)).thenReturn(target);
+
+        userStatsService.recordMovedToFolder(user, Set.of(10L, 11L, 12L), 4L);
+
+        ArgumentCaptor<FolderStats> captor = ArgumentCaptor.forClass(FolderStats.class);
+        verify(folderStatsRepository).save(captor.capture());
+        assertEquals(target, captor.getValue().getFolder());
+        assertEquals(2, captor.getValue().getEntryCount());
+        verify(folderStatsRepository).delete(sourceStats);
+    }
+
+    @Test
+    void recordEntriesDeleted_AppliesSetBasedDeltas() {
+        UserStats stats = stats(3, 3, today);
+        EntryTotals totals = mock(EntryTotals.class);
+        when(totals.getEntryCount()).thenReturn(2L);
+        when(totals.getWordCount()).thenReturn(150L);
+        when(userStatsRepository.lockByUserId(1L)).thenReturn(Optional.of(stats));
+        when(entryRepository.findTotalsByUserAndIdIn(user, Set.of(10L, 11L))).thenReturn(totals);
+        when(entryRepository.countByTagForEntries(user, Set.of(10L, 11L))).thenReturn(List.of());
+        when(entryRepository.countByFolderForEntries(user, Set.of(10L, 11L))).thenReturn(List.of());
+        when(entryRepository.findJournalDatesByUserExcluding(user, Set.of(10L, 11L)))
+                .thenReturn(List.of(today.minusDays(2), today.minusDays(1)));
+
+        userStatsService.recordEntriesDeleted(user, Set.of(10L, 11L));
+
+        assertEquals(3, stats.getEntryCount());
+        assertEquals(350, stats.getWordCount());
+        assertEquals(2, stats.getCurrentStreak());
+        assertEquals(today.minusDays(1), stats.getLastJournalDate());
+        verify(userRepository).updateStreak(1L, 2);
+        verify(userStatsRepository).save(stats);
+        verify(entryRepository, never()).findTotalsByUser(any());
+    }
+
+    private static IdCount idCount(Long id, Long entryCount) {
+        IdCount count = mock(IdCount.class);
+        when(count.getId()).thenReturn(id);
+        when(count.getEntryCount()).thenReturn(entryCount);
+        return count;
+    }
+
+    @Test
+    void getStats_StaleStreak_ReportsZero() {
+        UserStats stats = stats(4, 9, today.minusDays(3));
+        when(userStatsRepository.findByUserId(1L)).thenReturn(Optional.of(stats));
+        when(userTagStatsRepository.findTagCountsByUserId(1L)).thenReturn(List.of());
+        when(folderStatsRepository.findFolderCountsByUserId(1L)).thenReturn(List.of());
+
+        UserStatsResponse response = userStatsService.getStats(user);
+
+        assertEquals(5, response.getTotalEntries());
+        assertEquals(500, response.getTotalWords());
+        assertEquals(0, response.getCurrentStreak());
+        assertEquals(9, response.getLongestStreak());
+        verifyNoInteractions(entryRepository);
+    }
+}